@@ -412,6 +412,7 @@ class GraalTags:
     test = ['test', 'fulltest']
     benchmarktest = ['benchmarktest', 'fulltest']
     ctw = ['ctw', 'fulltest']
+    traceraparallel = ['traceraparallel', 'fulltest']
     doc = ['javadoc']
 
 def _remove_empty_entries(a):
@@ -622,6 +623,8 @@ def compiler_gate_runner(suites, unit_test_runs, bootstrap_tests, tasks, extraVM
 
 graal_unit_test_runs = [
     UnitTestRun('UnitTests', [], tags=GraalTags.test),
+    UnitTestRun('UnitTestsTraceRAParallel', ['-Dgraal.TraceRA=true', '-Dgraal.TraceRAParallel=true', '-Dgraal.TraceRAParallelMinTraces=1', '-Dgraal.TraceRAParallelism=4',
+                                             'org.graalvm.compiler.jtt', 'org.graalvm.compiler.core.test.backend'], tags=GraalTags.traceraparallel),
 ]
 
 _registers = {
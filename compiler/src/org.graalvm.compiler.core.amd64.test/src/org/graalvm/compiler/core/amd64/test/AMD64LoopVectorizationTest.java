@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.amd64.test;
+
+import static org.junit.Assume.assumeTrue;
+
+import org.graalvm.compiler.core.amd64.AMD64ArrayArithmeticNode;
+import org.graalvm.compiler.core.amd64.AMD64LoopVectorizationPhase;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+
+public class AMD64LoopVectorizationTest extends GraalCompilerTest {
+
+    @Before
+    public void checkAMD64() {
+        assumeTrue("skipping AMD64 specific test", getTarget().arch instanceof AMD64);
+    }
+
+    private OptionValues vectorize() {
+        return new OptionValues(getInitialOptions(), AMD64LoopVectorizationPhase.Options.VectorizeArrayLoops, true);
+    }
+
+    public static int[] intAdd(int[] x, int[] y, int n) {
+        int[] dst = new int[x.length];
+        for (int i = 0; i < n; i++) {
+            dst[i] = x[i] + y[i];
+        }
+        return dst;
+    }
+
+    public static int[] intMulInPlace(int[] x, int[] y, int start, int n) {
+        for (int i = start; i < n; i++) {
+            x[i] = x[i] * y[i];
+        }
+        return x;
+    }
+
+    public static long[] longXor(long[] x, long[] y, int n) {
+        long[] dst = new long[x.length];
+        for (int i = 0; i < n; i++) {
+            dst[i] = x[i] ^ y[i];
+        }
+        return dst;
+    }
+
+    public static float[] floatSub(float[] x, float[] y, int n) {
+        float[] dst = new float[x.length];
+        for (int i = 0; i < n; i++) {
+            dst[i] = x[i] - y[i];
+        }
+        return dst;
+    }
+
+    public static double[] doubleMul(double[] x, double[] y, int n) {
+        double[] dst = new double[x.length];
+        for (int i = 0; i < n; i++) {
+            dst[i] = x[i] * y[i];
+        }
+        return dst;
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 - 7;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0x9E3779B97F4A7C15L;
+        }
+        return result;
+    }
+
+    private static float[] floats(int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.75f - 3;
+        }
+        return result;
+    }
+
+    private static double[] doubles(int length) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 1.25 - 11;
+        }
+        return result;
+    }
+
+    @Test
+    public void testVectorized() {
+        StructuredGraph graph = parseEager("intAdd", AllowAssumptions.NO);
+        new AMD64LoopVectorizationPhase().apply(graph, getDefaultHighTierContext());
+        Assert.assertEquals(1, graph.getNodes().filter(AMD64ArrayArithmeticNode.class).count());
+    }
+
+    @Test
+    public void testInt() {
+        OptionValues options = vectorize();
+        for (int length : new int[]{0, 1, 7, 8, 9, 31, 100, 1001}) {
+            test(options, "intAdd", ints(length), ints(length + 3), length);
+            test(options, "intMulInPlace", ints(length), ints(length), length / 3, length);
+        }
+    }
+
+    @Test
+    public void testLong() {
+        OptionValues options = vectorize();
+        for (int length : new int[]{0, 1, 3, 4, 5, 17, 100}) {
+            test(options, "longXor", longs(length), longs(length), length);
+        }
+    }
+
+    @Test
+    public void testFloatingPoint() {
+        OptionValues options = vectorize();
+        for (int length : new int[]{0, 1, 7, 8, 9, 31, 100}) {
+            test(options, "floatSub", floats(length), floats(length), length);
+            test(options, "doubleMul", doubles(length), doubles(length), length);
+        }
+    }
+
+    @Test
+    public void testExceptions() {
+        OptionValues options = vectorize();
+        test(options, "intAdd", ints(10), ints(5), 10);
+        test(options, "intAdd", ints(10), null, 10);
+        test(options, "intMulInPlace", ints(10), ints(10), -1, 10);
+        test(options, "intMulInPlace", ints(10), ints(10), 0, 11);
+    }
+}
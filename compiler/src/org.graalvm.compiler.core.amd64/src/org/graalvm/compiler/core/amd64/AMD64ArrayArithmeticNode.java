@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.State;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayArithmeticOp.ArithmeticOperation;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Computes {@code dst[i] = x[i] op y[i]} with vector instructions, starting at index
+ * {@code start}, for as long as {@code i < limit} and all accesses are in bounds. The value of
+ * this node is the first index that was not processed.
+ *
+ * @see AMD64LoopVectorizationPhase
+ */
+@NodeInfo(cycles = CYCLES_UNKNOWN, size = SIZE_128)
+public final class AMD64ArrayArithmeticNode extends FixedWithNextNode implements LIRLowerable, StateSplit, MemoryCheckpoint.Single {
+
+    public static final NodeClass<AMD64ArrayArithmeticNode> TYPE = NodeClass.create(AMD64ArrayArithmeticNode.class);
+
+    protected final JavaKind kind;
+    protected final ArithmeticOperation operation;
+
+    @Input ValueNode dst;
+    @Input ValueNode x;
+    @Input ValueNode y;
+    @Input ValueNode start;
+    @Input ValueNode limit;
+
+    @OptionalInput(State) FrameState stateAfter;
+
+    public AMD64ArrayArithmeticNode(JavaKind kind, ArithmeticOperation operation, ValueNode dst, ValueNode x, ValueNode y, ValueNode start, ValueNode limit) {
+        super(TYPE, StampFactory.forInteger(32, ((IntegerStamp) start.stamp(NodeView.DEFAULT)).lowerBound(), Integer.MAX_VALUE));
+        this.kind = kind;
+        this.operation = operation;
+        this.dst = dst;
+        this.x = x;
+        this.y = y;
+        this.start = start;
+        this.limit = limit;
+    }
+
+    public JavaKind getKind() {
+        return kind;
+    }
+
+    public ArithmeticOperation getOperation() {
+        return operation;
+    }
+
+    @Override
+    public FrameState stateAfter() {
+        return stateAfter;
+    }
+
+    @Override
+    public void setStateAfter(FrameState state) {
+        assert state == null || state.isAlive() : "frame state must be in a graph";
+        updateUsages(stateAfter, state);
+        stateAfter = state;
+    }
+
+    @Override
+    public boolean hasSideEffect() {
+        return true;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        AMD64LIRGenerator tool = (AMD64LIRGenerator) gen.getLIRGeneratorTool();
+        Value result = tool.emitArrayArithmetic(kind, operation, gen.operand(dst), gen.operand(x), gen.operand(y), gen.operand(start), gen.operand(limit));
+        gen.setResult(this, result);
+    }
+}
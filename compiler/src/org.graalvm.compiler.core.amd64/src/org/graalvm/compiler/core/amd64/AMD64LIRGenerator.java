@@ -64,6 +64,8 @@ import org.graalvm.compiler.lir.SwitchStrategy;
 import org.graalvm.compiler.lir.Variable;
 import org.graalvm.compiler.lir.amd64.AMD64AddressValue;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayArithmeticOp;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayArithmeticOp.ArithmeticOperation;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayCompareToOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayEqualsOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayIndexOfOp;
@@ -548,6 +550,20 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    /**
+     * Emits {@code dst[i] = x[i] op y[i]} for as many indices starting at {@code start} as can be
+     * processed with vector instructions. Returns the first index that was not processed, which is
+     * {@code start} if the target does not support vectorizing this operation.
+     */
+    public Value emitArrayArithmetic(JavaKind kind, ArithmeticOperation operation, Value dst, Value x, Value y, Value start, Value limit) {
+        if (!AMD64ArrayArithmeticOp.isSupported(target(), kind, operation)) {
+            return start;
+        }
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64ArrayArithmeticOp(this, kind, operation, result, asAllocatable(dst), asAllocatable(x), asAllocatable(y), asAllocatable(start), asAllocatable(limit)));
+        return result;
+    }
+
     /**
      * Return a conservative estimate of the page size for use by the String.indexOf intrinsic.
      */
@@ -567,9 +583,13 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
     }
 
     @Override
-    public Variable emitArrayIndexOf(JavaKind kind, Value arrayPointer, Value arrayLength, Value charValue) {
+    public Variable emitArrayIndexOf(JavaKind kind, Value arrayPointer, Value arrayLength, Value... searchValues) {
         Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
-        append(new AMD64ArrayIndexOfOp(kind, getVMPageSize(), this, result, asAllocatable(arrayPointer), asAllocatable(arrayLength), asAllocatable(charValue)));
+        Value[] allocatableSearchValues = new Value[searchValues.length];
+        for (int i = 0; i < searchValues.length; i++) {
+            allocatableSearchValues[i] = asAllocatable(searchValues[i]);
+        }
+        append(new AMD64ArrayIndexOfOp(kind, getVMPageSize(), this, result, asAllocatable(arrayPointer), asAllocatable(arrayLength), allocatableSearchValues));
         return result;
     }
 
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.amd64;
+
+import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayArithmeticOp.ArithmeticOperation;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.PhaseContext;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes simple element-wise array loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     dst[i] = x[i] op y[i];
+ * }
+ * </pre>
+ *
+ * where the arrays are loop invariant and of kind {@code int}, {@code long}, {@code float} or
+ * {@code double}. An {@link AMD64ArrayArithmeticNode} is inserted in front of the loop that
+ * processes as many iterations as possible with vector instructions, and the loop induction
+ * variable is started at the first index it did not process. The original loop therefore remains
+ * as the scalar post-loop, which also takes care of any exceptions that the loop throws.
+ */
+public class AMD64LoopVectorizationPhase extends BasePhase<PhaseContext> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Vectorize simple element-wise array loops using AVX instructions.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> VectorizeArrayLoops = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        for (LoopEx loop : loops.countedLoops()) {
+            if (loop.loop().getChildren().isEmpty()) {
+                tryVectorize(graph, loop);
+            }
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    private static void tryVectorize(StructuredGraph graph, LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        if (loopBegin.phis().count() != 1 || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1 || loopBegin.next() != counted.getLimitTest()) {
+            return;
+        }
+        if (counted.getDirection() != Direction.Up || counted.isLimitIncluded() || counted.getStamp().getBits() != 32) {
+            return;
+        }
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counter.constantStride() != 1) {
+            return;
+        }
+        ValuePhiNode phi = ((BasicInductionVariable) counter).valueNode();
+        if (!(counted.getLimitTest().condition() instanceof CompareNode)) {
+            return;
+        }
+        CompareNode compare = (CompareNode) counted.getLimitTest().condition();
+        if (compare.condition().asCondition() != Condition.LT || compare.getX() != phi || compare.getY() != counted.getLimit() || counted.getLimitTest().trueSuccessor() != counted.getBody()) {
+            return;
+        }
+
+        /* The body must consist of exactly two loads, one store and the loop end. */
+        FixedNode current = counted.getBody().next();
+        if (!(current instanceof LoadIndexedNode)) {
+            return;
+        }
+        LoadIndexedNode load1 = (LoadIndexedNode) current;
+        current = load1.next();
+        if (!(current instanceof LoadIndexedNode)) {
+            return;
+        }
+        LoadIndexedNode load2 = (LoadIndexedNode) current;
+        current = load2.next();
+        if (!(current instanceof StoreIndexedNode)) {
+            return;
+        }
+        StoreIndexedNode store = (StoreIndexedNode) current;
+        if (!(store.next() instanceof LoopEndNode)) {
+            return;
+        }
+
+        JavaKind kind = store.elementKind();
+        if (kind != JavaKind.Int && kind != JavaKind.Long && kind != JavaKind.Float && kind != JavaKind.Double) {
+            return;
+        }
+        if (!isVectorizableAccess(loop, load1, phi, kind) || !isVectorizableAccess(loop, load2, phi, kind) || !isVectorizableAccess(loop, store, phi, kind) || store.getStoreCheck() != null) {
+            return;
+        }
+        if (!(store.value() instanceof BinaryArithmeticNode) || store.value().getUsageCount() != 1 || load1.getUsageCount() != 1 || load2.getUsageCount() != 1) {
+            return;
+        }
+        BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) store.value();
+        ArithmeticOperation operation = getOperation(arithmetic);
+        if (operation == null) {
+            return;
+        }
+        LoadIndexedNode xLoad;
+        LoadIndexedNode yLoad;
+        if (arithmetic.getX() == load1 && arithmetic.getY() == load2) {
+            xLoad = load1;
+            yLoad = load2;
+        } else if (arithmetic.getX() == load2 && arithmetic.getY() == load1) {
+            xLoad = load2;
+            yLoad = load1;
+        } else {
+            return;
+        }
+
+        /*
+         * The vectorized part behaves like the first iterations of the loop, so deoptimizing after
+         * it means continuing at the loop header with the index it stopped at.
+         */
+        FrameState loopState = loopBegin.stateAfter();
+        if (loopState == null || loopState.virtualObjectMappingCount() != 0) {
+            return;
+        }
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+        ValueNode start = phi.valueAt(forwardEnd);
+        AMD64ArrayArithmeticNode vectorized = graph.add(new AMD64ArrayArithmeticNode(kind, operation, store.array(), xLoad.array(), yLoad.array(), start, counted.getLimit()));
+        FrameState state = loopState.duplicate();
+        for (int i = 0; i < state.values().size(); i++) {
+            if (state.values().get(i) == phi) {
+                state.values().set(i, vectorized);
+            }
+        }
+        vectorized.setStateAfter(state);
+        graph.addBeforeFixed(forwardEnd, vectorized);
+        phi.setValueAt(forwardEnd, vectorized);
+        graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "Vectorized %s", loopBegin);
+    }
+
+    private static boolean isVectorizableAccess(LoopEx loop, LoadIndexedNode access, ValuePhiNode phi, JavaKind kind) {
+        return access.elementKind() == kind && access.index() == phi && access.getBoundsCheck() == null && loop.isOutsideLoop(access.array());
+    }
+
+    private static boolean isVectorizableAccess(LoopEx loop, StoreIndexedNode access, ValuePhiNode phi, JavaKind kind) {
+        return access.elementKind() == kind && access.index() == phi && access.getBoundsCheck() == null && loop.isOutsideLoop(access.array());
+    }
+
+    private static ArithmeticOperation getOperation(BinaryArithmeticNode<?> node) {
+        if (node instanceof AddNode) {
+            return ArithmeticOperation.ADD;
+        } else if (node instanceof SubNode) {
+            return ArithmeticOperation.SUB;
+        } else if (node instanceof MulNode) {
+            return ArithmeticOperation.MUL;
+        } else if (node instanceof AndNode) {
+            return ArithmeticOperation.AND;
+        } else if (node instanceof OrNode) {
+            return ArithmeticOperation.OR;
+        } else if (node instanceof XorNode) {
+            return ArithmeticOperation.XOR;
+        }
+        return null;
+    }
+}
@@ -68,7 +68,11 @@ public abstract class AMD64MoveFactoryBase implements MoveFactory {
             this.frameMapBuilder = frameMapBuilder;
         }
 
-        protected RegisterBackupPair getScratchRegister(PlatformKind kind) {
+        /**
+         * Synchronized because the trace register allocator may create stack moves from several
+         * threads that share the spill move factory of a compilation.
+         */
+        protected synchronized RegisterBackupPair getScratchRegister(PlatformKind kind) {
             PlatformKind.Key key = kind.getKey();
             if (categorized == null) {
                 categorized = EconomicMap.create(Equivalence.DEFAULT);
@@ -45,7 +45,9 @@ import org.graalvm.compiler.core.common.cfg.Loop;
  * The machine code generator order includes reordering of loop headers such that the backward jump
  * is a conditional jump if there is only one loop end block. Additionally, the target of loop
  * backward jumps are always marked as aligned. Aligning the target of conditional jumps does not
- * bring a measurable benefit and is therefore avoided to keep the code size small.
+ * bring a measurable benefit and is therefore avoided to keep the code size small. Optionally,
+ * {@linkplain #isColdBlock cold} blocks are moved to the end of the machine code generator order
+ * so that the frequently executed code of a method is contiguous.
  *
  * The linear scan register allocator order has an additional mechanism that prevents merge nodes
  * from being scheduled if there is at least one highly likely predecessor still unscheduled. This
@@ -68,6 +70,12 @@ public final class ComputeBlockOrder {
      */
     private static final int PENALTY_VERSUS_UNSCHEDULED = 10;
 
+    /**
+     * A block is cold if its probability relative to the header of its innermost loop (or the
+     * start block if it is not in a loop) is below this value.
+     */
+    private static final double COLD_BLOCK_RELATIVE_PROBABILITY = 1E-3;
+
     /**
      * Computes the block order used for the linear scan register allocator.
      *
@@ -88,14 +96,60 @@ public final class ComputeBlockOrder {
      * @return sorted list of blocks
      */
     public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock) {
+        return computeCodeEmittingOrder(blockCount, startBlock, false);
+    }
+
+    /**
+     * Computes the block order used for code emission.
+     *
+     * @param splitColdBlocks specifies if {@linkplain #isColdBlock cold} blocks are emitted after
+     *            all other blocks
+     * @return sorted list of blocks
+     */
+    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock, boolean splitColdBlocks) {
         List<T> order = new ArrayList<>();
         BitSet visitedBlocks = new BitSet(blockCount);
         PriorityQueue<T> worklist = initializeWorklist(startBlock, visitedBlocks);
         computeCodeEmittingOrder(order, worklist, visitedBlocks);
+        if (splitColdBlocks) {
+            moveColdBlocksToEnd(order);
+        }
         assert checkOrder(order, blockCount);
         return order.toArray(new AbstractBlockBase<?>[0]);
     }
 
+    /**
+     * Determines if {@code block} is rarely executed compared to the code around it, e.g., an
+     * exception or deoptimization path.
+     */
+    public static boolean isColdBlock(AbstractBlockBase<?> block) {
+        Loop<?> loop = block.getLoop();
+        double reference = loop == null ? 1.0 : loop.getHeader().probability();
+        return block.probability() < COLD_BLOCK_RELATIVE_PROBABILITY * reference;
+    }
+
+    /**
+     * Moves the cold blocks to the end of {@code order}, preserving the relative order of both the
+     * cold and the remaining blocks. Branches between hot and cold blocks are emitted as explicit
+     * jumps, so the order of the blocks does not need to reflect their control flow.
+     */
+    private static <T extends AbstractBlockBase<T>> void moveColdBlocksToEnd(List<T> order) {
+        List<T> coldBlocks = new ArrayList<>();
+        int hotBlocks = 0;
+        for (T block : order) {
+            if (block.getPredecessorCount() != 0 && isColdBlock(block)) {
+                // aligning cold loop headers only increases the code size
+                block.setAlign(false);
+                coldBlocks.add(block);
+            } else {
+                order.set(hotBlocks++, block);
+            }
+        }
+        for (T block : coldBlocks) {
+            order.set(hotBlocks++, block);
+        }
+    }
+
     /**
      * Iteratively adds paths to the code emission block order.
      */
@@ -111,8 +111,11 @@ public class RegisterAllocationConfig {
     /**
      * Gets the set of registers that can be used by the register allocator for a value of a
      * particular kind.
+     *
+     * Synchronized because the trace register allocator may allocate several traces of a
+     * compilation concurrently.
      */
-    public AllocatableRegisters getAllocatableRegisters(PlatformKind kind) {
+    public synchronized AllocatableRegisters getAllocatableRegisters(PlatformKind kind) {
         PlatformKind.Key key = kind.getKey();
         if (categorized.containsKey(key)) {
             AllocatableRegisters val = categorized.get(key);
@@ -150,7 +153,7 @@ public class RegisterAllocationConfig {
     /**
      * Gets the set of registers that can be used by the register allocator.
      */
-    public RegisterArray getAllocatableRegisters() {
+    public synchronized RegisterArray getAllocatableRegisters() {
         if (cachedRegisters == null) {
             cachedRegisters = initAllocatable(registerConfig.getAllocatableRegisters());
         }
@@ -31,4 +31,6 @@ public interface ArrayOffsetProvider {
     int arrayBaseOffset(JavaKind elementKind);
 
     int arrayScalingFactor(JavaKind elementKind);
+
+    int arrayLengthOffset();
 }
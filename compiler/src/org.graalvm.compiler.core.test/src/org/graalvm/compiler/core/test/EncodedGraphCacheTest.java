@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.nodes.EncodedGraphCache;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class EncodedGraphCacheTest extends GraalCompilerTest {
+
+    public static int snippet1(int a, int b) {
+        int result = 0;
+        for (int i = a; i < b; i++) {
+            result += i * a;
+        }
+        return result;
+    }
+
+    public static String snippet2(Object o) {
+        return o == null ? "null" : o.toString();
+    }
+
+    private StructuredGraph emptyGraph(ResolvedJavaMethod method) {
+        return new StructuredGraph.Builder(getInitialOptions(), getDebugContext(), AllowAssumptions.YES).method(method).build();
+    }
+
+    @Test
+    public void testHit() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet1");
+        StructuredGraph original = parseEager(method, AllowAssumptions.YES);
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, 1 << 20);
+        cache.put(method, "config", original);
+        Assert.assertEquals(1, cache.size());
+
+        StructuredGraph decoded = emptyGraph(method);
+        Assert.assertTrue(cache.lookup(method, "config", decoded));
+        Assert.assertEquals(original.getNodeCount(), decoded.getNodeCount());
+    }
+
+    @Test
+    public void testConfigurationMismatch() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet1");
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, 1 << 20);
+        cache.put(method, "config", parseEager(method, AllowAssumptions.YES));
+
+        Assert.assertFalse(cache.lookup(method, "other", emptyGraph(method)));
+        Assert.assertFalse(cache.lookup(getResolvedJavaMethod("snippet2"), "config", emptyGraph(getResolvedJavaMethod("snippet2"))));
+    }
+
+    @Test
+    public void testInlinedMethods() throws NoSuchMethodException {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet1");
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, 1 << 20);
+
+        StructuredGraph withInlinee = parseEager(method, AllowAssumptions.YES);
+        withInlinee.recordMethod(getResolvedJavaMethod("snippet2"));
+        cache.put(method, "config", withInlinee);
+        Assert.assertEquals(1, cache.size());
+        StructuredGraph decoded = emptyGraph(method);
+        Assert.assertTrue(cache.lookup(method, "config", decoded));
+        Assert.assertTrue(decoded.getMethods().contains(getResolvedJavaMethod("snippet2")));
+
+        // The bytecode of a native inlinee cannot be compared so the graph is not cached
+        StructuredGraph withNativeInlinee = parseEager(method, AllowAssumptions.YES);
+        withNativeInlinee.recordMethod(getMetaAccess().lookupJavaMethod(Object.class.getDeclaredMethod("hashCode")));
+        cache.put(method, "other", withNativeInlinee);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertFalse(cache.lookup(method, "other", emptyGraph(method)));
+    }
+
+    @Test
+    public void testCapacity() {
+        ResolvedJavaMethod method1 = getResolvedJavaMethod("snippet1");
+        ResolvedJavaMethod method2 = getResolvedJavaMethod("snippet2");
+
+        EncodedGraphCache empty = new EncodedGraphCache(getTarget().arch, 0);
+        empty.put(method1, "config", parseEager(method1, AllowAssumptions.YES));
+        Assert.assertEquals(0, empty.size());
+
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, 1 << 20);
+        cache.put(method1, "config", parseEager(method1, AllowAssumptions.YES));
+        cache.put(method2, "config", parseEager(method2, AllowAssumptions.YES));
+        Assert.assertEquals(2, cache.size());
+
+        // Only room for the most recently used entry
+        EncodedGraphCache small = new EncodedGraphCache(getTarget().arch, Math.max(cache.getUsedBytes() - 1, 1));
+        small.put(method1, "config", parseEager(method1, AllowAssumptions.YES));
+        small.put(method2, "config", parseEager(method2, AllowAssumptions.YES));
+        Assert.assertTrue(small.getUsedBytes() <= small.getCapacity());
+        Assert.assertTrue(small.lookup(method2, "config", emptyGraph(method2)));
+        Assert.assertFalse(small.lookup(method1, "config", emptyGraph(method1)));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.backend;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class GraphColoringAllocatorTest extends GraalCompilerTest {
+
+    private OptionValues graphColoringOptions() {
+        return new OptionValues(getInitialOptions(), RegisterAllocationPhase.Options.GraphColoringRA, true);
+    }
+
+    public static long manyLiveValues(long a, long b, int n) {
+        long x0 = a + 1;
+        long x1 = a * 3;
+        long x2 = b - 7;
+        long x3 = b ^ a;
+        long x4 = a << 3;
+        long x5 = b >> 2;
+        long x6 = a | b;
+        long x7 = a & b;
+        long x8 = a - b;
+        long x9 = a * b;
+        long x10 = a + b * 5;
+        long x11 = b + a * 7;
+        long x12 = a >>> 11;
+        long x13 = b >>> 13;
+        long x14 = ~a;
+        long x15 = ~b;
+        long x16 = a * a;
+        long x17 = b * b;
+        for (int i = 0; i < n; i++) {
+            x0 += x1 ^ i;
+            x2 += x3 * i;
+            x4 ^= x5 + i;
+            x6 += x7 - i;
+            x8 ^= x9 | i;
+            x10 += x11 & i;
+            x12 += x13 + x14 * i;
+            x15 ^= x16 - x17;
+        }
+        return x0 + x1 + x2 + x3 + x4 + x5 + x6 + x7 + x8 + x9 + x10 + x11 + x12 + x13 + x14 + x15 + x16 + x17;
+    }
+
+    public static double mixedKinds(double d, int n, long l) {
+        double sum = 0;
+        long acc = l;
+        for (int i = 0; i < n; i++) {
+            sum += d * i + acc;
+            acc = acc * 31 + i;
+        }
+        return sum + acc;
+    }
+
+    private static int callee(int a, int b) {
+        return a * 31 + b;
+    }
+
+    public static int liveAcrossCalls(int a, int b, int c) {
+        int x = callee(a, b);
+        int y = callee(b, c);
+        int z = callee(x, y);
+        return a + b + c + x + y + z;
+    }
+
+    public static int swapInLoop(int a, int b, int n) {
+        int x = a;
+        int y = b;
+        for (int i = 0; i < n; i++) {
+            int t = x;
+            x = y;
+            y = t + i;
+        }
+        return x * 17 + y;
+    }
+
+    @Test
+    public void testManyLiveValues() {
+        OptionValues options = graphColoringOptions();
+        test(options, "manyLiveValues", 3L, 11L, 0);
+        test(options, "manyLiveValues", 3L, 11L, 1000);
+        test(options, "manyLiveValues", -5L, Long.MAX_VALUE, 100);
+    }
+
+    @Test
+    public void testMixedKinds() {
+        OptionValues options = graphColoringOptions();
+        test(options, "mixedKinds", 1.5D, 100, 7L);
+        test(options, "mixedKinds", -0.25D, 0, 7L);
+    }
+
+    @Test
+    public void testLiveAcrossCalls() {
+        test(graphColoringOptions(), "liveAcrossCalls", 1, 2, 3);
+    }
+
+    @Test
+    public void testSwapInLoop() {
+        OptionValues options = graphColoringOptions();
+        test(options, "swapInLoop", 1, 2, 0);
+        test(options, "swapInLoop", 1, 2, 1001);
+    }
+}
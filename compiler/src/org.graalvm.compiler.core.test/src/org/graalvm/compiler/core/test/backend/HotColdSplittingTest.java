@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.backend;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.common.alloc.ComputeBlockOrder;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HotColdSplittingTest extends BackendTest {
+
+    private OptionValues splittingOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.HotColdSplitting, true);
+    }
+
+    private static int rareCall(int[] a, int i) {
+        return a.length * 31 + i;
+    }
+
+    public static int sumWithRarePath(int[] a, int x) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (branchProbability(0.00001, a[i] == x)) {
+                sum += rareCall(a, i);
+            }
+            sum += a[i];
+        }
+        if (branchProbability(0.00001, sum == x)) {
+            return rareCall(a, sum);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testColdBlocksLast() {
+        StructuredGraph graph = parseEager("sumWithRarePath", AllowAssumptions.YES, splittingOptions());
+        LIRGenerationResult result = getLIRGenerationResult(graph);
+        boolean seenCold = false;
+        for (AbstractBlockBase<?> block : result.getLIR().codeEmittingOrder()) {
+            if (block == null) {
+                continue;
+            }
+            boolean cold = block.getPredecessorCount() != 0 && ComputeBlockOrder.isColdBlock(block);
+            Assert.assertTrue("hot block " + block + " emitted after cold block", cold || !seenCold);
+            seenCold |= cold;
+        }
+        Assert.assertTrue("no cold blocks", seenCold);
+    }
+
+    @Test
+    public void testExecution() {
+        OptionValues options = splittingOptions();
+        test(options, "sumWithRarePath", new int[]{1, 2, 3, 4}, 3);
+        test(options, "sumWithRarePath", new int[]{1, 2, 3, 4}, 10);
+        test(options, "sumWithRarePath", new int[]{1, 2, 3, 4}, 42);
+    }
+}
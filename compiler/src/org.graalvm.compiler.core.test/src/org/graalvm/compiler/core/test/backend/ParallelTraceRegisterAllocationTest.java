@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.backend;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Compiles methods with many traces with {@link TraceRegisterAllocationPhase.Options#TraceRAParallel
+ * concurrent trace allocation}, which allocates every non-trivial trace on one of several workers.
+ */
+public class ParallelTraceRegisterAllocationTest extends GraalCompilerTest {
+
+    private OptionValues parallelOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.TraceRA, true, TraceRegisterAllocationPhase.Options.TraceRAParallel, true,
+                        TraceRegisterAllocationPhase.Options.TraceRAParallelMinTraces, 1, TraceRegisterAllocationPhase.Options.TraceRAParallelism, 4);
+    }
+
+    private static int callee(int a, int b) {
+        return a * 31 + b;
+    }
+
+    private static float calleeFloat(float a, float b) {
+        return a * 0.5F + b;
+    }
+
+    public static int manyBranches(int a, int b, int c) {
+        int x = a;
+        int y = b;
+        int z = c;
+        for (int i = 0; i < 8; i++) {
+            if ((x & 1) == 0) {
+                x = callee(x, i) + y;
+            } else {
+                y = callee(y, i) - z;
+            }
+            if ((y & 2) == 0) {
+                z += x ^ i;
+            } else if ((z & 4) == 0) {
+                z -= callee(y, x);
+            } else {
+                x ^= z + i;
+            }
+            switch (i % 4) {
+                case 0:
+                    x += y * z;
+                    break;
+                case 1:
+                    y += callee(z, x);
+                    break;
+                case 2:
+                    z ^= x - y;
+                    break;
+                default:
+                    x = callee(x, y) + callee(y, z);
+                    break;
+            }
+        }
+        return x + y + z;
+    }
+
+    public static float spilledFloats(float a, float b, int n) {
+        float x0 = a + 1;
+        float x1 = a * 3;
+        float x2 = b - 7;
+        float x3 = b * a;
+        float x4 = a / 3;
+        float x5 = b / 2;
+        float sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % 3 == 0) {
+                sum += calleeFloat(x0, x1);
+            } else if (i % 3 == 1) {
+                sum -= calleeFloat(x2, x3);
+            } else {
+                sum += calleeFloat(x4, x5) * i;
+            }
+            if (sum > 1000) {
+                sum = calleeFloat(sum, x0) / 1000;
+            }
+        }
+        return sum + x0 + x1 + x2 + x3 + x4 + x5;
+    }
+
+    public static long mixedKinds(long l, int n, double d) {
+        long acc = l;
+        double sum = d;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if ((acc & 1) == 0) {
+                acc = acc * 31 + callee(i, count);
+            } else if (sum > 0) {
+                sum -= acc;
+            } else {
+                count += callee(count, i);
+            }
+        }
+        return acc + (long) sum + count;
+    }
+
+    @Test
+    public void testManyBranches() {
+        OptionValues options = parallelOptions();
+        test(options, "manyBranches", 1, 2, 3);
+        test(options, "manyBranches", -7, 13, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testSpilledFloats() {
+        OptionValues options = parallelOptions();
+        test(options, "spilledFloats", 1.5F, -2.25F, 0);
+        test(options, "spilledFloats", 1.5F, -2.25F, 1000);
+    }
+
+    @Test
+    public void testMixedKinds() {
+        OptionValues options = parallelOptions();
+        test(options, "mixedKinds", 3L, 100, 1.5D);
+        test(options, "mixedKinds", -5L, 1000, -0.25D);
+    }
+}
@@ -249,6 +249,36 @@ public class PartialEscapeAnalysisTest extends EATestBase {
         testPartialEscapeAnalysis("testBoxLoopSnippet", 0, 0, BoxNode.class, UnboxNode.class);
     }
 
+    static final Integer BOXED_ZERO = 0;
+
+    public static int testConstantBoxLoopSnippet(int n) {
+        Integer sum = BOXED_ZERO;
+        for (int i = 0; i < n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testConstantBoxLoop() {
+        testPartialEscapeAnalysis("testConstantBoxLoopSnippet", 0, 0, BoxNode.class, UnboxNode.class);
+    }
+
+    public static Object testConstantBoxLoopEscapeSnippet(int n) {
+        Integer sum = BOXED_ZERO;
+        for (int i = 0; i < n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testConstantBoxLoopEscape() {
+        test("testConstantBoxLoopEscapeSnippet", 0);
+        test("testConstantBoxLoopEscapeSnippet", 10);
+        test("testConstantBoxLoopEscapeSnippet", 1000);
+    }
+
     static volatile int staticField;
     static boolean executedDeoptimizeDirective;
 
@@ -135,6 +135,37 @@ public class Graph {
      */
     private EconomicMap<Node, Node>[] cachedLeafNodes;
 
+    /**
+     * Maximum number of released backing arrays and {@link NodeStack}s retained for reuse.
+     */
+    private static final int MAX_POOLED_STORES = 4;
+
+    /**
+     * The id of the thread that created this graph, which is the only thread that uses the pools
+     * below. Other threads may read the graph concurrently, e.g., to compute an immutable schedule
+     * of a shared graph, and must not race on the pools. The id is kept instead of the thread so
+     * that long-lived graphs do not retain their creating thread.
+     */
+    private final long poolOwner;
+
+    /**
+     * Backing arrays of {@linkplain NodeBitMap#release() released} {@link NodeBitMap}s.
+     */
+    private long[][] pooledBitMapStores;
+    private int pooledBitMapStoreCount;
+
+    /**
+     * Backing arrays of {@linkplain NodeMap#release() released} {@link NodeMap}s.
+     */
+    private Object[][] pooledNodeMapStores;
+    private int pooledNodeMapStoreCount;
+
+    /**
+     * {@linkplain #releaseNodeStack(NodeStack) Released} {@link NodeStack}s.
+     */
+    private NodeStack[] pooledNodeStacks;
+    private int pooledNodeStackCount;
+
     private static final Equivalence NODE_VALUE_COMPARE = new Equivalence() {
 
         @Override
@@ -285,6 +316,7 @@ public class Graph {
         this.trackNodeSourcePosition = trackNodeSourcePositionDefault(options, debug);
         assert debug != null;
         this.debug = debug;
+        this.poolOwner = Thread.currentThread().getId();
 
         if (isModificationCountsEnabled()) {
             nodeModCounts = new int[INITIAL_NODES_SIZE];
@@ -1082,6 +1114,105 @@ public class Graph {
         return new NodeMap<>(this);
     }
 
+    /**
+     * Creates an empty {@link NodeStack}, reusing a {@linkplain #releaseNodeStack(NodeStack)
+     * released} one if available.
+     */
+    public NodeStack createNodeStack() {
+        if (isPoolOwner() && pooledNodeStackCount > 0) {
+            NodeStack stack = pooledNodeStacks[--pooledNodeStackCount];
+            pooledNodeStacks[pooledNodeStackCount] = null;
+            return stack;
+        }
+        return new NodeStack();
+    }
+
+    /**
+     * Returns a stack obtained from {@link #createNodeStack()} for reuse. The stack must not be
+     * used by the caller afterwards.
+     */
+    public void releaseNodeStack(NodeStack stack) {
+        if (!isPoolOwner()) {
+            return;
+        }
+        stack.clear();
+        if (pooledNodeStacks == null) {
+            pooledNodeStacks = new NodeStack[MAX_POOLED_STORES];
+        }
+        if (pooledNodeStackCount < MAX_POOLED_STORES) {
+            pooledNodeStacks[pooledNodeStackCount++] = stack;
+        }
+    }
+
+    private boolean isPoolOwner() {
+        return Thread.currentThread().getId() == poolOwner;
+    }
+
+    /**
+     * Gets a zeroed backing array for a {@link NodeBitMap}. The backing array of a released bit
+     * map is reused if it has exactly the requested length, which is the case as long as the node
+     * id count did not change much in between.
+     */
+    long[] acquireBitMapStore(int length) {
+        if (!isPoolOwner()) {
+            return new long[length];
+        }
+        for (int i = 0; i < pooledBitMapStoreCount; i++) {
+            long[] store = pooledBitMapStores[i];
+            if (store.length == length) {
+                pooledBitMapStores[i] = pooledBitMapStores[--pooledBitMapStoreCount];
+                pooledBitMapStores[pooledBitMapStoreCount] = null;
+                Arrays.fill(store, 0L);
+                return store;
+            }
+        }
+        return new long[length];
+    }
+
+    void releaseBitMapStore(long[] store) {
+        if (store.length == 0 || !isPoolOwner()) {
+            return;
+        }
+        if (pooledBitMapStores == null) {
+            pooledBitMapStores = new long[MAX_POOLED_STORES][];
+        }
+        if (pooledBitMapStoreCount < MAX_POOLED_STORES) {
+            pooledBitMapStores[pooledBitMapStoreCount++] = store;
+        }
+    }
+
+    /**
+     * Gets a cleared backing array for a {@link NodeMap}, reusing the backing array of a released
+     * node map if it has exactly the requested length.
+     */
+    Object[] acquireNodeMapStore(int length) {
+        if (!isPoolOwner()) {
+            return new Object[length];
+        }
+        for (int i = 0; i < pooledNodeMapStoreCount; i++) {
+            Object[] store = pooledNodeMapStores[i];
+            if (store.length == length) {
+                pooledNodeMapStores[i] = pooledNodeMapStores[--pooledNodeMapStoreCount];
+                pooledNodeMapStores[pooledNodeMapStoreCount] = null;
+                Arrays.fill(store, null);
+                return store;
+            }
+        }
+        return new Object[length];
+    }
+
+    void releaseNodeMapStore(Object[] store) {
+        if (store.length == 0 || !isPoolOwner()) {
+            return;
+        }
+        if (pooledNodeMapStores == null) {
+            pooledNodeMapStores = new Object[MAX_POOLED_STORES][];
+        }
+        if (pooledNodeMapStoreCount < MAX_POOLED_STORES) {
+            pooledNodeMapStores[pooledNodeMapStoreCount++] = store;
+        }
+    }
+
     public NodeFlood createNodeFlood() {
         return new NodeFlood(this);
     }
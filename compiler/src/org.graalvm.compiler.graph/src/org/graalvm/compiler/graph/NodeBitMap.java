@@ -41,7 +41,7 @@ public final class NodeBitMap extends NodeIdAccessor implements NodeIterable<Nod
     public NodeBitMap(Graph graph) {
         super(graph);
         this.nodeCount = graph.nodeIdCount();
-        this.bits = new long[sizeForNodeCount(nodeCount)];
+        this.bits = graph.acquireBitMapStore(sizeForNodeCount(nodeCount));
     }
 
     private static int sizeForNodeCount(int nodeCount) {
@@ -62,6 +62,15 @@ public final class NodeBitMap extends NodeIdAccessor implements NodeIterable<Nod
         return graph;
     }
 
+    /**
+     * Hands the backing array of this bit map back to its graph so that it can be reused by a bit
+     * map created later. This bit map must not be used afterwards.
+     */
+    public void release() {
+        graph.releaseBitMapStore(bits);
+        bits = null;
+    }
+
     public boolean isNew(Node node) {
         return getNodeId(node) >= nodeCount;
     }
@@ -39,7 +39,7 @@ public class NodeMap<T> extends NodeIdAccessor implements EconomicMap<Node, T> {
 
     public NodeMap(Graph graph) {
         super(graph);
-        this.values = new Object[graph.nodeIdCount()];
+        this.values = graph.acquireNodeMapStore(graph.nodeIdCount());
     }
 
     public NodeMap(NodeMap<T> copyFrom) {
@@ -93,6 +93,15 @@ public class NodeMap<T> extends NodeIdAccessor implements EconomicMap<Node, T> {
         return graph;
     }
 
+    /**
+     * Hands the backing array of this map back to its graph so that it can be reused by a node map
+     * created later. This map must not be used afterwards.
+     */
+    public void release() {
+        graph.releaseNodeMapStore(values);
+        values = null;
+    }
+
     public void set(Node node, T value) {
         assert check(node);
         values[getNodeId(node)] = value;
@@ -59,6 +59,7 @@ import org.graalvm.compiler.hotspot.HotSpotLockStack;
 import org.graalvm.compiler.hotspot.debug.BenchmarkCounters;
 import org.graalvm.compiler.hotspot.meta.HotSpotConstantLoadAction;
 import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+import org.graalvm.compiler.hotspot.nodes.GraalHotSpotVMConfigNode;
 import org.graalvm.compiler.hotspot.stubs.Stub;
 import org.graalvm.compiler.lir.LIR;
 import org.graalvm.compiler.lir.LIRFrameState;
@@ -471,7 +472,7 @@ public class AMD64HotSpotLIRGenerator extends AMD64LIRGenerator implements HotSp
     @Override
     public Value emitLoadConfigValue(int markId, LIRKind kind) {
         Variable result = newVariable(kind);
-        append(new AMD64HotSpotLoadConfigValueOp(markId, result));
+        append(new AMD64HotSpotLoadConfigValueOp(markId, result, GraalHotSpotVMConfigNode.addressValue(config, markId)));
         return result;
     }
 
@@ -45,10 +45,16 @@ public final class AMD64HotSpotLoadConfigValueOp extends AMD64LIRInstruction {
     @Def({OperandFlag.REG}) protected AllocatableValue result;
     private final int markId;
 
-    public AMD64HotSpotLoadConfigValueOp(int markId, AllocatableValue result) {
+    /**
+     * The current value of the config value if it is a VM address, 0 otherwise.
+     */
+    private final long address;
+
+    public AMD64HotSpotLoadConfigValueOp(int markId, AllocatableValue result, long address) {
         super(TYPE);
         this.result = result;
         this.markId = markId;
+        this.address = address;
     }
 
     @Override
@@ -73,6 +79,9 @@ public final class AMD64HotSpotLoadConfigValueOp extends AMD64LIRInstruction {
                 default:
                     throw GraalError.unimplemented();
             }
+        } else if (address != 0 && result.getPlatformKind() == AMD64Kind.QWORD) {
+            // The mark follows the immediate so that it can be patched when the code is relocated
+            masm.movq(asRegister(result), address);
         } else {
             throw GraalError.unimplemented();
         }
@@ -32,6 +32,7 @@ import java.util.List;
 import org.graalvm.compiler.serviceprovider.ServiceProvider;
 import org.graalvm.compiler.serviceprovider.GraalServices.JMXService;
 
+import com.sun.management.OperatingSystemMXBean;
 import com.sun.management.ThreadMXBean;
 
 /**
@@ -66,4 +67,13 @@ public class JMXServiceProvider extends JMXService {
     protected List<String> getInputArguments() {
         return ManagementFactory.getRuntimeMXBean().getInputArguments();
     }
+
+    @Override
+    protected double getProcessCpuLoad() {
+        java.lang.management.OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osMXBean instanceof OperatingSystemMXBean) {
+            return ((OperatingSystemMXBean) osMXBean).getProcessCpuLoad();
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import static org.graalvm.compiler.hotspot.CompilationResultCache.Options.CompilationResultCacheDirectory;
+import static org.graalvm.compiler.test.SubprocessUtil.getVMCommandLine;
+import static org.graalvm.compiler.test.SubprocessUtil.withoutDebuggerArguments;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.hotspot.CompilationTask;
+import org.graalvm.compiler.hotspot.HotSpotGraalCompiler;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.test.SubprocessUtil;
+import org.graalvm.compiler.test.SubprocessUtil.Subprocess;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.hotspot.HotSpotCompilationRequest;
+import jdk.vm.ci.hotspot.HotSpotCompilationRequestResult;
+import jdk.vm.ci.hotspot.HotSpotInstalledCode;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.runtime.JVMCICompiler;
+
+/**
+ * Tests that a compilation result persisted by the
+ * {@link org.graalvm.compiler.hotspot.CompilationResultCache} is reinstalled by a later compilation
+ * of the same method, in the same VM and in another VM.
+ */
+public class CompilationResultCacheTest extends HotSpotGraalCompilerTest {
+
+    private static final CounterKey CacheHits = DebugContext.counter("CompilationResultCacheHits");
+    private static final CounterKey CacheStores = DebugContext.counter("CompilationResultCacheStores");
+
+    public static int sumPositive(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            if (value > 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testReuse() throws IOException {
+        int[] input = {3, -1, 4, -1, 5, -9, 2, 6};
+        int expected = sumPositive(input);
+
+        Path directory = Files.createTempDirectory("CompilationResultCacheTest");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationResultCacheDirectory, directory.toString(), DebugOptions.Counters, "");
+            HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("sumPositive");
+
+            DebugContext debug = DebugContext.create(options, DebugHandlersFactory.LOADER);
+            HotSpotInstalledCode compiled = compile(debug, method);
+            Assert.assertEquals("compilation result should have been stored", 1, CacheStores.getCurrentValue(debug));
+            Assert.assertEquals(0, CacheHits.getCurrentValue(debug));
+            int codeSize = compiled.getCode().length;
+            compiled.invalidate();
+
+            HotSpotInstalledCode reused = compile(debug, method);
+            Assert.assertEquals("compilation result should have been reused", 1, CacheHits.getCurrentValue(debug));
+            Assert.assertEquals(1, CacheStores.getCurrentValue(debug));
+            Assert.assertTrue(reused.isValid());
+            Assert.assertEquals(codeSize, reused.getCode().length);
+            Assert.assertEquals(expected, sumPositive(input));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    static final Integer LIMIT = Integer.getInteger(CompilationResultCacheTest.class.getName() + ".limit", 4);
+
+    public static int countBelowLimit(int[] values) {
+        int count = 0;
+        for (int value : values) {
+            if (value < LIMIT) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The compiler unboxes the value of {@link #LIMIT} without reading a field through the constant
+     * field provider, so the cache cannot check the folded value and must not store the result.
+     */
+    @Test
+    public void testFoldedBoxIsNotStored() throws IOException {
+        Path directory = Files.createTempDirectory("CompilationResultCacheTest");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationResultCacheDirectory, directory.toString(), DebugOptions.Counters, "");
+            HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("countBelowLimit");
+
+            DebugContext debug = DebugContext.create(options, DebugHandlersFactory.LOADER);
+            compile(debug, method).invalidate();
+            Assert.assertEquals("compilation result should not have been stored", 0, CacheStores.getCurrentValue(debug));
+            compile(debug, method).invalidate();
+            Assert.assertEquals(0, CacheHits.getCurrentValue(debug));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Stores a compilation result in one VM and loads it in another. The VMs usually place VM data
+     * structures at different addresses, so this also tests that the addresses in the code are
+     * relocated.
+     */
+    @Test
+    public void testReuseInAnotherVM() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("CompilationResultCacheTest");
+        try {
+            Assert.assertEquals("hits=0 stores=1 correct=true", runVM(directory, 1));
+            Assert.assertEquals("hits=1 stores=0 correct=true", runVM(directory, 1));
+            // The value of a folded static final field changed, so the entry must not be reused
+            Assert.assertEquals("hits=0 stores=1 correct=true", runVM(directory, 3));
+            Assert.assertEquals("hits=1 stores=0 correct=true", runVM(directory, 3));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static String runVM(Path directory, int scale) throws IOException, InterruptedException {
+        List<String> vmArgs = withoutDebuggerArguments(getVMCommandLine());
+        vmArgs.removeIf(a -> a.startsWith("-Dgraal."));
+        vmArgs.add("-Dgraal." + CompilationResultCacheDirectory.getName() + "=" + directory);
+        vmArgs.add("-D" + ScaledSum.SCALE_PROPERTY + "=" + scale);
+        Subprocess proc = SubprocessUtil.java(vmArgs, ScaledSum.class.getName());
+        Assert.assertEquals(proc.toString(), 0, proc.exitCode);
+        for (String line : proc.output) {
+            if (line.startsWith("hits=")) {
+                return line;
+            }
+        }
+        throw new AssertionError("no result in output of " + proc);
+    }
+
+    /**
+     * Compiles {@link #scaledSum} in a new VM with the compilation result cache enabled and prints
+     * whether the result was reused.
+     */
+    public static final class ScaledSum {
+        static final String SCALE_PROPERTY = ScaledSum.class.getName() + ".scale";
+        static final int SCALE = Integer.getInteger(SCALE_PROPERTY, 1);
+
+        public static int scaledSum(int[] values) {
+            int sum = 0;
+            for (int value : values) {
+                if (value > 0) {
+                    sum += value * SCALE;
+                }
+            }
+            return sum;
+        }
+
+        public static void main(String[] args) throws Exception {
+            int[] input = {3, -1, 4, -1, 5, -9, 2, 6};
+            int expected = scaledSum(input);
+
+            HotSpotJVMCIRuntime runtime = HotSpotJVMCIRuntime.runtime();
+            HotSpotGraalCompiler compiler = (HotSpotGraalCompiler) runtime.getCompiler();
+            OptionValues options = new OptionValues(compiler.getGraalRuntime().getOptions(), DebugOptions.Counters, "");
+            HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) runtime.getHostJVMCIBackend().getMetaAccess().lookupJavaMethod(
+                            ScaledSum.class.getDeclaredMethod("scaledSum", int[].class));
+            DebugContext debug = DebugContext.create(options, DebugHandlersFactory.LOADER);
+            HotSpotInstalledCode code = compile(debug, method);
+            Object result = code.executeVarargs(new Object[]{input});
+            System.out.println("hits=" + CacheHits.getCurrentValue(debug) + " stores=" + CacheStores.getCurrentValue(debug) + " correct=" + Integer.valueOf(expected).equals(result));
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static HotSpotInstalledCode compile(DebugContext debug, HotSpotResolvedJavaMethod method) {
+        HotSpotJVMCIRuntime runtime = HotSpotJVMCIRuntime.runtime();
+        HotSpotCompilationRequest request = new HotSpotCompilationRequest(method, JVMCICompiler.INVOCATION_ENTRY_BCI, 0L);
+        CompilationTask task = new CompilationTask(runtime, (HotSpotGraalCompiler) runtime.getCompiler(), request, true, true, debug.getOptions());
+        HotSpotCompilationRequestResult result = task.runCompilation(debug);
+        Assert.assertNull(result.getFailureMessage(), result.getFailure());
+        Assert.assertNotNull(task.getInstalledCode());
+        return task.getInstalledCode();
+    }
+}
@@ -0,0 +1,693 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import static org.graalvm.compiler.bytecode.Bytecodes.AASTORE;
+import static org.graalvm.compiler.bytecode.Bytecodes.ANEWARRAY;
+import static org.graalvm.compiler.bytecode.Bytecodes.CHECKCAST;
+import static org.graalvm.compiler.bytecode.Bytecodes.GETFIELD;
+import static org.graalvm.compiler.bytecode.Bytecodes.GETSTATIC;
+import static org.graalvm.compiler.bytecode.Bytecodes.INSTANCEOF;
+import static org.graalvm.compiler.bytecode.Bytecodes.INVOKEINTERFACE;
+import static org.graalvm.compiler.bytecode.Bytecodes.INVOKESPECIAL;
+import static org.graalvm.compiler.bytecode.Bytecodes.INVOKESTATIC;
+import static org.graalvm.compiler.bytecode.Bytecodes.INVOKEVIRTUAL;
+import static org.graalvm.compiler.bytecode.Bytecodes.NEW;
+import static org.graalvm.compiler.bytecode.Bytecodes.PUTFIELD;
+import static org.graalvm.compiler.bytecode.Bytecodes.PUTSTATIC;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.UnmodifiableMapCursor;
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.hotspot.CompilationResultCodec.UnsupportedContentException;
+import org.graalvm.compiler.hotspot.nodes.GraalHotSpotVMConfigNode;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.code.Location;
+import jdk.vm.ci.code.ReferenceMap;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.hotspot.HotSpotVMConfigStore;
+import jdk.vm.ci.hotspot.VMField;
+import jdk.vm.ci.hotspot.VMFlag;
+import jdk.vm.ci.meta.ConstantPool;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaField;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaMethod;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * A persistent cache of {@link CompilationResult}s for top tier HotSpot compilations. After a
+ * method has been compiled, its compilation result is written to a file in
+ * {@link Options#CompilationResultCacheDirectory} together with everything the code silently
+ * depends on:
+ * <ul>
+ * <li>a hash of the bytecode of the root and every inlined method,</li>
+ * <li>a digest of the profile of each of these methods (branch probabilities are bucketed so that
+ * small fluctuations between runs do not invalidate the entry),</li>
+ * <li>a fingerprint of the layout (field offsets, vtable indexes, instance size, initialization
+ * state) of every type referenced by the code or by the compiled bytecodes,</li>
+ * <li>the values of the static final and {@code @Stable} fields whose reads were folded and</li>
+ * <li>a fingerprint of the VM configuration, the CPU features and the explicitly set options.</li>
+ * </ul>
+ * A later compilation request for the same method reuses the cached result if all of these still
+ * match. The {@linkplain CompilationResult#getAssumptions() assumptions} recorded with the result
+ * are validated by HotSpot when the code is installed. If they no longer hold, installation fails
+ * and the method is compiled as usual.
+ *
+ * Addresses of VM data structures and routines are not part of the fingerprint, so entries can be
+ * reused by VMs with a different memory layout. Code reaches VM routines through calls that HotSpot
+ * relocates, and VM data through {@linkplain GraalHotSpotVMConfigNode#addressValue addresses}
+ * that are marked in the code while the cache is enabled and patched when an entry is read.
+ * Results that embed references to arbitrary heap objects (other than interned strings and class
+ * mirrors) or that fold final fields of such objects are never cached.
+ */
+public final class CompilationResultCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Directory in which the results of top tier compilations are persisted and from which " +
+                       "they are reused when the bytecode, profile and VM configuration of a method still match. " +
+                       "Set it when the VM starts so that all code refers to VM data through relocatable addresses.", type = OptionType.Expert)
+        public static final OptionKey<String> CompilationResultCacheDirectory = new OptionKey<>(null);
+        // @formatter:on
+    }
+
+    private static final int MAGIC = 0x47524343;
+    private static final int VERSION = 2;
+
+    /**
+     * The number of buckets into which branch probabilities are classified for the profile digest.
+     */
+    private static final int PROFILE_BUCKETS = 4;
+
+    private static final CounterKey CacheHits = DebugContext.counter("CompilationResultCacheHits");
+    private static final CounterKey CacheMisses = DebugContext.counter("CompilationResultCacheMisses");
+    private static final CounterKey CacheStores = DebugContext.counter("CompilationResultCacheStores");
+    private static final CounterKey CacheRejects = DebugContext.counter("CompilationResultCacheRejects").doc("Compilation results that could not be cached.");
+
+    /**
+     * The arguments a {@link jdk.vm.ci.hotspot.HotSpotReferenceMap} was created with. These cannot
+     * be retrieved from the reference map itself.
+     */
+    static final class RecordedReferenceMap {
+        final Location[] objects;
+        final Location[] derivedBase;
+        final int[] sizeInBytes;
+        final int maxRegisterSize;
+
+        RecordedReferenceMap(Location[] objects, Location[] derivedBase, int[] sizeInBytes, int maxRegisterSize) {
+            this.objects = objects;
+            this.derivedBase = derivedBase;
+            this.sizeInBytes = sizeInBytes;
+            this.maxRegisterSize = maxRegisterSize;
+        }
+    }
+
+    /**
+     * What a compilation in progress depends on beyond its {@link CompilationResult}.
+     */
+    static final class Recording {
+        final EconomicMap<ReferenceMap, RecordedReferenceMap> referenceMaps = EconomicMap.create(Equivalence.IDENTITY);
+
+        /**
+         * The static fields whose reads were folded, with the values they were folded to.
+         */
+        final EconomicMap<ResolvedJavaField, JavaConstant> foldedStaticFields = EconomicMap.create(Equivalence.DEFAULT);
+
+        /**
+         * Describes why the compilation result must not be cached, {@code null} if it can be.
+         */
+        String uncacheable;
+    }
+
+    /**
+     * Set once a cache has been created so that {@link #recordReferenceMap} and
+     * {@link #recordFoldedField} do not need to query {@link #recordings} when caching is disabled.
+     */
+    private static volatile boolean recordingEnabled;
+
+    private static final ThreadLocal<Recording> recordings = new ThreadLocal<>();
+
+    /**
+     * Records the arguments of a reference map built for the compilation on the current thread.
+     */
+    static void recordReferenceMap(ReferenceMap referenceMap, Location[] objects, Location[] derivedBase, int[] sizeInBytes, int maxRegisterSize) {
+        if (recordingEnabled) {
+            Recording recording = recordings.get();
+            if (recording != null) {
+                recording.referenceMaps.put(referenceMap, new RecordedReferenceMap(objects, derivedBase, sizeInBytes, maxRegisterSize));
+            }
+        }
+    }
+
+    /**
+     * Records that the compilation on the current thread folded a read of {@code field} to
+     * {@code value}. Fields of the compiler itself are not recorded; their values are fixed for a
+     * given compiler build and graphs of snippets are shared between compilations. Test classes in
+     * the packages of the compiler are not part of it and are recorded.
+     *
+     * @param receiver the object whose field was read, {@code null} for a static field
+     * @param stable specifies if {@code field} was folded as a stable field, in which case the
+     *            elements of an array value may have been folded as well
+     */
+    public static void recordFoldedField(ResolvedJavaField field, JavaConstant receiver, JavaConstant value, boolean stable) {
+        if (!recordingEnabled) {
+            return;
+        }
+        Recording recording = recordings.get();
+        String holder = field.getDeclaringClass().getName();
+        if (recording == null || ((holder.startsWith("Lorg/graalvm/compiler/") || holder.startsWith("Ljdk/vm/ci/")) && !holder.contains("/test/"))) {
+            return;
+        }
+        if (!field.isStatic() || receiver != null) {
+            // The final fields of a string only depend on its characters
+            if (!holder.equals("Ljava/lang/String;")) {
+                recording.uncacheable = "folded instance field " + field.format("%H.%n");
+            }
+        } else if (stable && value.getJavaKind() == JavaKind.Object && !value.isNull() && field.getType().getComponentType() != null) {
+            recording.uncacheable = "folded stable array " + field.format("%H.%n");
+        } else {
+            recording.foldedStaticFields.put(field, value);
+        }
+    }
+
+    private final String directory;
+    private final HotSpotJVMCIRuntime jvmciRuntime;
+    private final HotSpotGraalRuntimeProvider graalRuntime;
+
+    /**
+     * Lazily initialized since the cache may be created before the host backend.
+     */
+    private CompilationResultCodec codec;
+    private long vmFingerprint;
+
+    CompilationResultCache(String directory, HotSpotJVMCIRuntime jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime) {
+        this.directory = directory;
+        this.jvmciRuntime = jvmciRuntime;
+        this.graalRuntime = graalRuntime;
+        recordingEnabled = true;
+    }
+
+    String getDirectory() {
+        return directory;
+    }
+
+    private synchronized CompilationResultCodec getCodec() {
+        if (codec == null) {
+            codec = new CompilationResultCodec(graalRuntime);
+            vmFingerprint = computeVMFingerprint();
+        }
+        return codec;
+    }
+
+    /**
+     * Starts recording the reference maps created and the fields folded on the current thread.
+     * Recording must be {@linkplain #endRecording() ended} by the same thread.
+     */
+    static void beginRecording() {
+        recordings.set(new Recording());
+    }
+
+    /**
+     * Stops recording on the current thread.
+     *
+     * @return what was recorded since {@link #beginRecording()}
+     */
+    static Recording endRecording() {
+        Recording recording = recordings.get();
+        recordings.remove();
+        return recording;
+    }
+
+    /**
+     * Gets a cached compilation result for {@code method} that is still valid in the current VM.
+     *
+     * @return {@code null} if there is no such result
+     */
+    CompilationResult lookup(DebugContext debug, HotSpotResolvedJavaMethod method, int entryBCI, CompilationIdentifier compilationId, OptionValues options) {
+        Path file = entryFile(method, entryBCI);
+        if (!Files.exists(file)) {
+            CacheMisses.increment(debug);
+            return null;
+        }
+        CompilationResultCodec resultCodec = getCodec();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CompilationResultCodec.Reader reader = resultCodec.new Reader(in, jvmciRuntime, method.getDeclaringClass(), graalRuntime.getHostProviders().getForeignCalls());
+            if (in.readInt() == MAGIC && in.readInt() == VERSION && key(method, entryBCI).equals(reader.readString()) && in.readLong() == environmentFingerprint(options)) {
+                if (validateMethods(reader, in) && validateTypes(reader, in) && validateFoldedFields(resultCodec, reader, in)) {
+                    CompilationResult result = reader.read(compilationId);
+                    CacheHits.increment(debug);
+                    return result;
+                }
+            }
+        } catch (IOException | UnsupportedContentException e) {
+            debug.log("Ignoring cached compilation result for %s: %s", method, e);
+        } catch (RuntimeException e) {
+            // A damaged entry must not prevent the method from being compiled
+            debug.log("Ignoring damaged cached compilation result for %s: %s", method, e);
+        }
+        CacheMisses.increment(debug);
+        return null;
+    }
+
+    private static boolean validateMethods(CompilationResultCodec.Reader reader, DataInputStream in) throws IOException, UnsupportedContentException {
+        int methodCount = in.readInt();
+        for (int i = 0; i < methodCount; i++) {
+            ResolvedJavaMethod method = reader.readMethod();
+            long bytecodeHash = in.readLong();
+            long profileDigest = in.readLong();
+            if (bytecodeHash != bytecodeHash(method) || profileDigest != profileDigest(method)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean validateTypes(CompilationResultCodec.Reader reader, DataInputStream in) throws IOException, UnsupportedContentException {
+        int typeCount = in.readInt();
+        for (int i = 0; i < typeCount; i++) {
+            ResolvedJavaType type = reader.readType();
+            if (in.readLong() != layoutFingerprint(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean validateFoldedFields(CompilationResultCodec resultCodec, CompilationResultCodec.Reader reader, DataInputStream in) throws IOException, UnsupportedContentException {
+        int fieldCount = in.readInt();
+        for (int i = 0; i < fieldCount; i++) {
+            ResolvedJavaType holder = reader.readType();
+            String name = reader.readString();
+            String typeName = reader.readString();
+            String value = reader.readString();
+            ResolvedJavaField field = null;
+            for (ResolvedJavaField staticField : holder.getStaticFields()) {
+                if (staticField.getName().equals(name) && staticField.getType().getName().equals(typeName)) {
+                    field = staticField;
+                }
+            }
+            if (field == null || !value.equals(resultCodec.describeStaticField(field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Persists the result of compiling {@code method}.
+     *
+     * @param recording what was recorded while compiling {@code method}
+     */
+    void store(DebugContext debug, HotSpotResolvedJavaMethod method, int entryBCI, CompilationResult result, Recording recording, OptionValues options) {
+        if (recording == null) {
+            return;
+        }
+        CompilationResultCodec resultCodec = getCodec();
+        Path tmp = null;
+        try {
+            if (recording.uncacheable != null) {
+                throw new UnsupportedContentException("%s", recording.uncacheable);
+            }
+            if (GraalOptions.GCDebugStartCycle.getValue(options) > 0) {
+                throw new UnsupportedContentException("barrier tracing embeds VM addresses");
+            }
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            CompilationResultCodec.Writer payloadWriter = resultCodec.new Writer(new DataOutputStream(payload), recording.referenceMaps);
+            payloadWriter.write(result);
+
+            List<ResolvedJavaMethod> methods = new ArrayList<>();
+            if (result.getMethods() != null) {
+                Collections.addAll(methods, result.getMethods());
+            } else {
+                methods.add(method);
+            }
+            EconomicSet<ResolvedJavaType> types = EconomicSet.create(Equivalence.DEFAULT);
+            types.addAll(payloadWriter.types);
+            for (ResolvedJavaMethod m : methods) {
+                types.add(m.getDeclaringClass());
+                collectReferencedTypes(m, types);
+            }
+            UnmodifiableMapCursor<ResolvedJavaField, JavaConstant> folded = recording.foldedStaticFields.getEntries();
+            while (folded.advance()) {
+                ResolvedJavaField field = folded.getKey();
+                if (resultCodec.describe(folded.getValue()) == null) {
+                    throw new UnsupportedContentException("folded object constant %s", field.format("%H.%n"));
+                }
+                types.add(field.getDeclaringClass());
+            }
+            for (ResolvedJavaType type : types) {
+                // The entry is only valid if the type can be found again by its name
+                JavaType resolved = jvmciRuntime.lookupType(type.getName(), method.getDeclaringClass(), false);
+                if (!type.equals(resolved)) {
+                    throw new UnsupportedContentException("type %s is not visible from %s", type.toJavaName(), method.getDeclaringClass().toJavaName());
+                }
+            }
+
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                CompilationResultCodec.Writer writer = resultCodec.new Writer(out, recording.referenceMaps);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writer.writeString(key(method, entryBCI));
+                out.writeLong(environmentFingerprint(options));
+                out.writeInt(methods.size());
+                for (ResolvedJavaMethod m : methods) {
+                    writer.writeMethod(m);
+                    out.writeLong(bytecodeHash(m));
+                    out.writeLong(profileDigest(m));
+                }
+                out.writeInt(types.size());
+                for (ResolvedJavaType type : types) {
+                    writer.writeType(type);
+                    out.writeLong(layoutFingerprint(type));
+                }
+                out.writeInt(recording.foldedStaticFields.size());
+                UnmodifiableMapCursor<ResolvedJavaField, JavaConstant> fields = recording.foldedStaticFields.getEntries();
+                while (fields.advance()) {
+                    ResolvedJavaField field = fields.getKey();
+                    writer.writeType(field.getDeclaringClass());
+                    writer.writeString(field.getName());
+                    writer.writeString(field.getType().getName());
+                    writer.writeString(resultCodec.describe(fields.getValue()));
+                }
+                payload.writeTo(out);
+            }
+            Files.move(tmp, entryFile(method, entryBCI), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            CacheStores.increment(debug);
+        } catch (UnsupportedContentException e) {
+            debug.log("Not caching compilation result for %s: %s", method, e.getMessage());
+            CacheRejects.increment(debug);
+        } catch (IOException e) {
+            debug.log("Could not cache compilation result for %s: %s", method, e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the cached result for {@code method}, e.g. after it failed to install.
+     */
+    void evict(HotSpotResolvedJavaMethod method, int entryBCI) {
+        try {
+            Files.deleteIfExists(entryFile(method, entryBCI));
+        } catch (IOException e) {
+            // the entry will be overwritten by the next successful compilation
+        }
+    }
+
+    private static String key(ResolvedJavaMethod method, int entryBCI) {
+        return method.format("%H.%n") + method.getSignature().toMethodDescriptor() + "@" + entryBCI;
+    }
+
+    private Path entryFile(ResolvedJavaMethod method, int entryBCI) {
+        return Paths.get(directory, String.format("%016x.entry", new Fingerprint().add(key(method, entryBCI)).value));
+    }
+
+    private long environmentFingerprint(OptionValues options) {
+        getCodec();
+        Fingerprint fingerprint = new Fingerprint().add(vmFingerprint);
+        List<String> values = new ArrayList<>();
+        UnmodifiableMapCursor<OptionKey<?>, Object> cursor = options.getMap().getEntries();
+        while (cursor.advance()) {
+            if (cursor.getKey() != Options.CompilationResultCacheDirectory) {
+                values.add(cursor.getKey().getName() + "=" + cursor.getValue());
+            }
+        }
+        Collections.sort(values);
+        for (String value : values) {
+            fingerprint.add(value);
+        }
+        return fingerprint.value;
+    }
+
+    /**
+     * Computes a fingerprint over the VM version, the CPU features used by the compiler and the VM
+     * configuration exposed to the compiler. Addresses are left out: fields whose C++ type is a
+     * pointer, whose values are addresses of VM data structures, and the addresses of VM routines.
+     * The compressed pointer encodings are included since they select the instructions generated
+     * for compressed references, not just the constants within them. Likewise, whether the
+     * safepoint polling page can be reached with 32-bit displacements selects the polling code.
+     */
+    private long computeVMFingerprint() {
+        Fingerprint fingerprint = new Fingerprint().add(String.valueOf(System.getProperty("java.vm.version")));
+        Architecture arch = graalRuntime.getTarget().arch;
+        fingerprint.add(arch.getName());
+        try {
+            fingerprint.add(String.valueOf(arch.getClass().getMethod("getFeatures").invoke(arch)));
+        } catch (ReflectiveOperationException e) {
+            // not all architectures expose CPU features
+        }
+        HotSpotVMConfigStore store = jvmciRuntime.getConfigStore();
+        List<String> values = new ArrayList<>();
+        for (VMFlag flag : store.getFlags().values()) {
+            values.add("flag " + flag.name + "=" + flag.value);
+        }
+        for (Map.Entry<String, Long> constant : store.getConstants().entrySet()) {
+            values.add("constant " + constant.getKey() + "=" + constant.getValue());
+        }
+        for (VMField field : store.getFields().values()) {
+            if (!field.isStatic()) {
+                values.add("field " + field.name + "@" + field.offset);
+            } else if (!isAddressType(field.type)) {
+                values.add("static " + field.name + "=" + field.value);
+            }
+        }
+        Collections.sort(values);
+        for (String value : values) {
+            fingerprint.add(value);
+        }
+        GraalHotSpotVMConfig config = graalRuntime.getVMConfig();
+        fingerprint.add(config.getOopEncoding().toString()).add(config.getKlassEncoding().toString());
+        long pollingPage = config.safepointPollingAddress;
+        fingerprint.add(config.forceUnreachable || !NumUtil.isInt(pollingPage - config.codeCacheLowBound) || !NumUtil.isInt(pollingPage - config.codeCacheHighBound) ? 1 : 0);
+        return fingerprint.value;
+    }
+
+    private static boolean isAddressType(String cppType) {
+        return cppType.equals("address") || cppType.equals("uintptr_t") || cppType.endsWith("*");
+    }
+
+    private static long bytecodeHash(ResolvedJavaMethod method) {
+        Fingerprint fingerprint = new Fingerprint();
+        byte[] code = method.getCode();
+        if (code != null) {
+            for (byte b : code) {
+                fingerprint.add(b);
+            }
+        }
+        return fingerprint.value;
+    }
+
+    /**
+     * Computes a digest of the parts of the profile of {@code method} that influence the code
+     * produced by the compiler.
+     */
+    private static long profileDigest(ResolvedJavaMethod method) {
+        Fingerprint fingerprint = new Fingerprint();
+        byte[] code = method.getCode();
+        if (code == null) {
+            return fingerprint.value;
+        }
+        ProfilingInfo profile = method.getProfilingInfo();
+        BytecodeStream stream = new BytecodeStream(code);
+        while (stream.currentBC() != Bytecodes.END) {
+            int bci = stream.currentBCI();
+            int opcode = stream.currentBC();
+            if (Bytecodes.isIfBytecode(opcode)) {
+                double probability = profile.getBranchTakenProbability(bci);
+                fingerprint.add(probability < 0 ? -1 : Math.round(probability * PROFILE_BUCKETS));
+            } else if (Bytecodes.isInvoke(opcode) || opcode == CHECKCAST || opcode == INSTANCEOF || opcode == AASTORE) {
+                JavaTypeProfile typeProfile = profile.getTypeProfile(bci);
+                if (typeProfile != null) {
+                    fingerprint.add(typeProfile.getNotRecordedProbability() > 0 ? 1 : 0);
+                    for (ProfiledType type : typeProfile.getTypes()) {
+                        fingerprint.add(type.getType().getName());
+                    }
+                }
+                fingerprint.add(Bytecodes.isInvoke(opcode) ? profile.getExceptionSeen(bci).ordinal() : profile.getNullSeen(bci).ordinal());
+            }
+            stream.next();
+        }
+        return fingerprint.value;
+    }
+
+    /**
+     * Adds the already resolved types referenced by the field accesses, invocations and type
+     * operations in the bytecode of {@code method} to {@code types}. Compiled code embeds layout
+     * information of these types, such as field offsets and vtable indexes.
+     */
+    private static void collectReferencedTypes(ResolvedJavaMethod method, EconomicSet<ResolvedJavaType> types) {
+        byte[] code = method.getCode();
+        if (code == null) {
+            return;
+        }
+        ConstantPool constantPool = method.getConstantPool();
+        BytecodeStream stream = new BytecodeStream(code);
+        while (stream.currentBC() != Bytecodes.END) {
+            int opcode = stream.currentBC();
+            switch (opcode) {
+                case GETFIELD:
+                case PUTFIELD:
+                case GETSTATIC:
+                case PUTSTATIC: {
+                    JavaField field = constantPool.lookupField(stream.readCPI(), method, opcode);
+                    if (field instanceof ResolvedJavaField) {
+                        types.add(((ResolvedJavaField) field).getDeclaringClass());
+                    }
+                    break;
+                }
+                case INVOKEVIRTUAL:
+                case INVOKESPECIAL:
+                case INVOKESTATIC:
+                case INVOKEINTERFACE: {
+                    JavaMethod target = constantPool.lookupMethod(stream.readCPI(), opcode);
+                    if (target instanceof ResolvedJavaMethod) {
+                        types.add(((ResolvedJavaMethod) target).getDeclaringClass());
+                    }
+                    break;
+                }
+                case NEW:
+                case CHECKCAST:
+                case INSTANCEOF:
+                case ANEWARRAY: {
+                    JavaType type = constantPool.lookupType(stream.readCPI(), opcode);
+                    if (type instanceof ResolvedJavaType) {
+                        types.add((ResolvedJavaType) type);
+                    }
+                    break;
+                }
+            }
+            stream.next();
+        }
+    }
+
+    /**
+     * Computes a fingerprint of the properties of {@code type} that compiled code may depend on.
+     */
+    private static long layoutFingerprint(ResolvedJavaType type) {
+        Fingerprint fingerprint = new Fingerprint().add(type.getName());
+        if (type.isArray() || type.isPrimitive()) {
+            return fingerprint.value;
+        }
+        fingerprint.add(type.getModifiers()).add(type.isLinked() ? 1 : 0).add(type.isInitialized() ? 1 : 0);
+        for (ResolvedJavaType superType = type.getSuperclass(); superType != null; superType = superType.getSuperclass()) {
+            fingerprint.add(superType.getName());
+        }
+        for (ResolvedJavaType interfaceType : type.getInterfaces()) {
+            fingerprint.add(interfaceType.getName());
+        }
+        if (type instanceof HotSpotResolvedObjectType) {
+            HotSpotResolvedObjectType hotSpotType = (HotSpotResolvedObjectType) type;
+            fingerprint.add(hotSpotType.superCheckOffset());
+            if (!type.isInterface()) {
+                fingerprint.add(hotSpotType.instanceSize());
+            }
+            if (type.isLinked()) {
+                fingerprint.add(hotSpotType.getVtableLength());
+            }
+        }
+        for (ResolvedJavaField field : type.getInstanceFields(true)) {
+            fingerprint.add(field.getName()).add(field.getType().getName()).add(field.getOffset());
+        }
+        for (ResolvedJavaField field : type.getStaticFields()) {
+            fingerprint.add(field.getName()).add(field.getType().getName()).add(field.getOffset());
+        }
+        for (ResolvedJavaMethod method : type.getDeclaredMethods()) {
+            fingerprint.add(method.getName()).add(method.getSignature().toMethodDescriptor()).add(method.getModifiers());
+            if (type.isLinked() && !type.isInterface() && method instanceof HotSpotResolvedJavaMethod && method.isInVirtualMethodTable(type)) {
+                fingerprint.add(((HotSpotResolvedJavaMethod) method).vtableEntryOffset(type));
+            }
+        }
+        return fingerprint.value;
+    }
+
+    /**
+     * A 64-bit hash accumulated from a sequence of values.
+     */
+    private static final class Fingerprint {
+        long value = 0xcbf29ce484222325L;
+
+        Fingerprint add(long v) {
+            value = (value ^ v) * 0x100000001b3L;
+            value ^= value >>> 32;
+            return this;
+        }
+
+        Fingerprint add(String s) {
+            add(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                add(s.charAt(i));
+            }
+            return this;
+        }
+    }
+}
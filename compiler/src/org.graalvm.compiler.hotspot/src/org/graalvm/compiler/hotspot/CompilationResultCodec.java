@@ -0,0 +1,1026 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.code.DataSection;
+import org.graalvm.compiler.code.DataSection.Data;
+import org.graalvm.compiler.code.DataSection.Patches;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
+import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
+import org.graalvm.compiler.hotspot.CompilationResultCache.RecordedReferenceMap;
+import org.graalvm.compiler.hotspot.nodes.GraalHotSpotVMConfigNode;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.BytecodePosition;
+import jdk.vm.ci.code.DebugInfo;
+import jdk.vm.ci.code.Location;
+import jdk.vm.ci.code.ReferenceMap;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.RegisterValue;
+import jdk.vm.ci.code.StackSlot;
+import jdk.vm.ci.code.ValueUtil;
+import jdk.vm.ci.code.VirtualObject;
+import jdk.vm.ci.code.site.Call;
+import jdk.vm.ci.code.site.ConstantReference;
+import jdk.vm.ci.code.site.DataPatch;
+import jdk.vm.ci.code.site.DataSectionReference;
+import jdk.vm.ci.code.site.ExceptionHandler;
+import jdk.vm.ci.code.site.Infopoint;
+import jdk.vm.ci.code.site.InfopointReason;
+import jdk.vm.ci.code.site.Mark;
+import jdk.vm.ci.code.site.Reference;
+import jdk.vm.ci.hotspot.HotSpotCompressedNullConstant;
+import jdk.vm.ci.hotspot.HotSpotConstant;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotMetaspaceConstant;
+import jdk.vm.ci.hotspot.HotSpotObjectConstant;
+import jdk.vm.ci.hotspot.HotSpotReferenceMap;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Assumptions.ConcreteMethod;
+import jdk.vm.ci.meta.Assumptions.ConcreteSubtype;
+import jdk.vm.ci.meta.Assumptions.LeafType;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.ConstantReflectionProvider;
+import jdk.vm.ci.meta.InvokeTarget;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.JavaValue;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.VMConstant;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * Converts a {@link CompilationResult} to and from the byte stream persisted by the
+ * {@link CompilationResultCache}. Only the parts of a compilation result that are consumed by
+ * {@link HotSpotCompiledCodeBuilder} are written. Types and methods are written symbolically and
+ * re-resolved relative to the declaring class of the root method when reading. VM addresses that
+ * are {@linkplain GraalHotSpotVMConfigNode#addressValue marked} in the code are patched with the
+ * addresses of the reading VM.
+ *
+ * Contents whose meaning depends on the identity of heap objects in the current VM cannot be
+ * expressed symbolically. Encountering such contents (e.g. an object constant other than an
+ * interned string or a class mirror) causes an {@link UnsupportedContentException}, in which case
+ * the result is simply not cached.
+ */
+final class CompilationResultCodec {
+
+    /**
+     * Denotes a compilation result that cannot be written to or read back from the cache.
+     */
+    static final class UnsupportedContentException extends Exception {
+
+        private static final long serialVersionUID = -6287346577263932316L;
+
+        UnsupportedContentException(String format, Object... args) {
+            super(String.format(format, args));
+        }
+
+        @SuppressWarnings("sync-override")
+        @Override
+        public Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static final int NULL_TAG = 0;
+
+    private static final int POSITION_TAG = 1;
+    private static final int FRAME_TAG = 2;
+
+    private static final int VALUE_ILLEGAL = 1;
+    private static final int VALUE_CONSTANT = 2;
+    private static final int VALUE_REGISTER = 3;
+    private static final int VALUE_STACK_SLOT = 4;
+    private static final int VALUE_VIRTUAL_OBJECT = 5;
+
+    private static final int CONSTANT_PRIMITIVE = 1;
+    private static final int CONSTANT_NULL = 2;
+    private static final int CONSTANT_STRING = 3;
+    private static final int CONSTANT_MIRROR = 4;
+    private static final int CONSTANT_KLASS = 5;
+
+    private static final int REFERENCE_DATA_SECTION = 1;
+    private static final int REFERENCE_CONSTANT = 2;
+
+    private static final int TARGET_METHOD = 1;
+    private static final int TARGET_FOREIGN_CALL = 2;
+
+    private static final int ASSUMPTION_LEAF_TYPE = 1;
+    private static final int ASSUMPTION_CONCRETE_SUBTYPE = 2;
+    private static final int ASSUMPTION_CONCRETE_METHOD = 3;
+
+    private static final int KIND_VALUE = 0;
+    private static final int KIND_REFERENCE = 1;
+    private static final int KIND_COMPRESSED_REFERENCE = 2;
+
+    /**
+     * The primitive and object kinds whose {@link PlatformKind}s may appear in debug info.
+     */
+    private static final JavaKind[] STACK_KINDS = {JavaKind.Boolean, JavaKind.Byte, JavaKind.Short, JavaKind.Char, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double,
+                    JavaKind.Object};
+
+    /**
+     * The size of the immediate preceding a mark of a relocated VM address.
+     */
+    private static final int ADDRESS_SIZE = 8;
+
+    private final Architecture arch;
+    private final GraalHotSpotVMConfig config;
+    private final SnippetReflectionProvider snippetReflection;
+    private final ConstantReflectionProvider constantReflection;
+
+    CompilationResultCodec(HotSpotGraalRuntimeProvider runtime) {
+        this.arch = runtime.getTarget().arch;
+        this.config = runtime.getVMConfig();
+        this.snippetReflection = runtime.getHostProviders().getSnippetReflection();
+        this.constantReflection = runtime.getHostProviders().getConstantReflection();
+    }
+
+    /**
+     * Describes {@code constant} in terms that do not depend on the identity of heap objects, so
+     * that the value a field was folded to can be compared with the value of the field in another
+     * VM. Only primitives, strings and class mirrors can be described. The compiler may fold the
+     * contents of any other object without going through the constant field provider, e.g., when
+     * it unboxes a boxed primitive or reads the length of an array, so such objects cannot be
+     * compared by a description.
+     *
+     * @return {@code null} if {@code constant} is an object other than a string or a class mirror
+     */
+    String describe(JavaConstant constant) {
+        if (constant.isNull()) {
+            return "null";
+        }
+        JavaKind kind = constant.getJavaKind();
+        switch (kind) {
+            case Float:
+                return kind.getTypeChar() + Integer.toHexString(Float.floatToRawIntBits(constant.asFloat()));
+            case Double:
+                return kind.getTypeChar() + Long.toHexString(Double.doubleToRawLongBits(constant.asDouble()));
+            case Object:
+                break;
+            default:
+                return kind.getTypeChar() + Long.toHexString(constant.asLong());
+        }
+        ResolvedJavaType mirror = constantReflection.asJavaType(constant);
+        if (mirror != null) {
+            return "class " + mirror.getName();
+        }
+        String string = snippetReflection.asObject(String.class, constant);
+        if (string != null) {
+            return "string " + string;
+        }
+        return null;
+    }
+
+    /**
+     * Describes the current value of the static field {@code field}.
+     *
+     * @return {@code null} if a read of the field would not be folded since its declaring class is
+     *         not initialized, or if its value cannot be {@linkplain #describe described}
+     */
+    String describeStaticField(ResolvedJavaField field) {
+        if (!field.getDeclaringClass().isInitialized()) {
+            return null;
+        }
+        JavaConstant value = constantReflection.readFieldValue(field, null);
+        return value == null ? null : describe(value);
+    }
+
+    private static long readAddress(byte[] code, int position) {
+        return ByteBuffer.wrap(code).order(ByteOrder.LITTLE_ENDIAN).getLong(position);
+    }
+
+    /**
+     * Writes a compilation result.
+     */
+    final class Writer {
+
+        private final DataOutputStream out;
+        private final EconomicMap<ReferenceMap, RecordedReferenceMap> referenceMaps;
+
+        /**
+         * The types referenced symbolically by the written result.
+         */
+        final EconomicSet<ResolvedJavaType> types = EconomicSet.create(Equivalence.DEFAULT);
+
+        Writer(DataOutputStream out, EconomicMap<ReferenceMap, RecordedReferenceMap> referenceMaps) {
+            this.out = out;
+            this.referenceMaps = referenceMaps;
+        }
+
+        void write(CompilationResult result) throws IOException, UnsupportedContentException {
+            if (result.isImmutablePIC()) {
+                throw new UnsupportedContentException("position independent code");
+            }
+            writeString(result.getName());
+            out.writeInt(result.getTargetCodeSize());
+            out.write(result.getTargetCode(), 0, result.getTargetCodeSize());
+            out.writeInt(result.getTotalFrameSize());
+            StackSlot customStackArea = result.getCustomStackArea();
+            out.writeBoolean(customStackArea != null);
+            if (customStackArea != null) {
+                writeValue(customStackArea);
+            }
+            out.writeInt(result.getEntryBCI());
+            out.writeBoolean(result.hasUnsafeAccess());
+            out.writeInt(result.getBytecodeSize());
+
+            ResolvedJavaMethod[] methods = result.getMethods();
+            out.writeInt(methods == null ? -1 : methods.length);
+            if (methods != null) {
+                for (ResolvedJavaMethod method : methods) {
+                    writeMethod(method);
+                }
+            }
+
+            Assumption[] assumptions = result.getAssumptions();
+            out.writeInt(assumptions == null ? -1 : assumptions.length);
+            if (assumptions != null) {
+                for (Assumption assumption : assumptions) {
+                    writeAssumption(assumption);
+                }
+            }
+
+            writeDataSection(result.getDataSection());
+
+            out.writeInt(result.getDataPatches().size());
+            for (DataPatch patch : result.getDataPatches()) {
+                out.writeInt(patch.pcOffset);
+                writeReference(patch.reference);
+            }
+            out.writeInt(result.getExceptionHandlers().size());
+            for (ExceptionHandler handler : result.getExceptionHandlers()) {
+                out.writeInt(handler.pcOffset);
+                out.writeInt(handler.handlerPos);
+            }
+            out.writeInt(result.getMarks().size());
+            for (Mark mark : result.getMarks()) {
+                if (!(mark.id instanceof Integer)) {
+                    throw new UnsupportedContentException("mark id %s", mark.id);
+                }
+                int id = (Integer) mark.id;
+                if (id == config.MARKID_POLL_FAR || id == config.MARKID_POLL_RETURN_FAR) {
+                    throw new UnsupportedContentException("far safepoint poll");
+                }
+                long address = GraalHotSpotVMConfigNode.addressValue(config, id);
+                if (address != 0 && (mark.pcOffset < ADDRESS_SIZE || readAddress(result.getTargetCode(), mark.pcOffset - ADDRESS_SIZE) != address)) {
+                    throw new UnsupportedContentException("VM address of mark %d is not an immediate preceding the mark", id);
+                }
+                out.writeInt(mark.pcOffset);
+                out.writeInt((Integer) mark.id);
+            }
+            out.writeInt(result.getInfopoints().size());
+            for (Infopoint infopoint : result.getInfopoints()) {
+                writeInfopoint(infopoint);
+            }
+        }
+
+        void writeString(String s) throws IOException {
+            out.writeBoolean(s != null);
+            if (s != null) {
+                out.writeInt(s.length());
+                out.writeChars(s);
+            }
+        }
+
+        void writeType(ResolvedJavaType type) throws IOException {
+            types.add(type);
+            writeString(type.getName());
+        }
+
+        void writeMethod(ResolvedJavaMethod method) throws IOException {
+            writeType(method.getDeclaringClass());
+            writeString(method.getName());
+            writeString(method.getSignature().toMethodDescriptor());
+        }
+
+        private void writeAssumption(Assumption assumption) throws IOException, UnsupportedContentException {
+            if (assumption instanceof LeafType) {
+                out.writeByte(ASSUMPTION_LEAF_TYPE);
+                writeType(((LeafType) assumption).context);
+            } else if (assumption instanceof ConcreteSubtype) {
+                ConcreteSubtype concreteSubtype = (ConcreteSubtype) assumption;
+                out.writeByte(ASSUMPTION_CONCRETE_SUBTYPE);
+                writeType(concreteSubtype.context);
+                writeType(concreteSubtype.subtype);
+            } else if (assumption instanceof ConcreteMethod) {
+                ConcreteMethod concreteMethod = (ConcreteMethod) assumption;
+                out.writeByte(ASSUMPTION_CONCRETE_METHOD);
+                writeMethod(concreteMethod.method);
+                writeType(concreteMethod.context);
+                writeMethod(concreteMethod.impl);
+            } else {
+                throw new UnsupportedContentException("assumption %s", assumption);
+            }
+        }
+
+        private void writeDataSection(DataSection data) throws IOException, UnsupportedContentException {
+            byte[] bytes = new byte[data.getSectionSize()];
+            List<Integer> patchPositions = new ArrayList<>();
+            List<VMConstant> patchConstants = new ArrayList<>();
+            data.buildDataSection(ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder()), (position, constant) -> {
+                patchPositions.add(position);
+                patchConstants.add(constant);
+            });
+            out.writeInt(data.getSectionAlignment());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeInt(patchPositions.size());
+            for (int i = 0; i < patchPositions.size(); i++) {
+                out.writeInt(patchPositions.get(i));
+                writeConstant(patchConstants.get(i));
+            }
+        }
+
+        private void writeReference(Reference reference) throws IOException, UnsupportedContentException {
+            if (reference instanceof DataSectionReference) {
+                out.writeByte(REFERENCE_DATA_SECTION);
+                out.writeInt(((DataSectionReference) reference).getOffset());
+            } else if (reference instanceof ConstantReference) {
+                out.writeByte(REFERENCE_CONSTANT);
+                writeConstant(((ConstantReference) reference).getConstant());
+            } else {
+                throw new UnsupportedContentException("reference %s", reference);
+            }
+        }
+
+        private void writeConstant(Constant constant) throws IOException, UnsupportedContentException {
+            if (constant instanceof HotSpotMetaspaceConstant) {
+                HotSpotMetaspaceConstant metaspaceConstant = (HotSpotMetaspaceConstant) constant;
+                HotSpotResolvedObjectType type = metaspaceConstant.asResolvedJavaType();
+                if (type == null) {
+                    throw new UnsupportedContentException("metaspace constant %s", constant);
+                }
+                out.writeByte(CONSTANT_KLASS);
+                out.writeBoolean(metaspaceConstant.isCompressed());
+                writeType(type);
+            } else if (constant instanceof JavaConstant && ((JavaConstant) constant).isNull()) {
+                out.writeByte(CONSTANT_NULL);
+                out.writeBoolean(constant instanceof HotSpotConstant && ((HotSpotConstant) constant).isCompressed());
+            } else if (constant instanceof HotSpotObjectConstant) {
+                HotSpotObjectConstant objectConstant = (HotSpotObjectConstant) constant;
+                JavaConstant uncompressed = objectConstant.isCompressed() ? objectConstant.uncompress() : objectConstant;
+                ResolvedJavaType mirror = constantReflection.asJavaType(uncompressed);
+                String string = snippetReflection.asObject(String.class, uncompressed);
+                if (mirror != null) {
+                    out.writeByte(CONSTANT_MIRROR);
+                    out.writeBoolean(objectConstant.isCompressed());
+                    writeType(mirror);
+                } else if (string != null && string.intern() == string) {
+                    out.writeByte(CONSTANT_STRING);
+                    out.writeBoolean(objectConstant.isCompressed());
+                    writeString(string);
+                } else {
+                    throw new UnsupportedContentException("object constant %s", constant);
+                }
+            } else if (constant instanceof JavaConstant && ((JavaConstant) constant).getJavaKind().isPrimitive()) {
+                JavaConstant primitive = (JavaConstant) constant;
+                out.writeByte(CONSTANT_PRIMITIVE);
+                out.writeByte(primitive.getJavaKind().ordinal());
+                switch (primitive.getJavaKind()) {
+                    case Float:
+                        out.writeLong(Float.floatToRawIntBits(primitive.asFloat()));
+                        break;
+                    case Double:
+                        out.writeLong(Double.doubleToRawLongBits(primitive.asDouble()));
+                        break;
+                    default:
+                        out.writeLong(primitive.asLong());
+                        break;
+                }
+            } else {
+                throw new UnsupportedContentException("constant %s", constant);
+            }
+        }
+
+        private void writeInfopoint(Infopoint infopoint) throws IOException, UnsupportedContentException {
+            out.writeInt(infopoint.pcOffset);
+            out.writeByte(infopoint.reason.ordinal());
+            if (infopoint.getClass() == Call.class) {
+                Call call = (Call) infopoint;
+                out.writeBoolean(true);
+                InvokeTarget target = call.target;
+                if (target instanceof HotSpotResolvedJavaMethod) {
+                    out.writeByte(TARGET_METHOD);
+                    writeMethod((HotSpotResolvedJavaMethod) target);
+                } else if (target instanceof HotSpotForeignCallLinkage) {
+                    ForeignCallDescriptor descriptor = ((HotSpotForeignCallLinkage) target).getDescriptor();
+                    out.writeByte(TARGET_FOREIGN_CALL);
+                    writeString(descriptor.getName());
+                    writeString(descriptor.getResultType().getName());
+                    out.writeInt(descriptor.getArgumentTypes().length);
+                    for (Class<?> argumentType : descriptor.getArgumentTypes()) {
+                        writeString(argumentType.getName());
+                    }
+                } else {
+                    throw new UnsupportedContentException("call target %s", target);
+                }
+                out.writeInt(call.size);
+                out.writeBoolean(call.direct);
+            } else if (infopoint.getClass() == Infopoint.class) {
+                out.writeBoolean(false);
+            } else {
+                throw new UnsupportedContentException("infopoint %s", infopoint);
+            }
+            writeDebugInfo(infopoint.debugInfo);
+        }
+
+        private void writeDebugInfo(DebugInfo debugInfo) throws IOException, UnsupportedContentException {
+            out.writeBoolean(debugInfo != null);
+            if (debugInfo == null) {
+                return;
+            }
+            if (debugInfo.getCalleeSaveInfo() != null) {
+                throw new UnsupportedContentException("callee save info");
+            }
+            VirtualObject[] virtualObjects = debugInfo.getVirtualObjectMapping();
+            out.writeInt(virtualObjects == null ? -1 : virtualObjects.length);
+            if (virtualObjects != null) {
+                for (VirtualObject virtualObject : virtualObjects) {
+                    out.writeInt(virtualObject.getId());
+                    writeType(virtualObject.getType());
+                }
+                for (VirtualObject virtualObject : virtualObjects) {
+                    JavaValue[] values = virtualObject.getValues();
+                    out.writeInt(values.length);
+                    for (int i = 0; i < values.length; i++) {
+                        writeKind(virtualObject.getSlotKind(i));
+                        writeValue(values[i]);
+                    }
+                }
+            }
+            writePosition(debugInfo.getBytecodePosition());
+
+            ReferenceMap referenceMap = debugInfo.getReferenceMap();
+            out.writeBoolean(referenceMap != null);
+            if (referenceMap != null) {
+                RecordedReferenceMap recorded = referenceMaps.get(referenceMap);
+                if (recorded == null) {
+                    throw new UnsupportedContentException("unrecorded reference map %s", referenceMap);
+                }
+                out.writeInt(recorded.objects.length);
+                for (int i = 0; i < recorded.objects.length; i++) {
+                    writeLocation(recorded.objects[i]);
+                    writeLocation(recorded.derivedBase[i]);
+                    out.writeInt(recorded.sizeInBytes[i]);
+                }
+                out.writeInt(recorded.maxRegisterSize);
+            }
+        }
+
+        private void writePosition(BytecodePosition position) throws IOException, UnsupportedContentException {
+            if (position == null) {
+                out.writeByte(NULL_TAG);
+                return;
+            }
+            out.writeByte(position instanceof BytecodeFrame ? FRAME_TAG : POSITION_TAG);
+            writePosition(position.getCaller());
+            writeMethod(position.getMethod());
+            out.writeInt(position.getBCI());
+            if (position instanceof BytecodeFrame) {
+                BytecodeFrame frame = (BytecodeFrame) position;
+                out.writeBoolean(frame.rethrowException);
+                out.writeBoolean(frame.duringCall);
+                out.writeInt(frame.numLocals);
+                out.writeInt(frame.numStack);
+                out.writeInt(frame.numLocks);
+                for (int i = 0; i < frame.numLocals; i++) {
+                    writeKind(frame.getLocalValueKind(i));
+                    writeValue(frame.getLocalValue(i));
+                }
+                for (int i = 0; i < frame.numStack; i++) {
+                    writeKind(frame.getStackValueKind(i));
+                    writeValue(frame.getStackValue(i));
+                }
+                for (int i = 0; i < frame.numLocks; i++) {
+                    writeValue(frame.getLockValue(i));
+                }
+            }
+        }
+
+        private void writeKind(JavaKind kind) throws IOException {
+            out.writeByte(kind == null ? -1 : kind.ordinal());
+        }
+
+        private void writeValue(JavaValue value) throws IOException, UnsupportedContentException {
+            if (value instanceof VirtualObject) {
+                out.writeByte(VALUE_VIRTUAL_OBJECT);
+                out.writeInt(((VirtualObject) value).getId());
+            } else if (value instanceof JavaConstant) {
+                out.writeByte(VALUE_CONSTANT);
+                writeConstant((JavaConstant) value);
+            } else if (value instanceof Value && ValueUtil.isIllegal((Value) value)) {
+                out.writeByte(VALUE_ILLEGAL);
+            } else if (value instanceof RegisterValue) {
+                RegisterValue registerValue = (RegisterValue) value;
+                out.writeByte(VALUE_REGISTER);
+                out.writeInt(registerValue.getRegister().number);
+                writeValueKind(registerValue.getValueKind());
+            } else if (value instanceof StackSlot) {
+                StackSlot stackSlot = (StackSlot) value;
+                out.writeByte(VALUE_STACK_SLOT);
+                out.writeInt(stackSlot.getRawOffset());
+                out.writeBoolean(stackSlot.getRawAddFrameSize());
+                writeValueKind(stackSlot.getValueKind());
+            } else {
+                throw new UnsupportedContentException("value %s", value);
+            }
+        }
+
+        private void writeValueKind(ValueKind<?> valueKind) throws IOException, UnsupportedContentException {
+            if (!(valueKind instanceof LIRKind)) {
+                throw new UnsupportedContentException("value kind %s", valueKind);
+            }
+            LIRKind kind = (LIRKind) valueKind;
+            PlatformKind platformKind = kind.getPlatformKind();
+            int referenceKind;
+            if (kind.isValue()) {
+                referenceKind = KIND_VALUE;
+            } else if (!kind.isUnknownReference() && !kind.isDerivedReference() && platformKind.getVectorLength() == 1) {
+                referenceKind = kind.isCompressedReference(0) ? KIND_COMPRESSED_REFERENCE : KIND_REFERENCE;
+            } else {
+                throw new UnsupportedContentException("value kind %s", valueKind);
+            }
+            for (JavaKind javaKind : STACK_KINDS) {
+                if (platformKind.equals(arch.getPlatformKind(javaKind))) {
+                    out.writeByte(javaKind.ordinal());
+                    out.writeByte(referenceKind);
+                    return;
+                }
+            }
+            throw new UnsupportedContentException("value kind %s", valueKind);
+        }
+
+        private void writeLocation(Location location) throws IOException {
+            out.writeBoolean(location != null);
+            if (location != null) {
+                out.writeBoolean(location.isRegister());
+                if (location.isRegister()) {
+                    out.writeInt(location.reg.number);
+                }
+                out.writeInt(location.offset);
+            }
+        }
+    }
+
+    /**
+     * Reads a compilation result written by a {@link Writer}.
+     */
+    final class Reader {
+
+        private final DataInputStream in;
+        private final HotSpotJVMCIRuntime jvmciRuntime;
+        private final HotSpotResolvedObjectType accessingType;
+        private final ForeignCallsProvider foreignCalls;
+
+        Reader(DataInputStream in, HotSpotJVMCIRuntime jvmciRuntime, HotSpotResolvedObjectType accessingType, ForeignCallsProvider foreignCalls) {
+            this.in = in;
+            this.jvmciRuntime = jvmciRuntime;
+            this.accessingType = accessingType;
+            this.foreignCalls = foreignCalls;
+        }
+
+        CompilationResult read(CompilationIdentifier compilationId) throws IOException, UnsupportedContentException {
+            CompilationResult result = new CompilationResult(compilationId, readString());
+            byte[] code = new byte[in.readInt()];
+            in.readFully(code);
+            result.setTargetCode(code, code.length);
+            result.setTotalFrameSize(in.readInt());
+            if (in.readBoolean()) {
+                result.setCustomStackAreaOffset((StackSlot) readValue(null));
+            }
+            result.setEntryBCI(in.readInt());
+            result.setHasUnsafeAccess(in.readBoolean());
+            result.setBytecodeSize(in.readInt());
+
+            int methodCount = in.readInt();
+            if (methodCount >= 0) {
+                ResolvedJavaMethod rootMethod = readMethod();
+                List<ResolvedJavaMethod> inlinedMethods = new ArrayList<>(methodCount);
+                for (int i = 1; i < methodCount; i++) {
+                    inlinedMethods.add(readMethod());
+                }
+                result.setMethods(rootMethod, inlinedMethods);
+            }
+
+            int assumptionCount = in.readInt();
+            if (assumptionCount >= 0) {
+                Assumption[] assumptions = new Assumption[assumptionCount];
+                for (int i = 0; i < assumptionCount; i++) {
+                    assumptions[i] = readAssumption();
+                }
+                result.setAssumptions(assumptions);
+            }
+
+            readDataSection(result.getDataSection());
+
+            int patchCount = in.readInt();
+            for (int i = 0; i < patchCount; i++) {
+                int pcOffset = in.readInt();
+                result.recordDataPatch(pcOffset, readReference());
+            }
+            int handlerCount = in.readInt();
+            for (int i = 0; i < handlerCount; i++) {
+                int pcOffset = in.readInt();
+                result.recordExceptionHandler(pcOffset, in.readInt());
+            }
+            int markCount = in.readInt();
+            for (int i = 0; i < markCount; i++) {
+                int pcOffset = in.readInt();
+                int id = in.readInt();
+                long address = GraalHotSpotVMConfigNode.addressValue(config, id);
+                if (address != 0) {
+                    ByteBuffer.wrap(code).order(ByteOrder.LITTLE_ENDIAN).putLong(pcOffset - ADDRESS_SIZE, address);
+                }
+                result.recordMark(pcOffset, id);
+            }
+            int infopointCount = in.readInt();
+            for (int i = 0; i < infopointCount; i++) {
+                result.addInfopoint(readInfopoint());
+            }
+            result.close();
+            return result;
+        }
+
+        String readString() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            char[] chars = new char[in.readInt()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = in.readChar();
+            }
+            return new String(chars);
+        }
+
+        ResolvedJavaType readType() throws IOException, UnsupportedContentException {
+            String name = readString();
+            JavaType type = jvmciRuntime.lookupType(name, accessingType, false);
+            if (!(type instanceof ResolvedJavaType)) {
+                throw new UnsupportedContentException("unresolved type %s", name);
+            }
+            return (ResolvedJavaType) type;
+        }
+
+        ResolvedJavaMethod readMethod() throws IOException, UnsupportedContentException {
+            ResolvedJavaType holder = readType();
+            String name = readString();
+            String descriptor = readString();
+            if (name.equals("<clinit>")) {
+                ResolvedJavaMethod initializer = holder.getClassInitializer();
+                if (initializer != null) {
+                    return initializer;
+                }
+            }
+            for (ResolvedJavaMethod method : name.equals("<init>") ? holder.getDeclaredConstructors() : holder.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getSignature().toMethodDescriptor().equals(descriptor)) {
+                    return method;
+                }
+            }
+            throw new UnsupportedContentException("unresolved method %s.%s%s", holder.toJavaName(), name, descriptor);
+        }
+
+        private Assumption readAssumption() throws IOException, UnsupportedContentException {
+            int tag = in.readByte();
+            switch (tag) {
+                case ASSUMPTION_LEAF_TYPE:
+                    return new LeafType(readType());
+                case ASSUMPTION_CONCRETE_SUBTYPE:
+                    ResolvedJavaType context = readType();
+                    return new ConcreteSubtype(context, readType());
+                case ASSUMPTION_CONCRETE_METHOD:
+                    ResolvedJavaMethod method = readMethod();
+                    ResolvedJavaType methodContext = readType();
+                    return new ConcreteMethod(method, methodContext, readMethod());
+                default:
+                    throw new IOException("invalid assumption tag " + tag);
+            }
+        }
+
+        private void readDataSection(DataSection data) throws IOException, UnsupportedContentException {
+            int alignment = in.readInt();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            int[] patchPositions = new int[in.readInt()];
+            VMConstant[] patchConstants = new VMConstant[patchPositions.length];
+            for (int i = 0; i < patchPositions.length; i++) {
+                patchPositions[i] = in.readInt();
+                patchConstants[i] = (VMConstant) readConstant();
+            }
+            if (bytes.length > 0) {
+                data.insertData(new CachedData(alignment, bytes, patchPositions, patchConstants));
+            }
+        }
+
+        private Reference readReference() throws IOException, UnsupportedContentException {
+            int tag = in.readByte();
+            switch (tag) {
+                case REFERENCE_DATA_SECTION:
+                    DataSectionReference reference = new DataSectionReference();
+                    reference.setOffset(in.readInt());
+                    return reference;
+                case REFERENCE_CONSTANT:
+                    return new ConstantReference((VMConstant) readConstant());
+                default:
+                    throw new IOException("invalid reference tag " + tag);
+            }
+        }
+
+        private Constant readConstant() throws IOException, UnsupportedContentException {
+            int tag = in.readByte();
+            switch (tag) {
+                case CONSTANT_KLASS: {
+                    boolean compressed = in.readBoolean();
+                    HotSpotMetaspaceConstant klass = (HotSpotMetaspaceConstant) ((HotSpotResolvedObjectType) readType()).klass();
+                    return compressed ? klass.compress() : klass;
+                }
+                case CONSTANT_NULL:
+                    return in.readBoolean() ? HotSpotCompressedNullConstant.COMPRESSED_NULL : JavaConstant.NULL_POINTER;
+                case CONSTANT_MIRROR: {
+                    boolean compressed = in.readBoolean();
+                    HotSpotObjectConstant mirror = (HotSpotObjectConstant) constantReflection.asJavaClass(readType());
+                    return compressed ? mirror.compress() : mirror;
+                }
+                case CONSTANT_STRING: {
+                    boolean compressed = in.readBoolean();
+                    HotSpotObjectConstant string = (HotSpotObjectConstant) snippetReflection.forObject(readString().intern());
+                    return compressed ? string.compress() : string;
+                }
+                case CONSTANT_PRIMITIVE: {
+                    JavaKind kind = JavaKind.values()[in.readByte()];
+                    long raw = in.readLong();
+                    switch (kind) {
+                        case Boolean:
+                            return JavaConstant.forBoolean(raw != 0);
+                        case Byte:
+                            return JavaConstant.forByte((byte) raw);
+                        case Short:
+                            return JavaConstant.forShort((short) raw);
+                        case Char:
+                            return JavaConstant.forChar((char) raw);
+                        case Int:
+                            return JavaConstant.forInt((int) raw);
+                        case Long:
+                            return JavaConstant.forLong(raw);
+                        case Float:
+                            return JavaConstant.forFloat(Float.intBitsToFloat((int) raw));
+                        case Double:
+                            return JavaConstant.forDouble(Double.longBitsToDouble(raw));
+                        default:
+                            throw new IOException("invalid primitive kind " + kind);
+                    }
+                }
+                default:
+                    throw new IOException("invalid constant tag " + tag);
+            }
+        }
+
+        private Infopoint readInfopoint() throws IOException, UnsupportedContentException {
+            int pcOffset = in.readInt();
+            InfopointReason reason = InfopointReason.values()[in.readByte()];
+            if (in.readBoolean()) {
+                InvokeTarget target;
+                int tag = in.readByte();
+                if (tag == TARGET_METHOD) {
+                    target = readMethod();
+                } else if (tag == TARGET_FOREIGN_CALL) {
+                    String name = readString();
+                    Class<?> resultType = readClass();
+                    Class<?>[] argumentTypes = new Class<?>[in.readInt()];
+                    for (int i = 0; i < argumentTypes.length; i++) {
+                        argumentTypes[i] = readClass();
+                    }
+                    target = foreignCalls.lookupForeignCall(new ForeignCallDescriptor(name, resultType, argumentTypes));
+                } else {
+                    throw new IOException("invalid call target tag " + tag);
+                }
+                int size = in.readInt();
+                boolean direct = in.readBoolean();
+                return new Call(target, pcOffset, size, direct, readDebugInfo());
+            }
+            return new Infopoint(pcOffset, readDebugInfo(), reason);
+        }
+
+        private Class<?> readClass() throws IOException, UnsupportedContentException {
+            String name = readString();
+            for (JavaKind kind : JavaKind.values()) {
+                if (kind.isPrimitive() || kind == JavaKind.Void) {
+                    if (kind.getJavaName().equals(name)) {
+                        return kind.toJavaClass();
+                    }
+                }
+            }
+            try {
+                return Class.forName(name, false, CompilationResultCodec.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new UnsupportedContentException("unresolved class %s", name);
+            }
+        }
+
+        private DebugInfo readDebugInfo() throws IOException, UnsupportedContentException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            int virtualObjectCount = in.readInt();
+            VirtualObject[] virtualObjects = null;
+            if (virtualObjectCount >= 0) {
+                virtualObjects = new VirtualObject[virtualObjectCount];
+                for (int i = 0; i < virtualObjectCount; i++) {
+                    int id = in.readInt();
+                    virtualObjects[i] = VirtualObject.get(readType(), id);
+                }
+                for (VirtualObject virtualObject : virtualObjects) {
+                    JavaValue[] values = new JavaValue[in.readInt()];
+                    JavaKind[] slotKinds = new JavaKind[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        slotKinds[i] = readKind();
+                        values[i] = readValue(virtualObjects);
+                    }
+                    virtualObject.setValues(values, slotKinds);
+                }
+            }
+            DebugInfo debugInfo = new DebugInfo(readPosition(virtualObjects), virtualObjects);
+            if (in.readBoolean()) {
+                Location[] objects = new Location[in.readInt()];
+                Location[] derivedBase = new Location[objects.length];
+                int[] sizeInBytes = new int[objects.length];
+                for (int i = 0; i < objects.length; i++) {
+                    objects[i] = readLocation();
+                    derivedBase[i] = readLocation();
+                    sizeInBytes[i] = in.readInt();
+                }
+                debugInfo.setReferenceMap(new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, in.readInt()));
+            }
+            return debugInfo;
+        }
+
+        private BytecodePosition readPosition(VirtualObject[] virtualObjects) throws IOException, UnsupportedContentException {
+            int tag = in.readByte();
+            if (tag == NULL_TAG) {
+                return null;
+            }
+            BytecodePosition caller = readPosition(virtualObjects);
+            ResolvedJavaMethod method = readMethod();
+            int bci = in.readInt();
+            if (tag == POSITION_TAG) {
+                return new BytecodePosition(caller, method, bci);
+            } else if (tag != FRAME_TAG) {
+                throw new IOException("invalid position tag " + tag);
+            }
+            boolean rethrowException = in.readBoolean();
+            boolean duringCall = in.readBoolean();
+            int numLocals = in.readInt();
+            int numStack = in.readInt();
+            int numLocks = in.readInt();
+            JavaValue[] values = new JavaValue[numLocals + numStack + numLocks];
+            JavaKind[] slotKinds = new JavaKind[numLocals + numStack];
+            for (int i = 0; i < values.length; i++) {
+                if (i < slotKinds.length) {
+                    slotKinds[i] = readKind();
+                }
+                values[i] = readValue(virtualObjects);
+            }
+            return new BytecodeFrame((BytecodeFrame) caller, method, bci, rethrowException, duringCall, values, slotKinds, numLocals, numStack, numLocks);
+        }
+
+        private JavaKind readKind() throws IOException {
+            int ordinal = in.readByte();
+            return ordinal < 0 ? null : JavaKind.values()[ordinal];
+        }
+
+        private JavaValue readValue(VirtualObject[] virtualObjects) throws IOException, UnsupportedContentException {
+            int tag = in.readByte();
+            switch (tag) {
+                case VALUE_VIRTUAL_OBJECT:
+                    int id = in.readInt();
+                    if (virtualObjects != null) {
+                        for (VirtualObject virtualObject : virtualObjects) {
+                            if (virtualObject.getId() == id) {
+                                return virtualObject;
+                            }
+                        }
+                    }
+                    throw new IOException("unknown virtual object " + id);
+                case VALUE_CONSTANT:
+                    return (JavaConstant) readConstant();
+                case VALUE_ILLEGAL:
+                    return Value.ILLEGAL;
+                case VALUE_REGISTER:
+                    Register register = readRegister(in.readInt());
+                    return register.asValue(readValueKind());
+                case VALUE_STACK_SLOT:
+                    int rawOffset = in.readInt();
+                    boolean addFrameSize = in.readBoolean();
+                    return StackSlot.get(readValueKind(), rawOffset, addFrameSize);
+                default:
+                    throw new IOException("invalid value tag " + tag);
+            }
+        }
+
+        private LIRKind readValueKind() throws IOException {
+            PlatformKind platformKind = arch.getPlatformKind(JavaKind.values()[in.readByte()]);
+            int referenceKind = in.readByte();
+            switch (referenceKind) {
+                case KIND_VALUE:
+                    return LIRKind.value(platformKind);
+                case KIND_REFERENCE:
+                    return LIRKind.reference(platformKind);
+                case KIND_COMPRESSED_REFERENCE:
+                    return LIRKind.compressedReference(platformKind);
+                default:
+                    throw new IOException("invalid reference kind " + referenceKind);
+            }
+        }
+
+        private Register readRegister(int number) throws IOException {
+            for (Register register : arch.getRegisters()) {
+                if (register.number == number) {
+                    return register;
+                }
+            }
+            throw new IOException("unknown register " + number);
+        }
+
+        private Location readLocation() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            if (in.readBoolean()) {
+                Register register = readRegister(in.readInt());
+                return Location.subregister(register, in.readInt());
+            }
+            return Location.stack(in.readInt());
+        }
+    }
+
+    /**
+     * The contents of a data section as it was built by the original compilation.
+     */
+    private static final class CachedData extends Data {
+
+        private final byte[] bytes;
+        private final int[] patchPositions;
+        private final VMConstant[] patchConstants;
+
+        CachedData(int alignment, byte[] bytes, int[] patchPositions, VMConstant[] patchConstants) {
+            super(alignment, bytes.length);
+            this.bytes = bytes;
+            this.patchPositions = patchPositions;
+            this.patchConstants = patchConstants;
+        }
+
+        @Override
+        protected void emit(ByteBuffer buffer, Patches patches) {
+            int start = buffer.position();
+            buffer.put(bytes);
+            for (int i = 0; i < patchPositions.length; i++) {
+                patches.registerPatch(start + patchPositions[i], patchConstants[i]);
+            }
+        }
+    }
+}
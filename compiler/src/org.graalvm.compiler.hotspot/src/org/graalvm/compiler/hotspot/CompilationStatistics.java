@@ -99,6 +99,8 @@ public final class CompilationStatistics {
     private int codeSize;
     @TimeValue private long duration;
     private long memoryUsed;
+    private int inlineeGraphCacheHits;
+    private int inlineeGraphCacheMisses;
     private final boolean osr;
     private final String holder;
     private final String name;
@@ -134,6 +136,21 @@ public final class CompilationStatistics {
         }
     }
 
+    /**
+     * Records the outcome of a lookup in the
+     * {@linkplain org.graalvm.compiler.nodes.spi.Replacements#getInlineeGraphCache() inlinee graph
+     * cache} during this compilation.
+     */
+    public void recordInlineeGraphCacheLookup(boolean hit) {
+        if (isEnabled()) {
+            if (hit) {
+                inlineeGraphCacheHits++;
+            } else {
+                inlineeGraphCacheMisses++;
+            }
+        }
+    }
+
     public static CompilationStatistics current() {
         return current.get().isEmpty() ? null : current.get().getLast();
     }
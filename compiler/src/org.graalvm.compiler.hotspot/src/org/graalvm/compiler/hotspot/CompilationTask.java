@@ -46,6 +46,7 @@ import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugDumpScope;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.hotspot.CompilationResultCache.Recording;
 import org.graalvm.compiler.options.EnumOptionKey;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
@@ -175,21 +176,49 @@ public class CompilationTask {
 
             final CompilationPrinter printer = CompilationPrinter.begin(options, compilationId, method, entryBCI);
 
-            try (DebugContext.Scope s = debug.scope("Compiling", new DebugDumpScope(getIdString(), true))) {
-                // Begin the compilation event.
-                compilationEvent.begin();
-                result = compiler.compile(method, entryBCI, useProfilingInfo, compilationId, options, debug);
-            } catch (Throwable e) {
-                throw debug.handle(e);
-            } finally {
-                // End the compilation event.
-                compilationEvent.end();
+            CompilationResultCache cache = useProfilingInfo && installAsDefault ? compiler.getCompilationResultCache(options) : null;
+            if (cache != null) {
+                result = cache.lookup(debug, method, entryBCI, compilationId, options);
+                if (result != null) {
+                    try (DebugCloseable b = CodeInstallationTime.start(debug)) {
+                        installMethod(debug, result);
+                    } catch (BailoutException e) {
+                        // The assumptions of the cached code no longer hold
+                        cache.evict(method, entryBCI);
+                        result = null;
+                    }
+                }
             }
 
-            if (result != null) {
-                try (DebugCloseable b = CodeInstallationTime.start(debug)) {
-                    installMethod(debug, result);
+            Recording recording = null;
+            if (result == null) {
+                if (cache != null) {
+                    CompilationResultCache.beginRecording();
                 }
+                try (DebugContext.Scope s = debug.scope("Compiling", new DebugDumpScope(getIdString(), true))) {
+                    // Begin the compilation event.
+                    compilationEvent.begin();
+                    result = compiler.compile(method, entryBCI, useProfilingInfo, compilationId, options, debug);
+                } catch (Throwable e) {
+                    throw debug.handle(e);
+                } finally {
+                    // End the compilation event.
+                    compilationEvent.end();
+                    if (cache != null) {
+                        recording = CompilationResultCache.endRecording();
+                    }
+                }
+
+                if (result != null) {
+                    try (DebugCloseable b = CodeInstallationTime.start(debug)) {
+                        installMethod(debug, result);
+                    }
+                    if (cache != null) {
+                        cache.store(debug, method, entryBCI, result, recording, options);
+                    }
+                }
+            }
+            if (result != null) {
                 // Installation is included in compilation time and memory usage reported by printer
                 printer.finish(result);
             }
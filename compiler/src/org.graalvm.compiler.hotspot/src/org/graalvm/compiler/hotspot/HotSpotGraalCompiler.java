@@ -84,6 +84,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
     private final HotSpotGraalRuntimeProvider graalRuntime;
     private final CompilationCounters compilationCounters;
     private final BootstrapWatchDog bootstrapWatchDog;
+    private volatile CompilationResultCache compilationResultCache;
     private List<DebugHandlersFactory> factories;
 
     HotSpotGraalCompiler(HotSpotJVMCIRuntime jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime, OptionValues options) {
@@ -101,6 +102,29 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
         return factories;
     }
 
+    /**
+     * Gets the persistent cache of compilation results selected by {@code options}.
+     *
+     * @return {@code null} if caching of compilation results is disabled
+     */
+    CompilationResultCache getCompilationResultCache(OptionValues options) {
+        String directory = CompilationResultCache.Options.CompilationResultCacheDirectory.getValue(options);
+        if (directory == null) {
+            return null;
+        }
+        CompilationResultCache cache = compilationResultCache;
+        if (cache == null || !cache.getDirectory().equals(directory)) {
+            synchronized (this) {
+                cache = compilationResultCache;
+                if (cache == null || !cache.getDirectory().equals(directory)) {
+                    cache = new CompilationResultCache(directory, jvmciRuntime, graalRuntime);
+                    compilationResultCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
     @Override
     public HotSpotGraalRuntimeProvider getGraalRuntime() {
         return graalRuntime;
@@ -130,7 +130,9 @@ public final class HotSpotReferenceMapBuilder extends ReferenceMapBuilder {
             }
         }
 
-        return new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, maxRegisterSize);
+        HotSpotReferenceMap referenceMap = new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, maxRegisterSize);
+        CompilationResultCache.recordReferenceMap(referenceMap, objects, derivedBase, sizeInBytes, maxRegisterSize);
+        return referenceMap;
     }
 
     private static int bytesPerElement(LIRKind kind) {
@@ -27,6 +27,10 @@ package org.graalvm.compiler.hotspot;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.bytecode.BytecodeProvider;
 import org.graalvm.compiler.hotspot.word.HotSpotOperation;
+import org.graalvm.compiler.nodes.EncodedGraphCache;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.util.Providers;
 import org.graalvm.compiler.printer.GraalDebugHandlersFactory;
@@ -41,8 +45,45 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
  */
 public class HotSpotReplacementsImpl extends ReplacementsImpl {
 
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Maximum size in kilobytes of the cache of graphs parsed for inlining. " +
+                       "A cached graph is decoded instead of parsing the inlinee again. " +
+                       "A value of 0 disables the cache.", type = OptionType.Expert)
+        public static final OptionKey<Integer> InlineeGraphCacheSize = new OptionKey<>(0);
+        // @formatter:on
+    }
+
+    private final EncodedGraphCache inlineeGraphCache;
+
     public HotSpotReplacementsImpl(OptionValues options, Providers providers, SnippetReflectionProvider snippetReflection, BytecodeProvider bytecodeProvider, TargetDescription target) {
         super(options, new GraalDebugHandlersFactory(snippetReflection), providers, snippetReflection, bytecodeProvider, target);
+        int cacheSize = Options.InlineeGraphCacheSize.getValue(options);
+        this.inlineeGraphCache = cacheSize > 0 ? new InlineeGraphCache(target, cacheSize * 1024L) : null;
+    }
+
+    @Override
+    public EncodedGraphCache getInlineeGraphCache() {
+        return inlineeGraphCache;
+    }
+
+    /**
+     * Reports inlinee graph cache lookups to the {@link CompilationStatistics} of the current
+     * compilation.
+     */
+    private static final class InlineeGraphCache extends EncodedGraphCache {
+
+        InlineeGraphCache(TargetDescription target, long capacity) {
+            super(target.arch, capacity);
+        }
+
+        @Override
+        protected void recordLookup(ResolvedJavaMethod method, boolean hit) {
+            CompilationStatistics stats = CompilationStatistics.current();
+            if (stats != null) {
+                stats.recordInlineeGraphCacheLookup(hit);
+            }
+        }
     }
 
     @Override
@@ -25,6 +25,7 @@
 package org.graalvm.compiler.hotspot.meta;
 
 import org.graalvm.compiler.core.common.spi.JavaConstantFieldProvider;
+import org.graalvm.compiler.hotspot.CompilationResultCache;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.options.OptionValues;
 
@@ -45,6 +46,15 @@ public class HotSpotConstantFieldProvider extends JavaConstantFieldProvider {
         this.config = config;
     }
 
+    @Override
+    public <T> T readConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
+        T folded = super.readConstantField(field, tool);
+        if (folded != null) {
+            CompilationResultCache.recordFoldedField(field, tool.getReceiver(), tool.readValue(), isStableField(field, tool));
+        }
+        return folded;
+    }
+
     @Override
     protected boolean isStableField(ResolvedJavaField field, ConstantFieldTool<?> tool) {
         if (!config.foldStableValues) {
@@ -37,6 +37,7 @@ import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.NodeClass;
 import org.graalvm.compiler.graph.spi.Canonicalizable;
 import org.graalvm.compiler.graph.spi.CanonicalizerTool;
+import org.graalvm.compiler.hotspot.CompilationResultCache;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.hotspot.HotSpotLIRGenerator;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
@@ -44,6 +45,7 @@ import org.graalvm.compiler.nodes.ConstantNode;
 import org.graalvm.compiler.nodes.calc.FloatingNode;
 import org.graalvm.compiler.nodes.spi.LIRLowerable;
 import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.options.OptionValues;
 
 import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.Value;
@@ -170,12 +172,41 @@ public class GraalHotSpotVMConfigNode extends FloatingNode implements LIRLowerab
         return config.MARKID_INLINE_CONTIGUOUS_ALLOCATION_SUPPORTED;
     }
 
+    /**
+     * Gets the current value of the VM address denoted by {@code markId}.
+     *
+     * @return 0 if {@code markId} does not denote an address
+     */
+    public static long addressValue(GraalHotSpotVMConfig config, int markId) {
+        if (markId == config.MARKID_CARD_TABLE_ADDRESS) {
+            return config.cardtableStartAddress;
+        } else if (markId == config.MARKID_HEAP_TOP_ADDRESS) {
+            return config.heapTopAddress;
+        } else if (markId == config.MARKID_HEAP_END_ADDRESS) {
+            return config.heapEndAddress;
+        } else if (markId == config.MARKID_CRC_TABLE_ADDRESS) {
+            return config.crcTableAddress;
+        }
+        return 0;
+    }
+
+    /**
+     * Determines if VM addresses are emitted as immediates marked with their id, so that the
+     * {@link CompilationResultCache} can relocate them to a VM with a different memory layout.
+     */
+    private boolean relocateAddresses(OptionValues options) {
+        return CompilationResultCache.Options.CompilationResultCacheDirectory.getValue(options) != null && config.osArch.equals("amd64");
+    }
+
     @Override
     public Node canonical(CanonicalizerTool tool) {
         if (markId == 0) {
-            return ConstantNode.forBoolean(!GeneratePIC.getValue(tool.getOptions()));
+            return ConstantNode.forBoolean(!GeneratePIC.getValue(tool.getOptions()) && !relocateAddresses(tool.getOptions()));
         }
         if (!GeneratePIC.getValue(tool.getOptions())) {
+            if (addressValue(config, markId) != 0 && relocateAddresses(tool.getOptions())) {
+                return this;
+            }
             if (markId == config.MARKID_CARD_TABLE_ADDRESS) {
                 return ConstantNode.forLong(config.cardtableStartAddress);
             } else if (markId == config.MARKID_HEAP_TOP_ADDRESS) {
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64BinaryArithmetic;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64RMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.SSEOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Computes {@code dst[i] = x[i] op y[i]} for a range of indices using AVX vector instructions.
+ * This is the vectorized body of a loop recognized by the loop vectorization phase; the original
+ * scalar loop stays in place and processes the remaining elements.
+ *
+ * The operation starts at index {@code start} and stops before {@code limit} or the length of
+ * any of the three arrays, whichever is smallest. It first peels scalar iterations until the
+ * destination address is aligned to the vector size, then processes whole vectors. The index of
+ * the first element that was not processed is returned. If {@code start} is negative or any array
+ * is {@code null}, nothing is processed and {@code start} is returned, so that the scalar loop
+ * throws the appropriate exception.
+ */
+@Opcode("ARRAY_ARITHMETIC")
+public final class AMD64ArrayArithmeticOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayArithmeticOp> TYPE = LIRInstructionClass.create(AMD64ArrayArithmeticOp.class);
+
+    public enum ArithmeticOperation {
+        ADD,
+        SUB,
+        MUL,
+        AND,
+        OR,
+        XOR;
+    }
+
+    private final JavaKind kind;
+    private final ArithmeticOperation operation;
+    private final int arrayBaseOffset;
+    private final int arrayLengthOffset;
+    private final Scale arrayIndexScale;
+    private final AVXSize vectorSize;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value dstValue;
+    @Alive({REG}) protected Value xValue;
+    @Alive({REG}) protected Value yValue;
+    @Alive({REG}) protected Value startValue;
+    @Alive({REG}) protected Value limitValue;
+    @Temp({REG}) protected Value indexTemp;
+    @Temp({REG}) protected Value endTemp;
+    @Temp({REG}) protected Value scratchTemp;
+    @Temp({REG}) protected Value vectorTemp;
+
+    public AMD64ArrayArithmeticOp(LIRGeneratorTool tool, JavaKind kind, ArithmeticOperation operation, Value result, Value dst, Value x, Value y, Value start, Value limit) {
+        super(TYPE);
+        assert isSupported(tool.target(), kind, operation);
+        this.kind = kind;
+        this.operation = operation;
+        this.arrayBaseOffset = tool.getProviders().getArrayOffsetProvider().arrayBaseOffset(kind);
+        this.arrayLengthOffset = tool.getProviders().getArrayOffsetProvider().arrayLengthOffset();
+        this.arrayIndexScale = Scale.fromInt(tool.getProviders().getArrayOffsetProvider().arrayScalingFactor(kind));
+        this.vectorSize = getVectorSize(tool.target(), kind);
+
+        this.resultValue = result;
+        this.dstValue = dst;
+        this.xValue = x;
+        this.yValue = y;
+        this.startValue = start;
+        this.limitValue = limit;
+
+        this.indexTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.endTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.scratchTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    /**
+     * Returns if {@code operation} on arrays of {@code kind} can be vectorized on {@code target}.
+     */
+    public static boolean isSupported(TargetDescription target, JavaKind kind, ArithmeticOperation operation) {
+        if (!((AMD64) target.arch).getFeatures().contains(CPUFeature.AVX)) {
+            return false;
+        }
+        switch (kind) {
+            case Int:
+                return true;
+            case Long:
+                // There is no packed 64-bit multiplication before AVX-512.
+                return operation != ArithmeticOperation.MUL;
+            case Float:
+            case Double:
+                return operation == ArithmeticOperation.ADD || operation == ArithmeticOperation.SUB || operation == ArithmeticOperation.MUL;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Floating point operations on 256-bit registers need AVX, integer operations need AVX2.
+     */
+    private static AVXSize getVectorSize(TargetDescription target, JavaKind kind) {
+        if (kind.isNumericFloat() || ((AMD64) target.arch).getFeatures().contains(CPUFeature.AVX2)) {
+            return AVXSize.YMM;
+        }
+        return AVXSize.XMM;
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register dst = asRegister(dstValue);
+        Register x = asRegister(xValue);
+        Register y = asRegister(yValue);
+        Register index = asRegister(indexTemp);
+        Register end = asRegister(endTemp);
+        Register scratch = asRegister(scratchTemp);
+        Register vector = asRegister(vectorTemp, AMD64Kind.DOUBLE);
+
+        Label done = new Label();
+        Label peelLoop = new Label();
+        Label vectorLoop = new Label();
+
+        masm.movl(result, asRegister(startValue));
+        masm.testl(result, result);
+        masm.jcc(ConditionFlag.Less, done);
+        masm.testq(dst, dst);
+        masm.jcc(ConditionFlag.Zero, done);
+        masm.testq(x, x);
+        masm.jcc(ConditionFlag.Zero, done);
+        masm.testq(y, y);
+        masm.jcc(ConditionFlag.Zero, done);
+
+        // end = min(limit, dst.length, x.length, y.length)
+        masm.movl(end, asRegister(limitValue));
+        emitMinLength(masm, end, dst);
+        emitMinLength(masm, end, x);
+        emitMinLength(masm, end, y);
+        masm.movslq(index, result);
+
+        // Peel scalar iterations until the destination is aligned to the vector size.
+        masm.bind(peelLoop);
+        masm.cmpq(index, end);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        masm.leaq(scratch, elementAddress(dst, index));
+        masm.testl(scratch, vectorSize.getBytes() - 1);
+        masm.jcc(ConditionFlag.Zero, vectorLoop);
+        emitScalarOperation(masm, dst, x, y, index, scratch, vector);
+        masm.incq(index);
+        masm.movl(result, index);
+        masm.jmp(peelLoop);
+
+        // Process whole vectors, the remaining elements are left to the scalar loop.
+        int elementsPerVector = vectorSize.getBytes() / arrayIndexScale.value;
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.leaq(scratch, new AMD64Address(index, elementsPerVector));
+        masm.cmpq(scratch, end);
+        masm.jcc(ConditionFlag.Greater, done);
+        VexMoveOp.VMOVDQU.emit(masm, vectorSize, vector, elementAddress(x, index));
+        getVectorOperation().emit(masm, vectorSize, vector, vector, elementAddress(y, index));
+        VexMoveOp.VMOVDQU.emit(masm, vectorSize, elementAddress(dst, index), vector);
+        masm.movq(index, scratch);
+        masm.movl(result, index);
+        masm.jmp(vectorLoop);
+
+        masm.bind(done);
+    }
+
+    private AMD64Address elementAddress(Register array, Register index) {
+        return new AMD64Address(array, index, arrayIndexScale, arrayBaseOffset);
+    }
+
+    private void emitMinLength(AMD64MacroAssembler masm, Register end, Register array) {
+        Label lengthIsLarger = new Label();
+        AMD64Address length = new AMD64Address(array, arrayLengthOffset);
+        masm.cmpl(end, length);
+        masm.jcc(ConditionFlag.LessEqual, lengthIsLarger);
+        masm.movl(end, length);
+        masm.bind(lengthIsLarger);
+    }
+
+    private void emitScalarOperation(AMD64MacroAssembler masm, Register dst, Register x, Register y, Register index, Register scratch, Register vector) {
+        AMD64Address dstAddress = elementAddress(dst, index);
+        AMD64Address xAddress = elementAddress(x, index);
+        AMD64Address yAddress = elementAddress(y, index);
+        switch (kind) {
+            case Int:
+            case Long:
+                OperandSize size = kind == JavaKind.Int ? OperandSize.DWORD : OperandSize.QWORD;
+                if (size == OperandSize.DWORD) {
+                    masm.movl(scratch, xAddress);
+                } else {
+                    masm.movq(scratch, xAddress);
+                }
+                getScalarOperation().emit(masm, size, scratch, yAddress);
+                if (size == OperandSize.DWORD) {
+                    masm.movl(dstAddress, scratch);
+                } else {
+                    masm.movq(dstAddress, scratch);
+                }
+                break;
+            case Float:
+                masm.movss(vector, xAddress);
+                getScalarOperation().emit(masm, OperandSize.SS, vector, yAddress);
+                masm.movss(dstAddress, vector);
+                break;
+            case Double:
+                masm.movsd(vector, xAddress);
+                getScalarOperation().emit(masm, OperandSize.SD, vector, yAddress);
+                masm.movsd(dstAddress, vector);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private AMD64RMOp getScalarOperation() {
+        if (kind.isNumericFloat()) {
+            switch (operation) {
+                case ADD:
+                    return SSEOp.ADD;
+                case SUB:
+                    return SSEOp.SUB;
+                case MUL:
+                    return SSEOp.MUL;
+                default:
+                    throw GraalError.shouldNotReachHere();
+            }
+        }
+        switch (operation) {
+            case ADD:
+                return AMD64BinaryArithmetic.ADD.getRMOpcode(OperandSize.DWORD);
+            case SUB:
+                return AMD64BinaryArithmetic.SUB.getRMOpcode(OperandSize.DWORD);
+            case MUL:
+                return AMD64RMOp.IMUL;
+            case AND:
+                return AMD64BinaryArithmetic.AND.getRMOpcode(OperandSize.DWORD);
+            case OR:
+                return AMD64BinaryArithmetic.OR.getRMOpcode(OperandSize.DWORD);
+            case XOR:
+                return AMD64BinaryArithmetic.XOR.getRMOpcode(OperandSize.DWORD);
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private VexRVMOp getVectorOperation() {
+        switch (operation) {
+            case ADD:
+                return kind == JavaKind.Int ? VexRVMOp.VPADDD : kind == JavaKind.Long ? VexRVMOp.VPADDQ : kind == JavaKind.Float ? VexRVMOp.VADDPS : VexRVMOp.VADDPD;
+            case SUB:
+                return kind == JavaKind.Int ? VexRVMOp.VPSUBD : kind == JavaKind.Long ? VexRVMOp.VPSUBQ : kind == JavaKind.Float ? VexRVMOp.VSUBPS : VexRVMOp.VSUBPD;
+            case MUL:
+                return kind == JavaKind.Int ? VexRVMOp.VPMULLD : kind == JavaKind.Float ? VexRVMOp.VMULPS : VexRVMOp.VMULPD;
+            case AND:
+                return VexRVMOp.VPAND;
+            case OR:
+                return VexRVMOp.VPOR;
+            case XOR:
+                return VexRVMOp.VPXOR;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+}
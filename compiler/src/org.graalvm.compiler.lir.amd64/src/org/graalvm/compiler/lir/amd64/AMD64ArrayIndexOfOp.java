@@ -51,24 +51,34 @@ import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.Value;
 
 /**
+ * Finds the first occurrence of any of up to {@link #MAX_SEARCH_VALUES} search values in a byte or
+ * char array, using SSE/AVX vector comparisons.
  */
 @Opcode("AMD64_ARRAY_INDEX_OF")
 public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
     public static final LIRInstructionClass<AMD64ArrayIndexOfOp> TYPE = LIRInstructionClass.create(AMD64ArrayIndexOfOp.class);
 
+    /**
+     * Maximum number of values that can be searched for simultaneously.
+     */
+    public static final int MAX_SEARCH_VALUES = 4;
+
     private final JavaKind kind;
     private final int vmPageSize;
+    private final int nValues;
 
     @Def({REG}) protected Value resultValue;
     @Alive({REG}) protected Value charArrayPtrValue;
     @Use({REG}) protected Value charArrayLengthValue;
-    @Alive({REG}) protected Value searchCharValue;
+    @Alive({REG}) protected Value[] searchValues;
     @Temp({REG}) protected Value arraySlotsRemaining;
     @Temp({REG}) protected Value comparisonResult1;
     @Temp({REG}) protected Value comparisonResult2;
     @Temp({REG}) protected Value comparisonResult3;
     @Temp({REG}) protected Value comparisonResult4;
-    @Temp({REG, ILLEGAL}) protected Value vectorCompareVal;
+    @Temp({REG, ILLEGAL}) protected Value[] vectorCompareVals;
+    @Temp({REG, ILLEGAL}) protected Value vectorTmp1;
+    @Temp({REG, ILLEGAL}) protected Value vectorTmp2;
     @Temp({REG, ILLEGAL}) protected Value vectorArray1;
     @Temp({REG, ILLEGAL}) protected Value vectorArray2;
     @Temp({REG, ILLEGAL}) protected Value vectorArray3;
@@ -80,16 +90,18 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
                     Value result,
                     Value arrayPtr,
                     Value arrayLength,
-                    Value searchChar) {
+                    Value... searchValues) {
         super(TYPE);
         this.kind = kind;
         this.vmPageSize = vmPageSize;
+        this.nValues = searchValues.length;
         assert byteMode() || charMode();
         assert supports(tool, CPUFeature.SSSE3) || supports(tool, CPUFeature.AVX) || supportsAVX2(tool);
+        assert nValues > 0 && nValues <= MAX_SEARCH_VALUES;
         resultValue = result;
         charArrayPtrValue = arrayPtr;
         charArrayLengthValue = arrayLength;
-        searchCharValue = searchChar;
+        this.searchValues = searchValues;
 
         this.arraySlotsRemaining = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
         this.comparisonResult1 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
@@ -97,7 +109,12 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         this.comparisonResult3 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
         this.comparisonResult4 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
         AMD64Kind vectorKind = byteMode() ? supportsAVX2(tool) ? AMD64Kind.V256_BYTE : AMD64Kind.V128_BYTE : supportsAVX2(tool) ? AMD64Kind.V256_WORD : AMD64Kind.V128_WORD;
-        this.vectorCompareVal = tool.newVariable(LIRKind.value(vectorKind));
+        this.vectorCompareVals = new Value[nValues];
+        for (int i = 0; i < nValues; i++) {
+            vectorCompareVals[i] = tool.newVariable(LIRKind.value(vectorKind));
+        }
+        this.vectorTmp1 = nValues > 1 ? tool.newVariable(LIRKind.value(vectorKind)) : Value.ILLEGAL;
+        this.vectorTmp2 = nValues > 2 ? tool.newVariable(LIRKind.value(vectorKind)) : Value.ILLEGAL;
         this.vectorArray1 = tool.newVariable(LIRKind.value(vectorKind));
         this.vectorArray2 = tool.newVariable(LIRKind.value(vectorKind));
         this.vectorArray3 = tool.newVariable(LIRKind.value(vectorKind));
@@ -116,9 +133,15 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
     public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler asm) {
         Register arrayPtr = asRegister(charArrayPtrValue);
         Register arrayLength = asRegister(charArrayLengthValue);
-        Register searchValue = asRegister(searchCharValue);
         Register result = asRegister(resultValue);
-        Register vecCmp = asRegister(vectorCompareVal);
+        Register[] searchValue = new Register[nValues];
+        Register[] vecCmp = new Register[nValues];
+        for (int i = 0; i < nValues; i++) {
+            searchValue[i] = asRegister(searchValues[i]);
+            vecCmp[i] = asRegister(vectorCompareVals[i]);
+        }
+        Register vecTmp1 = nValues > 1 ? asRegister(vectorTmp1) : null;
+        Register vecTmp2 = nValues > 2 ? asRegister(vectorTmp2) : null;
         Register vecArray1 = asRegister(vectorArray1);
         Register vecArray2 = asRegister(vectorArray2);
         Register vecArray3 = asRegister(vectorArray3);
@@ -153,18 +176,22 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         // important: this must be the first register manipulation, since charArrayLengthValue is
         // annotated with @Use
         asm.movl(slotsRemaining, arrayLength);
-        // move search value to vector
-        if (asm.supports(CPUFeature.AVX)) {
-            VexMoveOp.VMOVD.emit(asm, AVXKind.AVXSize.DWORD, vecCmp, searchValue);
-        } else {
-            asm.movdl(vecCmp, searchValue);
+        // move search values to vectors
+        for (int i = 0; i < nValues; i++) {
+            if (asm.supports(CPUFeature.AVX)) {
+                VexMoveOp.VMOVD.emit(asm, AVXKind.AVXSize.DWORD, vecCmp[i], searchValue[i]);
+            } else {
+                asm.movdl(vecCmp[i], searchValue[i]);
+            }
         }
         // load array pointer
         asm.movq(result, arrayPtr);
         // load copy of low part of array pointer
         asm.movl(cmpResult1, arrayPtr);
-        // fill comparison vector with copies of the search value
-        emitBroadcast(asm, vecCmp, vecArray1, vectorSize);
+        // fill comparison vectors with copies of the search values
+        for (int i = 0; i < nValues; i++) {
+            emitBroadcast(asm, vecCmp[i], vecArray1, vectorSize);
+        }
 
         // check if bulk vector load is in bounds
         asm.cmpl(slotsRemaining, bulkSize);
@@ -175,7 +202,7 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         asm.jcc(AMD64Assembler.ConditionFlag.Zero, bulkVectorLoop);
 
         // do one unaligned bulk comparison pass and adjust alignment afterwards
-        emitBulkCompare(asm, vectorSize, bytesPerVector, result, vecCmp, vecArray1, vecArray2, vecArray3, vecArray4, cmpResult1, cmpResult2, cmpResult3, cmpResult4,
+        emitBulkCompare(asm, vectorSize, bytesPerVector, result, vecCmp, vecTmp1, vecTmp2, vecArray1, vecArray2, vecArray3, vecArray4, cmpResult1, cmpResult2, cmpResult3, cmpResult4,
                         vectorFound1, vectorFound2, vectorFound3, vectorFound4, false);
         // load copy of low part of array pointer
         asm.movl(cmpResult1, arrayPtr);
@@ -197,7 +224,7 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         emitAlign(crb, asm);
         asm.bind(bulkVectorLoop);
         // memory-aligned bulk comparison
-        emitBulkCompare(asm, vectorSize, bytesPerVector, result, vecCmp, vecArray1, vecArray2, vecArray3, vecArray4, cmpResult1, cmpResult2, cmpResult3, cmpResult4,
+        emitBulkCompare(asm, vectorSize, bytesPerVector, result, vecCmp, vecTmp1, vecTmp2, vecArray1, vecArray2, vecArray3, vecArray4, cmpResult1, cmpResult2, cmpResult3, cmpResult4,
                         vectorFound1, vectorFound2, vectorFound3, vectorFound4, true);
         // adjust number of array slots remaining
         asm.subl(slotsRemaining, bulkSize);
@@ -216,7 +243,7 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         asm.cmpl(slotsRemaining, arraySlotsPerVector);
         asm.jcc(AMD64Assembler.ConditionFlag.Below, lessThanVectorSizeRemaining);
         // compare
-        emitSingleVectorCompare(asm, vectorSize, result, vecCmp, vecArray1, cmpResult1);
+        emitSingleVectorCompare(asm, vectorSize, result, vecCmp, vecTmp1, vecTmp2, vecArray1, cmpResult1);
 
         // check if a match was found
         asm.testl(cmpResult1, cmpResult1);
@@ -243,7 +270,7 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         // if the page boundary would be crossed, do byte/character-wise comparison instead.
         asm.jccb(AMD64Assembler.ConditionFlag.Above, lessThanVectorSizeRemainingLoop);
         // otherwise, do a vector compare that reads beyond array bounds
-        emitSingleVectorCompare(asm, vectorSize, result, vecCmp, vecArray1, cmpResult1);
+        emitSingleVectorCompare(asm, vectorSize, result, vecCmp, vecTmp1, vecTmp2, vecArray1, cmpResult1);
         // check if a match was found
         asm.testl(cmpResult1, cmpResult1);
         asm.jcc(AMD64Assembler.ConditionFlag.Zero, retNotFound);
@@ -276,8 +303,10 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
             AMD64Assembler.AMD64RMOp.MOV.emit(asm, operandSize, cmpResult1, new AMD64Address(result));
         }
         // check for match
-        AMD64Assembler.AMD64BinaryArithmetic.CMP.getRMOpcode(operandSize).emit(asm, operandSize, cmpResult1, searchValue);
-        asm.jcc(AMD64Assembler.ConditionFlag.Equal, retFound);
+        for (int i = 0; i < nValues; i++) {
+            AMD64Assembler.AMD64BinaryArithmetic.CMP.getRMOpcode(operandSize).emit(asm, operandSize, cmpResult1, searchValue[i]);
+            asm.jcc(AMD64Assembler.ConditionFlag.Equal, retFound);
+        }
         // adjust number of array slots remaining
         asm.decrementl(slotsRemaining);
         // adjust array pointer
@@ -351,15 +380,15 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
 
     /**
      * Loads {@code vectorSize} bytes from the position pointed to by {@code arrayPtr} and compares
-     * them to the search value stored in {@code vecCmp}. {@code vecArray} is overwritten by this
+     * them to the search values stored in {@code vecCmp}. {@code vecArray} is overwritten by this
      * operation. The comparison result is stored in {@code cmpResult}.
      */
     private void emitSingleVectorCompare(AMD64MacroAssembler asm, AVXKind.AVXSize vectorSize,
-                    Register arrayPtr, Register vecCmp, Register vecArray, Register cmpResult) {
+                    Register arrayPtr, Register[] vecCmp, Register vecTmp1, Register vecTmp2, Register vecArray, Register cmpResult) {
         // load array contents into vector
         emitArrayLoad(asm, vectorSize, vecArray, arrayPtr, 0, false);
-        // compare all loaded bytes to the search value.
-        emitVectorCompare(asm, vectorSize, vecArray, vecCmp);
+        // compare all loaded bytes to the search values.
+        emitVectorCompare(asm, vectorSize, vecArray, vecCmp, vecTmp1, vecTmp2);
         // create a 32-bit-mask from the most significant bit of every byte in the comparison
         // result.
         emitMOVMSK(asm, vectorSize, cmpResult, vecArray);
@@ -380,7 +409,9 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
                     AVXKind.AVXSize vectorSize,
                     int bytesPerVector,
                     Register arrayPtr,
-                    Register vecCmp,
+                    Register[] vecCmp,
+                    Register vecTmp1,
+                    Register vecTmp2,
                     Register vecArray1,
                     Register vecArray2,
                     Register vecArray3,
@@ -401,10 +432,10 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         emitArrayLoad(asm, vectorSize, vecArray4, arrayPtr, bytesPerVector * 3, alignedLoad);
         // compare all loaded bytes to the search value.
         // matching bytes are set to 0xff, non-matching bytes are set to 0x00.
-        emitVectorCompare(asm, vectorSize, vecArray1, vecCmp);
-        emitVectorCompare(asm, vectorSize, vecArray2, vecCmp);
-        emitVectorCompare(asm, vectorSize, vecArray3, vecCmp);
-        emitVectorCompare(asm, vectorSize, vecArray4, vecCmp);
+        emitVectorCompare(asm, vectorSize, vecArray1, vecCmp, vecTmp1, vecTmp2);
+        emitVectorCompare(asm, vectorSize, vecArray2, vecCmp, vecTmp1, vecTmp2);
+        emitVectorCompare(asm, vectorSize, vecArray3, vecCmp, vecTmp1, vecTmp2);
+        emitVectorCompare(asm, vectorSize, vecArray4, vecCmp, vecTmp1, vecTmp2);
         // create 32-bit-masks from the most significant bit of every byte in the comparison
         // results.
         emitMOVMSK(asm, vectorSize, cmpResult1, vecArray1);
@@ -446,6 +477,55 @@ public final class AMD64ArrayIndexOfOp extends AMD64LIRInstruction {
         }
     }
 
+    /**
+     * Compares all elements of {@code vecArray} to the search values in {@code vecCmp} and stores
+     * the combined result in {@code vecArray}. Matching bytes are set to 0xff, non-matching bytes
+     * are set to 0x00. {@code vecTmp1} and {@code vecTmp2} are only used when searching for more
+     * than one or two values, respectively.
+     */
+    private void emitVectorCompare(AMD64MacroAssembler asm, AVXKind.AVXSize vectorSize, Register vecArray, Register[] vecCmp, Register vecTmp1, Register vecTmp2) {
+        if (nValues > 1) {
+            // accumulate the comparison results of all search values except the first one in
+            // vecTmp1
+            emitCopyAndCompare(asm, vectorSize, vecTmp1, vecArray, vecCmp[1]);
+            for (int i = 2; i < nValues; i++) {
+                emitCopyAndCompare(asm, vectorSize, vecTmp2, vecArray, vecCmp[i]);
+                emitOr(asm, vectorSize, vecTmp1, vecTmp2);
+            }
+        }
+        emitVectorCompare(asm, vectorSize, vecArray, vecCmp[0]);
+        if (nValues > 1) {
+            emitOr(asm, vectorSize, vecArray, vecTmp1);
+        }
+    }
+
+    /**
+     * Sets {@code vecDst} to the result of comparing {@code vecArray} to {@code vecCmp}, leaving
+     * {@code vecArray} untouched.
+     */
+    private void emitCopyAndCompare(AMD64MacroAssembler asm, AVXKind.AVXSize vectorSize, Register vecDst, Register vecArray, Register vecCmp) {
+        if (asm.supports(CPUFeature.AVX)) {
+            if (byteMode()) {
+                VexRVMOp.VPCMPEQB.emit(asm, vectorSize, vecDst, vecCmp, vecArray);
+            } else {
+                VexRVMOp.VPCMPEQW.emit(asm, vectorSize, vecDst, vecCmp, vecArray);
+            }
+        } else {
+            // SSE
+            asm.movdqu(vecDst, vecArray);
+            emitVectorCompare(asm, vectorSize, vecDst, vecCmp);
+        }
+    }
+
+    private static void emitOr(AMD64MacroAssembler asm, AVXKind.AVXSize vectorSize, Register vecDst, Register vecSrc) {
+        if (asm.supports(CPUFeature.AVX)) {
+            VexRVMOp.VPOR.emit(asm, vectorSize, vecDst, vecDst, vecSrc);
+        } else {
+            // SSE
+            asm.por(vecDst, vecSrc);
+        }
+    }
+
     private void emitVectorCompare(AMD64MacroAssembler asm, AVXKind.AVXSize vectorSize, Register vecArray, Register vecCmp) {
         // compare all loaded bytes to the search value.
         // matching bytes are set to 0xff, non-matching bytes are set to 0x00.
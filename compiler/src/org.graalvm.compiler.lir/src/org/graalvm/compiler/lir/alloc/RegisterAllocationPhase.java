@@ -25,11 +25,22 @@
 package org.graalvm.compiler.lir.alloc;
 
 import org.graalvm.compiler.lir.phases.AllocationPhase;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
 
 /**
  * Marker class for register allocation phases.
  */
 public abstract class RegisterAllocationPhase extends AllocationPhase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Use the graph coloring register allocator instead of linear scan. Ignored if TraceRA is enabled.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> GraphColoringRA = new OptionKey<>(false);
+        // @formatter:on
+    }
+
     private boolean neverSpillConstants;
 
     public void setNeverSpillConstants(boolean neverSpillConstants) {
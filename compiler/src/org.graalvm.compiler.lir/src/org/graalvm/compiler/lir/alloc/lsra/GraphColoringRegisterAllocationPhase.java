@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.lsra;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.graalvm.collections.Pair;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.lir.alloc.lsra.Interval.RegisterPriority;
+import org.graalvm.compiler.lir.alloc.lsra.Interval.UsePosList;
+import org.graalvm.compiler.lir.alloc.lsra.LinearScan.IntervalPredicate;
+
+import jdk.vm.ci.code.Register;
+
+/**
+ * Assigns registers to the {@link Interval intervals} computed by the linear scan lifetime
+ * analysis by coloring their interference graph (Chaitin-Briggs with optimistic coloring).
+ *
+ * <ul>
+ * <li>A register is excluded for an interval if the interval intersects the fixed interval of the
+ * register, e.g., because the register is destroyed by a call in the lifetime of the interval.</li>
+ * <li>Move related intervals (see {@link Interval#locationHint(boolean)}) are coalesced by
+ * preferring the register of the other interval, which makes the move redundant.</li>
+ * <li>If the graph cannot be colored, intervals with the lowest spill cost per interference are
+ * left uncolored. The spill cost weights each use with the loop depth of its block so that values
+ * used in hot loops stay in registers.</li>
+ * </ul>
+ *
+ * The uncolored intervals are then allocated by the {@link LinearScanWalker}, which splits them
+ * into shorter live ranges and spills them where no register is available. Registers assigned by
+ * the coloring are blocked for the walker for the lifetime of the colored intervals.
+ */
+public final class GraphColoringRegisterAllocationPhase extends LinearScanRegisterAllocationPhase {
+
+    private static final CounterKey ColoredIntervals = DebugContext.counter("GraphColoring_ColoredIntervals");
+    private static final CounterKey UncoloredIntervals = DebugContext.counter("GraphColoring_UncoloredIntervals");
+    private static final CounterKey CoalescedIntervals = DebugContext.counter("GraphColoring_CoalescedIntervals");
+
+    /**
+     * Loop depths above this value do not further increase the spill cost of a use.
+     */
+    private static final int MAX_WEIGHTED_LOOP_DEPTH = 8;
+
+    private static final IntervalPredicate IS_UNCOLORED_VARIABLE_INTERVAL = new IntervalPredicate() {
+
+        @Override
+        public boolean apply(Interval i) {
+            return isVariable(i.operand) && (i.location() == null || !isRegister(i.location()));
+        }
+    };
+
+    private final LinearScan allocator;
+
+    GraphColoringRegisterAllocationPhase(LinearScan allocator) {
+        super(allocator);
+        this.allocator = allocator;
+    }
+
+    /**
+     * A node of the interference graph.
+     */
+    private static final class IntervalNode {
+        final Interval interval;
+        /**
+         * The registers that can be assigned to {@link #interval}, in allocation order.
+         */
+        final Register[] registers;
+        final List<IntervalNode> neighbors = new ArrayList<>();
+        /**
+         * Intervals connected to {@link #interval} by a move.
+         */
+        final List<IntervalNode> partners = new ArrayList<>();
+        /**
+         * Fixed registers connected to {@link #interval} by a move.
+         */
+        final List<Register> fixedPartners = new ArrayList<>(1);
+        final double spillCost;
+        int degree;
+        boolean removed;
+        Register color;
+
+        IntervalNode(Interval interval, Register[] registers, double spillCost) {
+            this.interval = interval;
+            this.registers = registers;
+            this.spillCost = spillCost;
+        }
+
+        boolean isTriviallyColorable() {
+            return degree < registers.length;
+        }
+
+        @Override
+        public String toString() {
+            return interval.operand + "[degree=" + degree + ", k=" + registers.length + ", cost=" + spillCost + "]";
+        }
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    void allocateRegisters() {
+        DebugContext debug = allocator.getDebug();
+        try (Indent indent = debug.logAndIndent("allocate registers by graph coloring")) {
+            Pair<Interval, Interval> lists = allocator.createUnhandledLists(LinearScan.IS_PRECOLORED_INTERVAL, LinearScan.IS_VARIABLE_INTERVAL);
+            Interval[] fixedIntervals = new Interval[allocator.getRegisters().size()];
+            for (Interval interval = lists.getLeft(); !interval.isEndMarker(); interval = interval.next) {
+                fixedIntervals[asRegister(interval.operand).number] = interval;
+            }
+
+            List<IntervalNode> nodes = buildInterferenceGraph(lists.getRight(), fixedIntervals);
+            ArrayDeque<IntervalNode> stack = simplify(nodes);
+            List<Interval>[] colored = select(stack, fixedIntervals.length);
+
+            Pair<Interval, Interval> uncolored = allocator.createUnhandledLists(LinearScan.IS_PRECOLORED_INTERVAL, IS_UNCOLORED_VARIABLE_INTERVAL);
+            if (!uncolored.getRight().isEndMarker()) {
+                Interval precolored = addColoredIntervalBlockers(uncolored.getLeft(), colored);
+                LinearScanWalker lsw;
+                if (OptimizingLinearScanWalker.Options.LSRAOptimization.getValue(allocator.getOptions())) {
+                    lsw = new OptimizingLinearScanWalker(allocator, precolored, uncolored.getRight());
+                } else {
+                    lsw = new LinearScanWalker(allocator, precolored, uncolored.getRight());
+                }
+                lsw.walk();
+                lsw.finishAllocation();
+            }
+        }
+    }
+
+    /**
+     * Creates a node for every variable interval that has not been assigned a location yet and
+     * connects nodes whose intervals intersect.
+     *
+     * @param variables the variable intervals sorted by their start position
+     */
+    private List<IntervalNode> buildInterferenceGraph(Interval variables, Interval[] fixedIntervals) {
+        List<IntervalNode> nodes = new ArrayList<>();
+        IntervalNode[] nodeForOperand = new IntervalNode[allocator.operandSize()];
+        List<IntervalNode> active = new ArrayList<>();
+        for (Interval interval = variables; !interval.isEndMarker(); interval = interval.next) {
+            if (interval.location() != null) {
+                // method parameters passed on the stack are handled by the walker
+                continue;
+            }
+            Register[] registers = availableRegisters(interval, fixedIntervals);
+            if (registers.length == 0) {
+                continue;
+            }
+            IntervalNode node = new IntervalNode(interval, registers, spillCost(interval));
+            int from = interval.from();
+            for (int i = active.size() - 1; i >= 0; i--) {
+                IntervalNode other = active.get(i);
+                if (other.interval.to() <= from) {
+                    active.remove(i);
+                } else if (other.registers[0].getRegisterCategory().equals(registers[0].getRegisterCategory()) && other.interval.intersects(interval)) {
+                    node.neighbors.add(other);
+                    other.neighbors.add(node);
+                }
+            }
+            active.add(node);
+            nodes.add(node);
+            nodeForOperand[interval.operandNumber] = node;
+        }
+
+        for (IntervalNode node : nodes) {
+            node.degree = node.neighbors.size();
+            Interval hint = node.interval.locationHint(false);
+            if (hint == null) {
+                continue;
+            }
+            if (isRegister(hint.operand)) {
+                node.fixedPartners.add(asRegister(hint.operand));
+            } else {
+                IntervalNode partner = nodeForOperand[hint.operandNumber];
+                if (partner != null && partner != node && !node.neighbors.contains(partner)) {
+                    node.partners.add(partner);
+                    partner.partners.add(node);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the allocatable registers for the kind of {@code interval} whose fixed intervals do not
+     * intersect {@code interval}.
+     */
+    private Register[] availableRegisters(Interval interval, Interval[] fixedIntervals) {
+        Register[] allocatable = allocator.getRegisterAllocationConfig().getAllocatableRegisters(interval.kind().getPlatformKind()).allocatableRegisters;
+        Register[] result = new Register[allocatable.length];
+        int count = 0;
+        for (Register register : allocatable) {
+            Interval fixed = fixedIntervals[register.number];
+            if (fixed == null || !fixed.intersects(interval)) {
+                result[count++] = register;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Estimates the cost of not keeping {@code interval} in a register, i.e., the number of
+     * executions of the instructions that use it.
+     */
+    private double spillCost(Interval interval) {
+        if (interval.to() - interval.from() <= 2) {
+            // spilling does not make the interval shorter
+            return Double.POSITIVE_INFINITY;
+        }
+        double cost = 0;
+        UsePosList usePosList = interval.usePosList();
+        for (int i = 0; i < usePosList.size(); i++) {
+            if (usePosList.registerPriority(i).greaterEqual(RegisterPriority.ShouldHaveRegister)) {
+                int loopDepth = allocator.blockForId(usePosList.usePos(i)).getLoopDepth();
+                cost += Math.pow(10, Math.min(loopDepth, MAX_WEIGHTED_LOOP_DEPTH));
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Removes all nodes from the graph, pushing them on the returned stack. A node with fewer
+     * neighbors than available registers can always be colored, so it is removed first. If there
+     * is no such node, the node with the lowest spill cost per interference is removed and may
+     * remain uncolored.
+     */
+    private static ArrayDeque<IntervalNode> simplify(List<IntervalNode> nodes) {
+        ArrayDeque<IntervalNode> stack = new ArrayDeque<>(nodes.size());
+        ArrayDeque<IntervalNode> worklist = new ArrayDeque<>();
+        for (IntervalNode node : nodes) {
+            if (node.isTriviallyColorable()) {
+                worklist.add(node);
+            }
+        }
+        int remaining = nodes.size();
+        while (remaining > 0) {
+            IntervalNode node = worklist.poll();
+            if (node == null) {
+                node = selectSpillCandidate(nodes);
+            } else if (node.removed) {
+                continue;
+            }
+            node.removed = true;
+            remaining--;
+            stack.push(node);
+            for (IntervalNode neighbor : node.neighbors) {
+                if (!neighbor.removed) {
+                    neighbor.degree--;
+                    if (neighbor.degree == neighbor.registers.length - 1) {
+                        worklist.add(neighbor);
+                    }
+                }
+            }
+        }
+        return stack;
+    }
+
+    private static IntervalNode selectSpillCandidate(List<IntervalNode> nodes) {
+        IntervalNode candidate = null;
+        double candidateCost = Double.POSITIVE_INFINITY;
+        for (IntervalNode node : nodes) {
+            if (!node.removed) {
+                double cost = node.spillCost / node.degree;
+                if (candidate == null || cost < candidateCost) {
+                    candidate = node;
+                    candidateCost = cost;
+                }
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Assigns registers in the reverse order in which nodes were removed from the graph.
+     *
+     * @return the colored intervals per register number
+     */
+    @SuppressWarnings("unchecked")
+    private List<Interval>[] select(ArrayDeque<IntervalNode> stack, int numberOfRegisters) {
+        DebugContext debug = allocator.getDebug();
+        List<Interval>[] colored = new List[numberOfRegisters];
+        boolean[] used = new boolean[numberOfRegisters];
+        while (!stack.isEmpty()) {
+            IntervalNode node = stack.pop();
+            Arrays.fill(used, false);
+            for (IntervalNode neighbor : node.neighbors) {
+                if (neighbor.color != null) {
+                    used[neighbor.color.number] = true;
+                }
+            }
+            Register color = selectColor(node, used, debug);
+            if (color == null) {
+                UncoloredIntervals.increment(debug);
+                if (debug.isLogEnabled()) {
+                    debug.log("no register for %s", node);
+                }
+                continue;
+            }
+            node.color = color;
+            node.interval.assignLocation(color.asValue(node.interval.kind()));
+            if (colored[color.number] == null) {
+                colored[color.number] = new ArrayList<>();
+            }
+            colored[color.number].add(node.interval);
+            ColoredIntervals.increment(debug);
+            if (debug.isLogEnabled()) {
+                debug.log("assigned %s to %s", color, node);
+            }
+        }
+        return colored;
+    }
+
+    private static Register selectColor(IntervalNode node, boolean[] used, DebugContext debug) {
+        // coalesce with a move related fixed register or colored interval
+        for (Register register : node.fixedPartners) {
+            if (isAvailable(node, register, used)) {
+                CoalescedIntervals.increment(debug);
+                return register;
+            }
+        }
+        for (IntervalNode partner : node.partners) {
+            if (partner.color != null && isAvailable(node, partner.color, used)) {
+                CoalescedIntervals.increment(debug);
+                return partner.color;
+            }
+        }
+        // keep a register free for the move related intervals that are not colored yet
+        Register firstFree = null;
+        for (Register register : node.registers) {
+            if (!used[register.number]) {
+                if (firstFree == null) {
+                    firstFree = register;
+                }
+                if (isFreeForPartners(node, register)) {
+                    return register;
+                }
+            }
+        }
+        return firstFree;
+    }
+
+    private static boolean isAvailable(IntervalNode node, Register register, boolean[] used) {
+        if (used[register.number]) {
+            return false;
+        }
+        for (Register r : node.registers) {
+            if (r.equals(register)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFreeForPartners(IntervalNode node, Register register) {
+        for (IntervalNode partner : node.partners) {
+            if (partner.color == null) {
+                for (IntervalNode neighbor : partner.neighbors) {
+                    if (register.equals(neighbor.color)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a fixed interval for every register that blocks the register in the lifetime of
+     * the intervals colored with it, and prepends these intervals to {@code precolored}.
+     */
+    private Interval addColoredIntervalBlockers(Interval precolored, List<Interval>[] colored) {
+        Interval result = precolored;
+        for (Register register : allocator.getRegisters()) {
+            List<Interval> intervals = colored[register.number];
+            if (intervals == null) {
+                continue;
+            }
+            List<Range> ranges = new ArrayList<>();
+            for (Interval interval : intervals) {
+                for (Range range = interval.first(); !range.isEndMarker(); range = range.next) {
+                    ranges.add(range);
+                }
+            }
+            ranges.sort((r1, r2) -> Integer.compare(r1.from, r2.from));
+            Interval blocker = new Interval(register.asValue(), register.number, allocator.intervalEndMarker, allocator.rangeEndMarker);
+            for (int i = ranges.size() - 1; i >= 0; i--) {
+                // ranges are added in reverse order, adjacent ranges are joined
+                blocker.addRange(ranges.get(i).from, ranges.get(i).to);
+            }
+            if (blocker.from() > 0) {
+                // like all fixed intervals, the blocker starts at position 0
+                blocker.addRange(0, 1);
+            }
+            blocker.next = result;
+            result = blocker;
+        }
+        return result;
+    }
+}
@@ -46,12 +46,20 @@ public abstract class TraceAllocationPhase<C extends TraceAllocationPhase.TraceA
         public final RegisterAllocationConfig registerAllocationConfig;
         public final TraceBuilderResult resultTraces;
         public final GlobalLivenessInfo livenessInfo;
-
-        public TraceAllocationContext(MoveFactory spillMoveFactory, RegisterAllocationConfig registerAllocationConfig, TraceBuilderResult resultTraces, GlobalLivenessInfo livenessInfo) {
+        /**
+         * Whether the allocation of a trace may read the locations assigned to its predecessor
+         * trace. This is not the case if traces are allocated concurrently, because the
+         * predecessor might still be allocated by another thread.
+         */
+        public final boolean predecessorLocationsAvailable;
+
+        public TraceAllocationContext(MoveFactory spillMoveFactory, RegisterAllocationConfig registerAllocationConfig, TraceBuilderResult resultTraces, GlobalLivenessInfo livenessInfo,
+                        boolean predecessorLocationsAvailable) {
             this.spillMoveFactory = spillMoveFactory;
             this.registerAllocationConfig = registerAllocationConfig;
             this.resultTraces = resultTraces;
             this.livenessInfo = livenessInfo;
+            this.predecessorLocationsAvailable = predecessorLocationsAvailable;
         }
     }
 
@@ -24,12 +24,20 @@
  */
 package org.graalvm.compiler.lir.alloc.trace;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
 import org.graalvm.compiler.core.common.alloc.Trace;
 import org.graalvm.compiler.core.common.alloc.TraceBuilderResult;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.Indent;
 import org.graalvm.compiler.lir.LIR;
 import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
@@ -61,6 +69,12 @@ public final class TraceRegisterAllocationPhase extends RegisterAllocationPhase
         public static final OptionKey<Boolean> TraceRAreuseStackSlotsForMoveResolutionCycleBreaking = new OptionKey<>(true);
         @Option(help = "Cache stack slots globally (i.e. a variable always gets the same slot in every trace).", type = OptionType.Debug)
         public static final OptionKey<Boolean> TraceRACacheStackSlots = new OptionKey<>(true);
+        @Option(help = "Allocate independent traces concurrently on the common fork-join pool.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> TraceRAParallel = new OptionKey<>(false);
+        @Option(help = "Minimum number of non-trivial traces for which traces are allocated concurrently.", type = OptionType.Expert)
+        public static final OptionKey<Integer> TraceRAParallelMinTraces = new OptionKey<>(32);
+        @Option(help = "Maximum number of threads that allocate traces concurrently (0 = parallelism of the common fork-join pool + 1).", type = OptionType.Expert)
+        public static final OptionKey<Integer> TraceRAParallelism = new OptionKey<>(0);
         // @formatter:on
     }
 
@@ -90,7 +104,7 @@ public final class TraceRegisterAllocationPhase extends RegisterAllocationPhase
         TraceBuilderResult resultTraces = context.contextLookup(TraceBuilderResult.class);
         GlobalLivenessInfo livenessInfo = context.contextLookup(GlobalLivenessInfo.class);
         assert livenessInfo != null;
-        TraceAllocationContext traceContext = new TraceAllocationContext(spillMoveFactory, registerAllocationConfig, resultTraces, livenessInfo);
+        TraceAllocationContext traceContext = new TraceAllocationContext(spillMoveFactory, registerAllocationConfig, resultTraces, livenessInfo, true);
         AllocatableValue[] cachedStackSlots = Options.TraceRACacheStackSlots.getValue(lir.getOptions()) ? new AllocatableValue[lir.numVariables()] : null;
 
         boolean neverSpillConstant = getNeverSpillConstants();
@@ -100,11 +114,15 @@ public final class TraceRegisterAllocationPhase extends RegisterAllocationPhase
                         neverSpillConstant, livenessInfo, lir.getOptions());
 
         try (DebugContext.Scope s0 = debug.scope("AllocateTraces", resultTraces, livenessInfo)) {
-            for (Trace trace : resultTraces.getTraces()) {
-                tracesCounter.increment(debug);
-                TraceAllocationPhase<TraceAllocationContext> allocator = plan.selectStrategy(trace);
-                try (Indent i = debug.logAndIndent("Allocating Trace%d: %s (%s)", trace.getId(), trace, allocator); DebugContext.Scope s = debug.scope("AllocateTrace", trace)) {
-                    allocator.apply(target, lirGenRes, trace, traceContext);
+            if (Options.TraceRAParallel.getValue(lir.getOptions()) && !debug.areScopesEnabled() && !debug.areMetricsEnabled()) {
+                allocateTracesConcurrently(target, lirGenRes, traceContext, plan, neverSpillConstant);
+            } else {
+                for (Trace trace : resultTraces.getTraces()) {
+                    tracesCounter.increment(debug);
+                    TraceAllocationPhase<TraceAllocationContext> allocator = plan.selectStrategy(trace);
+                    try (Indent i = debug.logAndIndent("Allocating Trace%d: %s (%s)", trace.getId(), trace, allocator); DebugContext.Scope s = debug.scope("AllocateTrace", trace)) {
+                        allocator.apply(target, lirGenRes, trace, traceContext);
+                    }
                 }
             }
         } catch (Throwable e) {
@@ -115,6 +133,144 @@ public final class TraceRegisterAllocationPhase extends RegisterAllocationPhase
         deconstructSSAForm(lir);
     }
 
+    /**
+     * Allocates the non-trivial traces concurrently and the trivial traces afterwards on the
+     * current thread.
+     *
+     * Non-trivial traces only read and write the locations of their own blocks, so they can be
+     * allocated in any order. A {@link TrivialTraceAllocator trivial trace} copies the locations of
+     * its predecessor, so trivial traces are allocated in trace order once all other traces are
+     * done. Each worker uses its own {@link TraceRegisterAllocationPolicy} since the allocation
+     * strategies keep per-trace state, and its own stack slot cache so that a variable never
+     * changes its spill slot within a trace. The workers share the spill move factory, the frame
+     * map builder and the register allocation config, which are safe for concurrent use. The
+     * current thread takes part in the allocation, so the compilation makes progress even if the
+     * pool is saturated.
+     *
+     * The predecessor of a non-trivial trace may still be allocated by another worker, so its
+     * locations are not available. The workers therefore do not use
+     * {@linkplain Options#TraceRAuseInterTraceHints inter-trace hints}, which costs some moves at
+     * trace boundaries.
+     *
+     * This is only used if {@linkplain DebugContext#areScopesEnabled() scopes} and
+     * {@linkplain DebugContext#areMetricsEnabled() metrics} are disabled, because a
+     * {@link DebugContext} must not be accessed concurrently.
+     */
+    private static void allocateTracesConcurrently(TargetDescription target, LIRGenerationResult lirGenRes, TraceAllocationContext traceContext, TraceRegisterAllocationPolicy plan,
+                    boolean neverSpillConstant) {
+        LIR lir = lirGenRes.getLIR();
+        DebugContext debug = lir.getDebug();
+        List<Trace> concurrentTraces = new ArrayList<>();
+        List<Trace> trivialTraces = new ArrayList<>();
+        for (Trace trace : traceContext.resultTraces.getTraces()) {
+            tracesCounter.increment(debug);
+            if (plan.selectStrategy(trace) instanceof TrivialTraceAllocator) {
+                trivialTraces.add(trace);
+            } else {
+                concurrentTraces.add(trace);
+            }
+        }
+
+        int parallelism = Options.TraceRAParallelism.getValue(lir.getOptions());
+        if (parallelism <= 0) {
+            parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        }
+        int workers = Math.min(parallelism, concurrentTraces.size());
+        if (workers <= 1 || concurrentTraces.size() < Options.TraceRAParallelMinTraces.getValue(lir.getOptions())) {
+            for (Trace trace : concurrentTraces) {
+                plan.selectStrategy(trace).apply(target, lirGenRes, trace, traceContext);
+            }
+        } else {
+            TraceAllocationContext concurrentContext = new TraceAllocationContext(traceContext.spillMoveFactory, traceContext.registerAllocationConfig, traceContext.resultTraces,
+                            traceContext.livenessInfo, false);
+            ConcurrentAllocation allocation = new ConcurrentAllocation(target, lirGenRes, concurrentContext, neverSpillConstant, concurrentTraces);
+            for (int i = 1; i < workers; i++) {
+                ForkJoinPool.commonPool().execute(allocation::allocateTraces);
+            }
+            allocation.allocateTraces();
+            allocation.awaitCompletion();
+        }
+
+        for (Trace trace : trivialTraces) {
+            plan.selectStrategy(trace).apply(target, lirGenRes, trace, traceContext);
+        }
+    }
+
+    /**
+     * Shared state of the workers of {@link #allocateTracesConcurrently}. Workers claim traces
+     * until none are left, so a worker that is scheduled late finds no work and returns
+     * immediately.
+     */
+    private static final class ConcurrentAllocation {
+        private final TargetDescription target;
+        private final LIRGenerationResult lirGenRes;
+        private final TraceAllocationContext traceContext;
+        private final boolean neverSpillConstant;
+        private final List<Trace> traces;
+        private final AtomicInteger nextTrace = new AtomicInteger();
+        private final CountDownLatch remainingTraces;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ConcurrentAllocation(TargetDescription target, LIRGenerationResult lirGenRes, TraceAllocationContext traceContext, boolean neverSpillConstant, List<Trace> traces) {
+            this.target = target;
+            this.lirGenRes = lirGenRes;
+            this.traceContext = traceContext;
+            this.neverSpillConstant = neverSpillConstant;
+            this.traces = traces;
+            this.remainingTraces = new CountDownLatch(traces.size());
+        }
+
+        void allocateTraces() {
+            TraceRegisterAllocationPolicy workerPlan = null;
+            int index;
+            while ((index = nextTrace.getAndIncrement()) < traces.size()) {
+                Trace trace = traces.get(index);
+                try {
+                    if (failure.get() == null) {
+                        if (workerPlan == null) {
+                            workerPlan = createWorkerPolicy();
+                        }
+                        workerPlan.selectStrategy(trace).apply(target, lirGenRes, trace, traceContext);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    remainingTraces.countDown();
+                }
+            }
+        }
+
+        private TraceRegisterAllocationPolicy createWorkerPolicy() {
+            LIR lir = lirGenRes.getLIR();
+            AllocatableValue[] cachedStackSlots = Options.TraceRACacheStackSlots.getValue(lir.getOptions()) ? new AllocatableValue[lir.numVariables()] : null;
+            return DefaultTraceRegisterAllocationPolicy.allocationPolicy(target, lirGenRes, traceContext.spillMoveFactory, traceContext.registerAllocationConfig, cachedStackSlots,
+                            traceContext.resultTraces, neverSpillConstant, traceContext.livenessInfo, lir.getOptions());
+        }
+
+        void awaitCompletion() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    remainingTraces.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            } else if (e != null) {
+                throw new GraalError(e);
+            }
+        }
+    }
+
     /**
      * Remove Phi In/Out.
      */
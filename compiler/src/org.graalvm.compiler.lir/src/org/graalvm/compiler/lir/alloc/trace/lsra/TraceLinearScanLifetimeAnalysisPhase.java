@@ -32,7 +32,6 @@ import static org.graalvm.compiler.lir.LIRValueUtil.asVariable;
 import static org.graalvm.compiler.lir.LIRValueUtil.isStackSlotValue;
 import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
 import static org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase.Options.TraceRAshareSpillInformation;
-import static org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase.Options.TraceRAuseInterTraceHints;
 import static org.graalvm.compiler.lir.alloc.trace.TraceUtil.asShadowedRegisterValue;
 import static org.graalvm.compiler.lir.alloc.trace.TraceUtil.isShadowedRegisterValue;
 import static org.graalvm.compiler.lir.alloc.trace.lsra.TraceLinearScanPhase.isVariableOrRegister;
@@ -539,7 +538,7 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
                 assert instructionIndex == 0 : "not at start?" + instructionIndex;
                 handleTraceBegin(blocks[0]);
 
-                if (TraceRAuseInterTraceHints.getValue(allocator.getLIR().getOptions())) {
+                if (allocator.useInterTraceHints()) {
                     addInterTraceHints();
                 }
                 // fix spill state for phi/incoming intervals
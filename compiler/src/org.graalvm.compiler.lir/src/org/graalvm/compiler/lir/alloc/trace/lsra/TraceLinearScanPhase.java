@@ -241,6 +241,8 @@ public final class TraceLinearScanPhase extends TraceAllocationPhase<TraceAlloca
 
         private final Trace trace;
 
+        private boolean useInterTraceHints;
+
         public TraceLinearScan(Trace trace) {
             this.trace = trace;
             this.fixedIntervals = new FixedInterval[registers.size()];
@@ -261,6 +263,13 @@ public final class TraceLinearScanPhase extends TraceAllocationPhase<TraceAlloca
             return getLIR().getOptions();
         }
 
+        /**
+         * Whether the lifetime analysis takes location hints from the predecessor trace.
+         */
+        boolean useInterTraceHints() {
+            return useInterTraceHints;
+        }
+
         DebugContext getDebug() {
             return getLIR().getDebug();
         }
@@ -581,6 +590,7 @@ public final class TraceLinearScanPhase extends TraceAllocationPhase<TraceAlloca
              * This is the point to enable debug logging for the whole register allocation.
              */
             DebugContext debug = res.getLIR().getDebug();
+            useInterTraceHints = traceContext.predecessorLocationsAvailable && TraceRegisterAllocationPhase.Options.TraceRAuseInterTraceHints.getValue(getOptions());
             try (Indent indent = debug.logAndIndent("LinearScan allocate")) {
                 TRACE_LINEAR_SCAN_LIFETIME_ANALYSIS_PHASE.apply(target, lirGenRes, trace, spillMoveFactory, registerAllocationConfig, traceBuilderResult, this, false);
 
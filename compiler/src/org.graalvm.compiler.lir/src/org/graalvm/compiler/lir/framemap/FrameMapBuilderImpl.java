@@ -72,15 +72,19 @@ public class FrameMapBuilderImpl extends FrameMapBuilderTool {
         this.numStackSlots = 0;
     }
 
+    /*
+     * Stack slots can be allocated concurrently if the trace register allocator allocates traces
+     * in parallel (see TraceRegisterAllocationPhase.Options.TraceRAParallel).
+     */
     @Override
-    public VirtualStackSlot allocateSpillSlot(ValueKind<?> kind) {
+    public synchronized VirtualStackSlot allocateSpillSlot(ValueKind<?> kind) {
         SimpleVirtualStackSlot slot = new SimpleVirtualStackSlot(numStackSlots++, kind);
         stackSlots.add(slot);
         return slot;
     }
 
     @Override
-    public VirtualStackSlot allocateStackSlots(int slots, BitSet objects, List<VirtualStackSlot> outObjectStackSlots) {
+    public synchronized VirtualStackSlot allocateStackSlots(int slots, BitSet objects, List<VirtualStackSlot> outObjectStackSlots) {
         if (slots == 0) {
             return null;
         }
@@ -108,7 +112,7 @@ public class FrameMapBuilderImpl extends FrameMapBuilderTool {
     }
 
     @Override
-    public int getNumberOfStackSlots() {
+    public synchronized int getNumberOfStackSlots() {
         return numStackSlots;
     }
 
@@ -28,6 +28,8 @@ import static org.graalvm.compiler.core.common.GraalOptions.TraceRA;
 
 import org.graalvm.compiler.debug.Assertions;
 import org.graalvm.compiler.lir.alloc.AllocationStageVerifier;
+import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringPhase;
 import org.graalvm.compiler.lir.alloc.lsra.LinearScanPhase;
 import org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase;
 import org.graalvm.compiler.lir.dfa.LocationMarkerPhase;
@@ -43,6 +45,8 @@ public class AllocationStage extends LIRPhaseSuite<AllocationContext> {
         appendPhase(new MarkBasePointersPhase());
         if (TraceRA.getValue(options)) {
             appendPhase(new TraceRegisterAllocationPhase());
+        } else if (RegisterAllocationPhase.Options.GraphColoringRA.getValue(options)) {
+            appendPhase(new GraphColoringPhase());
         } else {
             appendPhase(new LinearScanPhase());
         }
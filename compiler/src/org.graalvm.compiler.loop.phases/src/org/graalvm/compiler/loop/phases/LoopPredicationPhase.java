@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.loop.MathUtil.add;
+import static org.graalvm.compiler.loop.MathUtil.mul;
+import static org.graalvm.compiler.loop.MathUtil.sub;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
+import org.graalvm.compiler.core.common.cfg.Loop;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.DerivedConvertedInductionVariable;
+import org.graalvm.compiler.loop.DerivedInductionVariable;
+import org.graalvm.compiler.loop.DerivedOffsetInductionVariable;
+import org.graalvm.compiler.loop.DerivedScaledInductionVariable;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LogicNegationNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ShortCircuitOrNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.SpeculationLog;
+import jdk.vm.ci.meta.SpeculationLog.SpeculationReason;
+
+/**
+ * Moves {@linkplain GuardNode guards} out of loops.
+ *
+ * <ul>
+ * <li>A guard whose condition is loop invariant is re-anchored ahead of the loop.</li>
+ * <li>A guard of the form {@code iv |<| length} (i.e., a range check) where {@code iv} is an
+ * induction variable of a counted loop derived from the loop counter and {@code length} is loop
+ * invariant is replaced by a guard ahead of the loop that checks the values of {@code iv} in the
+ * first and last iteration. These are computed in 64-bit arithmetic so that the check also
+ * guarantees that {@code iv} does not overflow.</li>
+ * </ul>
+ *
+ * Both transformations are applied from the innermost loop outwards. Hoisting a guard can make
+ * values guarded by it loop invariant (e.g., the length of a row of a two-dimensional array),
+ * which in turn enables more guards to be moved.
+ *
+ * A guard is moved without speculation if it is executed in every iteration of the loop. Otherwise
+ * moving it may cause a deoptimization that would not have happened in the original loop, so the
+ * moved guard speculates that this does not happen. If the speculation fails, the loop is not
+ * predicated in the next compilation of the method.
+ */
+public class LoopPredicationPhase extends BasePhase<MidTierContext> {
+
+    private static final CounterKey HoistedGuards = DebugContext.counter("LoopPredication_HoistedGuards");
+    private static final CounterKey PredicatedGuards = DebugContext.counter("LoopPredication_PredicatedGuards");
+    private static final CounterKey SpeculativeGuards = DebugContext.counter("LoopPredication_SpeculativeGuards");
+
+    private static final Stamp LONG_STAMP = StampFactory.forKind(JavaKind.Long);
+
+    @Override
+    protected void run(StructuredGraph graph, MidTierContext context) {
+        if (!graph.getGuardsStage().allowsFloatingGuards() || !graph.hasLoops()) {
+            return;
+        }
+        boolean useCountedLoops = context.getOptimisticOptimizations().useLoopLimitChecks(graph.getOptions());
+        LoopsData data = new LoopsData(graph);
+        if (useCountedLoops) {
+            data.detectedCountedLoops();
+        }
+        ControlFlowGraph cfg = data.getCFG();
+
+        EconomicMap<Loop<Block>, List<GuardNode>> guardsPerLoop = EconomicMap.create(Equivalence.IDENTITY);
+        for (GuardNode guard : graph.getNodes(GuardNode.TYPE)) {
+            addToLoop(cfg, guardsPerLoop, guard);
+        }
+
+        List<LoopEx> innerFirst = new ArrayList<>(data.outerFirst());
+        Collections.reverse(innerFirst);
+        for (LoopEx loop : innerFirst) {
+            List<GuardNode> guards = guardsPerLoop.get(loop.loop());
+            boolean progress = guards != null;
+            while (progress) {
+                progress = false;
+                for (GuardNode guard : new ArrayList<>(guards)) {
+                    if (guard.isDeleted()) {
+                        guards.remove(guard);
+                        continue;
+                    }
+                    GuardNode moved = tryHoist(loop, cfg, guard);
+                    if (moved == null && loop.isCounted()) {
+                        moved = tryPredicate(loop, cfg, guard);
+                    }
+                    if (moved != null) {
+                        guards.remove(guard);
+                        addToLoop(cfg, guardsPerLoop, moved);
+                        loop.invalidateFragments();
+                        progress = true;
+                    }
+                }
+            }
+        }
+        data.deleteUnusedNodes();
+    }
+
+    private static void addToLoop(ControlFlowGraph cfg, EconomicMap<Loop<Block>, List<GuardNode>> guardsPerLoop, GuardNode guard) {
+        Block block = cfg.blockFor(guard.getAnchor().asNode());
+        if (block != null && block.getLoop() != null) {
+            List<GuardNode> guards = guardsPerLoop.get(block.getLoop());
+            if (guards == null) {
+                guards = new ArrayList<>();
+                guardsPerLoop.put(block.getLoop(), guards);
+            }
+            guards.add(guard);
+        }
+    }
+
+    /**
+     * Re-anchors {@code guard} ahead of {@code loop} if its condition is loop invariant.
+     *
+     * @return the moved guard or {@code null}
+     */
+    private static GuardNode tryHoist(LoopEx loop, ControlFlowGraph cfg, GuardNode guard) {
+        if (!loop.isOutsideLoop(guard.getCondition())) {
+            return null;
+        }
+        StructuredGraph graph = guard.graph();
+        AbstractBeginNode anchor = AbstractBeginNode.prevBegin(loop.entryPoint());
+        if (guard.getAnchor() == loop.loopBegin()) {
+            // The loop header is executed whenever the loop is entered.
+            guard.setAnchor(anchor);
+            HoistedGuards.increment(graph.getDebug());
+            return guard;
+        }
+        if (!loop.isCounted() || !AbstractControlFlowGraph.dominates(cfg.blockFor(loop.counted().getBody()), cfg.blockFor(guard.getAnchor().asNode()))) {
+            return null;
+        }
+        LogicNode condition = or(notEntered(loop.counted()), false, guard.getCondition(), guard.isNegated());
+        Speculation speculation = guard.getAnchor() == loop.counted().getBody() ? Speculation.NONE : Speculation.create(loop);
+        if (speculation == null) {
+            return null;
+        }
+        HoistedGuards.increment(graph.getDebug());
+        return replace(guard, condition, anchor, speculation);
+    }
+
+    /**
+     * Replaces a range check on an induction variable of {@code loop} by a check of the range of
+     * the induction variable ahead of {@code loop}.
+     *
+     * @return the new guard or {@code null}
+     */
+    private static GuardNode tryPredicate(LoopEx loop, ControlFlowGraph cfg, GuardNode guard) {
+        CountedLoopInfo counted = loop.counted();
+        if (guard.isNegated() || counted.getStamp().getBits() != 32 || !AbstractControlFlowGraph.dominates(cfg.blockFor(counted.getBody()), cfg.blockFor(guard.getAnchor().asNode()))) {
+            return null;
+        }
+        StructuredGraph graph = guard.graph();
+        if (!canPredicate(loop, guard.getCondition())) {
+            return null;
+        }
+        boolean everyIteration = guard.getAnchor() == counted.getBody() && counted.isExactTripCount();
+        Speculation speculation = everyIteration ? Speculation.NONE : Speculation.create(loop);
+        if (speculation == null) {
+            return null;
+        }
+        /*
+         * The range of the counter is derived from the loop limit, which is only correct if the
+         * counter cannot overflow.
+         */
+        counted.createOverFlowGuard();
+        LogicNode condition = or(notEntered(counted), false, predicate(loop, guard.getCondition()), false);
+        PredicatedGuards.increment(graph.getDebug());
+        return replace(guard, condition, AbstractBeginNode.prevBegin(loop.entryPoint()), speculation);
+    }
+
+    /**
+     * Determines if {@code condition} is a range check of an induction variable derived from the
+     * counter of {@code loop}, optionally preceded by loop invariant disjuncts.
+     *
+     * The upper bound of the range check must be known to be non-negative. Only then is the set
+     * of values accepted by the unsigned comparison the interval from 0 to the bound, which is
+     * convex, so that checking the first and the last value of the induction variable covers all
+     * values in between.
+     */
+    private static boolean canPredicate(LoopEx loop, LogicNode condition) {
+        if (condition instanceof IntegerBelowNode) {
+            IntegerBelowNode below = (IntegerBelowNode) condition;
+            if (!(below.getX().stamp(NodeView.DEFAULT) instanceof IntegerStamp) || ((IntegerStamp) below.getX().stamp(NodeView.DEFAULT)).getBits() != 32 || !loop.isOutsideLoop(below.getY())) {
+                return false;
+            }
+            if (!(below.getY().stamp(NodeView.DEFAULT) instanceof IntegerStamp) || !((IntegerStamp) below.getY().stamp(NodeView.DEFAULT)).isPositive()) {
+                return false;
+            }
+            InductionVariable iv = loop.getInductionVariables().get(below.getX());
+            return iv != null && derivesFromCounter(iv, loop.counted().getCounter());
+        } else if (condition instanceof ShortCircuitOrNode) {
+            ShortCircuitOrNode or = (ShortCircuitOrNode) condition;
+            return loop.isOutsideLoop(or.getX()) && !or.isYNegated() && canPredicate(loop, or.getY());
+        }
+        return false;
+    }
+
+    private static boolean derivesFromCounter(InductionVariable iv, InductionVariable counter) {
+        InductionVariable current = iv;
+        while (current != counter) {
+            if (current instanceof DerivedOffsetInductionVariable || current instanceof DerivedScaledInductionVariable || current instanceof DerivedConvertedInductionVariable) {
+                current = ((DerivedInductionVariable) current).getBase();
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the loop invariant equivalent of a condition accepted by
+     * {@link #canPredicate(LoopEx, LogicNode)}, assuming the loop is entered.
+     */
+    private static LogicNode predicate(LoopEx loop, LogicNode condition) {
+        StructuredGraph graph = condition.graph();
+        if (condition instanceof ShortCircuitOrNode) {
+            ShortCircuitOrNode or = (ShortCircuitOrNode) condition;
+            return or(or.getX(), or.isXNegated(), predicate(loop, or.getY()), false);
+        }
+        IntegerBelowNode below = (IntegerBelowNode) condition;
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        InductionVariable iv = loop.getInductionVariables().get(below.getX());
+
+        // The first and last value of the counter for which the loop body is executed
+        ValueNode first = toLong(counted.getStart());
+        ValueNode last = toLong(counted.getLimit());
+        if (!counted.isLimitIncluded()) {
+            ValueNode one = ConstantNode.forLong(1, graph);
+            last = counted.getDirection() == Direction.Up ? sub(graph, last, one) : add(graph, last, one);
+        }
+        ValueNode length = toLong(below.getY());
+        LogicNode firstInRange = graph.addOrUniqueWithInputs(IntegerBelowNode.create(evaluate(iv, counter, first), length, NodeView.DEFAULT));
+        LogicNode lastInRange = graph.addOrUniqueWithInputs(IntegerBelowNode.create(evaluate(iv, counter, last), length, NodeView.DEFAULT));
+        // firstInRange && lastInRange == !(!firstInRange || !lastInRange)
+        return graph.addOrUniqueWithInputs(LogicNegationNode.create(or(firstInRange, true, lastInRange, true)));
+    }
+
+    /**
+     * Computes the value of {@code iv} in 64-bit arithmetic for a given value of the counter.
+     */
+    private static ValueNode evaluate(InductionVariable iv, InductionVariable counter, ValueNode counterValue) {
+        if (iv == counter) {
+            return counterValue;
+        }
+        StructuredGraph graph = counterValue.graph();
+        if (iv instanceof DerivedOffsetInductionVariable) {
+            DerivedOffsetInductionVariable offsetIv = (DerivedOffsetInductionVariable) iv;
+            ValueNode base = evaluate(offsetIv.getBase(), counter, counterValue);
+            ValueNode offset = toLong(offsetIv.getOffset());
+            ValueNode value = offsetIv.valueNode();
+            if (value instanceof AddNode) {
+                return add(graph, base, offset);
+            }
+            assert value instanceof SubNode : value;
+            if (((SubNode) value).getX() == offsetIv.getBase().valueNode()) {
+                return sub(graph, base, offset);
+            }
+            return sub(graph, offset, base);
+        } else if (iv instanceof DerivedScaledInductionVariable) {
+            DerivedScaledInductionVariable scaledIv = (DerivedScaledInductionVariable) iv;
+            return mul(graph, evaluate(scaledIv.getBase(), counter, counterValue), toLong(scaledIv.getScale()));
+        } else {
+            /*
+             * Pi nodes and sign extensions do not change the value, zero extensions are only
+             * induction variables if their input is positive.
+             */
+            DerivedConvertedInductionVariable convertedIv = (DerivedConvertedInductionVariable) iv;
+            return evaluate(convertedIv.getBase(), counter, counterValue);
+        }
+    }
+
+    private static ValueNode toLong(ValueNode value) {
+        return IntegerConvertNode.convert(value, LONG_STAMP, value.graph(), NodeView.DEFAULT);
+    }
+
+    /**
+     * Creates a condition that is true iff {@code counted} is exited before the first iteration.
+     */
+    private static LogicNode notEntered(CountedLoopInfo counted) {
+        StructuredGraph graph = counted.getLimitTest().graph();
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+        boolean up = counted.getDirection() == Direction.Up;
+        if (counted.isLimitIncluded()) {
+            // not entered iff limit < start (up) or start < limit (down)
+            return graph.addOrUniqueWithInputs(up ? IntegerLessThanNode.create(limit, start, NodeView.DEFAULT) : IntegerLessThanNode.create(start, limit, NodeView.DEFAULT));
+        }
+        // not entered iff !(start < limit) (up) or !(limit < start) (down)
+        LogicNode entered = up ? IntegerLessThanNode.create(start, limit, NodeView.DEFAULT) : IntegerLessThanNode.create(limit, start, NodeView.DEFAULT);
+        return graph.addOrUniqueWithInputs(LogicNegationNode.create(entered));
+    }
+
+    private static LogicNode or(LogicNode x, boolean xNegated, LogicNode y, boolean yNegated) {
+        return x.graph().unique(new ShortCircuitOrNode(x, xNegated, y, yNegated, BranchProbabilityNode.SLOW_PATH_PROBABILITY));
+    }
+
+    private static GuardNode replace(GuardNode guard, LogicNode condition, AbstractBeginNode anchor, Speculation speculation) {
+        StructuredGraph graph = guard.graph();
+        DeoptimizationAction action = guard.getAction();
+        SpeculationLog.Speculation guardSpeculation = guard.getSpeculation();
+        if (speculation != Speculation.NONE) {
+            action = DeoptimizationAction.InvalidateRecompile;
+            guardSpeculation = speculation.speculation;
+            SpeculativeGuards.increment(graph.getDebug());
+        }
+        GuardNode newGuard = graph.unique(new GuardNode(condition, anchor, guard.getReason(), action, false, guardSpeculation, guard.getNoDeoptSuccessorPosition()));
+        guard.replaceAtUsagesAndDelete(newGuard);
+        return newGuard;
+    }
+
+    /**
+     * The speculation used for a guard moved out of a loop.
+     */
+    private static final class Speculation {
+
+        static final Speculation NONE = new Speculation(null);
+
+        final SpeculationLog.Speculation speculation;
+
+        private Speculation(SpeculationLog.Speculation speculation) {
+            this.speculation = speculation;
+        }
+
+        /**
+         * Gets the speculation for moving a guard out of {@code loop} if there is no record of
+         * such a speculation failing.
+         *
+         * @return {@code null} if speculating is not possible
+         */
+        static Speculation create(LoopEx loop) {
+            StructuredGraph graph = loop.loopBegin().graph();
+            SpeculationLog speculationLog = graph.getSpeculationLog();
+            FrameState state = loop.loopBegin().stateAfter();
+            if (speculationLog == null || state == null || state.getMethod() == null) {
+                return null;
+            }
+            SpeculationReason reason = new LoopPredicationSpeculationReason(state.getMethod().format("%H.%n(%p)%R"), state.bci);
+            if (!speculationLog.maySpeculate(reason)) {
+                return null;
+            }
+            return new Speculation(speculationLog.speculate(reason));
+        }
+    }
+
+    private static final class LoopPredicationSpeculationReason implements SpeculationReason {
+        private final String methodDescriptor;
+        private final int bci;
+
+        LoopPredicationSpeculationReason(String methodDescriptor, int bci) {
+            this.methodDescriptor = methodDescriptor;
+            this.bci = bci;
+        }
+
+        @Override
+        public int hashCode() {
+            return methodDescriptor.hashCode() * 31 + bci;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof LoopPredicationSpeculationReason) {
+                LoopPredicationSpeculationReason that = (LoopPredicationSpeculationReason) obj;
+                return bci == that.bci && methodDescriptor.equals(that.methodDescriptor);
+            }
+            return false;
+        }
+    }
+}
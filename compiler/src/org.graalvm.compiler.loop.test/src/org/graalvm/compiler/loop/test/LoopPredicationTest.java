@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopPredicationTest extends GraalCompilerTest {
+
+    private OptionValues predicationOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.LoopPredication, true);
+    }
+
+    public static int matrixVector(int[][] m, int[] v, int n) {
+        int result = 0;
+        for (int i = 0; i < n; i++) {
+            int sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += m[i][j] * v[j];
+            }
+            result += sum;
+        }
+        return result;
+    }
+
+    public static int flatMatrix(int[] a, int rows, int cols) {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                sum += a[i * cols + j];
+            }
+        }
+        return sum;
+    }
+
+    public static int downwards(int[] a, int from, int to) {
+        int sum = 0;
+        for (int i = from; i >= to; i--) {
+            sum += a[i - 1];
+        }
+        return sum;
+    }
+
+    public static int conditional(int[] a, int[] b, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (a[i] > 0) {
+                sum += b[i + 1];
+            }
+        }
+        return sum;
+    }
+
+    public static int unsignedRange(int from, int to, int bound) {
+        int sum = 0;
+        for (int i = from; i <= to; i++) {
+            if (Integer.compareUnsigned(i, bound) >= 0) {
+                GraalDirectives.deoptimizeAndInvalidate();
+                return -1;
+            }
+            sum += i;
+        }
+        return sum;
+    }
+
+    private static int[][] matrix(int rows, int cols) {
+        int[][] m = new int[rows][];
+        for (int i = 0; i < rows; i++) {
+            m[i] = array(cols);
+        }
+        return m;
+    }
+
+    private static int[] array(int length) {
+        int[] a = new int[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = i % 3 == 0 ? -i : i;
+        }
+        return a;
+    }
+
+    @Test
+    public void testMatrixVector() {
+        OptionValues options = predicationOptions();
+        test(options, "matrixVector", matrix(10, 10), array(10), 10);
+        test(options, "matrixVector", matrix(10, 10), array(10), 0);
+        test(options, "matrixVector", matrix(10, 10), array(10), 11);
+        test(options, "matrixVector", matrix(10, 5), array(10), 10);
+        test(options, "matrixVector", matrix(10, 10), array(5), 10);
+    }
+
+    @Test
+    public void testFlatMatrix() {
+        OptionValues options = predicationOptions();
+        test(options, "flatMatrix", array(100), 10, 10);
+        test(options, "flatMatrix", array(100), 0, 10);
+        test(options, "flatMatrix", array(100), 11, 10);
+        test(options, "flatMatrix", array(100), 10, 11);
+        test(options, "flatMatrix", array(100), 2, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testDownwards() {
+        OptionValues options = predicationOptions();
+        test(options, "downwards", array(10), 10, 1);
+        test(options, "downwards", array(10), 10, 0);
+        test(options, "downwards", array(10), 11, 1);
+        test(options, "downwards", array(10), 0, 1);
+    }
+
+    @Test
+    public void testConditional() {
+        OptionValues options = predicationOptions();
+        test(options, "conditional", array(10), array(11), 10);
+        test(options, "conditional", array(10), array(10), 10);
+        test(options, "conditional", array(10), array(10), 1);
+    }
+
+    /**
+     * With a negative bound, the values accepted by the unsigned comparison are not an interval of
+     * signed values, so checking the first and last value of {@code i} is not enough.
+     */
+    @Test
+    public void testUnsignedRange() {
+        OptionValues options = predicationOptions();
+        test(options, "unsignedRange", -5, 5, -1);
+        test(options, "unsignedRange", 0, 5, -1);
+        test(options, "unsignedRange", 0, 5, 10);
+        test(options, "unsignedRange", 0, 10, 10);
+    }
+}
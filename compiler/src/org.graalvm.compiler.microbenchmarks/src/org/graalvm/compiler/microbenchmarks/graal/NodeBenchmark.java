@@ -32,6 +32,8 @@ import org.openjdk.jmh.infra.Blackhole;
 
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.NodeBitMap;
+import org.graalvm.compiler.graph.NodeMap;
+import org.graalvm.compiler.graph.NodeStack;
 import org.graalvm.compiler.microbenchmarks.graal.util.GraalState;
 import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
 import org.graalvm.compiler.microbenchmarks.graal.util.NodesState;
@@ -141,6 +143,70 @@ public class NodeBenchmark extends GraalBenchmark {
         }
     }
 
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void nodeBitmapReleased(StringEquals s, @SuppressWarnings("unused") GraalState g) {
+        NodeBitMap bitMap = s.graph.createNodeBitMap();
+        for (Node node : s.graph.getNodes()) {
+            if (!bitMap.isMarked(node)) {
+                bitMap.mark(node);
+            }
+        }
+        for (Node node : s.graph.getNodes()) {
+            if (bitMap.isMarked(node)) {
+                bitMap.clear(node);
+            }
+        }
+        bitMap.release();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public int nodeMap(StringEquals s, @SuppressWarnings("unused") GraalState g) {
+        NodeMap<Node> map = s.graph.createNodeMap();
+        for (Node node : s.graph.getNodes()) {
+            map.set(node, node);
+        }
+        return map.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public int nodeMapReleased(StringEquals s, @SuppressWarnings("unused") GraalState g) {
+        NodeMap<Node> map = s.graph.createNodeMap();
+        for (Node node : s.graph.getNodes()) {
+            map.set(node, node);
+        }
+        int size = map.size();
+        map.release();
+        return size;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void nodeStack(StringEquals s, Blackhole bh) {
+        NodeStack stack = new NodeStack();
+        for (Node node : s.graph.getNodes()) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            bh.consume(stack.pop());
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void nodeStackReleased(StringEquals s, Blackhole bh) {
+        NodeStack stack = s.graph.createNodeStack();
+        for (Node node : s.graph.getNodes()) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            bh.consume(stack.pop());
+        }
+        s.graph.releaseNodeStack(stack);
+    }
+
     @MethodSpec(declaringClass = HashMap.class, name = "computeIfAbsent")
     public static class HashMapComputeIfAbsent extends NodesState {
     }
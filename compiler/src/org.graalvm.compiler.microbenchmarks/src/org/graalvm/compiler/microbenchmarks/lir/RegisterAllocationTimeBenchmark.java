@@ -24,13 +24,29 @@
  */
 package org.graalvm.compiler.microbenchmarks.lir;
 
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.LIRValueUtil;
+import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
+import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.options.OptionValues;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 
+import jdk.vm.ci.code.ValueUtil;
+import jdk.vm.ci.meta.Value;
+
 @Warmup(iterations = 10)
 @Measurement(iterations = 10)
 public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
@@ -40,10 +56,63 @@ public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
                         "java.lang.String#equals",
                         "java.util.HashMap#computeIfAbsent"
         }) public String method;
+
+        @Param({"LinearScan", "GraphColoring", "TraceRA"}) public String allocator;
+
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues opts) {
+            OptionValues allocatorOptions = new OptionValues(opts, GraalOptions.TraceRA, allocator.equals("TraceRA"), RegisterAllocationPhase.Options.GraphColoringRA,
+                            allocator.equals("GraphColoring"));
+            return super.createLIRSuites(allocatorOptions);
+        }
+    }
+
+    /**
+     * Moves in the LIR of the last allocation in an iteration. They are counted after the
+     * invocation so that counting is not included in the allocation time.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class MoveCounts {
+        public long regRegMoves;
+        public long spillMoves;
+        public long reloadMoves;
+
+        private LIR lir;
+
+        @TearDown(Level.Invocation)
+        public void count() {
+            regRegMoves = 0;
+            spillMoves = 0;
+            reloadMoves = 0;
+            for (AbstractBlockBase<?> block : lir.codeEmittingOrder()) {
+                if (block == null) {
+                    continue;
+                }
+                for (LIRInstruction instr : lir.getLIRforBlock(block)) {
+                    if (ValueMoveOp.isValueMoveOp(instr)) {
+                        ValueMoveOp move = ValueMoveOp.asValueMoveOp(instr);
+                        Value def = move.getResult();
+                        Value use = move.getInput();
+                        if (LIRValueUtil.isStackSlotValue(def)) {
+                            spillMoves++;
+                        } else if (ValueUtil.isRegister(def)) {
+                            if (ValueUtil.isRegister(use)) {
+                                regRegMoves++;
+                            } else if (LIRValueUtil.isStackSlotValue(use)) {
+                                reloadMoves++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
     }
 
     @Benchmark
-    public LIRGenerationResult allocateRegisters(State s) {
-        return s.compile();
+    public LIRGenerationResult allocateRegisters(State s, MoveCounts counts) {
+        LIRGenerationResult result = s.compile();
+        counts.lir = result.getLIR();
+        return result;
     }
 }
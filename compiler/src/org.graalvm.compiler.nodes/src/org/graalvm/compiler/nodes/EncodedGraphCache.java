@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * questions.
+ */
+package org.graalvm.compiler.nodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.Assumptions;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Assumptions.AssumptionResult;
+import jdk.vm.ci.meta.Assumptions.ConcreteMethod;
+import jdk.vm.ci.meta.Assumptions.ConcreteSubtype;
+import jdk.vm.ci.meta.Assumptions.LeafType;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * A bounded cache of {@link EncodedGraph}s for graphs parsed from the bytecode of a method. A
+ * cached graph is decoded instead of parsing the method again.
+ *
+ * Entries are keyed by the method and a configuration object describing everything else that
+ * influenced parsing (e.g., plugins, options and optimistic optimizations), compared with
+ * {@link Object#equals}. An entry is only used if the bytecode of the method and of every method
+ * inlined while parsing it is unchanged (e.g., by class redefinition), the deoptimization counts and
+ * maturity of their profiles are unchanged, and all {@linkplain Assumptions assumptions} made while
+ * parsing still hold. Other profile updates are not
+ * tracked, so a decoded graph may use slightly stale branch and type profiles.
+ *
+ * The cache is bounded by an estimate of the memory used by its entries. Least recently used
+ * entries are evicted first. Note that cached graphs keep the classes they reference reachable
+ * until evicted.
+ */
+public class EncodedGraphCache {
+
+    private static final CounterKey Hits = DebugContext.counter("EncodedGraphCacheHits");
+    private static final CounterKey Misses = DebugContext.counter("EncodedGraphCacheMisses");
+    private static final CounterKey Stale = DebugContext.counter("EncodedGraphCacheStale");
+    private static final CounterKey Evictions = DebugContext.counter("EncodedGraphCacheEvictions");
+
+    /**
+     * Rough per-entry overhead in bytes in addition to the size of the encoded graph.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private static final DeoptimizationReason[] REASONS = DeoptimizationReason.values();
+
+    private static final class Key {
+        final ResolvedJavaMethod method;
+        final Object configuration;
+
+        Key(ResolvedJavaMethod method, Object configuration) {
+            this.method = method;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + Objects.hashCode(configuration);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return method.equals(that.method) && Objects.equals(configuration, that.configuration);
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        final EncodedGraph encodedGraph;
+        /**
+         * The root method followed by the distinct methods inlined into the graph.
+         */
+        final ResolvedJavaMethod[] methods;
+        /**
+         * The bytecode of each method in {@link #methods} when the graph was parsed.
+         */
+        final byte[][] codes;
+        /**
+         * The {@linkplain #profileFingerprint profile fingerprint} of each method in
+         * {@link #methods} or {@code null} if the graph does not use profiles.
+         */
+        final int[][] profileFingerprints;
+        final long size;
+
+        Entry(EncodedGraph encodedGraph, ResolvedJavaMethod[] methods, byte[][] codes, int[][] profileFingerprints) {
+            this.encodedGraph = encodedGraph;
+            this.methods = methods;
+            this.codes = codes;
+            this.profileFingerprints = profileFingerprints;
+            long codeSize = 0;
+            for (byte[] code : codes) {
+                codeSize += code.length;
+            }
+            this.size = ENTRY_OVERHEAD + encodedGraph.getEncoding().length + codeSize + 8L * (encodedGraph.getObjects().length + encodedGraph.getNodeClasses().length + methods.length);
+        }
+    }
+
+    private final Architecture architecture;
+    private final long capacity;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * @param capacity the maximum estimated number of bytes used by cached entries
+     */
+    public EncodedGraphCache(Architecture architecture, long capacity) {
+        this.architecture = architecture;
+        this.capacity = capacity;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Decodes the cached graph for {@code method} into {@code graph} if there is a valid entry for
+     * it.
+     *
+     * @param configuration describes the parsing configuration used to produce the graph
+     * @param graph an empty graph created for {@code method} in the same way as the graph passed to
+     *            {@link #put}
+     * @return {@code true} if the cached graph was decoded into {@code graph}, {@code false} if
+     *         {@code graph} must be produced by parsing
+     */
+    public boolean lookup(ResolvedJavaMethod method, Object configuration, StructuredGraph graph) {
+        Key key = new Key(method, configuration);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        DebugContext debug = graph.getDebug();
+        if (entry != null && !isValid(entry, graph)) {
+            Stale.increment(debug);
+            remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            Misses.increment(debug);
+            recordLookup(method, false);
+            return false;
+        }
+        decode(entry.encodedGraph, graph);
+        Hits.increment(debug);
+        recordLookup(method, true);
+        return true;
+    }
+
+    /**
+     * Caches the encoding of {@code graph}, which must have just been parsed for {@code method} and
+     * not yet been specialized for any particular use. Graphs with assumptions that cannot be
+     * revalidated are not cached.
+     */
+    public void put(ResolvedJavaMethod method, Object configuration, StructuredGraph graph) {
+        Assumptions assumptions = graph.getAssumptions();
+        if (assumptions != null) {
+            for (Assumption assumption : assumptions) {
+                if (!canRevalidate(assumption)) {
+                    return;
+                }
+            }
+        }
+        ResolvedJavaMethod[] methods = graphMethods(method, graph.getMethods());
+        byte[][] codes = new byte[methods.length][];
+        int[][] profileFingerprints = graph.useProfilingInfo() ? new int[methods.length][] : null;
+        for (int i = 0; i < methods.length; i++) {
+            codes[i] = methods[i].getCode();
+            if (codes[i] == null) {
+                return;
+            }
+            if (profileFingerprints != null) {
+                profileFingerprints[i] = profileFingerprint(graph.getProfilingInfo(methods[i]));
+            }
+        }
+        EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graph, architecture);
+        Entry entry = new Entry(encodedGraph, methods, codes, profileFingerprints);
+        if (entry.size > capacity) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        synchronized (this) {
+            Entry previous = entries.put(new Key(method, configuration), entry);
+            if (previous != null) {
+                usedBytes -= previous.size;
+            }
+            usedBytes += entry.size;
+            Iterator<Entry> iter = entries.values().iterator();
+            while (usedBytes > capacity && iter.hasNext()) {
+                Entry eldest = iter.next();
+                iter.remove();
+                usedBytes -= eldest.size;
+                Evictions.increment(debug);
+            }
+        }
+    }
+
+    /**
+     * Notifies subclasses of the outcome of a {@link #lookup}.
+     *
+     * @param method the method that was looked up
+     * @param hit whether a cached graph was used
+     */
+    protected void recordLookup(ResolvedJavaMethod method, boolean hit) {
+    }
+
+    private synchronized void remove(Key key, Entry entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+            usedBytes -= entry.size;
+        }
+    }
+
+    /**
+     * Gets {@code root} followed by the distinct {@code inlinedMethods} other than {@code root}.
+     */
+    private static ResolvedJavaMethod[] graphMethods(ResolvedJavaMethod root, List<ResolvedJavaMethod> inlinedMethods) {
+        List<ResolvedJavaMethod> result = new ArrayList<>(inlinedMethods.size() + 1);
+        result.add(root);
+        for (ResolvedJavaMethod m : inlinedMethods) {
+            if (!result.contains(m)) {
+                result.add(m);
+            }
+        }
+        return result.toArray(new ResolvedJavaMethod[result.size()]);
+    }
+
+    private static boolean isValid(Entry entry, StructuredGraph graph) {
+        if (graph.useProfilingInfo() != (entry.profileFingerprints != null)) {
+            return false;
+        }
+        for (int i = 0; i < entry.methods.length; i++) {
+            ResolvedJavaMethod m = entry.methods[i];
+            if (!Arrays.equals(entry.codes[i], m.getCode())) {
+                return false;
+            }
+            if (entry.profileFingerprints != null && !Arrays.equals(entry.profileFingerprints[i], profileFingerprint(graph.getProfilingInfo(m)))) {
+                return false;
+            }
+        }
+        Assumptions assumptions = entry.encodedGraph.getAssumptions();
+        if (assumptions != null) {
+            for (Assumption assumption : assumptions) {
+                if (!stillHolds(assumption)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] profileFingerprint(ProfilingInfo profile) {
+        int[] result = new int[REASONS.length + 1];
+        for (int i = 0; i < REASONS.length; i++) {
+            result[i] = profile.getDeoptimizationCount(REASONS[i]);
+        }
+        result[REASONS.length] = profile.isMature() ? 1 : 0;
+        return result;
+    }
+
+    private static boolean canRevalidate(Assumption assumption) {
+        return assumption instanceof ConcreteSubtype || assumption instanceof LeafType || assumption instanceof ConcreteMethod;
+    }
+
+    /**
+     * Determines whether an assumption recorded when a graph was parsed would still be made when
+     * parsing now.
+     */
+    private static boolean stillHolds(Assumption assumption) {
+        if (assumption instanceof ConcreteSubtype) {
+            ConcreteSubtype concreteSubtype = (ConcreteSubtype) assumption;
+            return isLeafConcreteSubtype(concreteSubtype.context, concreteSubtype.subtype);
+        } else if (assumption instanceof LeafType) {
+            ResolvedJavaType context = ((LeafType) assumption).context;
+            return isLeafConcreteSubtype(context, context);
+        } else if (assumption instanceof ConcreteMethod) {
+            ConcreteMethod concreteMethod = (ConcreteMethod) assumption;
+            AssumptionResult<ResolvedJavaMethod> result = concreteMethod.context.findUniqueConcreteMethod(concreteMethod.method);
+            return result != null && result.getResult().equals(concreteMethod.impl);
+        }
+        return false;
+    }
+
+    private static boolean isLeafConcreteSubtype(ResolvedJavaType context, ResolvedJavaType subtype) {
+        AssumptionResult<ResolvedJavaType> result = context.findLeafConcreteSubtype();
+        return result != null && result.getResult().equals(subtype);
+    }
+
+    /**
+     * Decodes {@code encodedGraph} into {@code graph} and transfers the assumptions, methods, fields
+     * and unsafe access recorded for the encoded graph.
+     */
+    private void decode(EncodedGraph encodedGraph, StructuredGraph graph) {
+        new GraphDecoder(architecture, graph).decode(encodedGraph);
+
+        Assumptions assumptions = graph.getAssumptions();
+        Assumptions decodedAssumptions = encodedGraph.getAssumptions();
+        if (assumptions != null) {
+            if (decodedAssumptions != null) {
+                assumptions.record(decodedAssumptions);
+            }
+        } else {
+            assert decodedAssumptions == null || decodedAssumptions.isEmpty() : "cannot decode graph with assumptions into " + graph;
+        }
+        List<ResolvedJavaMethod> inlinedMethods = encodedGraph.getInlinedMethods();
+        if (inlinedMethods != null) {
+            for (ResolvedJavaMethod other : inlinedMethods) {
+                graph.recordMethod(other);
+            }
+        }
+        if (encodedGraph.getFields() != null) {
+            for (ResolvedJavaField field : encodedGraph.getFields()) {
+                graph.recordField(field);
+            }
+        }
+        if (encodedGraph.hasUnsafeAccess()) {
+            graph.markUnsafeAccess();
+        }
+    }
+}
@@ -111,7 +111,9 @@ public class GraphUtil {
         // Detach this node from CFG
         node.replaceAtPredecessor(null);
 
-        markFixedNodes(node, markedNodes, unmarkedMerges);
+        Graph graph = node.graph();
+        NodeStack workStack = graph.createNodeStack();
+        markFixedNodes(node, markedNodes, unmarkedMerges, workStack);
 
         fixSurvivingAffectedMerges(markedNodes, unmarkedMerges);
 
@@ -119,7 +121,8 @@ public class GraphUtil {
         debug.dump(DebugContext.DETAILED_LEVEL, node.graph(), "After fixing merges (killCFG %s)", node);
 
         // Mark non-fixed nodes
-        markUsages(markedNodes);
+        markUsages(markedNodes, workStack);
+        graph.releaseNodeStack(workStack);
 
         // Detach marked nodes from non-marked nodes
         for (Node marked : markedNodes) {
@@ -139,8 +142,8 @@ public class GraphUtil {
         }
     }
 
-    private static void markFixedNodes(FixedNode node, EconomicSet<Node> markedNodes, EconomicMap<AbstractMergeNode, List<AbstractEndNode>> unmarkedMerges) {
-        NodeStack workStack = new NodeStack();
+    private static void markFixedNodes(FixedNode node, EconomicSet<Node> markedNodes, EconomicMap<AbstractMergeNode, List<AbstractEndNode>> unmarkedMerges, NodeStack workStack) {
+        assert workStack.isEmpty();
         workStack.push(node);
         while (!workStack.isEmpty()) {
             Node fixedNode = workStack.pop();
@@ -218,8 +221,8 @@ public class GraphUtil {
         }
     }
 
-    private static void markUsages(EconomicSet<Node> markedNodes) {
-        NodeStack workStack = new NodeStack(markedNodes.size() + 4);
+    private static void markUsages(EconomicSet<Node> markedNodes, NodeStack workStack) {
+        assert workStack.isEmpty();
         for (Node marked : markedNodes) {
             workStack.push(marked);
         }
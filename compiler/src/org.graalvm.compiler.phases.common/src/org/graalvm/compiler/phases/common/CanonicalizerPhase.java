@@ -110,6 +110,14 @@ public class CanonicalizerPhase extends BasePhase<PhaseContext> {
         simplify = false;
     }
 
+    /**
+     * Determines if this phase behaves like a {@code new CanonicalizerPhase()}, i.e., it has no
+     * {@link CustomCanonicalizer} and nothing has been disabled.
+     */
+    public boolean hasDefaultConfiguration() {
+        return getClass() == CanonicalizerPhase.class && customCanonicalizer == null && globalValueNumber && canonicalizeReads && simplify;
+    }
+
     @Override
     public boolean checkContract() {
         /*
@@ -51,7 +51,7 @@ public class PropagateDeoptimizeProbabilityPhase extends BasePhase<PhaseContext>
 
         if (graph.hasNode(AbstractDeoptimizeNode.TYPE)) {
 
-            NodeStack stack = new NodeStack();
+            NodeStack stack = graph.createNodeStack();
             EconomicMap<ControlSplitNode, EconomicSet<AbstractBeginNode>> reachableSplits = EconomicMap.create();
 
             // Mark all control flow nodes that are post-dominated by a deoptimization.
@@ -90,6 +90,7 @@ public class PropagateDeoptimizeProbabilityPhase extends BasePhase<PhaseContext>
                     }
                 }
             }
+            graph.releaseNodeStack(stack);
 
             // Make sure the probability on the path towards the deoptimization is 0.0.
             MapCursor<ControlSplitNode, EconomicSet<AbstractBeginNode>> entries = reachableSplits.getEntries();
@@ -28,18 +28,23 @@ import static org.graalvm.compiler.phases.common.DeadCodeEliminationPhase.Option
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.NodeInputList;
 import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EncodedGraphCache;
 import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ParameterNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
@@ -183,10 +188,10 @@ public class InlineableGraph implements Inlineable {
     }
 
     /**
-     * This method builds the IR nodes for the given <code>method</code> and canonicalizes them.
-     * Provided profiling info is mature, the resulting graph is cached. The caller is responsible
-     * for cloning before modification.
-     * </p>
+     * This method builds the IR nodes for the given <code>method</code> and canonicalizes them. If
+     * the {@linkplain org.graalvm.compiler.nodes.spi.Replacements#getInlineeGraphCache() inlinee
+     * graph cache} is enabled, the graph is decoded from the cache if possible and otherwise added
+     * to the cache after parsing. The returned graph is always a fresh graph that can be modified.
      */
     @SuppressWarnings("try")
     private static StructuredGraph parseBytecodes(ResolvedJavaMethod method, HighTierContext context, CanonicalizerPhase canonicalizer, StructuredGraph caller, boolean trackNodeSourcePosition) {
@@ -197,6 +202,14 @@ public class InlineableGraph implements Inlineable {
             if (!caller.isUnsafeAccessTrackingEnabled()) {
                 newGraph.disableUnsafeAccessTracking();
             }
+            EncodedGraphCache cache = context.getReplacements() == null ? null : context.getReplacements().getInlineeGraphCache();
+            ParseConfiguration configuration = null;
+            if (cache != null && context.getGraphBuilderSuite() != null && canonicalizer.hasDefaultConfiguration()) {
+                configuration = new ParseConfiguration(context, newGraph);
+                if (cache.lookup(method, configuration, newGraph)) {
+                    return newGraph;
+                }
+            }
             if (context.getGraphBuilderSuite() != null) {
                 context.getGraphBuilderSuite().apply(newGraph, context);
             }
@@ -206,12 +219,58 @@ public class InlineableGraph implements Inlineable {
 
             canonicalizer.apply(newGraph, context);
 
+            if (configuration != null) {
+                cache.put(method, configuration, newGraph);
+            }
             return newGraph;
         } catch (Throwable e) {
             throw debug.handle(e);
         }
     }
 
+    /**
+     * Everything besides the method that influences the graph produced by
+     * {@link InlineableGraph#parseBytecodes}. The graph builder suite and options are compared by
+     * identity as they are shared between compilations using the same configuration. Only graphs
+     * canonicalized with the {@linkplain CanonicalizerPhase#hasDefaultConfiguration() default
+     * canonicalizer} are cached.
+     */
+    private static final class ParseConfiguration {
+        private final PhaseSuite<HighTierContext> graphBuilderSuite;
+        private final OptionValues options;
+        private final OptimisticOptimizations optimisticOpts;
+        private final boolean allowAssumptions;
+        private final boolean trackNodeSourcePosition;
+        private final boolean useProfilingInfo;
+        private final boolean unsafeAccessTracking;
+
+        ParseConfiguration(HighTierContext context, StructuredGraph graph) {
+            this.graphBuilderSuite = context.getGraphBuilderSuite();
+            this.options = graph.getOptions();
+            this.optimisticOpts = context.getOptimisticOptimizations();
+            this.allowAssumptions = graph.getAssumptions() != null;
+            this.trackNodeSourcePosition = graph.trackNodeSourcePosition();
+            this.useProfilingInfo = graph.useProfilingInfo();
+            this.unsafeAccessTracking = graph.isUnsafeAccessTrackingEnabled();
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(graphBuilderSuite) ^ System.identityHashCode(options) ^ Objects.hashCode(optimisticOpts);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ParseConfiguration) {
+                ParseConfiguration that = (ParseConfiguration) obj;
+                return graphBuilderSuite == that.graphBuilderSuite && options == that.options && Objects.equals(optimisticOpts, that.optimisticOpts) &&
+                                allowAssumptions == that.allowAssumptions && trackNodeSourcePosition == that.trackNodeSourcePosition && useProfilingInfo == that.useProfilingInfo &&
+                                unsafeAccessTracking == that.unsafeAccessTracking;
+            }
+            return false;
+        }
+    }
+
     @Override
     public int getNodeCount() {
         return InliningUtil.getNodeCount(graph);
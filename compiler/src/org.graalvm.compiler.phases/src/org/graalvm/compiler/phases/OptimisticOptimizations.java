@@ -135,6 +135,19 @@ public final class OptimisticOptimizations {
         return profilingInfo.getDeoptimizationCount(reason) < GraalOptions.DeoptsToDisableOptimisticOptimization.getValue(options);
     }
 
+    @Override
+    public int hashCode() {
+        return enabledOpts.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof OptimisticOptimizations) {
+            return enabledOpts.equals(((OptimisticOptimizations) obj).enabledOpts);
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return enabledOpts.toString();
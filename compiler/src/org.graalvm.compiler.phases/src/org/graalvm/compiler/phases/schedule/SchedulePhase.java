@@ -204,6 +204,7 @@ public final class SchedulePhase extends Phase {
 
             }
             cfg.setNodeToBlock(currentNodeMap);
+            visited.release();
 
             graph.setLastSchedule(new ScheduleResult(this.cfg, this.nodeToBlockMap, this.blockToNodesMap));
         }
@@ -759,7 +760,7 @@ public final class SchedulePhase extends Phase {
                         boolean withGuardOrder) {
 
             NodeMap<MicroBlock> entries = graph.createNodeMap();
-            NodeStack stack = new NodeStack();
+            NodeStack stack = graph.createNodeStack();
 
             // Initialize with fixed nodes.
             MicroBlock startBlock = null;
@@ -882,6 +883,8 @@ public final class SchedulePhase extends Phase {
                     }
                 }
             }
+            entries.release();
+            graph.releaseNodeStack(stack);
 
             assert (!Assertions.detailedAssertionsEnabled(cfg.graph.getOptions())) || MemoryScheduleVerification.check(cfg.getStartBlock(), blockToNodes);
         }
@@ -985,6 +988,8 @@ public final class SchedulePhase extends Phase {
                         block.tail = newBlock.tail;
                     }
                 }
+                priorities.release();
+                blockNodes.release();
             }
 
             /**
@@ -28,6 +28,7 @@ import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_512;
 
 import org.graalvm.compiler.core.common.type.StampFactory;
 import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.NodeInputList;
 import org.graalvm.compiler.nodeinfo.InputType;
 import org.graalvm.compiler.nodeinfo.NodeCycles;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
@@ -45,6 +46,11 @@ import org.graalvm.word.Pointer;
 import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.Value;
 
+/**
+ * Returns the index of the first occurrence of any of up to
+ * {@link org.graalvm.compiler.lir.amd64.AMD64ArrayIndexOfOp#MAX_SEARCH_VALUES} search values in a
+ * byte or char array, or -1 if none of the values occurs.
+ */
 @NodeInfo(size = SIZE_512, cycles = NodeCycles.CYCLES_UNKNOWN)
 public class AMD64ArrayIndexOfNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
 
@@ -54,16 +60,16 @@ public class AMD64ArrayIndexOfNode extends FixedWithNextNode implements LIRLower
 
     @Input private ValueNode arrayPointer;
     @Input private ValueNode arrayLength;
-    @Input private ValueNode searchValue;
+    @Input private NodeInputList<ValueNode> searchValues;
 
     @OptionalInput(InputType.Memory) private MemoryNode lastLocationAccess;
 
-    public AMD64ArrayIndexOfNode(ValueNode arrayPointer, ValueNode arrayLength, ValueNode searchValue, @ConstantNodeParameter JavaKind kind) {
+    public AMD64ArrayIndexOfNode(@ConstantNodeParameter JavaKind kind, ValueNode arrayPointer, ValueNode arrayLength, ValueNode... searchValues) {
         super(TYPE, StampFactory.forKind(JavaKind.Int));
         this.kind = kind;
         this.arrayPointer = arrayPointer;
         this.arrayLength = arrayLength;
-        this.searchValue = searchValue;
+        this.searchValues = new NodeInputList<>(this, searchValues);
     }
 
     @Override
@@ -73,7 +79,11 @@ public class AMD64ArrayIndexOfNode extends FixedWithNextNode implements LIRLower
 
     @Override
     public void generate(NodeLIRBuilderTool gen) {
-        Value result = gen.getLIRGeneratorTool().emitArrayIndexOf(kind, gen.operand(arrayPointer), gen.operand(arrayLength), gen.operand(searchValue));
+        Value[] searchValueOperands = new Value[searchValues.size()];
+        for (int i = 0; i < searchValues.size(); i++) {
+            searchValueOperands[i] = gen.operand(searchValues.get(i));
+        }
+        Value result = gen.getLIRGeneratorTool().emitArrayIndexOf(kind, gen.operand(arrayPointer), gen.operand(arrayLength), searchValueOperands);
         gen.setResult(this, result);
     }
 
@@ -89,5 +99,14 @@ public class AMD64ArrayIndexOfNode extends FixedWithNextNode implements LIRLower
     }
 
     @NodeIntrinsic
-    public static native int optimizedArrayIndexOf(Pointer arrayPointer, int arrayLength, char searchValue, @ConstantNodeParameter JavaKind kind);
+    public static native int optimizedArrayIndexOf(@ConstantNodeParameter JavaKind kind, Pointer arrayPointer, int arrayLength, char c1);
+
+    @NodeIntrinsic
+    public static native int optimizedArrayIndexOf(@ConstantNodeParameter JavaKind kind, Pointer arrayPointer, int arrayLength, char c1, char c2);
+
+    @NodeIntrinsic
+    public static native int optimizedArrayIndexOf(@ConstantNodeParameter JavaKind kind, Pointer arrayPointer, int arrayLength, char c1, char c2, char c3);
+
+    @NodeIntrinsic
+    public static native int optimizedArrayIndexOf(@ConstantNodeParameter JavaKind kind, Pointer arrayPointer, int arrayLength, char c1, char c2, char c3, char c4);
 }
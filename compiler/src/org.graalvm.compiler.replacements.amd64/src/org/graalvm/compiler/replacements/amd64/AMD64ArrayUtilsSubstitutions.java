@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.core.common.spi.ArrayOffsetProvider;
+import org.graalvm.compiler.replacements.StringSubstitutions;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code com.oracle.truffle.api.ArrayUtils} methods. The search values are
+ * expected to be partial evaluation constants, in which case all checks of {@code values.length}
+ * fold away. Searches for more than four values are delegated to the original implementation.
+ */
+@ClassSubstitution(className = "com.oracle.truffle.api.ArrayUtils", optional = true)
+public class AMD64ArrayUtilsSubstitutions {
+
+    private static final int MAX_VALUES = 4;
+
+    @Fold
+    static int byteArrayBaseOffset(@InjectedParameter ArrayOffsetProvider arrayOffsetProvider) {
+        return arrayOffsetProvider.arrayBaseOffset(JavaKind.Byte);
+    }
+
+    @Fold
+    static int charArrayBaseOffset(@InjectedParameter ArrayOffsetProvider arrayOffsetProvider) {
+        return arrayOffsetProvider.arrayBaseOffset(JavaKind.Char);
+    }
+
+    @Fold
+    static int charArrayIndexScale(@InjectedParameter ArrayOffsetProvider arrayOffsetProvider) {
+        return arrayOffsetProvider.arrayScalingFactor(JavaKind.Char);
+    }
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final ArrayOffsetProvider INJECTED = null;
+
+    /**
+     * Only used on JDK 8, where {@link String} is backed by a {@code char[]}.
+     */
+    @MethodSubstitution(optional = true)
+    public static int indexOf(String string, int fromIndex, int maxIndex, char... values) {
+        if (fromIndex < 0 || maxIndex > string.length() || values.length == 0 || values.length > MAX_VALUES) {
+            // let the original method handle the exceptional and unsupported cases
+            return indexOf(string, fromIndex, maxIndex, values);
+        }
+        if (fromIndex >= maxIndex) {
+            return -1;
+        }
+        char[] array = StringSubstitutions.getValue(string);
+        Pointer arrayPointer = Word.objectToTrackedPointer(array).add(charArrayBaseOffset(INJECTED)).add(fromIndex * charArrayIndexScale(INJECTED));
+        return adjustResult(indexOfChars(JavaKind.Char, arrayPointer, maxIndex - fromIndex, values), fromIndex);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int indexOf(char[] array, int fromIndex, int maxIndex, char... values) {
+        if (fromIndex < 0 || maxIndex > array.length || values.length == 0 || values.length > MAX_VALUES) {
+            return indexOf(array, fromIndex, maxIndex, values);
+        }
+        if (fromIndex >= maxIndex) {
+            return -1;
+        }
+        Pointer arrayPointer = Word.objectToTrackedPointer(array).add(charArrayBaseOffset(INJECTED)).add(fromIndex * charArrayIndexScale(INJECTED));
+        return adjustResult(indexOfChars(JavaKind.Char, arrayPointer, maxIndex - fromIndex, values), fromIndex);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int indexOf(byte[] array, int fromIndex, int maxIndex, byte... values) {
+        if (fromIndex < 0 || maxIndex > array.length || values.length == 0 || values.length > MAX_VALUES) {
+            return indexOf(array, fromIndex, maxIndex, values);
+        }
+        if (fromIndex >= maxIndex) {
+            return -1;
+        }
+        Pointer arrayPointer = Word.objectToTrackedPointer(array).add(byteArrayBaseOffset(INJECTED)).add(fromIndex);
+        int length = maxIndex - fromIndex;
+        int result;
+        // only the low byte of the search values is compared in byte mode
+        if (values.length == 1) {
+            result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Byte, arrayPointer, length, (char) values[0]);
+        } else if (values.length == 2) {
+            result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Byte, arrayPointer, length, (char) values[0], (char) values[1]);
+        } else if (values.length == 3) {
+            result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Byte, arrayPointer, length, (char) values[0], (char) values[1], (char) values[2]);
+        } else {
+            result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Byte, arrayPointer, length, (char) values[0], (char) values[1], (char) values[2], (char) values[3]);
+        }
+        return adjustResult(result, fromIndex);
+    }
+
+    private static int indexOfChars(JavaKind kind, Pointer arrayPointer, int length, char[] values) {
+        if (values.length == 1) {
+            return AMD64ArrayIndexOfNode.optimizedArrayIndexOf(kind, arrayPointer, length, values[0]);
+        } else if (values.length == 2) {
+            return AMD64ArrayIndexOfNode.optimizedArrayIndexOf(kind, arrayPointer, length, values[0], values[1]);
+        } else if (values.length == 3) {
+            return AMD64ArrayIndexOfNode.optimizedArrayIndexOf(kind, arrayPointer, length, values[0], values[1], values[2]);
+        } else {
+            return AMD64ArrayIndexOfNode.optimizedArrayIndexOf(kind, arrayPointer, length, values[0], values[1], values[2], values[3]);
+        }
+    }
+
+    private static int adjustResult(int result, int fromIndex) {
+        if (result != -1) {
+            return result + fromIndex;
+        }
+        return result;
+    }
+}
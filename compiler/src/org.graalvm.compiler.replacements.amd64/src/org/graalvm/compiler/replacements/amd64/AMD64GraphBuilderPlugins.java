@@ -82,6 +82,7 @@ public class AMD64GraphBuilderPlugins {
                 registerStringPlugins(invocationPlugins, arch, replacementsBytecodeProvider);
                 registerStringLatin1Plugins(invocationPlugins, arch, replacementsBytecodeProvider);
                 registerStringUTF16Plugins(invocationPlugins, arch, replacementsBytecodeProvider);
+                registerArrayUtilsPlugins(invocationPlugins, arch, replacementsBytecodeProvider);
                 registerMathPlugins(invocationPlugins, arch, arithmeticStubs, replacementsBytecodeProvider);
                 registerArraysEqualsPlugins(invocationPlugins, replacementsBytecodeProvider);
             }
@@ -229,6 +230,17 @@ public class AMD64GraphBuilderPlugins {
         }
     }
 
+    private static void registerArrayUtilsPlugins(InvocationPlugins plugins, AMD64 arch, BytecodeProvider replacementsBytecodeProvider) {
+        if (arch.getFeatures().contains(CPUFeature.SSSE3)) {
+            Registration r = new Registration(plugins, "com.oracle.truffle.api.ArrayUtils", replacementsBytecodeProvider);
+            if (Java8OrEarlier) {
+                r.registerMethodSubstitution(AMD64ArrayUtilsSubstitutions.class, "indexOf", String.class, int.class, int.class, char[].class);
+            }
+            r.registerMethodSubstitution(AMD64ArrayUtilsSubstitutions.class, "indexOf", char[].class, int.class, int.class, char[].class);
+            r.registerMethodSubstitution(AMD64ArrayUtilsSubstitutions.class, "indexOf", byte[].class, int.class, int.class, byte[].class);
+        }
+    }
+
     private static void registerUnsafePlugins(InvocationPlugins plugins, BytecodeProvider replacementsBytecodeProvider, boolean explicitUnsafeNullChecks) {
         registerUnsafePlugins(new Registration(plugins, Unsafe.class), explicitUnsafeNullChecks, new JavaKind[]{JavaKind.Int, JavaKind.Long, JavaKind.Object});
         if (!Java8OrEarlier) {
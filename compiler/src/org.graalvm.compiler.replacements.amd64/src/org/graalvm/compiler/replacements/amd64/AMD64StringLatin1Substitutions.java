@@ -85,7 +85,7 @@ public class AMD64StringLatin1Substitutions {
             return -1;
         }
         Pointer sourcePointer = Word.objectToTrackedPointer(value).add(byteArrayBaseOffset(INJECTED)).add(fromIndex);
-        int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(sourcePointer, length - fromIndex, (char) ch, JavaKind.Byte);
+        int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Byte, sourcePointer, length - fromIndex, (char) ch);
         if (result != -1) {
             return result + fromIndex;
         }
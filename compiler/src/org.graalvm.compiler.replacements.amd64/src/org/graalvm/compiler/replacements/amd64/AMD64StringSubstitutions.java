@@ -109,7 +109,7 @@ public class AMD64StringSubstitutions {
             char[] sourceArray = StringSubstitutions.getValue(source);
 
             Pointer sourcePointer = Word.objectToTrackedPointer(sourceArray).add(charArrayBaseOffset(INJECTED)).add(fromIndex * charArrayIndexScale(INJECTED));
-            int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(sourcePointer, sourceCount - fromIndex, (char) ch, JavaKind.Char);
+            int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Char, sourcePointer, sourceCount - fromIndex, (char) ch);
             if (result != -1) {
                 return result + fromIndex;
             }
@@ -83,7 +83,7 @@ public class AMD64StringUTF16Substitutions {
     @MethodSubstitution(optional = true)
     public static int indexOfCharUnsafe(byte[] value, int ch, int fromIndex, int max) {
         Pointer sourcePointer = Word.objectToTrackedPointer(value).add(byteArrayBaseOffset(INJECTED)).add(fromIndex * charArrayIndexScale(INJECTED));
-        int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(sourcePointer, max - fromIndex, (char) ch, JavaKind.Char);
+        int result = AMD64ArrayIndexOfNode.optimizedArrayIndexOf(JavaKind.Char, sourcePointer, max - fromIndex, (char) ch);
         if (result != -1) {
             return result + fromIndex;
         }
@@ -998,6 +998,7 @@ public abstract class DefaultJavaLoweringProvider implements LoweringProvider {
 
     public abstract ValueNode staticFieldBase(StructuredGraph graph, ResolvedJavaField field);
 
+    @Override
     public abstract int arrayLengthOffset();
 
     @Override
@@ -226,6 +226,8 @@ public final class GraalServices {
 
         protected abstract List<String> getInputArguments();
 
+        protected abstract double getProcessCpuLoad();
+
         // Placing this static field in JMXService (instead of GraalServices)
         // allows for lazy initialization.
         static final JMXService instance = loadSingle(JMXService.class, false);
@@ -336,4 +338,18 @@ public final class GraalServices {
         }
         return jmx.getInputArguments();
     }
+
+    /**
+     * Returns the recent CPU usage of the Java virtual machine process as a value in the range
+     * [0.0, 1.0] relative to all processors available to the process.
+     *
+     * @return the recent CPU load of the process or a negative value if it is not available
+     */
+    public static double getProcessCpuLoad() {
+        JMXService jmx = JMXService.instance;
+        if (jmx == null) {
+            return -1;
+        }
+        return jmx.getProcessCpuLoad();
+    }
 }
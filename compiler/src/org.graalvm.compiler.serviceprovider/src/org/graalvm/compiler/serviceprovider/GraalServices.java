@@ -214,6 +214,14 @@ public final class GraalServices {
             return java.lang.management.ManagementFactory.getRuntimeMXBean().getInputArguments();
         }
 
+        protected double getProcessCpuLoad() {
+            java.lang.management.OperatingSystemMXBean osMXBean = java.lang.management.ManagementFactory.getOperatingSystemMXBean();
+            if (osMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) osMXBean).getProcessCpuLoad();
+            }
+            return -1;
+        }
+
         // Placing this static field in JMXService (instead of GraalServices)
         // allows for lazy initialization.
         static final JMXService jmx = new JMXService();
@@ -305,4 +313,14 @@ public final class GraalServices {
     public static List<String> getInputArguments() {
         return jmx.getInputArguments();
     }
+
+    /**
+     * Returns the recent CPU usage of the Java virtual machine process as a value in the range
+     * [0.0, 1.0] relative to all processors available to the process.
+     *
+     * @return the recent CPU load of the process or a negative value if it is not available
+     */
+    public static double getProcessCpuLoad() {
+        return jmx.getProcessCpuLoad();
+    }
 }
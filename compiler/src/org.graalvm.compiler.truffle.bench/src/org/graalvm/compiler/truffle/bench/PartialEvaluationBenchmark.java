@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.bench;
+
+import static org.graalvm.compiler.core.common.CompilationRequestIdentifier.asCompilationRequest;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.truffle.common.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.common.TruffleCompilerRuntime;
+import org.graalvm.compiler.truffle.compiler.TruffleCompilerImpl;
+import org.graalvm.compiler.truffle.runtime.DefaultInliningPolicy;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.TruffleInlining;
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.sl.SLLanguage;
+
+/**
+ * Measures the latency from a warmed-up Truffle AST to compiled code, for SimpleLanguage programs
+ * of increasing size and polymorphism. {@link #partialEvaluation} only covers the Truffle tier,
+ * {@link #compile} additionally runs the Graal tiers and installs the code.
+ *
+ * Besides the time per operation, the size of the graph after partial evaluation, the inlining
+ * decisions and the installed code size of the last operation are reported as secondary results
+ * (see {@link CompilationMetrics}).
+ */
+public class PartialEvaluationBenchmark extends GraalBenchmark {
+
+    @State(Scope.Thread)
+    public static class SLProgramState {
+
+        /**
+         * Number of {@code add} call sites in the {@code main} function.
+         */
+        @Param({"10", "100", "500"}) public int statements;
+
+        /**
+         * Number of operand types, between 1 and 3, the {@code +} in {@code add} sees.
+         */
+        @Param({"1", "3"}) public int polymorphism;
+
+        Context context;
+        OptimizedCallTarget callTarget;
+        TruffleCompilerImpl truffleCompiler;
+        OptionValues options;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            context = Context.create(SLLanguage.ID);
+            context.eval(SLLanguage.ID, createProgram(statements, polymorphism));
+            context.enter();
+            callTarget = (OptimizedCallTarget) SLLanguage.getCurrentContext().getFunctionRegistry().lookup("main", false).getCallTarget();
+            // Execute the AST a few times so that all nodes are specialized and profiled.
+            for (int i = 0; i < 3; i++) {
+                callTarget.call();
+            }
+            truffleCompiler = (TruffleCompilerImpl) TruffleCompilerRuntime.getRuntime().newTruffleCompiler();
+            options = TruffleCompilerOptions.getOptions();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+
+        StructuredGraph partialEvaluation(CompilationMetrics metrics) {
+            DebugContext debug = DebugContext.create(options, DebugHandlersFactory.LOADER);
+            CompilationIdentifier compilationId = truffleCompiler.getCompilationIdentifier(callTarget);
+            TruffleInlining inlining = new TruffleInlining(callTarget, new DefaultInliningPolicy());
+            StructuredGraph graph = truffleCompiler.getPartialEvaluator().createGraph(debug, callTarget, inlining, AllowAssumptions.YES, compilationId, callTarget.getSpeculationLog(), null);
+            metrics.graphNodes = graph.getNodeCount();
+            metrics.callSites = inlining.countCalls();
+            metrics.inlinedCalls = inlining.countInlinedCalls();
+            metrics.inlinedASTNodes = inlining.getInlinedNodeCount();
+            return graph;
+        }
+    }
+
+    /**
+     * Generates a {@code main} function calling {@code add} from {@code statements} call sites.
+     * With a polymorphism of 1 all operands are small integers; higher degrees mix in strings and
+     * big integers so that the {@code +} node in {@code add} becomes polymorphic.
+     */
+    static String createProgram(int statements, int polymorphism) {
+        String[] initialValues = {"0", "\"\"", "9223372036854775807"};
+        String[] operands = {"1", "\"x\"", "1"};
+        StringBuilder program = new StringBuilder();
+        program.append("function add(a, b) { return a + b; }\n");
+        program.append("function main() {\n");
+        for (int i = 0; i < polymorphism; i++) {
+            program.append("  r").append(i).append(" = ").append(initialValues[i]).append(";\n");
+        }
+        for (int i = 0; i < statements; i++) {
+            int type = i % polymorphism;
+            program.append("  if (").append(i).append(" < ").append(statements).append(") {\n");
+            program.append("    r").append(type).append(" = add(r").append(type).append(", ").append(operands[type]).append(");\n");
+            program.append("  }\n");
+        }
+        program.append("  return r0;\n");
+        program.append("}\n");
+        return program.toString();
+    }
+
+    /**
+     * Secondary results of the last compilation in an iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class CompilationMetrics {
+        public long graphNodes;
+        public long callSites;
+        public long inlinedCalls;
+        public long inlinedASTNodes;
+        public long installedCodeSize;
+    }
+
+    @Benchmark
+    public StructuredGraph partialEvaluation(SLProgramState state, CompilationMetrics metrics) {
+        return state.partialEvaluation(metrics);
+    }
+
+    @Benchmark
+    public CompilationResult compile(SLProgramState state, CompilationMetrics metrics) {
+        StructuredGraph graph = state.partialEvaluation(metrics);
+        CompilationResult result = state.truffleCompiler.compilePEGraph(graph, state.callTarget.toString(), null, state.callTarget, asCompilationRequest(graph.compilationId()), null);
+        metrics.installedCodeSize = result.getTargetCodeSize();
+        return result;
+    }
+}
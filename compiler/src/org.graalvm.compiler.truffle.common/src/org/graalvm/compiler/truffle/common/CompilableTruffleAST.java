@@ -55,6 +55,12 @@ public interface CompilableTruffleAST {
      */
     void onCompilationFailed(Supplier<String> reasonAndStackTrace, boolean bailout, boolean permanentBailout);
 
+    /**
+     * Notifies this object that the code produced by the current compilation of the AST it
+     * represents was installed.
+     */
+    void onCodeInstalled();
+
     /**
      * Gets a descriptive name for this call target.
      */
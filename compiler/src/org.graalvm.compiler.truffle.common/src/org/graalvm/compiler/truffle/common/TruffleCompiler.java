@@ -68,6 +68,21 @@ public interface TruffleCompiler {
     void doCompile(DebugContext debug, CompilationIdentifier compilationId, OptionValues options, CompilableTruffleAST compilable, TruffleInliningPlan inlining, Cancellable task,
                     TruffleCompilerListener listener);
 
+    /**
+     * Compiles {@code compilable} to machine code in the first or in the last compilation tier. The
+     * first tier trades code quality for compilation speed by running a reduced set of
+     * optimizations. Compilers that do not distinguish tiers always compile in the last tier.
+     *
+     * @param lastTierCompilation {@code false} if {@code compilable} should be compiled in the first
+     *            tier
+     * @see #doCompile(DebugContext, CompilationIdentifier, OptionValues, CompilableTruffleAST,
+     *      TruffleInliningPlan, Cancellable, TruffleCompilerListener)
+     */
+    default void doCompile(DebugContext debug, CompilationIdentifier compilationId, OptionValues options, CompilableTruffleAST compilable, TruffleInliningPlan inlining, Cancellable task,
+                    TruffleCompilerListener listener, boolean lastTierCompilation) {
+        doCompile(debug, compilationId, options, compilable, inlining, task, listener);
+    }
+
     /**
      * Returns a unique name for the configuration in use by this compiler.
      */
@@ -149,6 +149,12 @@ public class TruffleCompilerOptions {
     @Option(help = "Defines the maximum timespan in milliseconds that is required for a call target to be queued for compilation.", type = OptionType.User)
     public static final OptionKey<Integer> TruffleTimeThreshold = new OptionKey<>(50000);
 
+    @Option(help = "Compile call targets in a cheap first tier without inlining before compiling them with full optimizations", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleMultiTier = new OptionKey<>(false);
+
+    @Option(help = "Compile call target in the first tier when call count exceeds this threshold", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleFirstTierCompilationThreshold = new OptionKey<>(100);
+
     @Option(help = "Minimum number of calls before a call target is compiled", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleMinInvokeThreshold = new OptionKey<>(3);
 
@@ -206,6 +212,18 @@ public class TruffleCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleCompilerThreads = new OptionKey<>(0);
 
+    @Option(help = "Grow and shrink the number of compiler threads based on the length of the compilation queue, the observed compilation latency and the CPU load of the process", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleAdaptiveCompilerThreads = new OptionKey<>(false);
+
+    @Option(help = "Minimum number of compiler threads if TruffleAdaptiveCompilerThreads is enabled", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleMinCompilerThreads = new OptionKey<>(1);
+
+    @Option(help = "Maximum number of compiler threads if TruffleAdaptiveCompilerThreads is enabled (0 selects half of the available processors)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleMaxCompilerThreads = new OptionKey<>(0);
+
+    @Option(help = "Compile the hottest queued call target first instead of compiling call targets in the order they were queued", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleCompilationQueuePriority = new OptionKey<>(true);
+
     @Option(help = "Enable inlining across Truffle boundary", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleInlineAcrossTruffleBoundary = new OptionKey<>(false);
 
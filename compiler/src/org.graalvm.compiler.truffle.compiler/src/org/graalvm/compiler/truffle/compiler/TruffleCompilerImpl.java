@@ -69,6 +69,11 @@ import org.graalvm.compiler.debug.MemUseTrackerKey;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilderFactory;
 import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.loop.phases.LoopFullUnrollPhase;
+import org.graalvm.compiler.loop.phases.LoopPartialUnrollPhase;
+import org.graalvm.compiler.loop.phases.LoopPeelingPhase;
+import org.graalvm.compiler.loop.phases.LoopUnswitchingPhase;
+import org.graalvm.compiler.loop.phases.ReassociateInvariantPhase;
 import org.graalvm.compiler.nodes.Cancellable;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
@@ -77,8 +82,10 @@ import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Byt
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.options.EnumOptionKey;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
+import org.graalvm.compiler.phases.common.IterativeConditionalEliminationPhase;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.tiers.Suites;
 import org.graalvm.compiler.phases.util.Providers;
@@ -120,6 +127,7 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
     protected final Backend backend;
     protected final SnippetReflectionProvider snippetReflection;
     protected final TrufflePostCodeInstallationTaskFactory codeInstallationTaskFactory;
+    private volatile Suites firstTierSuites;
 
     public static final OptimisticOptimizations Optimizations = ALL.remove(
                     UseExceptionProbability,
@@ -180,6 +188,33 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
      */
     protected abstract PartialEvaluator createPartialEvaluator();
 
+    /**
+     * Gets the suites used for first tier compilations. These are derived from the regular
+     * {@link #suites} by removing the loop transformations and the iterative conditional
+     * elimination, which make up a large part of the compile time but are not needed for
+     * correctness.
+     */
+    protected Suites getFirstTierSuites() {
+        Suites result = firstTierSuites;
+        if (result == null) {
+            result = suites.copy();
+            removePhases(result.getHighTier(), LoopFullUnrollPhase.class, LoopPeelingPhase.class, LoopUnswitchingPhase.class, IterativeConditionalEliminationPhase.class);
+            removePhases(result.getMidTier(), LoopPartialUnrollPhase.class, ReassociateInvariantPhase.class, IterativeConditionalEliminationPhase.class);
+            result.setImmutable();
+            firstTierSuites = result;
+        }
+        return result;
+    }
+
+    @SafeVarargs
+    private static <C> void removePhases(PhaseSuite<C> suite, Class<? extends BasePhase<? super C>>... phaseClasses) {
+        for (Class<? extends BasePhase<? super C>> phaseClass : phaseClasses) {
+            while (suite.removePhase(phaseClass)) {
+                // remove all instances
+            }
+        }
+    }
+
     public static final TimerKey PartialEvaluationTime = DebugContext.timer("PartialEvaluationTime");
     public static final TimerKey CompilationTime = DebugContext.timer("CompilationTime");
     public static final TimerKey CodeInstallationTime = DebugContext.timer("CodeInstallation");
@@ -189,14 +224,20 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
     public static final MemUseTrackerKey CodeInstallationMemUse = DebugContext.memUseTracker("TruffleCodeInstallationMemUse");
 
     @Override
-    @SuppressWarnings("try")
     public void doCompile(DebugContext inDebug, CompilationIdentifier inCompilationId, OptionValues options, CompilableTruffleAST compilable, TruffleInliningPlan inliningPlan, Cancellable cancellable,
                     TruffleCompilerListener listener) {
+        doCompile(inDebug, inCompilationId, options, compilable, inliningPlan, cancellable, listener, true);
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public void doCompile(DebugContext inDebug, CompilationIdentifier inCompilationId, OptionValues options, CompilableTruffleAST compilable, TruffleInliningPlan inliningPlan, Cancellable cancellable,
+                    TruffleCompilerListener listener, boolean lastTierCompilation) {
         CompilationIdentifier compilationId = inCompilationId == null ? getCompilationIdentifier(compilable) : inCompilationId;
         DebugContext debug = inDebug == null ? openDebugContext(options, compilationId, compilable) : inDebug;
         try (DebugContext debugToClose = debug == inDebug ? null : debug;
                         DebugContext.Scope s = maybeOpenTruffleScope(compilable, debug)) {
-            new TruffleCompilationWrapper(getDebugOutputDirectory(), getCompilationProblemsPerAction(), compilable, cancellable, inliningPlan, compilationId, listener).run(debug);
+            new TruffleCompilationWrapper(getDebugOutputDirectory(), getCompilationProblemsPerAction(), compilable, cancellable, inliningPlan, compilationId, listener, lastTierCompilation).run(debug);
         } catch (Throwable e) {
             notifyCompilableOfFailure(compilable, e);
         }
@@ -337,9 +378,22 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
      *            cancellable requests it
      * @param listener
      */
-    @SuppressWarnings("try")
     public void compileAST(DebugContext debug, final CompilableTruffleAST compilable, TruffleInliningPlan inliningPlan, CompilationIdentifier compilationId, Cancellable cancellable,
                     TruffleCompilerListener listener) {
+        compileAST(debug, compilable, inliningPlan, compilationId, cancellable, listener, true);
+    }
+
+    /**
+     * Compiles a Truffle AST in the first or in the last compilation tier.
+     *
+     * @param lastTierCompilation {@code false} to compile with the {@linkplain #getFirstTierSuites()
+     *            first tier suites}
+     * @see #compileAST(DebugContext, CompilableTruffleAST, TruffleInliningPlan,
+     *      CompilationIdentifier, Cancellable, TruffleCompilerListener)
+     */
+    @SuppressWarnings("try")
+    public void compileAST(DebugContext debug, final CompilableTruffleAST compilable, TruffleInliningPlan inliningPlan, CompilationIdentifier compilationId, Cancellable cancellable,
+                    TruffleCompilerListener listener, boolean lastTierCompilation) {
         final CompilationPrinter printer = CompilationPrinter.begin(TruffleCompilerOptions.getOptions(), compilationId, new TruffleDebugJavaMethod(compilable), INVOCATION_ENTRY_BCI);
         StructuredGraph graph = null;
 
@@ -365,7 +419,8 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
             if (listener != null) {
                 listener.onTruffleTierFinished(compilable, inliningPlan, new GraphInfoImpl(graph));
             }
-            CompilationResult compilationResult = compilePEGraph(graph, compilable.toString(), graphBuilderSuite, compilable, asCompilationRequest(compilationId), listener);
+            Suites compilationSuites = lastTierCompilation ? suites : getFirstTierSuites();
+            CompilationResult compilationResult = compilePEGraph(graph, compilable.toString(), graphBuilderSuite, compilable, asCompilationRequest(compilationId), listener, compilationSuites);
             if (listener != null) {
                 listener.onSuccess(compilable, inliningPlan, new GraphInfoImpl(graph), new CompilationResultInfoImpl(compilationResult));
             }
@@ -402,9 +457,14 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
      * @param compilationRequest
      * @param listener
      */
-    @SuppressWarnings("try")
     public CompilationResult compilePEGraph(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, CompilableTruffleAST compilable,
                     CompilationRequest compilationRequest, TruffleCompilerListener listener) {
+        return compilePEGraph(graph, name, graphBuilderSuite, compilable, compilationRequest, listener, suites);
+    }
+
+    @SuppressWarnings("try")
+    private CompilationResult compilePEGraph(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, CompilableTruffleAST compilable,
+                    CompilationRequest compilationRequest, TruffleCompilerListener listener, Suites compilationSuites) {
         DebugContext debug = graph.getDebug();
         try (DebugContext.Scope s = debug.scope("TruffleFinal")) {
             debug.dump(DebugContext.BASIC_LEVEL, graph, "After TruffleTier");
@@ -419,7 +479,7 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
                         DebugCloseable c = CompilationMemUse.start(debug)) {
 
             CompilationResult compilationResult = createCompilationResult(name, graph.compilationId());
-            result = GraalCompiler.compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), suites, lirSuites, compilationResult,
+            result = GraalCompiler.compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), compilationSuites, lirSuites, compilationResult,
                             CompilationResultBuilderFactory.Default, false);
         } catch (Throwable e) {
             throw debug.handle(e);
@@ -432,6 +492,7 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
         try (DebugCloseable a = CodeInstallationTime.start(debug); DebugCloseable c = CodeInstallationMemUse.start(debug)) {
             InstalledCode installedCode = createInstalledCode(compilable);
             backend.createInstalledCode(debug, graph.method(), compilationRequest, result, graph.getSpeculationLog(), installedCode, false);
+            compilable.onCodeInstalled();
         } catch (Throwable e) {
             throw debug.handle(e);
         }
@@ -473,15 +534,17 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
         private final Cancellable cancellable;
         private final TruffleCompilerListener listener;
         private final CompilationIdentifier compilationId;
+        private final boolean lastTierCompilation;
 
         private TruffleCompilationWrapper(DiagnosticsOutputDirectory outputDirectory, Map<ExceptionAction, Integer> problemsHandledPerAction, CompilableTruffleAST optimizedCallTarget,
-                        Cancellable cancellable, TruffleInliningPlan inliningPlan, CompilationIdentifier compilationId, TruffleCompilerListener listener) {
+                        Cancellable cancellable, TruffleInliningPlan inliningPlan, CompilationIdentifier compilationId, TruffleCompilerListener listener, boolean lastTierCompilation) {
             super(outputDirectory, problemsHandledPerAction);
             this.compilable = optimizedCallTarget;
             this.inliningPlan = inliningPlan;
             this.cancellable = cancellable;
             this.listener = listener;
             this.compilationId = compilationId;
+            this.lastTierCompilation = lastTierCompilation;
         }
 
         @Override
@@ -518,7 +581,7 @@ public abstract class TruffleCompilerImpl implements TruffleCompiler {
 
         @Override
         protected Void performCompilation(DebugContext debug) {
-            compileAST(debug, compilable, inliningPlan, compilationId, cancellable, listener);
+            compileAST(debug, compilable, inliningPlan, compilationId, cancellable, listener, lastTierCompilation);
             return null;
         }
     }
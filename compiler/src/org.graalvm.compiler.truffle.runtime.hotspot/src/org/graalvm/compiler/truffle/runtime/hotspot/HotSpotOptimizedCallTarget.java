@@ -47,7 +47,12 @@ public class HotSpotOptimizedCallTarget extends OptimizedCallTarget {
     }
 
     public void setInstalledCode(HotSpotTruffleInstalledCode code) {
+        HotSpotTruffleInstalledCode oldCode = installedCode;
         installedCode = code;
+        if (oldCode != null && oldCode != code && oldCode.isValid()) {
+            // code of a lower tier that was replaced is no longer reachable
+            oldCode.invalidate();
+        }
     }
 
     @Override
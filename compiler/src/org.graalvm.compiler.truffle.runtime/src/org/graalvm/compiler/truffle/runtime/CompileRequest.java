@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.FutureTask;
+
+import org.graalvm.compiler.serviceprovider.GraalServices;
+
+/**
+ * A compilation of an {@link OptimizedCallTarget} waiting in the {@link GraalTruffleRuntime}
+ * compilation queue. The priority of a request is derived from the profile of its target each time
+ * the queue is polled, so targets that keep getting hotter while they wait overtake colder targets
+ * that were submitted earlier.
+ */
+final class CompileRequest extends FutureTask<Void> {
+
+    private final WeakReference<OptimizedCallTarget> weakCallTarget;
+    private final long queueTime;
+    private final long sequence;
+    private final GraalTruffleRuntimeListener listener;
+    private final boolean lastTierCompilation;
+    private volatile long startTime;
+    private volatile long startCpuTime;
+
+    CompileRequest(WeakReference<OptimizedCallTarget> weakCallTarget, long sequence, GraalTruffleRuntimeListener listener, boolean lastTierCompilation, Runnable compilation) {
+        super(compilation, null);
+        this.weakCallTarget = weakCallTarget;
+        this.sequence = sequence;
+        this.listener = listener;
+        this.lastTierCompilation = lastTierCompilation;
+        this.queueTime = System.nanoTime();
+    }
+
+    OptimizedCallTarget getCallTarget() {
+        return weakCallTarget.get();
+    }
+
+    GraalTruffleRuntimeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Gets the time in nanoseconds this request has been waiting in the queue so far.
+     */
+    long getQueueTime() {
+        return System.nanoTime() - queueTime;
+    }
+
+    /**
+     * Records that a compiler thread starts to compile this request.
+     */
+    void markStarted() {
+        startTime = System.nanoTime();
+        if (GraalServices.isCurrentThreadCpuTimeSupported()) {
+            startCpuTime = GraalServices.getCurrentThreadCpuTime();
+        }
+    }
+
+    /**
+     * Gets the time in nanoseconds since a compiler thread started to compile this request.
+     */
+    long getCompileTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the CPU time in nanoseconds the current thread spent since it started to compile this
+     * request, or 0 if CPU time measurement is not supported. Must be called on the compiler
+     * thread that compiles this request.
+     */
+    long getCompileCpuTime() {
+        if (GraalServices.isCurrentThreadCpuTimeSupported()) {
+            return GraalServices.getCurrentThreadCpuTime() - startCpuTime;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the current priority of this request. Higher values are compiled first. The priority is
+     * the number of calls and loop iterations the target executed in the interpreter, which already
+     * includes each call once, so calls and loop iterations are weighted equally.
+     */
+    long getPriority() {
+        OptimizedCallTarget callTarget = weakCallTarget.get();
+        if (callTarget == null) {
+            return Long.MIN_VALUE;
+        }
+        OptimizedCompilationProfile profile = callTarget.getCompilationProfile();
+        return profile.getInterpreterCallAndLoopCount();
+    }
+
+    /**
+     * Determines if this request no longer needs to be compiled, either because its target was
+     * collected, already has valid machine code of the requested tier or of a higher tier, or the
+     * request was cancelled.
+     */
+    boolean isStale() {
+        if (isCancelled()) {
+            return true;
+        }
+        OptimizedCallTarget callTarget = weakCallTarget.get();
+        return callTarget == null || callTarget.hasValidCode(lastTierCompilation);
+    }
+
+    /**
+     * Orders requests by {@linkplain #getPriority() priority}, falling back to submission order for
+     * requests of equal priority.
+     */
+    static int compare(CompileRequest a, CompileRequest b) {
+        int result = Long.compare(a.getPriority(), b.getPriority());
+        if (result == 0) {
+            result = Long.compare(b.sequence, a.sequence);
+        }
+        return result;
+    }
+}
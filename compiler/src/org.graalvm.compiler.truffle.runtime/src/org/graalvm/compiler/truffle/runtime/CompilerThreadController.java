@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.graalvm.compiler.serviceprovider.GraalServices;
+
+/**
+ * Adjusts the number of threads of the {@link GraalTruffleRuntime} compilation executor while the
+ * application is running. A thread is added while compilations wait in the queue for longer than
+ * they take to compile and the application leaves CPU capacity to spare. A thread is removed when
+ * the application is CPU bound or once the queue has been drained. The number of threads always
+ * stays between a lower and an upper limit. Every adjustment is reported as a
+ * {@link GraalTruffleRuntimeListener#onCompilerThreadCountChanged} event.
+ *
+ * The CPU load of the application is the CPU load of the process minus the load caused by the
+ * compiler threads themselves, so that a busy compiler does not keep itself from growing.
+ *
+ * Adjustments are made when a compilation starts or finishes. While there are more threads than
+ * the lower limit, a timer additionally checks every adjustment interval, so that threads are also
+ * removed when no compilation starts any more.
+ */
+public final class CompilerThreadController {
+
+    /**
+     * Minimum time in nanoseconds between two adjustments of the number of threads.
+     */
+    private static final long ADJUSTMENT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * CPU load of the application above which compiler threads are given back to the application.
+     */
+    private static final double HIGH_CPU_LOAD = 0.9;
+
+    /**
+     * Weight of a new sample in the moving averages of queue and compilation time.
+     */
+    private static final double SAMPLE_WEIGHT = 0.2;
+
+    private final ThreadPoolExecutor executor;
+    private final int minThreads;
+    private final int maxThreads;
+    private final DoubleSupplier processCpuLoad;
+    private final long adjustmentInterval;
+    private final int processors;
+
+    private double averageQueueTime;
+    private double averageCompileTime;
+    private long lastAdjustment;
+
+    /**
+     * CPU time in nanoseconds spent by compiler threads in compilations that finished since the
+     * last adjustment.
+     */
+    private long compilerCpuTime;
+
+    private Timer timer;
+    private TimerTask idleCheck;
+
+    CompilerThreadController(ThreadPoolExecutor executor, int minThreads, int maxThreads) {
+        this(executor, minThreads, maxThreads, GraalServices::getProcessCpuLoad, ADJUSTMENT_INTERVAL);
+    }
+
+    /**
+     * @param processCpuLoad supplies the recent CPU load of the process in the range [0.0, 1.0]
+     * @param adjustmentInterval minimum time in nanoseconds between two adjustments
+     */
+    public CompilerThreadController(ThreadPoolExecutor executor, int minThreads, int maxThreads, DoubleSupplier processCpuLoad, long adjustmentInterval) {
+        assert 0 < minThreads && minThreads <= maxThreads;
+        this.executor = executor;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.processCpuLoad = processCpuLoad;
+        this.adjustmentInterval = adjustmentInterval;
+        this.processors = Runtime.getRuntime().availableProcessors();
+        this.lastAdjustment = System.nanoTime();
+    }
+
+    /**
+     * Called by a compiler thread right before it compiles {@code r}.
+     */
+    synchronized void compilationStarted(Runnable r, int queueSize) {
+        if (r instanceof CompileRequest) {
+            CompileRequest request = (CompileRequest) r;
+            request.markStarted();
+            recordQueueTime(request.getQueueTime());
+            adjust(request.getListener(), queueSize);
+        }
+    }
+
+    /**
+     * Called by a compiler thread right after it compiled {@code r}.
+     */
+    synchronized void compilationFinished(Runnable r, int queueSize) {
+        if (r instanceof CompileRequest) {
+            CompileRequest request = (CompileRequest) r;
+            recordCompileTime(request.getCompileTime());
+            recordCompilerCpuTime(request.getCompileCpuTime());
+            adjust(request.getListener(), queueSize);
+        }
+    }
+
+    /**
+     * Records that a compilation waited {@code nanos} in the queue.
+     */
+    public synchronized void recordQueueTime(long nanos) {
+        averageQueueTime = average(averageQueueTime, nanos);
+    }
+
+    /**
+     * Records that a compilation took {@code nanos}.
+     */
+    public synchronized void recordCompileTime(long nanos) {
+        averageCompileTime = average(averageCompileTime, nanos);
+    }
+
+    /**
+     * Records that a compiler thread spent {@code nanos} of CPU time in a compilation.
+     */
+    public synchronized void recordCompilerCpuTime(long nanos) {
+        compilerCpuTime += nanos;
+    }
+
+    private static double average(double average, long sample) {
+        return average == 0 ? sample : average + SAMPLE_WEIGHT * (sample - average);
+    }
+
+    /**
+     * Adds or removes at most one compiler thread unless the last adjustment was too recent.
+     *
+     * @param queueSize the number of compilations waiting in the queue
+     */
+    public synchronized void adjust(GraalTruffleRuntimeListener listener, int queueSize) {
+        long now = System.nanoTime();
+        long elapsed = now - lastAdjustment;
+        if (elapsed < adjustmentInterval) {
+            return;
+        }
+        lastAdjustment = now;
+        double compilerCpuLoad = elapsed > 0 ? (double) compilerCpuTime / ((double) elapsed * processors) : 0;
+        compilerCpuTime = 0;
+
+        int current = executor.getCorePoolSize();
+        boolean cpuBound = processCpuLoad.getAsDouble() - compilerCpuLoad >= HIGH_CPU_LOAD;
+        if (current < maxThreads && !cpuBound && queueSize > current && averageQueueTime > averageCompileTime) {
+            executor.setMaximumPoolSize(current + 1);
+            executor.setCorePoolSize(current + 1);
+            listener.onCompilerThreadCountChanged(current, current + 1, queueSize, "compilation queue backlog");
+            scheduleIdleCheck(listener);
+        } else if (current > minThreads && (cpuBound || queueSize == 0)) {
+            executor.setCorePoolSize(current - 1);
+            executor.setMaximumPoolSize(current - 1);
+            listener.onCompilerThreadCountChanged(current, current - 1, queueSize, cpuBound ? "high application CPU load" : "compilation queue drained");
+        }
+    }
+
+    /**
+     * Starts checking periodically whether threads can be removed, unless such checks are already
+     * running or the adjustment interval is 0. The checks stop once the lower limit is reached.
+     */
+    private void scheduleIdleCheck(GraalTruffleRuntimeListener listener) {
+        if (idleCheck != null || adjustmentInterval <= 0) {
+            return;
+        }
+        if (timer == null) {
+            timer = new Timer("TruffleCompilerThreadController", true);
+        }
+        long period = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(adjustmentInterval));
+        idleCheck = new TimerTask() {
+            @Override
+            public void run() {
+                checkIdle(this, listener);
+            }
+        };
+        timer.schedule(idleCheck, period, period);
+    }
+
+    private synchronized void checkIdle(TimerTask task, GraalTruffleRuntimeListener listener) {
+        adjust(listener, executor.getQueue().size());
+        if (executor.getCorePoolSize() <= minThreads) {
+            task.cancel();
+            if (idleCheck == task) {
+                idleCheck = null;
+            }
+        }
+    }
+}
@@ -113,14 +113,17 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -128,10 +131,14 @@ import static java.util.Collections.singletonList;
 import static org.graalvm.compiler.debug.DebugContext.DEFAULT_LOG_STREAM;
 import static org.graalvm.compiler.debug.DebugContext.NO_GLOBAL_METRIC_VALUES;
 import static org.graalvm.compiler.serviceprovider.GraalServices.Java8OrEarlier;
+import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleAdaptiveCompilerThreads;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleCompilation;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown;
+import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleCompilationQueuePriority;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleCompileOnly;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleCompilerThreads;
+import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleMaxCompilerThreads;
+import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleMinCompilerThreads;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleProfilingEnabled;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleUseFrameWithoutBoxing;
 import static org.graalvm.compiler.truffle.common.TruffleCompilerOptions.getValue;
@@ -153,8 +160,16 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         truffleCompiler = null;
     }
 
+    /**
+     * The queue of call targets waiting for compilation. Unless
+     * {@link TruffleCompilerOptions#TruffleCompilationQueuePriority} is disabled, compiler threads
+     * do not take requests in submission order but pick the request whose call target is currently
+     * the hottest, dropping requests that became stale while they were waiting.
+     */
     protected static class BackgroundCompileQueue {
         private final ExecutorService compilationExecutor;
+        private final CompilerThreadController threadController;
+        private final AtomicLong sequence = new AtomicLong();
 
         public BackgroundCompileQueue() {
             CompilerThreadFactory factory = new CompilerThreadFactory("TruffleCompilerThread");
@@ -168,12 +183,95 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
                 }
             }
             selectedProcessors = Math.max(1, selectedProcessors);
-            compilationExecutor = Executors.newFixedThreadPool(selectedProcessors, factory);
+            boolean prioritized = TruffleCompilerOptions.getValue(TruffleCompilationQueuePriority);
+            boolean adaptive = TruffleCompilerOptions.getValue(TruffleAdaptiveCompilerThreads);
+            if (prioritized || adaptive) {
+                BlockingQueue<Runnable> queue;
+                if (prioritized) {
+                    queue = new TraversingBlockingQueue<>(BackgroundCompileQueue::compareRequests, BackgroundCompileQueue::isStale, BackgroundCompileQueue::dropRequest);
+                } else {
+                    queue = new LinkedBlockingQueue<>();
+                }
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(selectedProcessors, selectedProcessors, 0L, TimeUnit.MILLISECONDS, queue, factory) {
+                    @Override
+                    protected void beforeExecute(Thread t, Runnable r) {
+                        super.beforeExecute(t, r);
+                        int queueSize = getQueue().size();
+                        if (prioritized) {
+                            notifyPolled(r, queueSize);
+                        }
+                        if (threadController != null) {
+                            threadController.compilationStarted(r, queueSize);
+                        }
+                    }
+
+                    @Override
+                    protected void afterExecute(Runnable r, Throwable t) {
+                        super.afterExecute(r, t);
+                        if (threadController != null) {
+                            threadController.compilationFinished(r, getQueue().size());
+                        }
+                    }
+                };
+                if (adaptive) {
+                    int maxThreads = TruffleCompilerOptions.getValue(TruffleMaxCompilerThreads);
+                    if (maxThreads == 0) {
+                        maxThreads = Runtime.getRuntime().availableProcessors() / 2;
+                    }
+                    int minThreads = Math.max(1, Math.min(selectedProcessors, TruffleCompilerOptions.getValue(TruffleMinCompilerThreads)));
+                    threadController = new CompilerThreadController(executor, minThreads, Math.max(selectedProcessors, maxThreads));
+                } else {
+                    threadController = null;
+                }
+                compilationExecutor = executor;
+            } else {
+                threadController = null;
+                compilationExecutor = Executors.newFixedThreadPool(selectedProcessors, factory);
+            }
         }
 
         public ExecutorService getCompilationExecutor() {
             return compilationExecutor;
         }
+
+        void submit(CompileRequest request) {
+            compilationExecutor.execute(request);
+        }
+
+        long nextSequence() {
+            return sequence.getAndIncrement();
+        }
+
+        private static int compareRequests(Runnable a, Runnable b) {
+            if (a instanceof CompileRequest && b instanceof CompileRequest) {
+                return CompileRequest.compare((CompileRequest) a, (CompileRequest) b);
+            }
+            return 0;
+        }
+
+        private static boolean isStale(Runnable r) {
+            return r instanceof CompileRequest && ((CompileRequest) r).isStale();
+        }
+
+        private static void dropRequest(Runnable r) {
+            CompileRequest request = (CompileRequest) r;
+            request.cancel(false);
+            OptimizedCallTarget callTarget = request.getCallTarget();
+            if (callTarget != null) {
+                callTarget.resetCompilationTask(request);
+                request.getListener().onCompilationDequeued(callTarget, null, "Stale compilation request");
+            }
+        }
+
+        private static void notifyPolled(Runnable r, int queueSize) {
+            if (r instanceof CompileRequest) {
+                CompileRequest request = (CompileRequest) r;
+                OptimizedCallTarget callTarget = request.getCallTarget();
+                if (callTarget != null) {
+                    request.getListener().onCompilationPolled(callTarget, queueSize, request.getQueueTime(), request.getPriority());
+                }
+            }
+        }
     }
 
     private Object cachedIncludesExcludes;
@@ -702,16 +800,24 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         }
     }
 
-    @SuppressWarnings("try")
     protected void doCompile(OptionValues options, OptimizedCallTarget callTarget, Cancellable task) {
+        doCompile(options, callTarget, task, true);
+    }
+
+    /**
+     * Compiles {@code callTarget} in the first or the last compilation tier. The first tier does not
+     * perform any Truffle level inlining.
+     */
+    @SuppressWarnings("try")
+    protected void doCompile(OptionValues options, OptimizedCallTarget callTarget, Cancellable task, boolean lastTierCompilation) {
         listeners.onCompilationStarted(callTarget);
         TruffleCompiler compiler = getTruffleCompiler();
-        TruffleInlining inlining = new TruffleInlining(callTarget, new DefaultInliningPolicy());
+        TruffleInlining inlining = lastTierCompilation ? new TruffleInlining(callTarget, new DefaultInliningPolicy()) : new TruffleInlining(Collections.emptyList());
         CompilationIdentifier compilationId = compiler.getCompilationIdentifier(callTarget);
         try (DebugContext debug = compilationId != null ? compiler.openDebugContext(options, compilationId, callTarget) : null) {
             try (Scope s = debug != null ? debug.scope("Truffle", new TruffleDebugJavaMethod(callTarget)) : null) {
                 maybeDumpTruffleTree(debug, options, callTarget, inlining);
-                compiler.doCompile(debug, compilationId, options, callTarget, inlining, task, listeners.isEmpty() ? null : listeners);
+                compiler.doCompile(debug, compilationId, options, callTarget, inlining, task, listeners.isEmpty() ? null : listeners, lastTierCompilation);
             } catch (RuntimeException | Error e) {
                 throw e;
             } catch (Throwable e) {
@@ -764,26 +870,32 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
 
     protected abstract BackgroundCompileQueue getCompileQueue();
 
-    @SuppressWarnings("try")
     public CancellableCompileTask submitForCompilation(OptimizedCallTarget optimizedCallTarget) {
+        return submitForCompilation(optimizedCallTarget, true);
+    }
+
+    @SuppressWarnings("try")
+    public CancellableCompileTask submitForCompilation(OptimizedCallTarget optimizedCallTarget, boolean lastTierCompilation) {
         BackgroundCompileQueue l = getCompileQueue();
         final WeakReference<OptimizedCallTarget> weakCallTarget = new WeakReference<>(optimizedCallTarget);
         final OptionValues optionOverrides = TruffleCompilerOptions.getCurrentOptionOverrides();
         CancellableCompileTask cancellable = new CancellableCompileTask();
-        cancellable.setFuture(l.compilationExecutor.submit(new Runnable() {
+        CompileRequest request = new CompileRequest(weakCallTarget, l.nextSequence(), listeners, lastTierCompilation, new Runnable() {
             @Override
             public void run() {
                 OptimizedCallTarget callTarget = weakCallTarget.get();
                 if (callTarget != null) {
                     try (TruffleOptionsOverrideScope scope = optionOverrides != null ? overrideOptions(optionOverrides.getMap()) : null) {
                         OptionValues options = TruffleCompilerOptions.getOptions();
-                        doCompile(options, callTarget, cancellable);
+                        doCompile(options, callTarget, cancellable, lastTierCompilation);
                     } finally {
-                        callTarget.resetCompilationTask();
+                        callTarget.resetCompilationTask(cancellable.getFuture());
                     }
                 }
             }
-        }));
+        });
+        cancellable.setFuture(request);
+        l.submit(request);
         // task and future must never diverge from each other
         assert cancellable.future != null;
         return cancellable;
@@ -39,7 +39,7 @@ import com.oracle.truffle.api.nodes.Node;
  * described using the following deterministic automata: * <code>
  * <pre>
  * ( (split | (queue . unqueue))*
- *    . queue . started
+ *    . queue . [polled] . started
  *    . (truffleTierFinished . graalTierFinished . success)
  *      | ([truffleTierFinished] . [graalTierFinished] . failed)
  *    . invalidate )*
@@ -82,6 +82,18 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
     }
 
+    /**
+     * Notifies this object when a compiler thread takes {@code target} from the compilation queue.
+     * This event is only reported if the compilation queue is prioritized.
+     *
+     * @param target the call target that is about to be compiled
+     * @param queueSize the number of compilations still waiting in the queue
+     * @param queueTime the time in nanoseconds {@code target} was waiting in the queue
+     * @param priority the priority with which {@code target} was selected from the queue
+     */
+    default void onCompilationPolled(OptimizedCallTarget target, int queueSize, long queueTime, long priority) {
+    }
+
     /**
      * Notifies this object when compilation of {@code target} is about to start.
      *
@@ -160,6 +172,18 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
     }
 
+    /**
+     * Notifies this object when the number of compiler threads is adjusted. This event is only
+     * reported if the number of compiler threads is adaptive.
+     *
+     * @param previousCount the number of compiler threads before the adjustment
+     * @param newCount the number of compiler threads after the adjustment
+     * @param queueSize the number of compilations waiting in the queue
+     * @param reason a description of why the number of compiler threads changed
+     */
+    default void onCompilerThreadCountChanged(int previousCount, int newCount, int queueSize, CharSequence reason) {
+    }
+
     /**
      * Notifies this object the {@link GraalTruffleRuntime} is being shut down.
      */
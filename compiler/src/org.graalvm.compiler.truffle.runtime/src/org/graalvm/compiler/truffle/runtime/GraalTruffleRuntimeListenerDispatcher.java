@@ -68,6 +68,20 @@ final class GraalTruffleRuntimeListenerDispatcher extends ArrayList<GraalTruffle
         }
     }
 
+    @Override
+    public void onCompilationPolled(OptimizedCallTarget target, int queueSize, long queueTime, long priority) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilationPolled(target, queueSize, queueTime, priority);
+        }
+    }
+
+    @Override
+    public void onCompilerThreadCountChanged(int previousCount, int newCount, int queueSize, CharSequence reason) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilerThreadCountChanged(previousCount, newCount, queueSize, reason);
+        }
+    }
+
     @Override
     public void onCompilationFailed(OptimizedCallTarget target, String reason, boolean bailout, boolean permanent) {
         for (GraalTruffleRuntimeListener l : this) {
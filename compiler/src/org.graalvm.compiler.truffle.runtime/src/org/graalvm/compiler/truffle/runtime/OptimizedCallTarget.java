@@ -104,6 +104,17 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
     private volatile SpeculationLog speculationLog;
     private volatile int callSitesKnown;
     private volatile CancellableCompileTask compilationTask;
+    /**
+     * Set while the code being compiled for this call target is produced by the first compilation
+     * tier. Partial evaluation folds this field so that only first tier code profiles its calls in
+     * order to trigger the last tier compilation.
+     */
+    @CompilationFinal private volatile boolean compilingFirstTier;
+    /**
+     * Set once code produced by the first compilation tier is installed for this call target, reset
+     * once last tier code is installed. Only meaningful while {@link #isValid()}.
+     */
+    private volatile boolean firstTierCompilation;
     /**
      * When this call target is inlined, the inlining {@link InstalledCode} registers this
      * assumption. It gets invalidated when a node rewrite in this call target is performed. This
@@ -253,6 +264,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         Object[] args = originalArguments;
         OptimizedCompilationProfile profile = this.compilationProfile;
         if (CompilerDirectives.inCompiledCode() && profile != null) {
+            if (compilingFirstTier) {
+                profile.firstTierCall(this);
+            }
             args = profile.injectArgumentProfile(originalArguments);
         }
         Object result = callProxy(createFrame(getRootNode().getFrameDescriptor(), args));
@@ -316,7 +330,37 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      * the background. Use {@link #isCompiling()} to find out whether it is actually compiling.
      */
     public final boolean compile() {
-        if (isValid()) {
+        return compile(true);
+    }
+
+    /**
+     * Determines if valid code of the requested tier or of a higher tier is installed for this call
+     * target.
+     *
+     * @param lastTierCompilation {@code true} if only last tier code is sufficient
+     */
+    public final boolean hasValidCode(boolean lastTierCompilation) {
+        return isValid() && !(lastTierCompilation && firstTierCompilation);
+    }
+
+    /**
+     * Records the tier of the code that was just installed for this call target.
+     */
+    @Override
+    public final void onCodeInstalled() {
+        this.firstTierCompilation = compilingFirstTier;
+    }
+
+    /**
+     * Compiles this call target in the first or in the last compilation tier. Code produced by the
+     * first tier is replaced once the call target gets compiled in the last tier.
+     *
+     * @param lastTierCompilation {@code false} to compile without inlining and with a reduced set of
+     *            optimizations
+     * @see #compile()
+     */
+    public final boolean compile(boolean lastTierCompilation) {
+        if (hasValidCode(lastTierCompilation)) {
             return true;
         }
         if (!isCompiling()) {
@@ -328,14 +372,15 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
             // Do not try to compile this target concurrently,
             // but do not block other threads if compilation is not asynchronous.
             synchronized (this) {
-                if (isValid()) {
+                if (hasValidCode(lastTierCompilation)) {
                     return true;
                 }
                 if (this.compilationProfile == null) {
                     initialize();
                 }
                 if (!isCompiling()) {
-                    this.compilationTask = task = runtime().submitForCompilation(this);
+                    this.compilingFirstTier = !lastTierCompilation;
+                    this.compilationTask = task = runtime().submitForCompilation(this, lastTierCompilation);
                 }
             }
             if (task != null) {
@@ -615,7 +660,12 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
     public Map<String, Object> getDebugProperties(TruffleInlining inlining) {
         Map<String, Object> properties = new LinkedHashMap<>();
         GraalTruffleRuntimeListener.addASTSizeProperty(this, inlining, properties);
-        properties.putAll(getCompilationProfile().getDebugProperties());
+        OptimizedCompilationProfile profile = getCompilationProfile();
+        properties.putAll(profile.getDebugProperties());
+        if (profile.isMultiTier() && isValid()) {
+            // the tier of the installed code
+            properties.put("Tier", firstTierCompilation ? 1 : 2);
+        }
         return properties;
     }
 
@@ -672,6 +722,17 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         this.compilationTask = null;
     }
 
+    /**
+     * Resets the compilation task only if it is still the task of {@code future}, so that a request
+     * that finished or was dropped does not clear the task of a newer compilation.
+     */
+    synchronized void resetCompilationTask(Future<?> future) {
+        CancellableCompileTask task = compilationTask;
+        if (task != null && task.getFuture() == future) {
+            compilationTask = null;
+        }
+    }
+
     public <T> T getOptionValue(OptionKey<T> key) {
         return PolyglotCompilerOptions.getValue(rootNode, key);
     }
@@ -43,6 +43,7 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.CompilerOptions;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
@@ -60,6 +61,16 @@ public class OptimizedCompilationProfile {
     private int compilationCallThreshold;
     private int compilationCallAndLoopThreshold;
 
+    /*
+     * Thresholds for the first tier compilation if multi-tier compilation is enabled. Once the first
+     * tier code is installed, the call count is incremented by the first tier code itself until the
+     * regular thresholds above trigger the last tier compilation.
+     */
+    private final boolean multiTier;
+    private final int firstTierCallThreshold;
+    private int firstTierCompilationCallThreshold;
+    private int firstTierCompilationCallAndLoopThreshold;
+
     private long timestamp;
 
     /*
@@ -88,6 +99,12 @@ public class OptimizedCompilationProfile {
         assert callAndLoopThreshold >= 0;
         this.compilationCallThreshold = Math.min(callThreshold, callAndLoopThreshold);
         this.compilationCallAndLoopThreshold = callAndLoopThreshold;
+        this.multiTier = PolyglotCompilerOptions.getValue(options, PolyglotCompilerOptions.MultiTier);
+        int firstTierThreshold = Math.min(PolyglotCompilerOptions.getValue(options, PolyglotCompilerOptions.FirstTierCompilationThreshold), callAndLoopThreshold);
+        assert firstTierThreshold >= 0;
+        this.firstTierCallThreshold = firstTierThreshold;
+        this.firstTierCompilationCallThreshold = Math.min(callThreshold, firstTierThreshold);
+        this.firstTierCompilationCallAndLoopThreshold = firstTierThreshold;
         this.timestamp = System.nanoTime();
     }
 
@@ -292,12 +309,34 @@ public class OptimizedCompilationProfile {
             // check if call target is hot enough to get compiled, but took not too long to get hot
             if ((intAndLoopCallCount >= compilationCallAndLoopThreshold && intCallCount >= compilationCallThreshold && !isDeferredCompile(callTarget)) ||
                             TruffleCompilerOptions.getValue(TruffleCompileImmediately)) {
-                return callTarget.compile();
+                return callTarget.compile(true);
+            }
+            if (multiTier && intAndLoopCallCount >= firstTierCompilationCallAndLoopThreshold && intCallCount >= firstTierCompilationCallThreshold) {
+                return callTarget.compile(false);
             }
         }
         return false;
     }
 
+    /**
+     * Counts a call executed by code produced by the first compilation tier and requests the last
+     * tier compilation once the call target is hot enough.
+     */
+    final void firstTierCall(OptimizedCallTarget callTarget) {
+        int intCallCount = ++interpreterCallCount;
+        int intAndLoopCallCount = ++interpreterCallAndLoopCount;
+        if (intAndLoopCallCount >= compilationCallAndLoopThreshold && intCallCount >= compilationCallThreshold) {
+            lastTierCompile(callTarget);
+        }
+    }
+
+    @TruffleBoundary
+    private void lastTierCompile(OptimizedCallTarget callTarget) {
+        if (!callTarget.isCompiling() && !compilationFailed) {
+            callTarget.compile(true);
+        }
+    }
+
     private boolean isDeferredCompile(OptimizedCallTarget target) {
         // Workaround for https://bugs.eclipse.org/bugs/show_bug.cgi?id=440019
         int threshold = target.getOptionValue(PolyglotCompilerOptions.QueueTimeThreshold);
@@ -385,6 +424,13 @@ public class OptimizedCompilationProfile {
         if (increaseCallsThreshold > 0) {
             this.compilationCallThreshold += increaseCallsThreshold;
         }
+
+        if (multiTier) {
+            // reprofile at most as long as the first tier threshold before compiling again
+            this.firstTierCompilationCallAndLoopThreshold = Math.max(this.firstTierCompilationCallAndLoopThreshold,
+                            this.interpreterCallAndLoopCount + Math.min(callsAndLoop, firstTierCallThreshold));
+            this.firstTierCompilationCallThreshold = Math.max(this.firstTierCompilationCallThreshold, this.interpreterCallCount + Math.min(calls, firstTierCallThreshold));
+        }
     }
 
     public Map<String, Object> getDebugProperties() {
@@ -422,6 +468,10 @@ public class OptimizedCompilationProfile {
         return compilationCallThreshold;
     }
 
+    public boolean isMultiTier() {
+        return multiTier;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
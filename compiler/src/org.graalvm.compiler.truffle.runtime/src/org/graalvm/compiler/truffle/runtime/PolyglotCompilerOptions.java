@@ -58,6 +58,16 @@ public final class PolyglotCompilerOptions {
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> QueueTimeThreshold = new OptionKey<>(50000);
 
+    @Option(help = "Whether to use multiple Truffle compilation tiers by default. The first tier compiles a guest language root " +
+                    "without inlining and with a reduced set of optimizations. Once the first tier code is hot, the root is compiled again " +
+                    "with inlining and all optimizations enabled.",
+                    category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> MultiTier = new OptionKey<>(false);
+
+    @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root in the first tier.",
+                    category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> FirstTierCompilationThreshold = new OptionKey<>(100);
+
     /*
      * TODO planned options:
      *
@@ -110,6 +120,8 @@ public final class PolyglotCompilerOptions {
     private static void initializePolyglotToGraalMapping() {
         TRUFFLE_TO_GRAAL.put(CompilationThreshold, TruffleCompilerOptions.TruffleCompilationThreshold);
         TRUFFLE_TO_GRAAL.put(QueueTimeThreshold, TruffleCompilerOptions.TruffleTimeThreshold);
+        TRUFFLE_TO_GRAAL.put(MultiTier, TruffleCompilerOptions.TruffleMultiTier);
+        TRUFFLE_TO_GRAAL.put(FirstTierCompilationThreshold, TruffleCompilerOptions.TruffleFirstTierCompilationThreshold);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link BlockingQueue} that does not keep its elements sorted but instead traverses the oldest
+ * queued elements whenever one is taken, returning the element among them that is the greatest
+ * according to the {@link Comparator} at that point in time. This allows the priority of an element
+ * to change while it is waiting in the queue, which a heap based queue such as
+ * {@link java.util.concurrent.PriorityBlockingQueue} cannot tolerate. At most
+ * {@code traversalLimit} elements are compared per take, so taking an element costs a bounded
+ * number of comparisons however long the queue gets, and an element waits at most until it is
+ * among the oldest {@code traversalLimit} elements before it competes.
+ * <p>
+ * Elements for which the {@code stale} predicate holds are removed during the traversal and passed
+ * to the {@code onDrop} consumer instead of being returned.
+ * <p>
+ * {@link #peek()} returns the element the next take would return if no priorities change in the
+ * meantime. {@link #iterator()} and {@link #toArray()} return a snapshot of all elements ordered by
+ * their current priority, greatest first.
+ */
+public final class TraversingBlockingQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * Default number of queued elements compared when an element is taken.
+     */
+    public static final int DEFAULT_TRAVERSAL_LIMIT = 64;
+
+    private final LinkedBlockingDeque<E> entries = new LinkedBlockingDeque<>();
+    private final Comparator<? super E> comparator;
+    private final Predicate<? super E> stale;
+    private final Consumer<? super E> onDrop;
+    private final int traversalLimit;
+
+    public TraversingBlockingQueue(Comparator<? super E> comparator, Predicate<? super E> stale, Consumer<? super E> onDrop) {
+        this(comparator, stale, onDrop, DEFAULT_TRAVERSAL_LIMIT);
+    }
+
+    public TraversingBlockingQueue(Comparator<? super E> comparator, Predicate<? super E> stale, Consumer<? super E> onDrop, int traversalLimit) {
+        assert traversalLimit > 0;
+        this.comparator = comparator;
+        this.stale = stale;
+        this.onDrop = onDrop;
+        this.traversalLimit = traversalLimit;
+    }
+
+    /**
+     * Exchanges {@code first}, which was just removed from the head of the queue, with the greatest
+     * of the next {@code traversalLimit - 1} elements. Returns {@code null} if {@code first} and all
+     * traversed elements were stale.
+     */
+    private E select(E first) {
+        E max = first;
+        if (max != null && stale.test(max)) {
+            onDrop.accept(max);
+            max = null;
+        }
+        Iterator<E> it = entries.iterator();
+        for (int traversed = 1; traversed < traversalLimit && it.hasNext(); traversed++) {
+            E e = it.next();
+            if (stale.test(e)) {
+                if (entries.removeFirstOccurrence(e)) {
+                    onDrop.accept(e);
+                }
+            } else if (max == null || comparator.compare(e, max) > 0) {
+                max = e;
+            }
+        }
+        if (max != first && max != null) {
+            if (!entries.removeFirstOccurrence(max)) {
+                // Concurrently taken by another consumer, fall back to the element we own.
+                max = first != null && !stale.test(first) ? first : null;
+            } else if (first != null && !stale.test(first)) {
+                entries.addFirst(first);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E result = null;
+        while (result == null) {
+            result = select(entries.take());
+        }
+        return result;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E result = null;
+        while (result == null) {
+            E first = entries.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (first == null) {
+                return null;
+            }
+            result = select(first);
+        }
+        return result;
+    }
+
+    @Override
+    public E poll() {
+        E result = null;
+        while (result == null) {
+            E first = entries.poll();
+            if (first == null) {
+                return null;
+            }
+            result = select(first);
+        }
+        return result;
+    }
+
+    @Override
+    public E remove() {
+        E result = poll();
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the greatest non-stale element among the oldest {@code traversalLimit} elements, or
+     * the head of the queue if all of them are stale. Does not drop stale elements.
+     */
+    @Override
+    public E peek() {
+        E max = null;
+        E head = null;
+        Iterator<E> it = entries.iterator();
+        for (int traversed = 0; traversed < traversalLimit && it.hasNext(); traversed++) {
+            E e = it.next();
+            if (head == null) {
+                head = e;
+            }
+            if (!stale.test(e) && (max == null || comparator.compare(e, max) > 0)) {
+                max = e;
+            }
+        }
+        return max != null ? max : head;
+    }
+
+    @Override
+    public E element() {
+        E result = peek();
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    /**
+     * Gets a snapshot of the queued elements ordered by their current priority, greatest first.
+     */
+    private List<E> sortedSnapshot() {
+        List<E> snapshot = new ArrayList<>(entries);
+        Collections.sort(snapshot, Collections.reverseOrder(comparator));
+        return snapshot;
+    }
+
+    @Override
+    public boolean add(E e) {
+        return entries.add(e);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return entries.offer(e);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        entries.put(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return entries.offer(e, timeout, unit);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return entries.remainingCapacity();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return entries.remove(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return entries.contains(o);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return entries.drainTo(c);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        return entries.drainTo(c, maxElements);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> snapshot = sortedSnapshot().iterator();
+        return new Iterator<E>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return snapshot.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = snapshot.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                entries.removeFirstOccurrence(last);
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return sortedSnapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return sortedSnapshot().toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        return entries.containsAll(c);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        return entries.addAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return entries.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return entries.retainAll(c);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+}
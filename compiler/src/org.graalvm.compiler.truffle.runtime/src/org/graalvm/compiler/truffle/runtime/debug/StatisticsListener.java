@@ -73,6 +73,9 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
     private final IntSummaryStatistics deferCompilations = new IntSummaryStatistics();
     private final LongSummaryStatistics timeToQueue = new LongSummaryStatistics();
     private final LongSummaryStatistics timeToCompilation = new LongSummaryStatistics();
+    private final LongSummaryStatistics timeInQueue = new LongSummaryStatistics();
+    private final IntSummaryStatistics queueSize = new IntSummaryStatistics();
+    private final IntSummaryStatistics compilerThreads = new IntSummaryStatistics();
 
     private final IntSummaryStatistics nodeCount = new IntSummaryStatistics();
     private final IntSummaryStatistics nodeCountTrivial = new IntSummaryStatistics();
@@ -146,6 +149,17 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         dequeues++;
     }
 
+    @Override
+    public synchronized void onCompilationPolled(OptimizedCallTarget target, int size, long queueTime, long priority) {
+        queueSize.accept(size);
+        timeInQueue.accept(queueTime);
+    }
+
+    @Override
+    public synchronized void onCompilerThreadCountChanged(int previousCount, int newCount, int size, CharSequence reason) {
+        compilerThreads.accept(newCount);
+    }
+
     @Override
     public synchronized void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
         invalidations++;
@@ -265,6 +279,9 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
+        printStatisticTime(rt, "Time in queue", timeInQueue);
+        printStatistic(rt, "Queue size when polled", queueSize);
+        printStatistic(rt, "Compiler threads after adjustment", compilerThreads);
 
         printStatisticTime(rt, "Compilation time", compilationTime);
         printStatisticTime(rt, "  Truffle Tier", compilationTimeTruffleTier);
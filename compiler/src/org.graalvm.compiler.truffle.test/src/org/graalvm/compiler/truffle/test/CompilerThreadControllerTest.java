@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.runtime.CompilerThreadController;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompilerThreadControllerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<String> changes = new ArrayList<>();
+    private final GraalTruffleRuntimeListener listener = new GraalTruffleRuntimeListener() {
+        @Override
+        public void onCompilerThreadCountChanged(int previousCount, int newCount, int queueSize, CharSequence reason) {
+            changes.add(previousCount + "->" + newCount);
+        }
+    };
+
+    private double cpuLoad;
+    private ThreadPoolExecutor executor;
+    private CompilerThreadController controller;
+
+    @Before
+    public void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        controller = new CompilerThreadController(executor, 1, 3, () -> cpuLoad, 0L);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        // Compilations wait longer than they take and the queue is longer than the pool
+        controller.recordQueueTime(10 * MILLIS);
+        controller.recordCompileTime(MILLIS);
+        controller.adjust(listener, 10);
+        controller.adjust(listener, 10);
+        Assert.assertEquals(3, executor.getCorePoolSize());
+        Assert.assertEquals(3, executor.getMaximumPoolSize());
+
+        // Never more than the maximum
+        controller.adjust(listener, 10);
+        Assert.assertEquals(3, executor.getCorePoolSize());
+
+        // Queue drained
+        controller.adjust(listener, 0);
+        Assert.assertEquals(2, executor.getCorePoolSize());
+        Assert.assertEquals(2, executor.getMaximumPoolSize());
+        controller.adjust(listener, 0);
+        Assert.assertEquals(1, executor.getCorePoolSize());
+
+        // Never less than the minimum
+        controller.adjust(listener, 0);
+        Assert.assertEquals(1, executor.getCorePoolSize());
+        Assert.assertEquals("[1->2, 2->3, 3->2, 2->1]", changes.toString());
+    }
+
+    @Test
+    public void testCpuBound() {
+        controller.recordQueueTime(10 * MILLIS);
+        controller.recordCompileTime(MILLIS);
+        cpuLoad = 0.95;
+        controller.adjust(listener, 10);
+        Assert.assertEquals("no thread is added while the process is CPU bound", 1, executor.getCorePoolSize());
+
+        cpuLoad = 0.2;
+        controller.adjust(listener, 10);
+        controller.adjust(listener, 10);
+        Assert.assertEquals(3, executor.getCorePoolSize());
+
+        // A backlog alone does not keep threads while the process is CPU bound
+        cpuLoad = 0.95;
+        controller.adjust(listener, 10);
+        Assert.assertEquals(2, executor.getCorePoolSize());
+        Assert.assertEquals("[1->2, 2->3, 3->2]", changes.toString());
+    }
+
+    @Test
+    public void testCompilerCpuLoad() {
+        controller.recordQueueTime(10 * MILLIS);
+        controller.recordCompileTime(MILLIS);
+        // The process is busy, but only because of the compiler threads
+        cpuLoad = 0.95;
+        controller.recordCompilerCpuTime(TimeUnit.SECONDS.toNanos(1000));
+        controller.adjust(listener, 10);
+        Assert.assertEquals(2, executor.getCorePoolSize());
+
+        // Without compiler CPU time since the last adjustment the application is CPU bound
+        controller.adjust(listener, 10);
+        Assert.assertEquals(1, executor.getCorePoolSize());
+        Assert.assertEquals("[1->2, 2->1]", changes.toString());
+    }
+
+    @Test
+    public void testIdleShrink() throws InterruptedException {
+        CompilerThreadController timed = new CompilerThreadController(executor, 1, 3, () -> cpuLoad, MILLIS);
+        timed.recordQueueTime(10 * MILLIS);
+        timed.recordCompileTime(MILLIS);
+        Thread.sleep(2);
+        timed.adjust(listener, 10);
+        Assert.assertEquals("[1->2]", changes.toString());
+
+        // No compilation starts or finishes any more, the timer removes the thread again
+        long deadline = System.currentTimeMillis() + 10000;
+        while (executor.getCorePoolSize() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, executor.getCorePoolSize());
+    }
+
+    @Test
+    public void testNoBacklog() {
+        // Compilations take longer than they wait so another thread would not help
+        controller.recordQueueTime(MILLIS);
+        controller.recordCompileTime(10 * MILLIS);
+        controller.adjust(listener, 10);
+        Assert.assertEquals(1, executor.getCorePoolSize());
+
+        // A queue shorter than the pool does not need another thread
+        controller.recordQueueTime(100 * MILLIS);
+        controller.adjust(listener, 1);
+        Assert.assertEquals(1, executor.getCorePoolSize());
+        Assert.assertTrue(changes.isEmpty());
+    }
+}
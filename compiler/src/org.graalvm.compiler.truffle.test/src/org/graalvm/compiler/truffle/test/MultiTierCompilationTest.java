@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.common.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.test.nodes.ConstantTestNode;
+import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+
+public class MultiTierCompilationTest extends TestWithSynchronousCompiling {
+
+    private static final GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+
+    private static final int FIRST_TIER_THRESHOLD = 3;
+    private static final int LAST_TIER_THRESHOLD = 10;
+
+    @Test
+    @SuppressWarnings("try")
+    public void testLastTierInstalledAfterFirstTier() {
+        try (TruffleOptionsOverrideScope multiTier = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleMultiTier, true);
+                        TruffleOptionsOverrideScope firstTier = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleFirstTierCompilationThreshold, FIRST_TIER_THRESHOLD);
+                        TruffleOptionsOverrideScope lastTier = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleCompilationThreshold, LAST_TIER_THRESHOLD)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "multiTier", new ConstantTestNode(42)));
+            for (int i = 0; i < FIRST_TIER_THRESHOLD; i++) {
+                assertEquals(42, target.call());
+            }
+            assertCompiled(target);
+            assertFalse("first tier code must not satisfy a last tier request", target.hasValidCode(true));
+
+            // calls into first tier code are profiled and eventually trigger the last tier
+            for (int i = 0; i < LAST_TIER_THRESHOLD; i++) {
+                assertEquals(42, target.call());
+            }
+            assertCompiled(target);
+            assertTrue("last tier code was not installed", target.hasValidCode(true));
+        }
+    }
+}
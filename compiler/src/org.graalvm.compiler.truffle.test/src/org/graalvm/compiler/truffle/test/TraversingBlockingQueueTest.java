@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.runtime.TraversingBlockingQueue;
+import org.junit.Test;
+
+public class TraversingBlockingQueueTest {
+
+    static final class Item {
+        final String name;
+        volatile long priority;
+        volatile boolean stale;
+
+        Item(String name, long priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final List<Item> dropped = new ArrayList<>();
+
+    private TraversingBlockingQueue<Item> createQueue() {
+        return new TraversingBlockingQueue<>((a, b) -> Long.compare(a.priority, b.priority), (Item item) -> item.stale, dropped::add);
+    }
+
+    @Test
+    public void testHighestPriorityFirst() throws InterruptedException {
+        TraversingBlockingQueue<Item> queue = createQueue();
+        Item a = new Item("a", 1);
+        Item b = new Item("b", 3);
+        Item c = new Item("c", 2);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+        assertSame(b, queue.take());
+        assertSame(c, queue.poll());
+        assertSame(a, queue.poll(1, TimeUnit.SECONDS));
+        assertNull(queue.poll());
+        assertEquals(0, dropped.size());
+    }
+
+    @Test
+    public void testPriorityChangesWhileQueued() {
+        TraversingBlockingQueue<Item> queue = createQueue();
+        Item a = new Item("a", 1);
+        Item b = new Item("b", 2);
+        queue.add(a);
+        queue.add(b);
+        // a got hotter while waiting and overtakes b
+        a.priority = 10;
+        assertSame(a, queue.poll());
+        assertSame(b, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testStaleElementsDropped() {
+        TraversingBlockingQueue<Item> queue = createQueue();
+        Item a = new Item("a", 3);
+        Item b = new Item("b", 2);
+        Item c = new Item("c", 1);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+        a.stale = true;
+        b.stale = true;
+        assertSame(c, queue.poll());
+        assertEquals(2, dropped.size());
+        assertTrue(dropped.contains(a));
+        assertTrue(dropped.contains(b));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testOnlyStaleElements() {
+        TraversingBlockingQueue<Item> queue = createQueue();
+        Item a = new Item("a", 1);
+        a.stale = true;
+        queue.add(a);
+        assertNull(queue.poll());
+        assertEquals(1, dropped.size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testTraversalLimit() {
+        TraversingBlockingQueue<Item> queue = new TraversingBlockingQueue<>((a, b) -> Long.compare(a.priority, b.priority), (Item item) -> item.stale, dropped::add, 2);
+        Item a = new Item("a", 1);
+        Item b = new Item("b", 2);
+        Item c = new Item("c", 3);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+        // c is not among the two oldest elements yet
+        assertSame(b, queue.peek());
+        assertSame(b, queue.poll());
+        assertSame(c, queue.peek());
+        assertSame(c, queue.poll());
+        assertSame(a, queue.poll());
+    }
+
+    @Test
+    public void testPeekAndIteratorFollowPriority() {
+        TraversingBlockingQueue<Item> queue = createQueue();
+        Item a = new Item("a", 1);
+        Item b = new Item("b", 3);
+        Item c = new Item("c", 2);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+        assertSame(b, queue.peek());
+        assertEquals(Arrays.asList(b, c, a), new ArrayList<>(queue));
+
+        Iterator<Item> it = queue.iterator();
+        it.next();
+        it.remove();
+        assertEquals(2, queue.size());
+        assertSame(c, queue.peek());
+
+        a.priority = 5;
+        assertSame(a, queue.peek());
+        assertSame(a, queue.poll());
+        assertEquals(0, dropped.size());
+    }
+}
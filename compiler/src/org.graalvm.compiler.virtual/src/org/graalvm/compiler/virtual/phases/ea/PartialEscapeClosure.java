@@ -71,6 +71,8 @@ import org.graalvm.compiler.nodes.spi.Virtualizable;
 import org.graalvm.compiler.nodes.spi.VirtualizableAllocation;
 import org.graalvm.compiler.nodes.spi.VirtualizerTool;
 import org.graalvm.compiler.nodes.virtual.AllocatedObjectNode;
+import org.graalvm.compiler.nodes.virtual.LockState;
+import org.graalvm.compiler.nodes.virtual.VirtualBoxingNode;
 import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
 import org.graalvm.compiler.virtual.nodes.VirtualObjectState;
 
@@ -88,6 +90,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
     public static final CounterKey COUNTER_MATERIALIZATIONS_LOOP_REITERATION = DebugContext.counter("MaterializationsLoopReiteration");
     public static final CounterKey COUNTER_MATERIALIZATIONS_LOOP_END = DebugContext.counter("MaterializationsLoopEnd");
     public static final CounterKey COUNTER_ALLOCATION_REMOVED = DebugContext.counter("AllocationsRemoved");
+    public static final CounterKey COUNTER_VIRTUALIZED_CONSTANT_BOXES = DebugContext.counter("VirtualizedConstantBoxes");
     public static final CounterKey COUNTER_MEMORYCHECKPOINT = DebugContext.counter("MemoryCheckpoint");
 
     /**
@@ -595,6 +598,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
         private EconomicMap<Object, ValuePhiNode> materializedPhis;
         private EconomicMap<ValueNode, ValuePhiNode[]> valuePhis;
         private EconomicMap<ValuePhiNode, VirtualObjectNode> valueObjectVirtuals;
+        private EconomicMap<ValuePhiNode, VirtualObjectNode[]> constantBoxVirtuals;
         private final boolean needsCaching;
 
         public MergeProcessor(Block mergeBlock) {
@@ -998,6 +1002,10 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
                     }
                 }
             }
+            if (virtualInputs > 0 && virtualInputs < states.length && virtualizeConstantBoxInputs(phi, states, virtualObjs)) {
+                virtualInputs = states.length;
+                uniqueVirtualObject = false;
+            }
             if (virtualInputs == states.length) {
                 if (uniqueVirtualObject) {
                     // all inputs refer to the same object: just make the phi node an alias
@@ -1078,6 +1086,93 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             return materialized;
         }
 
+        /**
+         * Loop-carried boxes, e.g., a boxed accumulator, typically enter the loop as a boxing
+         * constant while the values coming in over the back edges are virtual. Without help, such
+         * a phi materializes a box in every iteration. If all virtual inputs are boxes of the same
+         * type and all other inputs are constants that are the canonical (cached) box of their
+         * value, then the constants are replaced with fresh virtual boxes. This is safe because
+         * materializing such a virtual box yields the very same cached instance again, and it
+         * allows the phi to be scalar replaced by a phi of the boxed value.
+         *
+         * @return true if all non-virtual inputs of the phi were replaced with virtual boxes
+         */
+        private boolean virtualizeConstantBoxInputs(ValuePhiNode phi, PartialEscapeBlockState<?>[] states, VirtualObjectNode[] virtualObjs) {
+            VirtualBoxingNode firstBox = null;
+            for (int i = 0; i < states.length; i++) {
+                VirtualObjectNode virtual = virtualObjs[i];
+                if (virtual != null) {
+                    ObjectState objectState = states[i].getObjectState(virtual);
+                    if (!(virtual instanceof VirtualBoxingNode) || !objectState.isVirtual() || objectState.hasLocks()) {
+                        return false;
+                    }
+                    if (firstBox == null) {
+                        firstBox = (VirtualBoxingNode) virtual;
+                    } else if (!firstBox.type().equals(virtual.type())) {
+                        return false;
+                    }
+                }
+            }
+            assert firstBox != null;
+
+            ConstantReflectionProvider constantReflection = tool.getConstantReflectionProvider();
+            JavaConstant[] unboxedValues = new JavaConstant[states.length];
+            for (int i = 0; i < states.length; i++) {
+                if (virtualObjs[i] == null) {
+                    ValueNode value = getAlias(getPhiValueAt(phi, i));
+                    if (!value.isJavaConstant() || value.asJavaConstant().isNull()) {
+                        return false;
+                    }
+                    JavaConstant boxed = value.asJavaConstant();
+                    JavaConstant unboxed = constantReflection.unboxPrimitive(boxed);
+                    if (unboxed == null || unboxed.getJavaKind() != firstBox.getBoxingKind() || !boxed.equals(constantReflection.boxPrimitive(unboxed))) {
+                        return false;
+                    }
+                    unboxedValues[i] = unboxed;
+                }
+            }
+
+            for (int i = 0; i < states.length; i++) {
+                JavaConstant unboxed = unboxedValues[i];
+                if (unboxed != null) {
+                    VirtualObjectNode virtual = getConstantBoxVirtual(phi, i, states.length, firstBox);
+                    mergeEffects.addFloatingNode(virtual, "constantBoxVirtual");
+                    if (virtual.getObjectId() == -1) {
+                        int id = virtualObjects.size();
+                        virtualObjects.add(virtual);
+                        virtual.setObjectId(id);
+                    }
+                    if (unboxed.getJavaKind().getStackKind() == JavaKind.Int) {
+                        unboxed = JavaConstant.forInt(unboxed.asInt());
+                    }
+                    ValueNode[] entries = new ValueNode[]{ConstantNode.forConstant(unboxed, tool.getMetaAccessProvider(), graph())};
+                    states[i].addObject(virtual.getObjectId(), new ObjectState(entries, (LockState) null, false));
+                    virtualObjs[i] = virtual;
+                    COUNTER_VIRTUALIZED_CONSTANT_BOXES.increment(debug);
+                }
+            }
+            return true;
+        }
+
+        private VirtualObjectNode getConstantBoxVirtual(ValuePhiNode phi, int index, int inputCount, VirtualBoxingNode box) {
+            if (needsCaching) {
+                if (constantBoxVirtuals == null) {
+                    constantBoxVirtuals = EconomicMap.create(Equivalence.IDENTITY);
+                }
+                VirtualObjectNode[] cached = constantBoxVirtuals.get(phi);
+                if (cached == null) {
+                    cached = new VirtualObjectNode[inputCount];
+                    constantBoxVirtuals.put(phi, cached);
+                }
+                if (cached[index] == null) {
+                    cached[index] = box.duplicate();
+                }
+                return cached[index];
+            } else {
+                return box.duplicate();
+            }
+        }
+
         private boolean isSingleUsageAllocation(ValueNode value, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
             /*
              * If the phi input is an allocation, we know that it is a "fresh" value, i.e., that
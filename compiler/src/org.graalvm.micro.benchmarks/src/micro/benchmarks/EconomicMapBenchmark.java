@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.IntEconomicMap;
+import org.graalvm.collections.IntMapCursor;
+import org.graalvm.collections.LongEconomicMap;
+import org.graalvm.collections.MapCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the primitive-keyed {@link IntEconomicMap} and {@link LongEconomicMap} against an
+ * {@link EconomicMap} with boxed keys, for map sizes typical for node id, bci and slot index maps.
+ */
+public class EconomicMapBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"8", "64", "1024"}) int size;
+
+        int[] keys;
+        EconomicMap<Integer, Object> boxedMap;
+        IntEconomicMap<Object> intMap;
+        LongEconomicMap<Object> longMap;
+
+        @Setup
+        public void setup() {
+            keys = new int[size];
+            boxedMap = EconomicMap.create();
+            intMap = IntEconomicMap.create();
+            longMap = LongEconomicMap.create();
+            for (int i = 0; i < size; i++) {
+                // Spread the keys like node ids of a graph with deleted nodes.
+                keys[i] = i * 3 + 1000;
+                boxedMap.put(keys[i], this);
+                intMap.put(keys[i], this);
+                longMap.put(keys[i], this);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object putBoxed(ThreadState state) {
+        EconomicMap<Integer, Object> map = EconomicMap.create();
+        for (int key : state.keys) {
+            map.put(key, state);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object putInt(ThreadState state) {
+        IntEconomicMap<Object> map = IntEconomicMap.create();
+        for (int key : state.keys) {
+            map.put(key, state);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object putLong(ThreadState state) {
+        LongEconomicMap<Object> map = LongEconomicMap.create();
+        for (int key : state.keys) {
+            map.put(key, state);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int getBoxed(ThreadState state) {
+        int hits = 0;
+        for (int key : state.keys) {
+            if (state.boxedMap.get(key) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int getInt(ThreadState state) {
+        int hits = 0;
+        for (int key : state.keys) {
+            if (state.intMap.get(key) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int getLong(ThreadState state) {
+        int hits = 0;
+        for (int key : state.keys) {
+            if (state.longMap.get(key) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int iterateBoxed(ThreadState state) {
+        int sum = 0;
+        MapCursor<Integer, Object> cursor = state.boxedMap.getEntries();
+        while (cursor.advance()) {
+            sum += cursor.getKey();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int iterateInt(ThreadState state) {
+        int sum = 0;
+        IntMapCursor<Object> cursor = state.intMap.getEntries();
+        while (cursor.advance()) {
+            sum += cursor.getKey();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.CompiledRegexObject;
+import com.oracle.truffle.regex.RegexFlags;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.tregex.nodes.DFAStateNode;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the results of expressions whose forward DFA skips ahead to the next interesting
+ * character with {@link com.oracle.truffle.regex.tregex.nodes.input.InputIndexOfNode} against
+ * {@link java.util.regex}.
+ */
+public class IndexOfSkipTest {
+
+    private static final String[] INPUTS = {"", "a", "b", "ab", "xxxxab", "xxxxa", "xxac", "xyzq", "qqqzq", "abcabcd", "dz", "zzzzzzzzdz", "x12y", "aaaa", "bbbbbbbbbbbbbbbbbbbbbbbbb1"};
+
+    private static RegexSource source(String pattern) {
+        return new RegexSource(pattern, RegexFlags.parseFlags(""));
+    }
+
+    private static CompiledRegex compile(String pattern) {
+        return ((CompiledRegexObject) new TRegexCompiler(null, RegexOptions.DEFAULT).compile(source(pattern))).getCompiledRegex();
+    }
+
+    private static boolean usesIndexOfSkip(CompiledRegex compiledRegex) {
+        RootNode rootNode = ((RootCallTarget) compiledRegex.getRegexCallTarget()).getRootNode();
+        for (DFAStateNode state : NodeUtil.findAllNodeInstances(rootNode, DFAStateNode.class)) {
+            if (state.getIndexOfChars() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int read(Object array, int index) {
+        try {
+            return ((Number) ForeignAccess.sendRead(Message.READ.createNode(), (TruffleObject) array, index)).intValue();
+        } catch (InteropException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void checkAgainstJavaRegex(String pattern, boolean expectIndexOfSkip) {
+        CompiledRegex compiledRegex = compile(pattern);
+        Assert.assertEquals(pattern, expectIndexOfSkip, usesIndexOfSkip(compiledRegex));
+        RegexObject regex = new RegexObject(null, source(pattern), null);
+        Pattern javaPattern = Pattern.compile(pattern);
+        for (String input : INPUTS) {
+            Matcher matcher = javaPattern.matcher(input);
+            for (int fromIndex = 0; fromIndex <= input.length(); fromIndex++) {
+                String description = pattern + " on \"" + input + "\" from " + fromIndex;
+                RegexResult result = (RegexResult) compiledRegex.getRegexCallTarget().call(regex, input, fromIndex);
+                if (!matcher.find(fromIndex)) {
+                    Assert.assertSame(description, RegexResult.NO_MATCH, result);
+                } else {
+                    Assert.assertNotSame(description, RegexResult.NO_MATCH, result);
+                    Assert.assertEquals(description, matcher.start(), read(result.getStartArrayObject(), 0));
+                    Assert.assertEquals(description, matcher.end(), read(result.getEndArrayObject(), 0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLiteralChar() {
+        // single character literals are searched for by the literal engine, without a DFA
+        checkAgainstJavaRegex("a", false);
+        checkAgainstJavaRegex("z", false);
+    }
+
+    @Test
+    public void testSingleChar() {
+        checkAgainstJavaRegex("a+c", true);
+        checkAgainstJavaRegex("ab+", true);
+        checkAgainstJavaRegex("z[a-d]?z", true);
+    }
+
+    @Test
+    public void testCharClass() {
+        checkAgainstJavaRegex("[ab]c", true);
+        checkAgainstJavaRegex("[xyz]q", true);
+        checkAgainstJavaRegex("[a-d]z", true);
+        checkAgainstJavaRegex("x\\d+y|ab", true);
+    }
+
+    @Test
+    public void testTooManyChars() {
+        // more than four distinct characters leave every looping state, so no indexOf skip is used
+        checkAgainstJavaRegex("[a-e]z", false);
+    }
+}
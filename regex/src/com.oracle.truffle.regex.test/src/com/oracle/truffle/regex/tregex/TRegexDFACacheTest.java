@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.CompiledRegexObject;
+import com.oracle.truffle.regex.RegexFlags;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TRegexDFACacheTest {
+
+    private static final String[] PATTERNS = {"a+b", "[a-c]x*d", "(?:ab|cd)+e", "\\d{2,3}z", "(?:x|y)[0-9]+$"};
+    private static final String[] INPUTS = {"", "ab", "aaab", "xxaaabyy", "axxd", "bd", "cdabe", "ababcde", "12z", "a1234z", "x12", "y9 x42", "zzz"};
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tregex-dfa-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private RegexOptions cacheOptions() {
+        return RegexOptions.parse("DFACacheDirectory=" + directory);
+    }
+
+    private static RegexSource source(String pattern) {
+        return new RegexSource(pattern, RegexFlags.parseFlags(""));
+    }
+
+    private static List<String> execAll(RegexOptions options, String pattern) {
+        TRegexCompiler compiler = new TRegexCompiler(null, options);
+        RegexSource source = source(pattern);
+        TruffleObject compiled = compiler.compile(source);
+        CompiledRegex compiledRegex = ((CompiledRegexObject) compiled).getCompiledRegex();
+        RegexObject regex = new RegexObject(compiler, source, null);
+        List<String> results = new ArrayList<>();
+        for (String input : INPUTS) {
+            for (int fromIndex = 0; fromIndex <= input.length(); fromIndex++) {
+                RegexResult result = (RegexResult) compiledRegex.getRegexCallTarget().call(regex, input, fromIndex);
+                results.add(toString(result));
+            }
+        }
+        return results;
+    }
+
+    private static String toString(RegexResult result) {
+        if (result == RegexResult.NO_MATCH) {
+            return "NO_MATCH";
+        }
+        try {
+            Object start = ForeignAccess.sendRead(Message.READ.createNode(), result.getStartArrayObject(), 0);
+            Object end = ForeignAccess.sendRead(Message.READ.createNode(), result.getEndArrayObject(), 0);
+            return "[" + start + ", " + end + "]";
+        } catch (InteropException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.dfa")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private Path singleCacheFile() throws IOException {
+        List<Path> files = cacheFiles();
+        Assert.assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private boolean isCached(String pattern) {
+        RegexOptions options = cacheOptions();
+        return new TRegexDFACache(directory).lookup(source(pattern), options) != null;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (String pattern : PATTERNS) {
+            List<String> expected = execAll(RegexOptions.DEFAULT, pattern);
+            Assert.assertFalse(pattern, isCached(pattern));
+            Assert.assertEquals(pattern, expected, execAll(cacheOptions(), pattern));
+            Assert.assertTrue(pattern, isCached(pattern));
+            // the second compilation is re-created from the cache entry
+            Assert.assertEquals(pattern, expected, execAll(cacheOptions(), pattern));
+        }
+        Assert.assertEquals(PATTERNS.length, cacheFiles().size());
+    }
+
+    @Test
+    public void testCorruptEntry() throws IOException {
+        String pattern = PATTERNS[2];
+        List<String> expected = execAll(RegexOptions.DEFAULT, pattern);
+        execAll(cacheOptions(), pattern);
+        Path file = singleCacheFile();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(file, bytes);
+        Assert.assertFalse(isCached(pattern));
+        Assert.assertEquals(expected, execAll(cacheOptions(), pattern));
+        // the broken entry has been replaced
+        Assert.assertTrue(isCached(pattern));
+    }
+
+    @Test
+    public void testTruncatedEntry() throws IOException {
+        String pattern = PATTERNS[1];
+        List<String> expected = execAll(RegexOptions.DEFAULT, pattern);
+        execAll(cacheOptions(), pattern);
+        Path file = singleCacheFile();
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Files.write(file, truncated);
+        Assert.assertFalse(isCached(pattern));
+        Assert.assertEquals(expected, execAll(cacheOptions(), pattern));
+        Assert.assertTrue(isCached(pattern));
+    }
+
+    @Test
+    public void testOutdatedEntry() throws IOException {
+        String pattern = PATTERNS[0];
+        List<String> expected = execAll(RegexOptions.DEFAULT, pattern);
+        execAll(cacheOptions(), pattern);
+        Path file = singleCacheFile();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        // the format version directly follows the magic number
+        bytes.putInt(Integer.BYTES, bytes.getInt(Integer.BYTES) + 1);
+        Files.write(file, bytes.array());
+        Assert.assertFalse(isCached(pattern));
+        Assert.assertEquals(expected, execAll(cacheOptions(), pattern));
+        Assert.assertTrue(isCached(pattern));
+    }
+
+    @Test
+    public void testOptionsAreKeyed() {
+        String pattern = PATTERNS[0];
+        execAll(cacheOptions(), pattern);
+        Assert.assertTrue(isCached(pattern));
+        RegexOptions otherOptions = RegexOptions.parse("U180EWhitespace=true,DFACacheDirectory=" + directory);
+        Assert.assertNull(new TRegexDFACache(directory).lookup(source(pattern), otherOptions));
+    }
+}
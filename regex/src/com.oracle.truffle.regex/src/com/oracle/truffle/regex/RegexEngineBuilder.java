@@ -47,6 +47,9 @@ import com.oracle.truffle.regex.tregex.TRegexCompiler;
  * treated as whitespace (Unicode versions before 6.3.0)</li>
  * <li>{@code RegressionTestMode}: all compilation is done eagerly, so as to detect errors early
  * during testing</li>
+ * <li>{@code DFACacheDirectory=<path>}: DFAs generated by {@link TRegexCompiler} are persisted in
+ * the given directory and re-used by subsequent compilations of the same expression, also across
+ * VM runs</li>
  * </ul>
  * <li>{@link RegexCompiler} {@code fallbackCompiler} (optional): an optional {@link RegexCompiler}
  * to be used when compilation by {@link TRegexCompiler}, the native compiler of
@@ -27,23 +27,27 @@ package com.oracle.truffle.regex;
 import com.oracle.truffle.api.CompilerDirectives;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 public final class RegexOptions {
 
     private static final int U180E_WHITESPACE = 1;
     private static final int REGRESSION_TEST_MODE = 1 << 1;
 
-    public static final RegexOptions DEFAULT = new RegexOptions(0);
+    public static final RegexOptions DEFAULT = new RegexOptions(0, null);
 
     private final int options;
+    private final String dfaCacheDirectory;
 
-    private RegexOptions(int options) {
+    private RegexOptions(int options, String dfaCacheDirectory) {
         this.options = options;
+        this.dfaCacheDirectory = dfaCacheDirectory;
     }
 
     @CompilerDirectives.TruffleBoundary
     public static RegexOptions parse(String optionsString) throws RegexSyntaxException {
         int options = 0;
+        String dfaCacheDirectory = null;
         for (String propValue : optionsString.split(",")) {
             if (propValue.isEmpty()) {
                 continue;
@@ -61,11 +65,17 @@ public final class RegexOptions {
                 case "RegressionTestMode":
                     options = parseBooleanOption(optionsString, options, key, value, REGRESSION_TEST_MODE);
                     break;
+                case "DFACacheDirectory":
+                    if (value.isEmpty()) {
+                        throw optionsSyntaxError(optionsString, "empty value for option " + key);
+                    }
+                    dfaCacheDirectory = value;
+                    break;
                 default:
                     throw optionsSyntaxError(optionsString, "unexpected option " + key);
             }
         }
-        return new RegexOptions(options);
+        return new RegexOptions(options, dfaCacheDirectory);
     }
 
     private static int parseBooleanOption(String optionsString, int options, String key, String value, int flag) throws RegexSyntaxException {
@@ -97,14 +107,22 @@ public final class RegexOptions {
         return isBitSet(REGRESSION_TEST_MODE);
     }
 
+    /**
+     * Directory of the persistent DFA cache, or {@code null} if the persistent cache is disabled.
+     */
+    public String getDFACacheDirectory() {
+        return dfaCacheDirectory;
+    }
+
     @Override
     public int hashCode() {
-        return options;
+        return options * 31 + Objects.hashCode(dfaCacheDirectory);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj == this || obj instanceof RegexOptions && options == ((RegexOptions) obj).options;
+        return obj == this || obj instanceof RegexOptions && options == ((RegexOptions) obj).options &&
+                        Objects.equals(dfaCacheDirectory, ((RegexOptions) obj).dfaCacheDirectory);
     }
 
     @Override
@@ -119,6 +137,12 @@ public final class RegexOptions {
             }
             sb.append("RegressionTestMode");
         }
+        if (dfaCacheDirectory != null) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append("DFACacheDirectory=").append(dfaCacheDirectory);
+        }
         return sb.toString();
     }
 }
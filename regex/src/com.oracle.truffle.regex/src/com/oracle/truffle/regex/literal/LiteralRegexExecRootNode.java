@@ -25,6 +25,7 @@
 package com.oracle.truffle.regex.literal;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -157,14 +158,14 @@ public abstract class LiteralRegexExecRootNode extends RegexExecRootNode impleme
 
     public static final class IndexOfChar extends LiteralRegexExecRootNode {
 
-        private final char c;
+        @CompilationFinal(dimensions = 1) private final char[] chars;
         @Child InputIndexOfNode indexOfNode = InputIndexOfNode.create();
         @Child InputLengthNode lengthNode = InputLengthNode.create();
 
         public IndexOfChar(RegexLanguage language, RegexSource source, PreCalcResultVisitor preCalcResultVisitor) {
             super(language, source, preCalcResultVisitor);
             assert literal.length() == 1;
-            c = literal.charAt(0);
+            chars = new char[]{literal.charAt(0)};
         }
 
         @Override
@@ -174,7 +175,7 @@ public abstract class LiteralRegexExecRootNode extends RegexExecRootNode impleme
 
         @Override
         protected RegexResult execute(VirtualFrame frame, RegexObject regex, Object input, int fromIndex) {
-            int start = indexOfNode.execute(input, c, fromIndex, lengthNode.execute(input));
+            int start = indexOfNode.execute(input, fromIndex, lengthNode.execute(input), chars);
             if (start == -1) {
                 return RegexResult.NO_MATCH;
             }
@@ -37,6 +37,7 @@ import com.oracle.truffle.regex.literal.LiteralRegexEngine;
 import com.oracle.truffle.regex.literal.LiteralRegexExecRootNode;
 import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.dfa.DFAExecutorTable;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
@@ -77,6 +78,9 @@ final class TRegexCompilationRequest {
     private TRegexDFAExecutorNode executorNodeForward = null;
     private TRegexDFAExecutorNode executorNodeBackward = null;
     private TRegexDFAExecutorNode executorNodeCaptureGroups = null;
+    private boolean recordExecutorTables = false;
+    private DFAExecutorTable executorTableForward = null;
+    private DFAExecutorTable executorTableBackward = null;
     private final CompilationBuffer compilationBuffer = new CompilationBuffer();
 
     TRegexCompilationRequest(TRegexCompiler tRegexCompiler, RegexSource source) {
@@ -107,6 +111,13 @@ final class TRegexCompilationRequest {
         // System.out.println("TRegex compiling " +
         // DebugUtil.jsStringEscape(source.toString()));
         // System.out.println(new RegexUnifier(pattern, flags).getUnifiedPattern());
+        TRegexDFACache dfaCache = tRegexCompiler.getDFACache();
+        if (dfaCache != null) {
+            TRegexExecRootNode cached = loadFromDFACache(dfaCache);
+            if (cached != null) {
+                return cached;
+            }
+        }
         createAST();
         RegexProperties properties = ast.getProperties();
         checkFeatureSupport(properties);
@@ -138,6 +149,8 @@ final class TRegexCompilationRequest {
             }
         }
         final boolean createCaptureGroupTracker = (properties.hasCaptureGroups() || properties.hasLookAroundAssertions()) && preCalculatedResults == null;
+        recordExecutorTables = dfaCache != null && !createCaptureGroupTracker && (preCalculatedResults == null || preCalculatedResults.length == 1) &&
+                        !TRegexOptions.TRegexEnableNodeSplitter;
         executorNodeForward = createDFAExecutor(nfa, true, true, false);
         if (createCaptureGroupTracker) {
             executorNodeCaptureGroups = createDFAExecutor(nfa, true, false, true);
@@ -147,6 +160,10 @@ final class TRegexCompilationRequest {
         } else if (preCalculatedResults == null || !nfa.hasReverseUnAnchoredEntry()) {
             executorNodeBackward = createDFAExecutor(nfa, false, false, false);
         }
+        if (recordExecutorTables) {
+            dfaCache.store(source, tRegexCompiler.getOptions(), new TRegexDFACache.Entry(ast.getNumberOfCaptureGroups(),
+                            preCalculatedResults == null ? null : preCalculatedResults[0], executorTableForward, executorTableBackward));
+        }
         return new TRegexExecRootNode(
                         tRegexCompiler.getLanguage(),
                         tRegexCompiler,
@@ -158,6 +175,37 @@ final class TRegexCompilationRequest {
                         executorNodeCaptureGroups);
     }
 
+    /**
+     * Re-creates the {@link TRegexExecRootNode} of this request's {@link RegexSource} from the
+     * persistent {@link TRegexDFACache}, skipping parser, NFA and DFA generation entirely.
+     *
+     * @return {@code null} if the cache does not contain an entry for this request.
+     */
+    private TRegexExecRootNode loadFromDFACache(TRegexDFACache dfaCache) {
+        phaseStart("DFA Cache Lookup");
+        TRegexDFACache.Entry entry = dfaCache.lookup(source, tRegexCompiler.getOptions());
+        if (entry == null) {
+            phaseEnd("DFA Cache Miss");
+            return null;
+        }
+        DFAExecutorTable forward = entry.getForward();
+        DFAExecutorTable backward = entry.getBackward();
+        executorNodeForward = forward.createDFAExecutor(createExecutorProperties(entry.getNumberOfCaptureGroups(), true, forward.isSearching(), false), compilationBuffer);
+        if (backward != null) {
+            executorNodeBackward = backward.createDFAExecutor(createExecutorProperties(entry.getNumberOfCaptureGroups(), false, backward.isSearching(), false), compilationBuffer);
+        }
+        phaseEnd("DFA Cache Hit");
+        return new TRegexExecRootNode(
+                        tRegexCompiler.getLanguage(),
+                        tRegexCompiler,
+                        source,
+                        tRegexCompiler.getOptions().isRegressionTestMode(),
+                        entry.getPreCalculatedResult() == null ? null : new PreCalculatedResultFactory[]{entry.getPreCalculatedResult()},
+                        executorNodeForward,
+                        executorNodeBackward,
+                        null);
+    }
+
     @TruffleBoundary
     TRegexDFAExecutorNode compileEagerDFAExecutor() {
         createAST();
@@ -211,16 +259,26 @@ final class TRegexCompilationRequest {
     }
 
     private TRegexDFAExecutorNode createDFAExecutor(NFA nfaArg, boolean forward, boolean searching, boolean trackCaptureGroups) {
-        DFAGenerator dfa = new DFAGenerator(nfaArg, createExecutorProperties(nfaArg, forward, searching, trackCaptureGroups), compilationBuffer);
+        DFAGenerator dfa = new DFAGenerator(nfaArg, createExecutorProperties(nfaArg.getAst().getNumberOfCaptureGroups(), forward, searching, trackCaptureGroups), compilationBuffer);
+        if (recordExecutorTables) {
+            dfa.recordExecutorTable();
+        }
         phaseStart(dfa.getDebugDumpName() + " DFA");
         dfa.calcDFA();
         TRegexDFAExecutorNode executorNode = dfa.createDFAExecutor();
+        if (recordExecutorTables) {
+            if (forward) {
+                executorTableForward = dfa.getExecutorTable();
+            } else {
+                executorTableBackward = dfa.getExecutorTable();
+            }
+        }
         phaseEnd(dfa.getDebugDumpName() + " DFA");
         debugDFA(dfa);
         return executorNode;
     }
 
-    private TRegexDFAExecutorProperties createExecutorProperties(NFA nfaArg, boolean forward, boolean searching, boolean trackCaptureGroups) {
+    private TRegexDFAExecutorProperties createExecutorProperties(int numberOfCaptureGroups, boolean forward, boolean searching, boolean trackCaptureGroups) {
         FrameDescriptor frameDescriptor = new FrameDescriptor();
         FrameSlot inputFS = frameDescriptor.addFrameSlot("input", FrameSlotKind.Object);
         FrameSlot fromIndexFS = frameDescriptor.addFrameSlot("fromIndex", FrameSlotKind.Int);
@@ -248,7 +306,7 @@ final class TRegexCompilationRequest {
                         searching,
                         trackCaptureGroups,
                         tRegexCompiler.getOptions().isRegressionTestMode(),
-                        nfaArg.getAst().getNumberOfCaptureGroups());
+                        numberOfCaptureGroups);
     }
 
     private void logPhase(String msg) {
@@ -50,16 +50,20 @@ import com.oracle.truffle.regex.RegexSource;
 import com.oracle.truffle.regex.RegexSyntaxException;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
 
+import java.nio.file.Paths;
+
 import static com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class TRegexCompiler extends RegexCompiler {
 
     private final RegexLanguage language;
     private final RegexOptions options;
+    private final TRegexDFACache dfaCache;
 
     public TRegexCompiler(RegexLanguage language, RegexOptions options) {
         this.language = language;
         this.options = options;
+        this.dfaCache = options.getDFACacheDirectory() == null ? null : new TRegexDFACache(Paths.get(options.getDFACacheDirectory()));
     }
 
     public RegexLanguage getLanguage() {
@@ -70,6 +74,10 @@ public final class TRegexCompiler extends RegexCompiler {
         return options;
     }
 
+    TRegexDFACache getDFACache() {
+        return dfaCache;
+    }
+
     @TruffleBoundary
     @Override
     public TruffleObject compile(RegexSource source) throws RegexSyntaxException {
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
+import com.oracle.truffle.regex.tregex.dfa.DFAExecutorTable;
+import com.oracle.truffle.regex.tregex.util.DebugUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+import static com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Persistent cache of the DFAs generated by {@link TRegexCompilationRequest}, enabled by the
+ * {@code DFACacheDirectory} option (see {@link RegexOptions}). Every cached expression is stored in
+ * a separate file, whose name is derived from the {@link RegexSource}, the relevant
+ * {@link RegexOptions} and the format version. Entries are only read when the corresponding
+ * expression is compiled, by mapping the file into memory and decoding the
+ * {@link DFAExecutorTable}s it contains.
+ * <p>
+ * File layout (all values big-endian):
+ *
+ * <pre>
+ * int     magic
+ * int     format version
+ * int     payload length
+ * long    CRC32 of payload
+ * payload:
+ *   char[] key (length-prefixed)
+ *   int    number of capture groups
+ *   int[]  pre-calculated result indices (length-prefixed, -1 if absent), int result length
+ *   forward {@link DFAExecutorTable}
+ *   byte   has backward executor, [backward {@link DFAExecutorTable}]
+ * </pre>
+ *
+ * Only expressions that do not need a capture group tracking DFA or a trace finder DFA are cached.
+ * All I/O errors are ignored, a broken or outdated entry is treated as a cache miss and will be
+ * overwritten.
+ */
+final class TRegexDFACache {
+
+    private static final int MAGIC = 0x54524446;
+    /**
+     * Must be incremented whenever the file layout or the semantics of any persisted data
+     * structure change.
+     */
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+
+    private static final DebugUtil.DebugLogger LOG_DFA_CACHE = new DebugUtil.DebugLogger("TRegex DFA Cache: ", DebugUtil.LOG_DFA_CACHE);
+
+    static final class Entry {
+
+        private final int numberOfCaptureGroups;
+        private final PreCalculatedResultFactory preCalculatedResult;
+        private final DFAExecutorTable forward;
+        private final DFAExecutorTable backward;
+
+        Entry(int numberOfCaptureGroups, PreCalculatedResultFactory preCalculatedResult, DFAExecutorTable forward, DFAExecutorTable backward) {
+            assert forward != null && forward.isForward();
+            assert backward == null || !backward.isForward();
+            this.numberOfCaptureGroups = numberOfCaptureGroups;
+            this.preCalculatedResult = preCalculatedResult;
+            this.forward = forward;
+            this.backward = backward;
+        }
+
+        int getNumberOfCaptureGroups() {
+            return numberOfCaptureGroups;
+        }
+
+        PreCalculatedResultFactory getPreCalculatedResult() {
+            return preCalculatedResult;
+        }
+
+        DFAExecutorTable getForward() {
+            return forward;
+        }
+
+        DFAExecutorTable getBackward() {
+            return backward;
+        }
+    }
+
+    private final Path directory;
+
+    TRegexDFACache(Path directory) {
+        this.directory = directory;
+    }
+
+    @TruffleBoundary
+    Entry lookup(RegexSource source, RegexOptions options) {
+        String key = createKey(source, options);
+        Path file = directory.resolve(fileName(key));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Entry entry = read(buffer, key);
+            if (entry == null) {
+                LOG_DFA_CACHE.log("ignoring outdated or broken entry " + file);
+            }
+            return entry;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOG_DFA_CACHE.log("failed to read " + file + ": " + e);
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    void store(RegexSource source, RegexOptions options, Entry entry) {
+        String key = createKey(source, options);
+        Path file = directory.resolve(fileName(key));
+        Path tmpFile = null;
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            writeEntry(out, key, entry);
+            out.flush();
+            byte[] payloadBytes = payload.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payloadBytes);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(payloadBytes.length).putLong(crc.getValue());
+            Files.createDirectories(directory);
+            // write to a temporary file first, so that concurrent readers never see partial entries
+            tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                ByteBuffer payloadBuffer = ByteBuffer.wrap(payloadBytes);
+                while (payloadBuffer.hasRemaining()) {
+                    channel.write(payloadBuffer);
+                }
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmpFile = null;
+        } catch (IOException e) {
+            LOG_DFA_CACHE.log("failed to write " + file + ": " + e);
+        } finally {
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException e) {
+                    LOG_DFA_CACHE.log("failed to delete " + tmpFile + ": " + e);
+                }
+            }
+        }
+    }
+
+    private static Entry read(ByteBuffer buffer, String key) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return null;
+        }
+        int payloadLength = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (payloadLength != buffer.remaining()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum) {
+            return null;
+        }
+        int keyLength = buffer.getInt();
+        if (keyLength < 0 || keyLength > buffer.remaining() / Character.BYTES) {
+            return null;
+        }
+        char[] storedKey = new char[keyLength];
+        buffer.asCharBuffer().get(storedKey);
+        buffer.position(buffer.position() + storedKey.length * Character.BYTES);
+        if (!key.equals(new String(storedKey))) {
+            // hash collision
+            return null;
+        }
+        int numberOfCaptureGroups = buffer.getInt();
+        if (numberOfCaptureGroups < 1 || numberOfCaptureGroups > TRegexOptions.TRegexMaxNumberOfCaptureGroups) {
+            return null;
+        }
+        PreCalculatedResultFactory preCalculatedResult = null;
+        int nIndices = buffer.getInt();
+        if (nIndices >= 0) {
+            if (nIndices != numberOfCaptureGroups * 2) {
+                return null;
+            }
+            preCalculatedResult = new PreCalculatedResultFactory(numberOfCaptureGroups);
+            for (int i = 0; i < numberOfCaptureGroups; i++) {
+                preCalculatedResult.setStart(i, buffer.getInt());
+                preCalculatedResult.setEnd(i, buffer.getInt());
+            }
+            preCalculatedResult.setLength(buffer.getInt());
+        }
+        DFAExecutorTable forward = DFAExecutorTable.read(buffer);
+        DFAExecutorTable backward = buffer.get() != 0 ? DFAExecutorTable.read(buffer) : null;
+        if (!forward.isForward() || backward != null && backward.isForward() || buffer.hasRemaining()) {
+            return null;
+        }
+        return new Entry(numberOfCaptureGroups, preCalculatedResult, forward, backward);
+    }
+
+    private static void writeEntry(DataOutputStream out, String key, Entry entry) throws IOException {
+        out.writeInt(key.length());
+        out.writeChars(key);
+        out.writeInt(entry.numberOfCaptureGroups);
+        PreCalculatedResultFactory preCalculatedResult = entry.preCalculatedResult;
+        if (preCalculatedResult == null) {
+            out.writeInt(-1);
+        } else {
+            assert preCalculatedResult.getNumberOfGroups() == entry.numberOfCaptureGroups;
+            out.writeInt(preCalculatedResult.getNumberOfGroups() * 2);
+            for (int i = 0; i < preCalculatedResult.getNumberOfGroups(); i++) {
+                out.writeInt(preCalculatedResult.getStart(i));
+                out.writeInt(preCalculatedResult.getEnd(i));
+            }
+            out.writeInt(preCalculatedResult.getLength());
+        }
+        entry.forward.write(out);
+        out.writeBoolean(entry.backward != null);
+        if (entry.backward != null) {
+            entry.backward.write(out);
+        }
+    }
+
+    /**
+     * Options that affect the generated automata become part of the key, all other options (such
+     * as the cache directory itself) don't.
+     */
+    private static String createKey(RegexSource source, RegexOptions options) {
+        return "U180EWhitespace=" + options.isU180EWhitespace() + ",RegressionTestMode=" + options.isRegressionTestMode() + ":" + source;
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.append(".dfa").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.dfa;
+
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.matchers.AnyMatcher;
+import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.matchers.MatcherBuilder;
+import com.oracle.truffle.regex.tregex.nodes.AllTransitionsInOneTreeMatcher;
+import com.oracle.truffle.regex.tregex.nodes.BackwardDFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.DFAAbstractStateNode;
+import com.oracle.truffle.regex.tregex.nodes.DFAInitialStateNode;
+import com.oracle.truffle.regex.tregex.nodes.DFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorProperties;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Flat representation of the state table of a {@link TRegexDFAExecutorNode} that neither tracks
+ * capture groups nor was generated from a trace finder NFA. Instead of the {@link CharMatcher}
+ * instances themselves, this table stores the character ranges the matchers were created from, so
+ * that the executor can be re-created without running the parser, the NFA generator and the
+ * {@link DFAGenerator}. Tables are produced by {@link DFAGenerator#getExecutorTable()} and can be
+ * written to and read from a binary stream, e.g. in order to persist them across VM runs.
+ */
+public final class DFAExecutorTable {
+
+    private static final byte MATCHER_ANY = 0;
+    private static final byte MATCHER_RANGES = 1;
+    private static final byte MATCHER_TREE = 2;
+
+    private final boolean forward;
+    private final boolean searching;
+    private int maxNumberOfNFAStates;
+    private short[] entryStates;
+    private StateEntry[] states;
+
+    DFAExecutorTable(boolean forward, boolean searching, int numberOfStates) {
+        this.forward = forward;
+        this.searching = searching;
+        this.states = new StateEntry[numberOfStates];
+    }
+
+    private static final class StateEntry {
+
+        private final short id;
+        private final byte flags;
+        private final short loopToSelf;
+        private final short[] successors;
+        private final byte[] matcherKinds;
+        private final char[][] matcherRanges;
+        private final short[][] treeSuccessors;
+        private final char[] indexOfChars;
+
+        private StateEntry(short id, byte flags, short loopToSelf, short[] successors, char[] indexOfChars, int numberOfMatchers) {
+            this.id = id;
+            this.flags = flags;
+            this.loopToSelf = loopToSelf;
+            this.successors = successors;
+            this.indexOfChars = indexOfChars;
+            this.matcherKinds = new byte[numberOfMatchers];
+            this.matcherRanges = new char[numberOfMatchers][];
+            this.treeSuccessors = new short[numberOfMatchers][];
+        }
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+
+    public boolean isSearching() {
+        return searching;
+    }
+
+    void setEntryStates(short[] entryStates, int maxNumberOfNFAStates) {
+        this.entryStates = entryStates;
+        this.maxNumberOfNFAStates = maxNumberOfNFAStates;
+    }
+
+    /**
+     * Records a state created by {@link DFAGenerator}.
+     *
+     * @param matchers the final matchers of the state.
+     * @param transitionMatchers the {@link MatcherBuilder}s of the state's transitions, in the same
+     *            order as {@code matchers}.
+     * @param indexOfChars the state's {@link DFAStateNode#getIndexOfChars()}, may be {@code null}.
+     */
+    void addState(short id, byte flags, short loopToSelf, short[] successors, CharMatcher[] matchers, MatcherBuilder[] transitionMatchers, char[] indexOfChars) {
+        StateEntry entry = new StateEntry(id, flags, loopToSelf, successors, indexOfChars, matchers.length);
+        for (int i = 0; i < matchers.length; i++) {
+            if (matchers[i] instanceof AllTransitionsInOneTreeMatcher) {
+                entry.matcherKinds[i] = MATCHER_TREE;
+                entry.matcherRanges[i] = ((AllTransitionsInOneTreeMatcher) matchers[i]).getSortedRanges();
+                entry.treeSuccessors[i] = ((AllTransitionsInOneTreeMatcher) matchers[i]).getRangeTreeSuccessors();
+            } else if (matchers[i] instanceof AnyMatcher) {
+                entry.matcherKinds[i] = MATCHER_ANY;
+            } else {
+                entry.matcherKinds[i] = MATCHER_RANGES;
+                entry.matcherRanges[i] = transitionMatchers[i].getRanges();
+            }
+        }
+        states[id] = entry;
+    }
+
+    /**
+     * Creates a new {@link TRegexDFAExecutorNode} equivalent to the one this table was recorded
+     * from.
+     */
+    public TRegexDFAExecutorNode createDFAExecutor(TRegexDFAExecutorProperties props, CompilationBuffer compilationBuffer) {
+        assert props.isForward() == forward && props.isSearching() == searching && !props.isTrackCaptureGroups();
+        DFAAbstractStateNode[] stateNodes = new DFAAbstractStateNode[states.length];
+        stateNodes[0] = new DFAInitialStateNode(entryStates, searching, false);
+        for (int i = 1; i < states.length; i++) {
+            StateEntry s = states[i];
+            CharMatcher[] matchers = createMatchers(s, compilationBuffer);
+            if (forward) {
+                if (s.indexOfChars == null) {
+                    stateNodes[i] = new DFAStateNode(s.id, s.flags, s.loopToSelf, s.successors, matchers);
+                } else {
+                    stateNodes[i] = new DFAStateNode(s.id, s.flags, s.loopToSelf, s.successors, matchers, s.indexOfChars);
+                }
+            } else {
+                stateNodes[i] = new BackwardDFAStateNode(s.id, s.flags, s.loopToSelf, s.successors, matchers);
+            }
+        }
+        return new TRegexDFAExecutorNode(props, maxNumberOfNFAStates, stateNodes, null);
+    }
+
+    private static CharMatcher[] createMatchers(StateEntry s, CompilationBuffer compilationBuffer) {
+        if (s.matcherKinds.length == 0) {
+            return CharMatcher.EMPTY;
+        }
+        if (s.matcherKinds.length == 1 && s.matcherKinds[0] == MATCHER_ANY) {
+            return AnyMatcher.INSTANCE_ARRAY;
+        }
+        CharMatcher[] matchers = new CharMatcher[s.matcherKinds.length];
+        for (int i = 0; i < matchers.length; i++) {
+            switch (s.matcherKinds[i]) {
+                case MATCHER_ANY:
+                    matchers[i] = AnyMatcher.create();
+                    break;
+                case MATCHER_RANGES:
+                    matchers[i] = MatcherBuilder.create(s.matcherRanges[i]).createMatcher(compilationBuffer);
+                    break;
+                case MATCHER_TREE:
+                    matchers[i] = new AllTransitionsInOneTreeMatcher(s.matcherRanges[i], s.treeSuccessors[i]);
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        return matchers;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(forward);
+        out.writeBoolean(searching);
+        out.writeInt(maxNumberOfNFAStates);
+        writeShorts(out, entryStates);
+        out.writeInt(states.length);
+        for (int i = 1; i < states.length; i++) {
+            StateEntry s = states[i];
+            out.writeShort(s.id);
+            out.writeByte(s.flags);
+            out.writeShort(s.loopToSelf);
+            writeShorts(out, s.successors);
+            out.writeBoolean(s.indexOfChars != null);
+            if (s.indexOfChars != null) {
+                writeChars(out, s.indexOfChars);
+            }
+            out.writeInt(s.matcherKinds.length);
+            for (int j = 0; j < s.matcherKinds.length; j++) {
+                out.writeByte(s.matcherKinds[j]);
+                if (s.matcherKinds[j] != MATCHER_ANY) {
+                    writeChars(out, s.matcherRanges[j]);
+                }
+                if (s.matcherKinds[j] == MATCHER_TREE) {
+                    writeShorts(out, s.treeSuccessors[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a table previously written by {@link #write(DataOutputStream)}.
+     *
+     * @throws IllegalArgumentException if the buffer does not contain a well-formed table.
+     */
+    public static DFAExecutorTable read(ByteBuffer in) {
+        boolean forward = in.get() != 0;
+        boolean searching = in.get() != 0;
+        int maxNumberOfNFAStates = in.getInt();
+        short[] entryStates = readShorts(in);
+        int numberOfStates = checkLength(in.getInt());
+        if (numberOfStates == 0) {
+            throw new IllegalArgumentException("missing initial state");
+        }
+        for (short entryState : entryStates) {
+            if (entryState < -1 || entryState >= numberOfStates) {
+                throw new IllegalArgumentException("entry state out of range: " + entryState);
+            }
+        }
+        DFAExecutorTable table = new DFAExecutorTable(forward, searching, numberOfStates);
+        table.setEntryStates(entryStates, maxNumberOfNFAStates);
+        for (int i = 1; i < numberOfStates; i++) {
+            short id = in.getShort();
+            byte flags = in.get();
+            short loopToSelf = in.getShort();
+            short[] successors = readShorts(in);
+            if (id != i) {
+                throw new IllegalArgumentException("unexpected state id " + id);
+            }
+            for (short successor : successors) {
+                if (successor < -1 || successor >= numberOfStates) {
+                    throw new IllegalArgumentException("successor out of range: " + successor);
+                }
+            }
+            char[] indexOfChars = in.get() != 0 ? readChars(in) : null;
+            if (indexOfChars != null && (loopToSelf == -1 || indexOfChars.length == 0)) {
+                throw new IllegalArgumentException("illegal indexOf characters in state " + id);
+            }
+            StateEntry entry = new StateEntry(id, flags, loopToSelf, successors, indexOfChars, checkLength(in.getInt()));
+            for (int j = 0; j < entry.matcherKinds.length; j++) {
+                byte kind = in.get();
+                if (kind != MATCHER_ANY && kind != MATCHER_RANGES && kind != MATCHER_TREE) {
+                    throw new IllegalArgumentException("unknown matcher kind " + kind);
+                }
+                entry.matcherKinds[j] = kind;
+                if (kind != MATCHER_ANY) {
+                    entry.matcherRanges[j] = readChars(in);
+                }
+                if (kind == MATCHER_TREE) {
+                    entry.treeSuccessors[j] = readShorts(in);
+                }
+            }
+            table.states[i] = entry;
+        }
+        return table;
+    }
+
+    private static int checkLength(int length) {
+        if (length < 0 || length > Short.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("illegal length " + length);
+        }
+        return length;
+    }
+
+    private static void writeShorts(DataOutputStream out, short[] array) throws IOException {
+        out.writeInt(array.length);
+        for (short s : array) {
+            out.writeShort(s);
+        }
+    }
+
+    private static short[] readShorts(ByteBuffer in) {
+        short[] array = new short[checkLength(in.getInt())];
+        in.asShortBuffer().get(array);
+        in.position(in.position() + array.length * Short.BYTES);
+        return array;
+    }
+
+    private static void writeChars(DataOutputStream out, char[] array) throws IOException {
+        out.writeInt(array.length);
+        for (char c : array) {
+            out.writeChar(c);
+        }
+    }
+
+    private static char[] readChars(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / Character.BYTES) {
+            throw new IllegalArgumentException("illegal length " + length);
+        }
+        char[] array = new char[length];
+        in.asCharBuffer().get(array);
+        in.position(in.position() + array.length * Character.BYTES);
+        return array;
+    }
+}
@@ -52,6 +52,7 @@ import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorDebugRecorder;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorProperties;
 import com.oracle.truffle.regex.tregex.nodes.TraceFinderDFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputIndexOfNode;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplit;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplitBailoutException;
 import com.oracle.truffle.regex.tregex.parser.Counter;
@@ -75,6 +76,7 @@ public final class DFAGenerator implements JsonConvertible {
 
     private static final DFAStateTransitionBuilder[] EMPTY_TRANSITIONS_ARRAY = new DFAStateTransitionBuilder[0];
     private static final short[] EMPTY_SHORT_ARRAY = {};
+    private static final int MAX_INDEX_OF_CHARS = 4;
 
     private final NFA nfa;
     private final TRegexDFAExecutorProperties executorProps;
@@ -103,6 +105,9 @@ public final class DFAGenerator implements JsonConvertible {
     private List<DFAStateTransitionBuilder[]> expandDFAPruneTraverseCur;
     private List<DFAStateTransitionBuilder[]> expandDFAPruneTraverseNext;
 
+    private boolean recordExecutorTable = false;
+    private DFAExecutorTable executorTable;
+
     public DFAGenerator(NFA nfa, TRegexDFAExecutorProperties executorProps, CompilationBuffer compilationBuffer) {
         this.nfa = nfa;
         this.executorProps = executorProps;
@@ -120,6 +125,24 @@ public final class DFAGenerator implements JsonConvertible {
         return nfa;
     }
 
+    /**
+     * Instructs {@link #createDFAExecutor()} to additionally record a {@link DFAExecutorTable} of
+     * the generated executor. This is only supported for DFAs that do not track capture groups and
+     * were not generated from a trace finder NFA.
+     */
+    public void recordExecutorTable() {
+        assert !trackCaptureGroups && !nfa.isTraceFinderNFA() && !TRegexOptions.TRegexEnableNodeSplitter;
+        recordExecutorTable = true;
+    }
+
+    /**
+     * Returns the {@link DFAExecutorTable} recorded by {@link #createDFAExecutor()}, or
+     * {@code null} if {@link #recordExecutorTable()} was not called.
+     */
+    public DFAExecutorTable getExecutorTable() {
+        return executorTable;
+    }
+
     public DFAStateNodeBuilder[] getEntryStates() {
         return entryStates;
     }
@@ -227,6 +250,9 @@ public final class DFAGenerator implements JsonConvertible {
             registerCGTransition(emptyInitialTransition);
             initialCGTransition.setLazyTransition(emptyInitialTransition);
         }
+        if (recordExecutorTable) {
+            executorTable = new DFAExecutorTable(forward, executorProps.isSearching(), stateMap.values().size() + 1);
+        }
         DFAAbstractStateNode[] states = createDFAExecutorStates();
         DFACaptureGroupLazyTransitionNode[] transitionsArray = null;
         if (trackCaptureGroups) {
@@ -247,6 +273,9 @@ public final class DFAGenerator implements JsonConvertible {
             }
         }
         states[0] = new DFAInitialStateNode(entryStateIDs, executorProps.isSearching(), trackCaptureGroups);
+        if (executorTable != null) {
+            executorTable.setEntryStates(entryStateIDs, maxNumberOfNfaStates);
+        }
         if (TRegexOptions.TRegexEnableNodeSplitter) {
             states = tryMakeReducible(states);
         }
@@ -524,6 +553,7 @@ public final class DFAGenerator implements JsonConvertible {
                 }
             }
             boolean findSingleChar = false;
+            char[] indexOfChars = null;
             short loopToSelf = -1;
             for (int i = 0; i < successors.length - (s.hasBackwardPrefixState() ? 1 : 0); i++) {
                 successors[i] = s.getTransitions()[i].getTarget().getId();
@@ -543,6 +573,8 @@ public final class DFAGenerator implements JsonConvertible {
                             assert matchers[1] instanceof AnyMatcher;
                             matchers[1] = s.getTransitions()[1].getMatcherBuilder().createMatcher(compilationBuffer);
                         }
+                    } else if (forward && !trackCaptureGroups && !nfa.isTraceFinderNFA()) {
+                        indexOfChars = createIndexOfChars(loopMB);
                     }
                 }
                 assert successors[i] >= 0 && successors[i] < ret.length;
@@ -565,15 +597,53 @@ public final class DFAGenerator implements JsonConvertible {
                 stateNode = new TraceFinderDFAStateNode(s.getId(), flags, loopToSelf, successors, matchers,
                                 s.getPreCalculatedUnAnchoredResult(), s.getPreCalculatedAnchoredResult());
             } else if (forward) {
-                stateNode = new DFAStateNode(s.getId(), flags, loopToSelf, successors, matchers);
+                if (indexOfChars == null) {
+                    stateNode = new DFAStateNode(s.getId(), flags, loopToSelf, successors, matchers);
+                } else {
+                    stateNode = new DFAStateNode(s.getId(), flags, loopToSelf, successors, matchers, indexOfChars);
+                }
             } else {
                 stateNode = new BackwardDFAStateNode(s.getId(), flags, loopToSelf, successors, matchers);
             }
             ret[s.getId()] = stateNode;
+            if (executorTable != null) {
+                MatcherBuilder[] transitionMatchers = new MatcherBuilder[matchers.length];
+                for (int i = 0; i < s.getTransitions().length && i < matchers.length; i++) {
+                    transitionMatchers[i] = s.getTransitions()[i].getMatcherBuilder();
+                }
+                executorTable.addState(s.getId(), flags, loopToSelf, successors, matchers, transitionMatchers, stateNode.getIndexOfChars());
+            }
         }
         return ret;
     }
 
+    /**
+     * Returns the set of characters <i>not</i> matched by the given loop transition matcher, if it
+     * is small enough to be searched for with {@link InputIndexOfNode}. Otherwise, returns
+     * {@code null}.
+     */
+    private char[] createIndexOfChars(MatcherBuilder loopMB) {
+        MatcherBuilder inverse = loopMB.createInverse(compilationBuffer);
+        int nChars = 0;
+        for (int i = 0; i < inverse.size(); i++) {
+            nChars += inverse.getHi(i) - inverse.getLo(i) + 1;
+            if (nChars > MAX_INDEX_OF_CHARS) {
+                return null;
+            }
+        }
+        if (nChars == 0) {
+            return null;
+        }
+        char[] chars = new char[nChars];
+        int n = 0;
+        for (int i = 0; i < inverse.size(); i++) {
+            for (int c = inverse.getLo(i); c <= inverse.getHi(i); c++) {
+                chars[n++] = (char) c;
+            }
+        }
+        return chars;
+    }
+
     private AllTransitionsInOneTreeMatcher createAllTransitionsInOneTreeMatcher(DFAStateNodeBuilder state) {
         DFAStateTransitionBuilder[] transitions = state.getTransitions();
         CharArrayBuffer sortedRangesBuf = compilationBuffer.getRangesArrayBuffer1();
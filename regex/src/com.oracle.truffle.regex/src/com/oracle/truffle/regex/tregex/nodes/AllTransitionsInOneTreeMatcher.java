@@ -63,6 +63,14 @@ public final class AllTransitionsInOneTreeMatcher implements CharMatcher {
         this.rangeTreeSuccessors = rangeTreeSuccessors;
     }
 
+    public char[] getSortedRanges() {
+        return sortedRanges;
+    }
+
+    public short[] getRangeTreeSuccessors() {
+        return rangeTreeSuccessors;
+    }
+
     public int checkMatchTree1(VirtualFrame frame, TRegexDFAExecutorNode executor, DFAStateNode stateNode, char c) {
         CompilerAsserts.partialEvaluationConstant(this);
         CompilerAsserts.partialEvaluationConstant(stateNode);
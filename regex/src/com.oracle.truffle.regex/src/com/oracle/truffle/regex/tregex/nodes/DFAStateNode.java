@@ -51,21 +51,41 @@ public class DFAStateNode extends DFAAbstractStateNode {
     private final byte flags;
     final short loopToSelf;
     @CompilationFinal(dimensions = 1) protected final CharMatcher[] matchers;
+    /**
+     * The set of characters <i>not</i> matched by the transition that loops back to this state,
+     * or {@code null}. If set, the executor can skip ahead to the next occurrence of any of these
+     * characters via {@link InputIndexOfNode} instead of checking every character in
+     * {@link #checkMatch3(VirtualFrame, TRegexDFAExecutorNode, int)}.
+     */
+    @CompilationFinal(dimensions = 1) private final char[] indexOfChars;
     @Child private InputIndexOfNode indexOfNode;
 
     DFAStateNode(DFAStateNode nodeSplitCopy, short copyID) {
         this(copyID, nodeSplitCopy.flags, nodeSplitCopy.loopToSelf,
                         Arrays.copyOf(nodeSplitCopy.getSuccessors(), nodeSplitCopy.getSuccessors().length),
-                        nodeSplitCopy.getMatchers());
+                        nodeSplitCopy.getMatchers(), nodeSplitCopy.indexOfChars);
     }
 
     public DFAStateNode(short id, byte flags, short loopToSelf, short[] successors, CharMatcher[] matchers) {
+        this(id, flags, loopToSelf, successors, matchers, findSingleCharIndexOfChars(flags, loopToSelf, matchers));
+    }
+
+    public DFAStateNode(short id, byte flags, short loopToSelf, short[] successors, CharMatcher[] matchers, char[] indexOfChars) {
         super(successors);
         assert id > 0;
+        assert indexOfChars == null || loopToSelf != -1;
         this.id = id;
         this.flags = flags;
         this.loopToSelf = loopToSelf;
         this.matchers = matchers;
+        this.indexOfChars = indexOfChars;
+    }
+
+    private static char[] findSingleCharIndexOfChars(byte flags, short loopToSelf, CharMatcher[] matchers) {
+        if ((flags & FLAG_FIND_SINGLE_CHAR) == 0 || !(matchers[(loopToSelf + 1) % 2] instanceof SingleCharMatcher)) {
+            return null;
+        }
+        return new char[]{((SingleCharMatcher) matchers[(loopToSelf + 1) % 2]).getChar()};
     }
 
     private InputIndexOfNode getIndexOfNode() {
@@ -123,6 +143,14 @@ public class DFAStateNode extends DFAAbstractStateNode {
         return flagIsSet(FLAG_FIND_SINGLE_CHAR);
     }
 
+    public char[] getIndexOfChars() {
+        return indexOfChars;
+    }
+
+    private boolean hasIndexOfChars() {
+        return indexOfChars != null;
+    }
+
     private boolean flagIsSet(byte flag) {
         return (flags & flag) != 0;
     }
@@ -187,11 +215,9 @@ public class DFAStateNode extends DFAAbstractStateNode {
                 assert successors.length == 2;
                 int singleCharSuccessor = (loopToSelf + 1) % 2;
                 assert matchers[singleCharSuccessor] instanceof SingleCharMatcher : this;
+                assert indexOfChars.length == 1 && indexOfChars[0] == ((SingleCharMatcher) matchers[singleCharSuccessor]).getChar();
                 CompilerAsserts.partialEvaluationConstant(singleCharSuccessor);
-                int i = getIndexOfNode().execute(executor.getInput(frame),
-                                ((SingleCharMatcher) matchers[singleCharSuccessor]).getChar(),
-                                preLoopIndex,
-                                executor.getCurMaxIndex(frame));
+                int i = getIndexOfNode().execute(executor.getInput(frame), preLoopIndex, executor.getCurMaxIndex(frame), indexOfChars);
                 if (i < 0) {
                     executor.setIndex(frame, executor.getCurMaxIndex(frame));
                     executor.setSuccessorIndex(frame, atEnd3(frame, executor, preLoopIndex));
@@ -203,6 +229,18 @@ public class DFAStateNode extends DFAAbstractStateNode {
                     return;
                 }
             }
+            if (executor.isForward() && hasIndexOfChars()) {
+                // all characters not contained in indexOfChars lead back to this state, so we can
+                // skip ahead to the next occurrence of any of indexOfChars and let checkMatch3
+                // determine the actual successor.
+                int i = getIndexOfNode().execute(executor.getInput(frame), preLoopIndex, executor.getCurMaxIndex(frame), indexOfChars);
+                if (i < 0) {
+                    executor.setIndex(frame, executor.getCurMaxIndex(frame));
+                    executor.setSuccessorIndex(frame, atEnd3(frame, executor, preLoopIndex));
+                    return;
+                }
+                executor.setIndex(frame, i);
+            }
             while (executor.hasNext(frame)) {
                 if (!checkMatch3(frame, executor, preLoopIndex)) {
                     return;
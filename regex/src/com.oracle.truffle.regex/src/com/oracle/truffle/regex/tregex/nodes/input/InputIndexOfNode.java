@@ -24,6 +24,7 @@
  */
 package com.oracle.truffle.regex.tregex.nodes.input;
 
+import com.oracle.truffle.api.ArrayUtils;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.TruffleObject;
@@ -35,23 +36,29 @@ public abstract class InputIndexOfNode extends Node {
         return InputIndexOfNodeGen.create();
     }
 
-    public abstract int execute(Object input, char c, int fromIndex, int maxIndex);
+    public abstract int execute(Object input, int fromIndex, int maxIndex, char[] chars);
 
     @Specialization
-    public int indexOf(String input, char c, int fromIndex, int maxIndex) {
-        int index = input.indexOf(c, fromIndex);
-        if (index >= maxIndex) {
-            return -1;
+    public int indexOf(String input, int fromIndex, int maxIndex, char[] chars) {
+        if (chars.length == 1) {
+            int index = input.indexOf(chars[0], fromIndex);
+            if (index >= maxIndex) {
+                return -1;
+            }
+            return index;
         }
-        return index;
+        return ArrayUtils.indexOf(input, fromIndex, maxIndex, chars);
     }
 
     @Specialization
-    public int indexOf(TruffleObject input, char c, int fromIndex, int maxIndex,
+    public int indexOf(TruffleObject input, int fromIndex, int maxIndex, char[] chars,
                     @Cached("create()") InputCharAtNode charAtNode) {
         for (int i = fromIndex; i < maxIndex; i++) {
-            if (charAtNode.execute(input, i) == c) {
-                return i;
+            char c = charAtNode.execute(input, i);
+            for (char v : chars) {
+                if (c == v) {
+                    return i;
+                }
             }
         }
         return -1;
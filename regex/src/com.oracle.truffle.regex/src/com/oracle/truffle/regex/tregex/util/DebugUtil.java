@@ -42,6 +42,7 @@ public class DebugUtil {
     public static final boolean LOG_PHASES = false;
     public static final boolean LOG_BAILOUT_MESSAGES = false;
     public static final boolean LOG_AUTOMATON_SIZES = false;
+    public static final boolean LOG_DFA_CACHE = false;
 
     private static final CompilationFinalBitSet validSpecialCharsForFileNames = CompilationFinalBitSet.valueOf(
                     '^', '$', '.', '*', '+', '-', '?', '(', ')', '[', ']', '{', '}', '|');
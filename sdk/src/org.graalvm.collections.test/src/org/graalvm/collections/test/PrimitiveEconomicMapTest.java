@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.collections.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.graalvm.collections.IntEconomicMap;
+import org.graalvm.collections.IntEconomicSet;
+import org.graalvm.collections.IntMapCursor;
+import org.graalvm.collections.LongEconomicMap;
+import org.graalvm.collections.LongEconomicSet;
+import org.graalvm.collections.LongMapCursor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveEconomicMapTest {
+
+    @Test
+    public void testIntMapUtilities() {
+        IntEconomicMap<String> map = IntEconomicMap.create();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(1, "a"));
+        Assert.assertEquals("a", map.put(1, "b"));
+        Assert.assertEquals("b", map.get(1));
+        Assert.assertEquals("c", map.get(2, "c"));
+        Assert.assertNull(map.put(2, null));
+        Assert.assertTrue(map.containsKey(2));
+        Assert.assertNull(map.get(2));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("b", map.removeKey(1));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertEquals(1, map.size());
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(2));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        IntEconomicMap<Integer> map = IntEconomicMap.create();
+        int[] keys = {42, -1, 7, Integer.MIN_VALUE, 0, 1000, 3, Integer.MAX_VALUE, 8, 9, 10, 11};
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        map.removeKey(7);
+        map.put(7, 7);
+        List<Integer> actual = new ArrayList<>();
+        IntMapCursor<Integer> cursor = map.getEntries();
+        while (cursor.advance()) {
+            Assert.assertEquals(cursor.getKey(), (int) cursor.getValue());
+            actual.add(cursor.getKey());
+        }
+        Assert.assertEquals(Arrays.asList(42, -1, Integer.MIN_VALUE, 0, 1000, 3, Integer.MAX_VALUE, 8, 9, 10, 11, 7), actual);
+    }
+
+    @Test
+    public void testCursorRemove() {
+        IntEconomicMap<Integer> map = IntEconomicMap.create();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        IntMapCursor<Integer> cursor = map.getEntries();
+        while (cursor.advance()) {
+            if (cursor.getKey() % 3 != 0) {
+                cursor.remove();
+            }
+        }
+        Assert.assertEquals(34, map.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i % 3 == 0, map.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testIntSet() {
+        IntEconomicSet set = IntEconomicSet.create();
+        Assert.assertTrue(set.add(3));
+        Assert.assertFalse(set.add(3));
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(2));
+        set.remove(1);
+        Assert.assertFalse(set.contains(1));
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        Assert.assertEquals(3, iterator.nextInt());
+        Assert.assertEquals(2, iterator.nextInt());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals("set(size=2, {3,2})", set.toString());
+    }
+
+    @Test
+    public void testLongSet() {
+        LongEconomicSet set = LongEconomicSet.create(16);
+        Assert.assertTrue(set.add(1L << 40));
+        Assert.assertTrue(set.add(1L));
+        Assert.assertFalse(set.add(1L << 40));
+        Assert.assertEquals(2, set.size());
+        PrimitiveIterator.OfLong iterator = set.iterator();
+        Assert.assertEquals(1L << 40, iterator.nextLong());
+        iterator.remove();
+        Assert.assertEquals(1L, iterator.nextLong());
+        Assert.assertFalse(set.contains(1L << 40));
+        Assert.assertEquals(1, set.size());
+    }
+
+    /**
+     * Applies the same random operations to the primitive maps and a {@link LinkedHashMap} and
+     * checks that they stay equal, including iteration order.
+     */
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            IntEconomicMap<Integer> intMap = IntEconomicMap.create();
+            LongEconomicMap<Integer> longMap = LongEconomicMap.create(random.nextInt(32));
+            Map<Integer, Integer> reference = new LinkedHashMap<>();
+            int range = 1 + random.nextInt(200);
+            for (int operation = 0; operation < 2000; operation++) {
+                int key = random.nextInt(range) - range / 2;
+                long longKey = key * 0x100000001L;
+                int kind = random.nextInt(10);
+                if (kind < 6) {
+                    Integer value = random.nextBoolean() ? null : operation;
+                    Integer expected = reference.put(key, value);
+                    Assert.assertEquals(expected, intMap.put(key, value));
+                    Assert.assertEquals(expected, longMap.put(longKey, value));
+                } else if (kind < 8) {
+                    Integer expected = reference.remove(key);
+                    Assert.assertEquals(expected, intMap.removeKey(key));
+                    Assert.assertEquals(expected, longMap.removeKey(longKey));
+                } else if (kind == 8) {
+                    checkIteration(random, intMap, longMap, reference);
+                } else {
+                    Assert.assertEquals(reference.containsKey(key), intMap.containsKey(key));
+                    Assert.assertEquals(reference.get(key), intMap.get(key));
+                    Assert.assertEquals(reference.get(key), longMap.get(longKey));
+                }
+                Assert.assertEquals(reference.size(), intMap.size());
+                Assert.assertEquals(reference.size(), longMap.size());
+            }
+            List<Integer> values = new ArrayList<>();
+            for (Integer value : intMap.getValues()) {
+                values.add(value);
+            }
+            Assert.assertEquals(new ArrayList<>(reference.values()), values);
+        }
+    }
+
+    private static void checkIteration(Random random, IntEconomicMap<Integer> intMap, LongEconomicMap<Integer> longMap, Map<Integer, Integer> reference) {
+        IntMapCursor<Integer> intCursor = intMap.getEntries();
+        LongMapCursor<Integer> longCursor = longMap.getEntries();
+        Iterator<Map.Entry<Integer, Integer>> iterator = reference.entrySet().iterator();
+        while (intCursor.advance()) {
+            Assert.assertTrue(longCursor.advance());
+            Map.Entry<Integer, Integer> entry = iterator.next();
+            Assert.assertEquals((int) entry.getKey(), intCursor.getKey());
+            Assert.assertEquals(entry.getKey() * 0x100000001L, longCursor.getKey());
+            Assert.assertTrue(Objects.equals(entry.getValue(), intCursor.getValue()));
+            Assert.assertTrue(Objects.equals(entry.getValue(), longCursor.getValue()));
+            if (random.nextInt(5) == 0) {
+                intCursor.remove();
+                longCursor.remove();
+                iterator.remove();
+            }
+        }
+        Assert.assertFalse(longCursor.advance());
+        Assert.assertFalse(iterator.hasNext());
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.collections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Implementation of a map with {@code int} keys that always preserves insertion order when
+ * iterating over keys. It follows the layout of {@link EconomicMapImpl}, but avoids boxing keys.
+ *
+ * Keys are kept in an expanding {@code int} array and values at the same indices in a parallel
+ * object array. If the map has smaller or equal to {@link #HASH_THRESHOLD} entries, there is no
+ * additional hash data structure and lookups are done via linear checking of the keys. Otherwise
+ * {@link #hashTable} is an open addressing table with linear probing, where an entry of 0 means no
+ * hit and otherwise denotes the entry number plus one.
+ *
+ * Removing entries puts {@link #DELETED} into the {@link #values} array. Removed entries are only
+ * reclaimed when the entries array would otherwise have to grow, so that removing entries while
+ * iterating never moves the remaining entries. Hash table slots of removed entries are left in
+ * place and are dropped whenever the hash table is rebuilt.
+ */
+final class IntEconomicMapImpl<V> implements IntEconomicMap<V>, IntEconomicSet {
+
+    /**
+     * Initial number of key/value pair entries that is allocated in the first entries array.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Minimum number of key/value pair entries added when the entries array is increased in size.
+     */
+    private static final int MIN_CAPACITY_INCREASE = 8;
+
+    /**
+     * Number of entries above which a hash table is created. Comparing primitive keys is cheap, so
+     * this is as high as the identity comparison threshold of {@link EconomicMapImpl}.
+     */
+    private static final int HASH_THRESHOLD = 8;
+
+    /**
+     * Maximum number of entries allowed in the map.
+     */
+    private static final int MAX_ELEMENT_COUNT = Integer.MAX_VALUE >> 1;
+
+    /**
+     * Marker for removed entries in the {@link #values} array.
+     */
+    private static final Object DELETED = new Object();
+
+    /**
+     * Total number of entries (actual entries plus deleted entries).
+     */
+    private int totalEntries;
+
+    /**
+     * Number of deleted entries.
+     */
+    private int deletedEntries;
+
+    private int[] keys;
+
+    /**
+     * Values array parallel to {@link #keys}. For sets, every present element maps to
+     * {@link Boolean#TRUE}.
+     */
+    private Object[] values;
+
+    /**
+     * Open addressing hash table storing entry indices plus one, or {@code null} if the map is
+     * small enough for linear lookups.
+     */
+    private int[] hashTable;
+
+    /**
+     * Number of occupied slots in {@link #hashTable}, including slots of removed entries.
+     */
+    private int hashTableUsed;
+
+    private final boolean isSet;
+
+    static <V> IntEconomicMapImpl<V> create(boolean isSet) {
+        return new IntEconomicMapImpl<>(isSet);
+    }
+
+    static <V> IntEconomicMapImpl<V> create(int initialCapacity, boolean isSet) {
+        IntEconomicMapImpl<V> map = new IntEconomicMapImpl<>(isSet);
+        if (initialCapacity > INITIAL_CAPACITY) {
+            map.keys = new int[initialCapacity];
+            map.values = new Object[initialCapacity];
+        }
+        return map;
+    }
+
+    private IntEconomicMapImpl(boolean isSet) {
+        this.isSet = isSet;
+    }
+
+    private static int hash(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int find(int key) {
+        if (hashTable == null) {
+            for (int i = 0; i < totalEntries; i++) {
+                if (keys[i] == key && values[i] != DELETED) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = hashTable.length - 1;
+        for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+            int index = hashTable[slot] - 1;
+            if (index == -1) {
+                return -1;
+            }
+            if (keys[index] == key && values[index] != DELETED) {
+                return index;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(int key) {
+        int index = find(key);
+        if (index != -1) {
+            return (V) values[index];
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+
+    @Override
+    public int size() {
+        return totalEntries - deletedEntries;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(int key, V value) {
+        int index = find(key);
+        if (index != -1) {
+            Object oldValue = values[index];
+            values[index] = value;
+            return (V) oldValue;
+        }
+
+        if (keys == null) {
+            keys = new int[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else if (totalEntries == keys.length) {
+            if (deletedEntries >= (totalEntries >> 1)) {
+                compress();
+            } else {
+                grow();
+            }
+        }
+
+        int nextEntryIndex = totalEntries;
+        keys[nextEntryIndex] = key;
+        values[nextEntryIndex] = value;
+        totalEntries++;
+
+        if (hashTable != null) {
+            if ((hashTableUsed + 1) << 1 > hashTable.length) {
+                createHash();
+            } else {
+                putHashEntry(key, nextEntryIndex);
+            }
+        } else if (totalEntries > HASH_THRESHOLD) {
+            createHash();
+        }
+        return null;
+    }
+
+    private void grow() {
+        int length = keys.length;
+        int newLength = length + Math.max(MIN_CAPACITY_INCREASE, length >> 1);
+        if (newLength > MAX_ELEMENT_COUNT) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        keys = Arrays.copyOf(keys, newLength);
+        values = Arrays.copyOf(values, newLength);
+    }
+
+    /**
+     * Moves all live entries to the front of the entries arrays, preserving their order.
+     */
+    private void compress() {
+        int z = 0;
+        for (int i = 0; i < totalEntries; i++) {
+            if (values[i] != DELETED) {
+                keys[z] = keys[i];
+                values[z] = values[i];
+                z++;
+            }
+        }
+        Arrays.fill(values, z, totalEntries, null);
+        totalEntries = z;
+        deletedEntries = 0;
+        if (z <= HASH_THRESHOLD) {
+            hashTable = null;
+        } else {
+            createHash();
+        }
+    }
+
+    private void createHash() {
+        // Smallest power of two that keeps the table at most one quarter full.
+        int size = HASH_THRESHOLD << 1;
+        while (size < (totalEntries << 2)) {
+            size <<= 1;
+        }
+        hashTable = new int[size];
+        hashTableUsed = 0;
+        for (int i = 0; i < totalEntries; i++) {
+            if (values[i] != DELETED) {
+                putHashEntry(keys[i], i);
+            }
+        }
+    }
+
+    private void putHashEntry(int key, int entryIndex) {
+        int mask = hashTable.length - 1;
+        int slot = hash(key) & mask;
+        while (hashTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashTable[slot] = entryIndex + 1;
+        hashTableUsed++;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V removeKey(int key) {
+        int index = find(key);
+        if (index != -1) {
+            Object value = values[index];
+            removeEntry(index);
+            return (V) value;
+        }
+        return null;
+    }
+
+    private void removeEntry(int index) {
+        values[index] = DELETED;
+        deletedEntries++;
+        // Make sure the last entry is always a live entry.
+        while (totalEntries > 0 && values[totalEntries - 1] == DELETED) {
+            totalEntries--;
+            deletedEntries--;
+        }
+    }
+
+    @Override
+    public void clear() {
+        keys = null;
+        values = null;
+        hashTable = null;
+        hashTableUsed = 0;
+        totalEntries = deletedEntries = 0;
+    }
+
+    private abstract class SparseIterator {
+
+        /**
+         * Index of the next entry to return, or of the last returned entry plus one.
+         */
+        protected int current;
+
+        /**
+         * Index of the last returned entry, or -1 if it was removed.
+         */
+        protected int last = -1;
+
+        public boolean hasNext() {
+            while (current < totalEntries && values[current] == DELETED) {
+                current++;
+            }
+            return current < totalEntries;
+        }
+
+        protected int nextIndex() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current++;
+            return last;
+        }
+
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            IntEconomicMapImpl.this.removeEntry(last);
+            last = -1;
+        }
+    }
+
+    @Override
+    public Iterable<V> getValues() {
+        return new Iterable<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+        };
+    }
+
+    private final class ValueIterator extends SparseIterator implements Iterator<V> {
+        @SuppressWarnings("unchecked")
+        @Override
+        public V next() {
+            return (V) values[nextIndex()];
+        }
+    }
+
+    private final class KeyIterator extends SparseIterator implements PrimitiveIterator.OfInt {
+        @Override
+        public int nextInt() {
+            return keys[nextIndex()];
+        }
+    }
+
+    @Override
+    public IntMapCursor<V> getEntries() {
+        return new IntMapCursor<V>() {
+            int current = -1;
+
+            @Override
+            public boolean advance() {
+                current++;
+                while (current < totalEntries && values[current] == DELETED) {
+                    // Skip over deleted entries
+                    current++;
+                }
+                return current < totalEntries;
+            }
+
+            @Override
+            public int getKey() {
+                return keys[current];
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public V getValue() {
+                return (V) values[current];
+            }
+
+            @Override
+            public void remove() {
+                IntEconomicMapImpl.this.removeEntry(current);
+            }
+        };
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return containsKey(element);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean add(int element) {
+        return put(element, (V) Boolean.TRUE) == null;
+    }
+
+    @Override
+    public void remove(int element) {
+        removeKey(element);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new KeyIterator();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(isSet ? "set(size=" : "map(size=").append(size()).append(", {");
+        String sep = "";
+        IntMapCursor<V> cursor = getEntries();
+        while (cursor.advance()) {
+            builder.append(sep);
+            if (isSet) {
+                builder.append(cursor.getKey());
+            } else {
+                builder.append("(").append(cursor.getKey()).append(",").append(cursor.getValue()).append(")");
+            }
+            sep = ",";
+        }
+        builder.append("})");
+        return builder.toString();
+    }
+}
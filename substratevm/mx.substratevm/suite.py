@@ -244,6 +244,20 @@ suite = {
             "findbugs": "false",
         },
 
+        "com.oracle.svm.hosted.test": {
+            "subDir": "src",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "com.oracle.svm.hosted",
+                "com.oracle.svm.core.genscavenge",
+                "mx:JUNIT",
+            ],
+            "checkstyle": "com.oracle.svm.core",
+            "workingSets": "SVM",
+            "javaCompliance": "1.8",
+            "findbugs": "false",
+        },
+
         "com.oracle.svm.reflect": {
             "subDir": "src",
             "sourceDirs": ["src"],
@@ -596,6 +610,20 @@ suite = {
           "testDistribution" : True,
         },
 
+        "SVM_HOSTED_TESTS" : {
+          "relpath" : True,
+          "dependencies" : [
+            "com.oracle.svm.hosted.test",
+          ],
+          "exclude" : [
+            "mx:JUNIT",
+          ],
+          "distDependencies": [
+            "SVM",
+          ],
+          "testDistribution" : True,
+        },
+
         "POLYGLOT_NATIVE_API" : {
             "dependencies": [
                 "org.graalvm.polyglot.nativeapi",
@@ -119,6 +119,18 @@ public abstract class BigBang {
     public final AtomicLong numParsedGraphs = new AtomicLong();
     private final CompletionExecutor.Timing timing;
 
+    /**
+     * The maximum number of type flow updates batched into a single task, or 1 if batching is
+     * disabled.
+     */
+    private final int typeFlowUpdateBatchSize;
+
+    /**
+     * The batch collecting the type flow updates posted by the task that the current worker thread
+     * is executing. Only set while a {@link TypeFlowBatch} is executing and batching is enabled.
+     */
+    private final ThreadLocal<TypeFlowBatch> currentTypeFlowBatch = new ThreadLocal<>();
+
     public final Timer typeFlowTimer = new Timer("(typeflow)", false);
     public final Timer checkObjectsTimer = new Timer("(objects)", false);
 
@@ -156,6 +168,7 @@ public abstract class BigBang {
         timing = PointstoOptions.ProfileAnalysisOperations.getValue(options) ? new AnalysisTiming() : null;
         executor = new CompletionExecutor(this, executorService);
         executor.init(timing);
+        typeFlowUpdateBatchSize = executor.isSequential() ? 1 : Math.max(1, PointstoOptions.TypeFlowUpdateBatchSize.getValue(options));
     }
 
     public boolean trackTypeFlowInputs() {
@@ -495,31 +508,90 @@ public abstract class BigBang {
         }
         operation.inQueue = true;
 
-        executor.execute(new TypeFlowRunnable() {
+        TypeFlowBatch batch = currentTypeFlowBatch.get();
+        if (batch != null) {
+            /*
+             * Updates posted by a worker are collected in a worker-local batch instead of being
+             * posted one by one, which reduces the contention on the executor's queues and counters.
+             * Full batches are posted right away so that idle workers can steal them.
+             */
+            batch.add(operation);
+            if (batch.isFull()) {
+                currentTypeFlowBatch.set(new TypeFlowBatch(typeFlowUpdateBatchSize));
+                executor.execute(batch);
+            }
+            return;
+        }
 
-            @Override
-            public void run(DebugContext ignored) {
-                PointsToStats.registerTypeFlowQueuedUpdate(BigBang.this, operation);
+        TypeFlowBatch single = new TypeFlowBatch(1);
+        single.add(operation);
+        executor.execute(single);
+    }
 
-                operation.inQueue = false;
-                operation.update(BigBang.this);
-            }
+    /**
+     * A task that updates a batch of type flows. Type flow updates posted while the batch is
+     * executed are collected in a new batch, which is posted once this batch is done.
+     */
+    private final class TypeFlowBatch implements TypeFlowRunnable {
 
-            @Override
-            public String toString() {
-                return "Operation: " + operation.toString();
-            }
+        private final TypeFlow<?>[] flows;
+        private int size;
 
-            @Override
-            public TypeFlow<?> getTypeFlow() {
-                return operation;
+        TypeFlowBatch(int capacity) {
+            this.flows = new TypeFlow<?>[capacity];
+        }
+
+        void add(TypeFlow<?> flow) {
+            flows[size++] = flow;
+        }
+
+        boolean isFull() {
+            return size == flows.length;
+        }
+
+        @Override
+        public void run(DebugContext ignored) {
+            long startTime = reportAnalysisStatistics ? System.nanoTime() : 0L;
+            boolean batching = typeFlowUpdateBatchSize > 1;
+            if (batching) {
+                currentTypeFlowBatch.set(new TypeFlowBatch(typeFlowUpdateBatchSize));
             }
+            try {
+                for (int i = 0; i < size; i++) {
+                    TypeFlow<?> operation = flows[i];
+                    PointsToStats.registerTypeFlowQueuedUpdate(BigBang.this, operation);
 
-            @Override
-            public DebugContext getDebug(OptionValues opts, List<DebugHandlersFactory> factories) {
-                return DebugContext.DISABLED;
+                    operation.inQueue = false;
+                    operation.update(BigBang.this);
+                }
+            } finally {
+                if (batching) {
+                    TypeFlowBatch next = currentTypeFlowBatch.get();
+                    currentTypeFlowBatch.remove();
+                    if (next.size > 0) {
+                        executor.execute(next);
+                    }
+                }
+                if (reportAnalysisStatistics) {
+                    PointsToStats.registerTypeFlowBatch(BigBang.this, size, System.nanoTime() - startTime);
+                }
             }
-        });
+        }
+
+        @Override
+        public String toString() {
+            return size == 1 ? "Operation: " + flows[0].toString() : "Operation batch: " + size + " type flows";
+        }
+
+        @Override
+        public TypeFlow<?> getTypeFlow() {
+            return size == 1 ? flows[0] : null;
+        }
+
+        @Override
+        public DebugContext getDebug(OptionValues opts, List<DebugHandlersFactory> factories) {
+            return DebugContext.DISABLED;
+        }
     }
 
     public void postTask(final DebugContextRunnable task) {
@@ -540,10 +612,14 @@ public abstract class BigBang {
             int numTypes;
             do {
                 try (StopTimer t = typeFlowTimer.start()) {
+                    long startTime = System.nanoTime();
                     executor.start();
                     executor.complete();
                     didSomeWork |= (executor.getPostedOperations() > 0);
                     executor.shutdown();
+                    if (reportAnalysisStatistics) {
+                        PointsToStats.registerTypeFlowPropagationTime(this, System.nanoTime() - startTime);
+                    }
                 }
                 /* Initialize for the next iteration. */
                 executor.init(timing);
@@ -737,7 +813,7 @@ public abstract class BigBang {
             }
             timeBuckets.incrementAndGet(bucket);
 
-            if (nanos > 500_000_000L && r instanceof TypeFlowRunnable) {
+            if (nanos > 500_000_000L && r instanceof TypeFlowRunnable && ((TypeFlowRunnable) r).getTypeFlow() != null) {
                 TypeFlow<?> tf = ((TypeFlowRunnable) r).getTypeFlow();
                 String source = String.valueOf(tf.getSource());
                 if (tf.getSource() instanceof ValueNode) {
@@ -83,6 +83,9 @@ public class PointstoOptions {
     @Option(help = "Track the callers for methods and accessing methods for fields.")//
     public static final OptionKey<Boolean> TrackAccessChain = new OptionKey<>(false);
 
+    @Option(help = "The maximum number of type flow updates a worker thread batches into a single task. A value of 1 disables batching.")//
+    public static final OptionKey<Integer> TypeFlowUpdateBatchSize = new OptionKey<>(32);
+
     @Option(help = "Track the input for type flows.")//
     public static final OptionKey<Boolean> TrackInputFlows = new OptionKey<>(false);
 
@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -116,6 +117,7 @@ public class PointsToStats {
             doReport(statsDirectory, reportNameRoot, "union operation stats", timeStamp, PointsToStats::reportUnionOpertationsStats);
             doReport(statsDirectory, reportNameRoot, "type flow stats", timeStamp, PointsToStats::reportTypeFlowStats);
             doReport(statsDirectory, reportNameRoot, "pruned type flow stats", timeStamp, PointsToStats::reportPrunedTypeFlows);
+            doReport(statsDirectory, reportNameRoot, "worker utilization stats", timeStamp, PointsToStats::reportWorkerStats);
 
         } catch (IOException e) {
             throw JVMCIError.shouldNotReachHere(e);
@@ -307,6 +309,55 @@ public class PointsToStats {
         stats.registerQueuedUpdate();
     }
 
+    static class WorkerStats {
+        final String name;
+        final AtomicLong tasks = new AtomicLong();
+        final AtomicLong flowUpdates = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+
+        WorkerStats(Thread thread) {
+            this.name = thread.getName();
+        }
+    }
+
+    private static ConcurrentHashMap<Thread, WorkerStats> workerStats = new ConcurrentHashMap<>();
+    private static AtomicLong typeFlowPropagationNanos = new AtomicLong();
+
+    public static void registerTypeFlowBatch(BigBang bb, int flowCount, long nanos) {
+        if (!bb.reportAnalysisStatistics()) {
+            return;
+        }
+
+        WorkerStats stats = workerStats.computeIfAbsent(Thread.currentThread(), WorkerStats::new);
+        stats.tasks.incrementAndGet();
+        stats.flowUpdates.addAndGet(flowCount);
+        stats.busyNanos.addAndGet(nanos);
+    }
+
+    public static void registerTypeFlowPropagationTime(BigBang bb, long nanos) {
+        if (!bb.reportAnalysisStatistics()) {
+            return;
+        }
+
+        typeFlowPropagationNanos.addAndGet(nanos);
+    }
+
+    private static void reportWorkerStats(BufferedWriter out) {
+        long wallNanos = typeFlowPropagationNanos.get();
+        doWrite(out, String.format("%-35s\t%-10s\n", "Type flow propagation wall time (ms)", wallNanos / 1_000_000));
+        doWrite(out, String.format("%-35s\t%-10s\t%-10s\t%-10s\t%-10s\t%-10s\n",
+                        "Worker", "Tasks", "FlowUpdates", "AvgBatch", "Busy (ms)", "Utilization"));
+
+        workerStats.values().stream().sorted(Comparator.comparing(w -> w.name)).forEach(w -> {
+            long tasks = w.tasks.get();
+            long updates = w.flowUpdates.get();
+            long busy = w.busyNanos.get();
+            doWrite(out, String.format("%-35s\t%-10d\t%-10d\t%-10.2f\t%-10d\t%-10.2f\n",
+                            w.name, tasks, updates, tasks == 0 ? 0.0 : (double) updates / tasks,
+                            busy / 1_000_000, wallNanos == 0 ? 0.0 : (double) busy / wallNanos));
+        });
+    }
+
     static final Comparator<Long> longComparator = Comparator.naturalOrder();
 
     private static void reportTypeFlowStats(BufferedWriter out) {
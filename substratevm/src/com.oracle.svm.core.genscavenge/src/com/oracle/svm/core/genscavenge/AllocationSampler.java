@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.graalvm.nativeimage.Feature;
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.AlwaysInline;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.NeverInline;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.code.CodeInfoQueryResult;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.code.FrameInfoQueryResult;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.locks.VMMutex;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
+import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.stack.StackFrameVisitor;
+import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
+import com.oracle.svm.core.threadlocal.FastThreadLocalWord;
+
+/**
+ * A sampling allocation profiler driven by the slow path of {@link ThreadLocalAllocation}.
+ *
+ * Every thread counts the bytes its allocation slow path hands out, i.e., the size of every new
+ * aligned chunk the TLAB is refilled with, and the size of every large array, which gets an
+ * unaligned chunk of its own. The bytes of a refilled chunk are charged to the allocation that
+ * caused the refill, as they stand for the allocations that the fast path makes in the chunk. Once
+ * {@link HeapPolicyOptions#AllocationSamplingInterval} bytes have been accumulated, the allocating
+ * stack is walked and the instruction pointers of the innermost frames are recorded together with
+ * the accumulated bytes. The type of the object that caused the refill only serves as a label of
+ * the sample. Allocation sites are therefore sampled in proportion to all the bytes they allocate,
+ * not just the bytes of the objects that happen to need a refill. Samples are aggregated per
+ * allocation site in a fixed-size {@link SiteTable} that is allocated when the isolate starts, so
+ * that taking a sample never allocates. At exit, the table is written to
+ * {@link HeapPolicyOptions#AllocationSamplingFile}.
+ *
+ * The file is a sequence of big-endian values as written by {@link DataOutputStream}:
+ *
+ * <pre>
+ * magic "SVMALLOC", int version, long samplingInterval, int siteCount, long droppedSamples,
+ * siteCount times:
+ *     UTF typeName, long samples, long sampledBytes, int frameCount,
+ *     frameCount times: UTF frame
+ * </pre>
+ */
+public final class AllocationSampler {
+
+    static final int FORMAT_VERSION = 1;
+    static final int MAX_FRAMES = 8;
+
+    /** Bytes allocated on the slow path since the last sample, per thread. */
+    private static final FastThreadLocalWord<UnsignedWord> bytesSinceSample = FastThreadLocalFactory.createWord();
+
+    private static final VMMutex mutex = new VMMutex();
+
+    private static final SampleVisitor sampleVisitor = new SampleVisitor();
+
+    /** The sampling interval in bytes, 0 if sampling is disabled. */
+    private static long interval;
+
+    private static SiteTable sites;
+
+    private AllocationSampler() {
+    }
+
+    static void startup() {
+        long value = HeapPolicyOptions.AllocationSamplingInterval.getValue();
+        if (value <= 0) {
+            return;
+        }
+        sites = new SiteTable(HeapPolicyOptions.AllocationSamplingMaxSites.getValue());
+        interval = value;
+    }
+
+    /**
+     * Called from the allocation slow paths after allocation has finished and the collector
+     * epilogue has run, i.e., when it is safe to walk the stack. Inlined so that the stack walk in
+     * {@link #takeSample} starts at the frame of the slow path.
+     *
+     * @param allocatedBytes the size of the chunk the slow path handed out
+     */
+    @AlwaysInline("Keep the number of frames between the slow path and the stack walk fixed.")
+    static void afterSlowPathAllocation(DynamicHub hub, UnsignedWord allocatedBytes) {
+        if (interval == 0) {
+            return;
+        }
+        UnsignedWord total = bytesSinceSample.get().add(allocatedBytes);
+        if (total.belowThan(WordFactory.unsigned(interval))) {
+            bytesSinceSample.set(total);
+            return;
+        }
+        bytesSinceSample.set(WordFactory.zero());
+        takeSample(hub, total.rawValue());
+    }
+
+    @NeverInline("Starts the stack walk at the caller, the allocation slow path.")
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Taking a sample must not allocate, it is called from the allocation slow path.")
+    private static void takeSample(DynamicHub hub, long bytes) {
+        try (VMMutex ignored = mutex.lock()) {
+            SampleVisitor visitor = sampleVisitor;
+            visitor.reset();
+            JavaStackWalker.walkCurrentThread(KnownIntrinsics.readCallerStackPointer(), KnownIntrinsics.readReturnAddress(), visitor);
+            sites.record(hub, hub.getTypeID(), visitor.frames, visitor.count, bytes);
+        }
+    }
+
+    /**
+     * Aggregates samples per allocation site, i.e., per allocated type and innermost
+     * {@link #MAX_FRAMES} frames, in an open addressing hash table of fixed size. Samples of new
+     * sites that no longer fit into the table are counted as dropped.
+     */
+    static final class SiteTable {
+        final int capacity;
+        final Object[] types;
+        final long[] frames;
+        final long[] samples;
+        final long[] bytes;
+        int count;
+        long droppedSamples;
+
+        SiteTable(int maxSites) {
+            capacity = Integer.highestOneBit(Math.max(16, maxSites) * 2 - 1);
+            types = new Object[capacity];
+            frames = new long[capacity * MAX_FRAMES];
+            samples = new long[capacity];
+            bytes = new long[capacity];
+        }
+
+        /**
+         * Records a sample of {@code sampleBytes} allocated bytes of {@code type}.
+         *
+         * @param typeHash a hash code of {@code type} that is stable across samples
+         * @param sampleFrames the instruction pointers of the innermost frames, padded with 0
+         */
+        void record(Object type, int typeHash, long[] sampleFrames, int frameCount, long sampleBytes) {
+            int hash = typeHash;
+            for (int i = 0; i < frameCount; i++) {
+                hash = hash * 31 + Long.hashCode(sampleFrames[i]);
+            }
+            int mask = capacity - 1;
+            for (int probe = 0; probe < capacity; probe++) {
+                int index = (hash + probe) & mask;
+                if (types[index] == null) {
+                    if (count * 4 >= capacity * 3) {
+                        /* Keep the table sparse enough for short probe sequences. */
+                        break;
+                    }
+                    types[index] = type;
+                    System.arraycopy(sampleFrames, 0, frames, index * MAX_FRAMES, MAX_FRAMES);
+                    samples[index] = 1;
+                    bytes[index] = sampleBytes;
+                    count++;
+                    return;
+                }
+                if (types[index] == type && sameFrames(index, sampleFrames)) {
+                    samples[index]++;
+                    bytes[index] += sampleBytes;
+                    return;
+                }
+            }
+            droppedSamples++;
+        }
+
+        private boolean sameFrames(int index, long[] sampleFrames) {
+            int offset = index * MAX_FRAMES;
+            for (int i = 0; i < MAX_FRAMES; i++) {
+                if (frames[offset + i] != sampleFrames[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static void shutdown() {
+        if (interval == 0) {
+            return;
+        }
+        String fileName = HeapPolicyOptions.AllocationSamplingFile.getValue();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            try (VMMutex ignored = mutex.lock()) {
+                write(out);
+            }
+        } catch (IOException ex) {
+            Log.log().string("[AllocationSampler: could not write ").string(fileName).string(": ").string(ex.getMessage()).string("]").newline();
+        }
+    }
+
+    private static void write(DataOutputStream out) throws IOException {
+        SiteTable table = sites;
+        out.writeBytes("SVMALLOC");
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(interval);
+        out.writeInt(table.count);
+        out.writeLong(table.droppedSamples);
+        for (int index = 0; index < table.capacity; index++) {
+            DynamicHub hub = (DynamicHub) table.types[index];
+            if (hub == null) {
+                continue;
+            }
+            out.writeUTF(hub.getName());
+            out.writeLong(table.samples[index]);
+            out.writeLong(table.bytes[index]);
+
+            int frameCount = 0;
+            for (int i = 0; i < MAX_FRAMES; i++) {
+                frameCount += describeFrame(table.frames[index * MAX_FRAMES + i], null);
+            }
+            out.writeInt(frameCount);
+            for (int i = 0; i < MAX_FRAMES; i++) {
+                describeFrame(table.frames[index * MAX_FRAMES + i], out);
+            }
+        }
+    }
+
+    /**
+     * Writes the (possibly inlined) source frames at the given instruction pointer, or only counts
+     * them if {@code out} is null. Code that was compiled at run time and has been invalidated in
+     * the meantime can no longer be resolved and is reported as a single unknown frame.
+     */
+    private static int describeFrame(long ip, DataOutputStream out) throws IOException {
+        if (ip == 0) {
+            return 0;
+        }
+        CodeInfoQueryResult codeInfo = CodeInfoTable.lookupCodeInfoQueryResult(WordFactory.pointer(ip));
+        if (codeInfo == null || codeInfo.getFrameInfo() == null) {
+            if (out != null) {
+                out.writeUTF("<unknown 0x" + Long.toHexString(ip) + ">");
+            }
+            return 1;
+        }
+        int count = 0;
+        for (FrameInfoQueryResult frameInfo = codeInfo.getFrameInfo(); frameInfo != null; frameInfo = frameInfo.getCaller()) {
+            if (out != null) {
+                out.writeUTF(String.valueOf(frameInfo.getSourceReference()));
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Collects the instruction pointers of the innermost Java frames, skipping the frame of the
+     * allocation slow path itself. Deoptimized frames are recorded as unknown.
+     */
+    private static final class SampleVisitor implements StackFrameVisitor {
+        final long[] frames = new long[MAX_FRAMES];
+        int count;
+        boolean skippedSlowPath;
+
+        void reset() {
+            for (int i = 0; i < MAX_FRAMES; i++) {
+                frames[i] = 0;
+            }
+            count = 0;
+            skippedSlowPath = false;
+        }
+
+        @Override
+        public boolean visitFrame(Pointer sp, CodePointer ip, DeoptimizedFrame deoptimizedFrame) {
+            if (!skippedSlowPath) {
+                skippedSlowPath = true;
+                return true;
+            }
+            frames[count] = deoptimizedFrame != null ? 0 : ip.rawValue();
+            count++;
+            return count < MAX_FRAMES;
+        }
+    }
+}
+
+@AutomaticFeature
+class AllocationSamplerFeature implements Feature {
+
+    @Override
+    public void duringSetup(DuringSetupAccess access) {
+        RuntimeSupport.getRuntimeSupport().addStartupHook(AllocationSampler::startup);
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(AllocationSampler::shutdown);
+    }
+}
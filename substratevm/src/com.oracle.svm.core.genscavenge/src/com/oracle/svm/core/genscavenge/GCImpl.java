@@ -311,6 +311,9 @@ public class GCImpl implements GC {
         }
 
         getAccounting().afterCollection(completeCollection, collectionTimer);
+        if (!completeCollection) {
+            HeapPolicy.adjustYoungGenerationSizeForPauseTime(collectionTimer.getLastIntervalNanos());
+        }
 
         trace.string("  Verify after: ");
         try (Timer vat = verifyAfterTimer.open()) {
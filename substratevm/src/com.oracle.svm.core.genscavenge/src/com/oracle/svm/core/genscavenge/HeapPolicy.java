@@ -37,6 +37,8 @@ import com.oracle.svm.core.heap.PhysicalMemory;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.option.XOptions;
 import com.oracle.svm.core.util.AtomicUnsigned;
+import com.oracle.svm.core.util.TimeUtils;
+import com.oracle.svm.core.util.UnsignedUtils;
 import com.oracle.svm.core.util.UserError;
 
 /**
@@ -195,6 +197,49 @@ public class HeapPolicy {
         return result;
     }
 
+    /* The young generation can not shrink below this many aligned chunks. */
+    private static final int MINIMUM_YOUNG_GENERATION_CHUNKS = 4;
+    /* The young generation grows by 1/8th of its size if pauses are well below the target. */
+    private static final int YOUNG_GENERATION_GROWTH_DIVISOR = 8;
+
+    /** The young generation size before any adjustment for the pause time target. */
+    private static UnsignedWord unadjustedYoungGenerationSize;
+
+    /**
+     * Resize the young generation after an incremental collection that took {@code pauseNanos} so
+     * that the pause times of incremental collections approach
+     * {@link HeapPolicyOptions#MaximumYoungPauseMillis}.
+     *
+     * The time of an incremental collection is dominated by copying the survivors, and the amount
+     * of survivors grows with the amount of allocation between collections. So if the pause was
+     * longer than the target, the young generation is shrunk proportionally. If the pause was well
+     * below the target, the young generation is grown slowly, but never beyond the size it had
+     * before any adjustment.
+     */
+    static void adjustYoungGenerationSizeForPauseTime(long pauseNanos) {
+        final long targetMillis = HeapPolicyOptions.MaximumYoungPauseMillis.getValue();
+        if (targetMillis <= 0L || pauseNanos <= 0L) {
+            return;
+        }
+        final Log trace = Log.noopLog().string("[HeapPolicy.adjustYoungGenerationSizeForPauseTime:");
+        if (unadjustedYoungGenerationSize.equal(WordFactory.zero())) {
+            unadjustedYoungGenerationSize = getMaximumYoungGenerationSize();
+        }
+        final long targetNanos = TimeUtils.millisToNanos(targetMillis);
+        final UnsignedWord current = getMaximumYoungGenerationSize();
+        UnsignedWord next = current;
+        if (pauseNanos > targetNanos) {
+            next = WordFactory.unsigned((long) (current.rawValue() * ((double) targetNanos / pauseNanos)));
+        } else if (pauseNanos < targetNanos / 2) {
+            next = current.add(current.unsignedDivide(YOUNG_GENERATION_GROWTH_DIVISOR));
+        }
+        final UnsignedWord minimum = getAlignedHeapChunkSize().multiply(MINIMUM_YOUNG_GENERATION_CHUNKS);
+        next = UnsignedUtils.max(minimum, UnsignedUtils.min(next, unadjustedYoungGenerationSize));
+        setMaximumYoungGenerationSize(next);
+        trace.string("  pauseNanos: ").signed(pauseNanos).string("  targetNanos: ").signed(targetNanos)
+                        .string("  old: ").unsigned(current).string("  new: ").unsigned(next).string("]").newline();
+    }
+
     /** The maximum size of the heap as an UnsignedWord. */
     public static UnsignedWord getMaximumHeapSize() {
         final Log trace = Log.noopLog().string("[HeapPolicy.getMaximumHeapSize:");
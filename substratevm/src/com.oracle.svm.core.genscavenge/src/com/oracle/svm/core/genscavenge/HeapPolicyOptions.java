@@ -37,6 +37,10 @@ public class HeapPolicyOptions {
     @Option(help = "The maximum heap size as percent of physical memory") //
     public static final RuntimeOptionKey<Integer> MaximumHeapSizePercent = new RuntimeOptionKey<>(80);
 
+    @Option(help = "Target for the maximum pause time of young generation collections in milliseconds. " +
+                    "If positive, the young generation is resized after every young generation collection to approach this target. 0 disables the resizing.") //
+    public static final RuntimeOptionKey<Long> MaximumYoungPauseMillis = new RuntimeOptionKey<>(0L);
+
     @Option(help = "The size of an aligned chunk.") //
     public static final HostedOptionKey<Long> AlignedHeapChunkSize = new HostedOptionKey<>(1L * 1024L * 1024L);
 
@@ -68,4 +72,15 @@ public class HeapPolicyOptions {
 
     @Option(help = "Defines the upper bound for the number of remaining bytes in the young generation that cause a collection when `System.gc` is called.") //
     public static final RuntimeOptionKey<Long> UserRequestedGCThreshold = new RuntimeOptionKey<>(16L * 1024L * 1024L);
+
+    /* Allocation sampling */
+
+    @Option(help = "Record the allocating stack once every this many bytes of TLAB refills and large arrays. 0 disables allocation sampling.") //
+    public static final RuntimeOptionKey<Long> AllocationSamplingInterval = new RuntimeOptionKey<>(0L);
+
+    @Option(help = "The maximum number of distinct allocation sites recorded by allocation sampling.") //
+    public static final RuntimeOptionKey<Integer> AllocationSamplingMaxSites = new RuntimeOptionKey<>(4096);
+
+    @Option(help = "The file the allocation sampling histogram is written to when the process exits.") //
+    public static final RuntimeOptionKey<String> AllocationSamplingFile = new RuntimeOptionKey<>("allocation-samples.bin");
 }
@@ -139,6 +139,8 @@ public final class ThreadLocalAllocation {
         final Object result = slowPathNewInstanceWithoutAllocating(hub);
         /* Allow the collector to do stuff now that allocation, etc., is allowed. */
         HeapImpl.getHeapImpl().getGCImpl().possibleCollectionEpilogue(gcEpoch);
+        /* Account the refilled chunk for allocation sampling. */
+        AllocationSampler.afterSlowPathAllocation(hub, getRefilledBytes(LayoutEncoding.getInstanceSize(hub.getLayoutEncoding())));
         return result;
     }
 
@@ -206,9 +208,23 @@ public final class ThreadLocalAllocation {
         final Object result = slowPathNewArrayWithoutAllocating(hub, length);
         /* Allow the collector to do stuff now that allocation, etc., is allowed. */
         HeapImpl.getHeapImpl().getGCImpl().possibleCollectionEpilogue(gcEpoch);
+        /* Account the refilled or unaligned chunk for allocation sampling. */
+        AllocationSampler.afterSlowPathAllocation(hub, getRefilledBytes(LayoutEncoding.getArraySize(hub.getLayoutEncoding(), length)));
         return result;
     }
 
+    /**
+     * The bytes the slow path hands out for an object of the given size: an unaligned chunk of its
+     * own for a large array, otherwise a new aligned chunk for the TLAB, which subsequent fast-path
+     * allocations fill up.
+     */
+    private static UnsignedWord getRefilledBytes(UnsignedWord objectSize) {
+        if (objectSize.aboveOrEqual(HeapPolicy.getLargeArrayThreshold())) {
+            return objectSize;
+        }
+        return HeapPolicy.getAlignedHeapChunkSize().subtract(AlignedHeapChunk.getObjectsStartOffset());
+    }
+
     @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocation in the implementation of allocation.")
     private static Object slowPathNewArrayWithoutAllocating(DynamicHub hub, int length) {
         ThreadLocalAllocation.Descriptor tlab = ThreadLocalAllocation.regularTLAB.getAddress();
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.oracle.svm.core.genscavenge.AllocationSampler.SiteTable;
+
+/**
+ * Tests the per-site accounting of {@link AllocationSampler}, which must sum up the bytes charged
+ * to the samples of a site.
+ */
+public class AllocationSamplerTest {
+
+    private static long[] frames(long... instructionPointers) {
+        long[] result = new long[AllocationSampler.MAX_FRAMES];
+        System.arraycopy(instructionPointers, 0, result, 0, instructionPointers.length);
+        return result;
+    }
+
+    private static int indexOf(SiteTable table, Object type, long[] sampleFrames) {
+        int found = -1;
+        for (int index = 0; index < table.capacity; index++) {
+            if (table.types[index] != type) {
+                continue;
+            }
+            boolean same = true;
+            for (int i = 0; i < AllocationSampler.MAX_FRAMES; i++) {
+                same &= table.frames[index * AllocationSampler.MAX_FRAMES + i] == sampleFrames[i];
+            }
+            if (same) {
+                assertEquals("site recorded twice", -1, found);
+                found = index;
+            }
+        }
+        return found;
+    }
+
+    private static void record(SiteTable table, Object type, long[] sampleFrames, long bytes) {
+        table.record(type, type.hashCode(), sampleFrames, AllocationSampler.MAX_FRAMES, bytes);
+    }
+
+    @Test
+    public void sumsChargedBytesPerSite() {
+        SiteTable table = new SiteTable(16);
+        long[] site = frames(0x1000, 0x2000);
+        record(table, String.class, site, 24);
+        record(table, String.class, site, 24);
+        record(table, String.class, site, 40);
+
+        int index = indexOf(table, String.class, site);
+        assertEquals(1, table.count);
+        assertEquals(3, table.samples[index]);
+        assertEquals(88, table.bytes[index]);
+        assertEquals(0, table.droppedSamples);
+    }
+
+    @Test
+    public void separatesTypesAndFrames() {
+        SiteTable table = new SiteTable(16);
+        long[] site = frames(0x1000, 0x2000);
+        long[] otherSite = frames(0x1000, 0x3000);
+        record(table, String.class, site, 24);
+        record(table, Integer.class, site, 16);
+        record(table, String.class, otherSite, 1 << 20);
+
+        assertEquals(3, table.count);
+        assertEquals(24, table.bytes[indexOf(table, String.class, site)]);
+        assertEquals(16, table.bytes[indexOf(table, Integer.class, site)]);
+        assertEquals(1 << 20, table.bytes[indexOf(table, String.class, otherSite)]);
+    }
+
+    @Test
+    public void dropsSamplesOfNewSitesWhenFull() {
+        SiteTable table = new SiteTable(16);
+        int maxCount = table.capacity * 3 / 4;
+        for (int i = 0; i < maxCount; i++) {
+            record(table, String.class, frames(i + 1), 8);
+        }
+        assertEquals(maxCount, table.count);
+
+        record(table, String.class, frames(maxCount + 1), 8);
+        assertEquals(maxCount, table.count);
+        assertEquals(1, table.droppedSamples);
+
+        /* Known sites are still accounted. */
+        record(table, String.class, frames(1), 32);
+        assertEquals(40, table.bytes[indexOf(table, String.class, frames(1))]);
+        assertEquals(1, table.droppedSamples);
+    }
+}
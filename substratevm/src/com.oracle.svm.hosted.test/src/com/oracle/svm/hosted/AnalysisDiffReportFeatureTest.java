@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnalysisDiffReportFeatureTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("analysis-diff");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static Map<String, String> fingerprints(String... methodsAndFingerprints) {
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < methodsAndFingerprints.length; i += 2) {
+            result.put(methodsAndFingerprints[i], methodsAndFingerprints[i + 1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testManifestRoundTrip() throws IOException {
+        Path manifest = directory.resolve("image.fingerprints");
+        Assert.assertNull(AnalysisDiffReportFeature.readManifest(manifest));
+        Map<String, String> fingerprints = fingerprints("Foo.bar(int)void", "00ff", "Foo.baz(java.lang.String, int)java.lang.Object", "1234");
+        AnalysisDiffReportFeature.writeManifest(manifest, fingerprints);
+        Assert.assertEquals(fingerprints, AnalysisDiffReportFeature.readManifest(manifest));
+    }
+
+    @Test
+    public void testIncompatibleManifestIgnored() throws IOException {
+        Path manifest = directory.resolve("image.fingerprints");
+        Files.write(manifest, Arrays.asList("# native-image method fingerprints v1", "00ff Foo.bar(int)void"), StandardCharsets.UTF_8);
+        Assert.assertNull(AnalysisDiffReportFeature.readManifest(manifest));
+    }
+
+    @Test
+    public void testDiff() {
+        Map<String, String> previous = fingerprints("A.a()void", "1", "B.b()void", "2", "C.c()void", "3");
+        Map<String, String> current = fingerprints("A.a()void", "1", "B.b()void", "9", "D.d()void", "4");
+        AnalysisDiffReportFeature.Diff diff = new AnalysisDiffReportFeature.Diff(previous, current);
+        Assert.assertEquals(1, diff.unchanged);
+        Assert.assertEquals(Collections.singletonList("B.b()void"), diff.changed);
+        Assert.assertEquals(Collections.singletonList("D.d()void"), diff.added);
+        Assert.assertEquals(Collections.singletonList("C.c()void"), diff.removed);
+
+        StringWriter report = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(report)) {
+            diff.print(writer);
+        }
+        String text = report.toString();
+        Assert.assertTrue(text, text.startsWith("1 methods unchanged, 1 changed, 1 new, 1 removed since the previous build"));
+        Assert.assertTrue(text, text.contains("Changed:" + System.lineSeparator() + "  B.b()void"));
+        Assert.assertTrue(text, text.contains("New:" + System.lineSeparator() + "  D.d()void"));
+        Assert.assertTrue(text, text.contains("Removed:" + System.lineSeparator() + "  C.c()void"));
+    }
+
+    @Test
+    public void testNoChanges() {
+        Map<String, String> fingerprints = fingerprints("A.a()void", "1", "B.b()void", "2");
+        AnalysisDiffReportFeature.Diff diff = new AnalysisDiffReportFeature.Diff(fingerprints, new HashMap<>(fingerprints));
+        Assert.assertEquals(2, diff.unchanged);
+        Assert.assertTrue(diff.changed.isEmpty());
+        Assert.assertTrue(diff.added.isEmpty());
+        Assert.assertTrue(diff.removed.isEmpty());
+    }
+}
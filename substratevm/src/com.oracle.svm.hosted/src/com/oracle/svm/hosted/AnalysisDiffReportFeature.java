@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.graalvm.compiler.bytecode.BytecodeDisassembler;
+import org.graalvm.nativeimage.Feature;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.flow.InstanceOfTypeFlow;
+import com.oracle.graal.pointsto.flow.InvokeTypeFlow;
+import com.oracle.graal.pointsto.flow.MethodFlowsGraph;
+import com.oracle.graal.pointsto.flow.MethodTypeFlow;
+import com.oracle.graal.pointsto.flow.TypeFlow;
+import com.oracle.graal.pointsto.flow.context.BytecodeLocation;
+import com.oracle.graal.pointsto.meta.AnalysisMethod;
+import com.oracle.graal.pointsto.meta.AnalysisType;
+import com.oracle.graal.pointsto.reports.ReportUtils;
+import com.oracle.graal.pointsto.typestate.TypeState;
+import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.core.util.VMError;
+
+import jdk.vm.ci.meta.ExceptionHandler;
+
+/**
+ * Keeps a fingerprint of every method that the static analysis found to be invoked in
+ * {@link NativeImageOptions#AnalysisDiffReportDirectory}, and reports which methods changed since
+ * the previous image build. Nothing of the previous build is reused.
+ *
+ * The fingerprint of a method only covers the method itself: its bytecode including the resolved
+ * constant pool entries it references, its exception handlers, and the static analysis results of
+ * the method that are turned into profiles for the compiler, i.e., the type states of the
+ * parameters, of the return value, of every instanceof and of the receiver and return value of
+ * every invoke, as well as the set of possible callees of every invoke. It does not cover the code
+ * of callees that get inlined, nor image heap values such as static final fields that are folded
+ * into the compiled code. The report therefore lists a subset of the methods whose compiled code
+ * changed, not all methods an incremental build would have to compile again.
+ */
+@AutomaticFeature
+public final class AnalysisDiffReportFeature implements Feature {
+
+    static final String MANIFEST_HEADER = "# native-image method fingerprints v2";
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return !NativeImageOptions.AnalysisDiffReportDirectory.getValue().isEmpty();
+    }
+
+    @Override
+    public void afterAnalysis(AfterAnalysisAccess access) {
+        BigBang bb = ((FeatureImpl.AfterAnalysisAccessImpl) access).getBigBang();
+
+        Map<String, String> fingerprints = new TreeMap<>();
+        for (AnalysisMethod method : bb.getUniverse().getMethods()) {
+            if (method.isImplementationInvoked()) {
+                fingerprints.put(method.format("%H.%n(%P)%R"), fingerprint(bb, method));
+            }
+        }
+
+        String name = NativeImageOptions.Name.getValue();
+        String imageName = name.isEmpty() ? "image" : Paths.get(name).getFileName().toString();
+        Path directory = Paths.get(NativeImageOptions.AnalysisDiffReportDirectory.getValue());
+        Path manifest = directory.resolve(imageName + ".fingerprints");
+        try {
+            Files.createDirectories(directory);
+            Map<String, String> previous = readManifest(manifest);
+            if (previous != null) {
+                Diff diff = new Diff(previous, fingerprints);
+                ReportUtils.report("analysis diff report", SubstrateOptions.Path.getValue() + "/reports", "analysis_diff_" + imageName, "txt", diff::print);
+            }
+            writeManifest(manifest, fingerprints);
+        } catch (IOException e) {
+            throw UserError.abort("Cannot update the method fingerprints in " + directory + ": " + e);
+        }
+    }
+
+    private static String fingerprint(BigBang bb, AnalysisMethod method) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw VMError.shouldNotReachHere(e);
+        }
+        /*
+         * Disassemble the original method so that constant pool entries are resolved without
+         * creating new analysis elements in the already sealed analysis universe.
+         */
+        String code = new BytecodeDisassembler(false).disassemble(method.wrapped);
+        update(digest, code != null ? code : "");
+        for (ExceptionHandler handler : method.wrapped.getExceptionHandlers()) {
+            update(digest, "handler:" + handler.getStartBCI() + "-" + handler.getEndBCI() + "->" + handler.getHandlerBCI() + ":" +
+                            (handler.getCatchType() != null ? handler.getCatchType().toJavaName() : "any"));
+        }
+
+        MethodTypeFlow methodFlow = method.getTypeFlow();
+        MethodFlowsGraph originalFlows = methodFlow.getOriginalMethodFlows();
+        for (int i = 0; i < originalFlows.getParameters().length; i++) {
+            update(digest, "param" + i + ":" + typeNames(methodFlow.foldTypeFlow(bb, originalFlows.getParameter(i))));
+        }
+        update(digest, "return:" + typeNames(methodFlow.foldTypeFlow(bb, originalFlows.getResult())));
+
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<Object, InstanceOfTypeFlow> entry : originalFlows.getInstanceOfFlows()) {
+            if (BytecodeLocation.isValidBci(entry.getKey())) {
+                entries.add("instanceof@" + entry.getKey() + ":" + typeNames(methodFlow.foldTypeFlow(bb, entry.getValue())));
+            }
+        }
+        for (Map.Entry<Object, InvokeTypeFlow> entry : originalFlows.getInvokes()) {
+            if (BytecodeLocation.isValidBci(entry.getKey())) {
+                InvokeTypeFlow invoke = entry.getValue();
+                TreeSet<String> callees = new TreeSet<>();
+                for (AnalysisMethod callee : invoke.getCallees()) {
+                    callees.add(callee.format("%H.%n(%P)%R"));
+                }
+                TypeFlow<?> receiver = invoke.getTargetMethod().hasReceiver() ? invoke.getReceiver() : null;
+                entries.add("invoke@" + entry.getKey() + ":" + invoke.getTargetMethod().format("%H.%n(%P)%R") + "->" + callees +
+                                " receiver:" + typeNames(methodFlow.foldTypeFlow(bb, receiver)) +
+                                " return:" + typeNames(methodFlow.foldTypeFlow(bb, invoke.getActualReturn())));
+            }
+        }
+        entries.sort(null);
+        for (String entry : entries) {
+            update(digest, entry);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    private static String typeNames(TypeState state) {
+        if (state == null) {
+            return "";
+        }
+        TreeSet<String> names = new TreeSet<>();
+        for (AnalysisType type : state.types()) {
+            names.add(type.toJavaName(true));
+        }
+        return (state.canBeNull() ? "null," : "") + names;
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Reads the method fingerprints of the previous build.
+     *
+     * @return {@code null} if there was no previous build or its fingerprints were written in an
+     *         incompatible format
+     */
+    static Map<String, String> readManifest(Path manifest) throws IOException {
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        Map<String, String> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(reader.readLine())) {
+                return null;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    result.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        }
+        return result;
+    }
+
+    static void writeManifest(Path manifest, Map<String, String> fingerprints) throws IOException {
+        Path tmp = Files.createTempFile(manifest.getParent(), manifest.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write(' ');
+                writer.write(entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The differences between the method fingerprints of two builds.
+     */
+    static final class Diff {
+
+        final int unchanged;
+        final List<String> changed = new ArrayList<>();
+        final List<String> added = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+
+        Diff(Map<String, String> previous, Map<String, String> current) {
+            int unchangedCount = 0;
+            for (Map.Entry<String, String> entry : new TreeMap<>(current).entrySet()) {
+                String previousFingerprint = previous.get(entry.getKey());
+                if (previousFingerprint == null) {
+                    added.add(entry.getKey());
+                } else if (previousFingerprint.equals(entry.getValue())) {
+                    unchangedCount++;
+                } else {
+                    changed.add(entry.getKey());
+                }
+            }
+            unchanged = unchangedCount;
+            for (String method : new TreeSet<>(previous.keySet())) {
+                if (!current.containsKey(method)) {
+                    removed.add(method);
+                }
+            }
+        }
+
+        void print(PrintWriter writer) {
+            writer.println(unchanged + " methods unchanged, " + changed.size() + " changed, " + added.size() + " new, " + removed.size() + " removed since the previous build");
+            writer.println("Only changes to the bytecode and analysis results of a method itself are detected. Changes that reach a method through inlined callees or folded static final values are not.");
+            print(writer, "Changed", changed);
+            print(writer, "New", added);
+            print(writer, "Removed", removed);
+        }
+
+        private static void print(PrintWriter writer, String title, List<String> methods) {
+            if (!methods.isEmpty()) {
+                writer.println();
+                writer.println(title + ":");
+                for (String method : methods) {
+                    writer.println("  " + method);
+                }
+            }
+        }
+    }
+}
@@ -91,6 +91,9 @@ public class NativeImageOptions {
     @Option(help = "Print the sizes of the native image heap as the image is built")//
     public static final HostedOptionKey<Boolean> PrintImageHeapPartitionSizes = new HostedOptionKey<>(false);
 
+    @Option(help = "Directory in which method fingerprints of the analysis result are kept between image builds. Methods whose own bytecode or analysis results changed since the previous build are listed in a report.")//
+    public static final HostedOptionKey<String> AnalysisDiffReportDirectory = new HostedOptionKey<>("");
+
     @Option(help = "Compiles all methods as deoptimization targets for testing")//
     public static final HostedOptionKey<Boolean> DeoptimizeAll = new HostedOptionKey<>(false);
 
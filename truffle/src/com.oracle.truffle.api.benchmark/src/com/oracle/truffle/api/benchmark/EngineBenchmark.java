@@ -198,6 +198,43 @@ public class EngineBenchmark extends TruffleBenchmark {
         state.context1.leave();
     }
 
+    /*
+     * A context shared by all benchmark threads. Every execute enters and leaves the context, which
+     * takes the multi-threaded enter path as soon as more than one thread has used it.
+     */
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class ContextEnterLeaveMultiThread {
+        final Source source = Source.create(TEST_LANGUAGE, CONTEXT_LOOKUP_SOURCE);
+        final Context context = Context.create(TEST_LANGUAGE);
+        final Value value = context.eval(source);
+
+        public ContextEnterLeaveMultiThread() {
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void enterLeaveThreads1(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enterLeaveThreads4(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void enterLeaveThreads32(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
     @State(org.openjdk.jmh.annotations.Scope.Thread)
     public static class ContextState {
         final Source source = Source.create(TEST_LANGUAGE, "");
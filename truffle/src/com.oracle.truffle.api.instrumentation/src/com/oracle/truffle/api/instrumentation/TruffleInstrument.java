@@ -315,6 +315,18 @@ public abstract class TruffleInstrument {
             return AccessorInstrumentHandler.engineAccess().getInstruments(vmObject);
         }
 
+        /**
+         * Returns a snapshot of the counters of the caches of parsed sources of all languages in
+         * the environment. The map contains the number of cache {@code "hits"}, {@code "misses"}
+         * and {@code "evictions"}. Evictions only happen if the cache size is limited with the
+         * {@code engine.SourceCacheSize} or {@code engine.SourceCacheBudget} options.
+         *
+         * @since 1.0
+         */
+        public Map<String, Long> getSourceCacheStatistics() {
+            return AccessorInstrumentHandler.engineAccess().getSourceCacheStatistics(vmObject);
+        }
+
         Object[] onCreate(TruffleInstrument instrument) {
             List<Object> arr = new ArrayList<>();
             services = arr;
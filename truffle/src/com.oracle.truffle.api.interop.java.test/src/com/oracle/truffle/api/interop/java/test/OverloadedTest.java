@@ -216,6 +216,28 @@ public class OverloadedTest extends ProxyLanguageEnvTest {
         assertEquals("int", num.parameter);
     }
 
+    @Test
+    public void testMegamorphicOverloadSelection() throws InteropException {
+        Node n = Message.INVOKE.createNode();
+        Num num = new Num();
+        TruffleObject numobj = asTruffleObject(num);
+        // more argument types than the call site caches, repeated to select from the shared cache
+        for (int i = 0; i < 3; i++) {
+            ForeignAccess.sendInvoke(n, numobj, "d", (byte) 42);
+            assertEquals("int", num.parameter);
+            ForeignAccess.sendInvoke(n, numobj, "d", 42.1f);
+            assertEquals("double", num.parameter);
+            ForeignAccess.sendInvoke(n, numobj, "d", (short) 42);
+            assertEquals("int", num.parameter);
+            ForeignAccess.sendInvoke(n, numobj, "d", 0x8000_0000L);
+            assertEquals("double", num.parameter);
+            ForeignAccess.sendInvoke(n, numobj, "d", 42L);
+            assertEquals("int", num.parameter);
+            ForeignAccess.sendInvoke(n, numobj, "d", 42.1d);
+            assertEquals("double", num.parameter);
+        }
+    }
+
     @Test
     public void testNarrowing() throws InteropException {
         Node n = Message.INVOKE.createNode();
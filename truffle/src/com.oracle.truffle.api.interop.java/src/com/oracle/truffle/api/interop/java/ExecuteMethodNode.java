@@ -185,7 +185,7 @@ abstract class ExecuteMethodNode extends Node {
     Object doOverloadedUncached(OverloadedMethodDesc method, Object obj, Object[] args, Object languageContext,
                     @Cached("create()") ToJavaNode toJavaNode,
                     @Cached("createBinaryProfile()") ConditionProfile isVarArgsProfile) {
-        SingleMethodDesc overload = selectOverload(method, args, languageContext);
+        SingleMethodDesc overload = selectOverloadCached(method, args, languageContext, toJavaNode);
         Object[] convertedArguments = prepareArgumentsUncached(overload, args, languageContext, toJavaNode, isVarArgsProfile);
         return doInvoke(overload, obj, convertedArguments, languageContext);
     }
@@ -366,6 +366,23 @@ abstract class ExecuteMethodNode extends Node {
         }
     }
 
+    /**
+     * Selects the overload using the argument types cached in the method, which are shared between
+     * all call sites. Avoids repeated overload resolution in megamorphic call sites.
+     */
+    @TruffleBoundary
+    static SingleMethodDesc selectOverloadCached(OverloadedMethodDesc method, Object[] args, Object languageContext, ToJavaNode toJavaNode) {
+        boolean hasLanguageContext = languageContext != null;
+        SingleMethodDesc overload = method.lookupOverload(args, hasLanguageContext, toJavaNode);
+        if (overload == null) {
+            Type[] argTypes = createArgTypesArray(args);
+            overload = selectOverload(method, args, languageContext, argTypes);
+            method.cacheOverload(argTypes, hasLanguageContext, overload);
+        }
+        assert overload == selectOverload(method, args, languageContext);
+        return overload;
+    }
+
     @TruffleBoundary
     static SingleMethodDesc selectOverload(OverloadedMethodDesc method, Object[] args, Object languageContext) {
         return selectOverload(method, args, languageContext, null);
@@ -24,10 +24,21 @@
  */
 package com.oracle.truffle.api.interop.java;
 
+import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 class OverloadedMethodDesc implements JavaMethodDesc {
+    private static final int OVERLOAD_CACHE_LIMIT = 8;
+    private static final OverloadCacheEntry[] EMPTY_OVERLOAD_CACHE = new OverloadCacheEntry[0];
+
     private final SingleMethodDesc[] overloads;
+    /*
+     * Overloads selected for previously seen argument types, shared by all call sites of this
+     * method. Consulted by call sites whose inline cache of argument types overflowed. Updated
+     * copy-on-write so that lookups do not need to synchronize.
+     */
+    private volatile OverloadCacheEntry[] overloadCache = EMPTY_OVERLOAD_CACHE;
 
     OverloadedMethodDesc(SingleMethodDesc[] overloads) {
         this.overloads = overloads;
@@ -52,6 +63,30 @@ class OverloadedMethodDesc implements JavaMethodDesc {
         return getOverloads()[0].isConstructor();
     }
 
+    SingleMethodDesc lookupOverload(Object[] args, boolean hasLanguageContext, ToJavaNode toJavaNode) {
+        for (OverloadCacheEntry entry : overloadCache) {
+            if (entry.hasLanguageContext == hasLanguageContext && ExecuteMethodNode.checkArgTypes(args, entry.argTypes, toJavaNode, false)) {
+                return entry.overload;
+            }
+        }
+        return null;
+    }
+
+    void cacheOverload(Type[] argTypes, boolean hasLanguageContext, SingleMethodDesc overload) {
+        synchronized (this) {
+            OverloadCacheEntry[] cache = overloadCache;
+            OverloadCacheEntry[] newCache;
+            if (cache.length < OVERLOAD_CACHE_LIMIT) {
+                newCache = Arrays.copyOf(cache, cache.length + 1);
+            } else {
+                // evict the oldest entry
+                newCache = Arrays.copyOfRange(cache, 1, cache.length + 1);
+            }
+            newCache[newCache.length - 1] = new OverloadCacheEntry(argTypes, hasLanguageContext, overload);
+            overloadCache = newCache;
+        }
+    }
+
     @Override
     public String toString() {
         StringJoiner sj = new StringJoiner(", ", "Method[", "]");
@@ -70,4 +105,16 @@ class OverloadedMethodDesc implements JavaMethodDesc {
         }
         return true;
     }
+
+    private static final class OverloadCacheEntry {
+        final Type[] argTypes;
+        final boolean hasLanguageContext;
+        final SingleMethodDesc overload;
+
+        OverloadCacheEntry(Type[] argTypes, boolean hasLanguageContext, SingleMethodDesc overload) {
+            this.argTypes = argTypes;
+            this.hasLanguageContext = hasLanguageContext;
+            this.overload = overload;
+        }
+    }
 }
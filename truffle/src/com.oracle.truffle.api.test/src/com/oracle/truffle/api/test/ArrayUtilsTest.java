@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.ArrayUtils;
+
+public class ArrayUtilsTest {
+
+    private static final String STRING = "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    public void testIndexOfString() {
+        assertEquals(0, ArrayUtils.indexOf(STRING, 0, STRING.length(), 'a'));
+        assertEquals(36, ArrayUtils.indexOf(STRING, 1, STRING.length(), 'a'));
+        assertEquals(26, ArrayUtils.indexOf(STRING, 0, STRING.length(), '9', '8', '0'));
+        assertEquals(33, ArrayUtils.indexOf(STRING, 27, STRING.length(), '9', '8', '0', '7'));
+        assertEquals(-1, ArrayUtils.indexOf(STRING, 0, 26, '0', '1', '2', '3', '4'));
+        assertEquals(-1, ArrayUtils.indexOf(STRING, 10, 10, 'k'));
+        assertEquals(-1, ArrayUtils.indexOf(STRING, 0, STRING.length()));
+    }
+
+    @Test
+    public void testIndexOfCharArray() {
+        char[] array = STRING.toCharArray();
+        assertEquals(25, ArrayUtils.indexOf(array, 0, array.length, 'z'));
+        assertEquals(61, ArrayUtils.indexOf(array, 26, array.length, 'z'));
+        assertEquals(3, ArrayUtils.indexOf(array, 0, array.length, 'x', 'y', 'd'));
+        assertEquals(-1, ArrayUtils.indexOf(array, 4, 23, 'x', 'y', 'd'));
+    }
+
+    @Test
+    public void testIndexOfByteArray() {
+        byte[] array = {1, 2, 3, 4, (byte) 0xff, 5, 6, 7};
+        assertEquals(4, ArrayUtils.indexOf(array, 0, array.length, (byte) 0xff));
+        assertEquals(5, ArrayUtils.indexOf(array, 0, array.length, (byte) 5, (byte) 7));
+        assertEquals(-1, ArrayUtils.indexOf(array, 0, 4, (byte) 5, (byte) 7, (byte) 0xff));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOfNegativeFromIndex() {
+        ArrayUtils.indexOf(STRING, -1, STRING.length(), 'a');
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOfMaxIndexOutOfBounds() {
+        ArrayUtils.indexOf(STRING.toCharArray(), 0, STRING.length() + 1, 'a');
+    }
+}
@@ -35,6 +35,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -75,7 +76,7 @@ public class ContextPreInitializationTest {
     private static final AtomicInteger NEXT_ORDER_INDEX = new AtomicInteger();
     private static final String SYS_OPTION1_KEY = "polyglot." + FIRST + ".Option1";
     private static final String SYS_OPTION2_KEY = "polyglot." + FIRST + ".Option2";
-    private static final List<CountingContext> emittedContexts = new ArrayList<>();
+    private static final List<CountingContext> emittedContexts = Collections.synchronizedList(new ArrayList<>());
     private static final Set<String> patchableLanguages = new HashSet<>();
 
     @Before
@@ -221,6 +222,41 @@ public class ContextPreInitializationTest {
         assertEquals(1, context.disposeThreadCount);
     }
 
+    @Test
+    public void testPreInitializedContextPool() throws Exception {
+        setPatchable(FIRST);
+        final Engine engine = Engine.newBuilder().option("engine.PreinitializeContexts", FIRST).option("engine.PreinitializedContextPoolSize", "1").build();
+        // the pool is filled in the background
+        awaitPreInitializedContextPool(engine, 1);
+        List<CountingContext> contexts = new ArrayList<>(emittedContexts);
+        assertEquals(1, contexts.size());
+        final CountingContext firstLangCtx = findContext(FIRST, contexts);
+        assertNotNull(firstLangCtx);
+        assertEquals(1, firstLangCtx.createContextCount);
+        assertEquals(1, firstLangCtx.initializeContextCount);
+        assertEquals(0, firstLangCtx.patchContextCount);
+        assertEquals(0, firstLangCtx.initializeThreadCount);
+        try (Context ctx = Context.newBuilder().engine(engine).build()) {
+            Value res = ctx.eval(Source.create(FIRST, "test"));
+            assertEquals("test", res.asString());
+            assertEquals(1, firstLangCtx.createContextCount);
+            assertEquals(1, firstLangCtx.initializeContextCount);
+            assertEquals(1, firstLangCtx.patchContextCount);
+            assertEquals(1, firstLangCtx.initializeThreadCount);
+        }
+        assertEquals(1, firstLangCtx.disposeContextCount);
+        assertEquals(1, firstLangCtx.disposeThreadCount);
+        engine.close();
+        // the replacement pre-initialized in the background is disposed with the engine
+        contexts = new ArrayList<>(emittedContexts);
+        assertEquals(2, contexts.size());
+        for (CountingContext context : contexts) {
+            assertEquals(1, context.createContextCount);
+            assertEquals(1, context.initializeContextCount);
+            assertEquals(1, context.disposeContextCount);
+        }
+    }
+
     @Test
     public void testSingleLanguagePreInitialization() throws Exception {
         setPatchable(FIRST);
@@ -931,6 +967,25 @@ public class ContextPreInitializationTest {
         preInitMethod.invoke(null);
     }
 
+    private static void awaitPreInitializedContextPool(Engine engine, int size) throws ReflectiveOperationException, InterruptedException {
+        final Field implField = Engine.class.getDeclaredField("impl");
+        implField.setAccessible(true);
+        final Object engineImpl = implField.get(engine);
+        final Field poolField = engineImpl.getClass().getDeclaredField("preInitializedContextPool");
+        poolField.setAccessible(true);
+        final Collection<?> pool = (Collection<?>) poolField.get(engineImpl);
+        final long deadline = System.currentTimeMillis() + 60000;
+        while (true) {
+            synchronized (engineImpl) {
+                if (pool.size() >= size) {
+                    return;
+                }
+            }
+            assertTrue("context pool not filled", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
     private static Collection<? extends CountingContext> findContexts(
                     final String languageId,
                     Collection<? extends CountingContext> contexts) {
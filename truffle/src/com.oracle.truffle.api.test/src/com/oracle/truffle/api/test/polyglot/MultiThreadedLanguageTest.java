@@ -623,6 +623,63 @@ public class MultiThreadedLanguageTest {
         Assert.assertTrue(seenInterrupt.get());
     }
 
+    /*
+     * Threads that were already initialized for a multi-threaded context enter and leave it without
+     * the context lock. Stresses those enters and leaves while the context is closed or cancelled.
+     */
+    @Test
+    public void testConcurrentEnterLeaveCloseCancel() throws Throwable {
+        MultiThreadedLanguage.isThreadAccessAllowed = (req) -> {
+            return true;
+        };
+        int threadCount = 8;
+        for (int iteration = 0; iteration < 10; iteration++) {
+            boolean cancel = iteration % 2 == 0;
+            Context context = Context.create(MultiThreadedLanguage.ID);
+            context.initialize(MultiThreadedLanguage.ID);
+            ExecutorService executor = createExecutor(threadCount);
+            AtomicBoolean stop = new AtomicBoolean();
+            AtomicInteger enters = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        while (!stop.get()) {
+                            context.enter();
+                            try {
+                                eval(context, (env) -> null);
+                                enters.incrementAndGet();
+                            } finally {
+                                context.leave();
+                            }
+                        }
+                    } catch (IllegalStateException | PolyglotException e) {
+                        // closed or cancelled
+                    }
+                }));
+            }
+            while (enters.get() < threadCount * 100 && !futures.stream().allMatch(Future::isDone)) {
+                Thread.yield();
+            }
+            if (cancel) {
+                context.close(true);
+            }
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            if (!cancel) {
+                context.close();
+            }
+            try {
+                context.enter();
+                fail();
+            } catch (IllegalStateException e) {
+            }
+            assertTrue(executor.shutdownNow().isEmpty());
+        }
+    }
+
     /*
      * Test infrastructure code.
      */
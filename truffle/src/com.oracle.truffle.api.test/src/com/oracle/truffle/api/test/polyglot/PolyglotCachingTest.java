@@ -35,6 +35,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -48,6 +49,7 @@ import org.junit.Test;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
 import com.oracle.truffle.api.nodes.RootNode;
 
 /*
@@ -84,6 +86,94 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testSourceCacheSizeLimit() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Context c = Context.newBuilder().option("engine.SourceCacheSize", "2").build();
+        Source source1 = Source.create(ProxyLanguage.ID, "source1");
+        Source source2 = Source.create(ProxyLanguage.ID, "source2");
+        Source source3 = Source.create(ProxyLanguage.ID, "source3");
+        c.eval(source1);
+        c.eval(source2);
+        assertEquals(2, parseCalled.get());
+        c.eval(source1);
+        assertEquals(2, parseCalled.get());
+
+        // evicts source2, the least recently used source
+        c.eval(source3);
+        assertEquals(3, parseCalled.get());
+        c.eval(source1);
+        c.eval(source3);
+        assertEquals(3, parseCalled.get());
+        c.eval(source2);
+        assertEquals(4, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testSourceCacheBudget() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        // only one of the sources with 7 characters fits
+        Context c = Context.newBuilder().option("engine.SourceCacheBudget", "10").build();
+        Source source1 = Source.create(ProxyLanguage.ID, "source1");
+        Source source2 = Source.create(ProxyLanguage.ID, "source2");
+        Source largeSource = Source.create(ProxyLanguage.ID, "a source that exceeds the budget");
+        c.eval(source1);
+        c.eval(source1);
+        assertEquals(1, parseCalled.get());
+        c.eval(source2);
+        c.eval(source1);
+        assertEquals(3, parseCalled.get());
+
+        // too large to be cached at all, does not evict source1
+        c.eval(largeSource);
+        c.eval(largeSource);
+        c.eval(source1);
+        assertEquals(5, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testSourceCacheStatistics() throws Exception {
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        AtomicReference<TruffleInstrument.Env> instrumentEnv = new AtomicReference<>();
+        ProxyInstrument instrument = new ProxyInstrument();
+        instrument.setOnCreate(instrumentEnv::set);
+        ProxyInstrument.setDelegate(instrument);
+        Context c = Context.newBuilder().option("engine.SourceCacheSize", "1").build();
+        c.getEngine().getInstruments().get(ProxyInstrument.ID).lookup(ProxyInstrument.Initialize.class);
+        Source source1 = Source.create(ProxyLanguage.ID, "source1");
+        Source source2 = Source.create(ProxyLanguage.ID, "source2");
+        c.eval(source1);
+        c.eval(source1);
+        c.eval(source2);
+
+        Map<String, Long> statistics = instrumentEnv.get().getSourceCacheStatistics();
+        assertEquals(Long.valueOf(1), statistics.get("hits"));
+        assertEquals(Long.valueOf(2), statistics.get("misses"));
+        assertEquals(Long.valueOf(1), statistics.get("evictions"));
+        c.close();
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
@@ -32,7 +32,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -85,7 +84,11 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
 
     private final Assumption singleThreaded = Truffle.getRuntime().createAssumption("Single threaded");
     private final Assumption singleThreadedConstant = Truffle.getRuntime().createAssumption("Single threaded constant thread");
-    private final Map<Thread, PolyglotThreadInfo> threads = new HashMap<>();
+    /*
+     * Only modified while holding the context lock, but read without it by the lock-free enter and
+     * leave of multi-threaded contexts.
+     */
+    private final Map<Thread, PolyglotThreadInfo> threads = new ConcurrentHashMap<>();
 
     private volatile PolyglotThreadInfo currentThreadInfo = PolyglotThreadInfo.NULL;
     @CompilationFinal private volatile PolyglotThreadInfo constantCurrentThreadInfo = PolyglotThreadInfo.NULL;
@@ -365,6 +368,12 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
     @TruffleBoundary
     PolyglotContextImpl enterThreadChanged() {
         Thread current = Thread.currentThread();
+        if (!singleThreaded.isValid()) {
+            PolyglotThreadInfo threadInfo = threads.get(current);
+            if (threadInfo != null && tryEnterLockFree(threadInfo)) {
+                return (PolyglotContextImpl) singleContextState.contextThreadLocal.setReturnParent(this);
+            }
+        }
         PolyglotContextImpl prev;
         boolean needsInitialization = false;
         synchronized (this) {
@@ -418,6 +427,28 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         return prev;
     }
 
+    /*
+     * Enters a thread that was already initialized for a multi-threaded context without acquiring
+     * the context lock. The enter is published before the context state is checked again, so a
+     * concurrent close either sees the thread as active or the enter backs off to the slow path.
+     */
+    private boolean tryEnterLockFree(PolyglotThreadInfo threadInfo) {
+        if (!isLockFreeAccessAllowed()) {
+            return false;
+        }
+        threadInfo.enterLockFree();
+        if (!isLockFreeAccessAllowed()) {
+            threadInfo.leaveLockFree();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isLockFreeAccessAllowed() {
+        // closeImpl resets the cached thread info before it checks for active threads
+        return currentThreadInfo != PolyglotThreadInfo.NULL && closingThread == null && !cancelling && !closed;
+    }
+
     private void setCachedThreadInfo(PolyglotThreadInfo info) {
         assert Thread.holdsLock(this);
         // persist enteredCount from the current cached thread
@@ -466,7 +497,30 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
     }
 
     @TruffleBoundary
-    synchronized PolyglotThreadInfo leaveThreadChanged() {
+    PolyglotThreadInfo leaveThreadChanged() {
+        if (!singleThreaded.isValid() && !cancelling) {
+            PolyglotThreadInfo threadInfo = threads.get(Thread.currentThread());
+            if (threadInfo != null) {
+                threadInfo.leaveLockFree();
+                /*
+                 * A cancel may have started after cancelling was checked above. Its closing thread
+                 * then either already sees this leave, or it saw this thread as active and waits
+                 * for it, so the leave must notify it like the locked path does. The volatile write
+                 * of the entered count before the volatile read of cancelling, and the reverse
+                 * order in closeImpl, ensure that at least one of the two sides sees the other.
+                 */
+                if (cancelling) {
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+                return threadInfo;
+            }
+        }
+        return leaveThreadChangedLocked();
+    }
+
+    private synchronized PolyglotThreadInfo leaveThreadChangedLocked() {
         Thread current = Thread.currentThread();
         setCachedThreadInfo(PolyglotThreadInfo.NULL);
 
@@ -1013,6 +1067,19 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
     }
 
     static PolyglotContextImpl preInitialize(final PolyglotEngineImpl engine) {
+        return preInitialize(engine, false);
+    }
+
+    /**
+     * Creates a context and initializes the languages given by the
+     * {@link PolyglotEngineOptions#PreinitializeContexts} option in it. The context is later
+     * patched with the configuration of the context it is handed out as.
+     *
+     * @param pooled {@code true} if the context is pre-initialized for the context pool of a
+     *            running engine, in which case the language options of the engine are kept and the
+     *            pre-initializing thread is not remembered by the context
+     */
+    static PolyglotContextImpl preInitialize(final PolyglotEngineImpl engine, boolean pooled) {
         final FileSystems.PreInitializeContextFileSystem fs = new FileSystems.PreInitializeContextFileSystem();
         final PolyglotContextConfig config = new PolyglotContextConfig(engine,
                         engine.out,
@@ -1045,13 +1112,20 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
                                 languageContext.preInitialize();
                             }
                         }
-                        // Reset language options parsed during preinitialization
-                        PolyglotLanguage language = engine.idToLanguage.get(languageId);
-                        language.clearOptionValues();
+                        if (!pooled) {
+                            // Reset language options parsed during preinitialization
+                            PolyglotLanguage language = engine.idToLanguage.get(languageId);
+                            language.clearOptionValues();
+                        }
                     }
                 } finally {
                     context.leave(prev);
                 }
+                if (pooled) {
+                    synchronized (context) {
+                        context.threads.remove(Thread.currentThread());
+                    }
+                }
             } finally {
                 context.inContextPreInitialization = false;
                 fs.patchDelegate(FileSystems.newNoIOFileSystem(null));
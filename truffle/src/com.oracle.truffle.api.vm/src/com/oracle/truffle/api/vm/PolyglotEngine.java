@@ -1152,6 +1152,11 @@ public class PolyglotEngine {
             return vm.instrumentInfos;
         }
 
+        @Override
+        public Map<String, Long> getSourceCacheStatistics(Object vmObject) {
+            return Collections.emptyMap();
+        }
+
         @Override
         public Env getEnvForInstrument(LanguageInfo language) {
             return ((PolyglotRuntime.LanguageShared) VMAccessor.NODES.getEngineObject(language)).currentLanguage().getEnv(true);
@@ -30,10 +30,12 @@ import static com.oracle.truffle.api.vm.VMAccessor.LANGUAGE;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -45,6 +47,9 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.logging.Handler;
@@ -116,12 +121,15 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
 
     final OptionValuesImpl engineOptionValues;
     final OptionValuesImpl compilerOptionValues;
+    final PolyglotSourceCache.Statistics sourceCacheStatistics = new PolyglotSourceCache.Statistics();
     ClassLoader contextClassLoader;     // effectively final
     boolean boundEngine;    // effectively final
     Handler logHandler;     // effectively final
     final Exception createdLocation = DEBUG_MISSING_CLOSE ? new Exception() : null;
     private final Set<PolyglotContextImpl> contexts = new LinkedHashSet<>();
     private PolyglotContextImpl preInitializedContext;
+    private final Deque<PolyglotContextImpl> preInitializedContextPool = new ArrayDeque<>();
+    private ExecutorService preInitializationExecutor;
 
     PolyglotLanguage hostLanguage;
     final Assumption singleContext = Truffle.getRuntime().createAssumption();
@@ -218,6 +226,9 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
         if (!preInitialization) {
             createInstruments(instrumentsOptions);
             registerShutDownHook();
+            if (!boundEngine) {
+                initializePreInitializedContextPool();
+            }
         }
     }
 
@@ -676,6 +687,7 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
         if (sourceEngine != creatorApi) {
             throw new IllegalStateException("Engine instances that were indirectly received using Context.get() cannot be closed.");
         }
+        awaitPreInitializedContexts();
         ensureClosed(cancelIfExecuting, false);
     }
 
@@ -720,6 +732,16 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
             }
 
             contexts.clear();
+            for (PolyglotContextImpl context : preInitializedContextPool) {
+                try {
+                    closePooledContext(context);
+                } catch (Throwable e) {
+                    if (!ignoreCloseFailure) {
+                        throw e;
+                    }
+                }
+            }
+            preInitializedContextPool.clear();
             for (Instrument instrument : idToPublicInstrument.values()) {
                 PolyglotInstrument instrumentImpl = (PolyglotInstrument) getAPIAccess().getImpl(instrument);
                 try {
@@ -741,6 +763,12 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
                 }
             }
 
+            if (engineOptionValues.get(PolyglotEngineOptions.SourceCacheStatistics)) {
+                PrintStream stream = new PrintStream(err);
+                stream.println(sourceCacheStatistics);
+                stream.flush();
+            }
+
             ENGINES.remove(this);
             closed = true;
         }
@@ -1022,7 +1050,7 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
             context = new PolyglotContextImpl(this, config);
             addContext(context);
         } else {
-            // don't add contexts for preinitialized contexts as they have been added already
+            // preinitialized contexts have been added when they were handed out
             assert Thread.holdsLock(this);
             assert contexts.contains(context);
         }
@@ -1033,9 +1061,76 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
         return api;
     }
 
+    /**
+     * Starts to pre-initialize the contexts of the context pool. The pool is filled in the
+     * background after the engine is created, and a replacement is pre-initialized whenever a
+     * pooled context is handed out, so that creating a context only needs to patch an already
+     * initialized one. Contexts are created from scratch while the pool is empty. Pooled contexts
+     * are not added to the contexts of the engine, and are therefore not visible to instruments,
+     * until they are handed out.
+     */
+    private void initializePreInitializedContextPool() {
+        int poolSize = engineOptionValues.get(PolyglotEngineOptions.PreinitializedContextPoolSize);
+        String languages = engineOptionValues.get(PolyglotEngineOptions.PreinitializeContexts);
+        if (poolSize <= 0 || languages == null || languages.isEmpty()) {
+            return;
+        }
+        preInitializationExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Polyglot Context Pre-Initialization");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (int i = 0; i < poolSize; i++) {
+            preInitializationExecutor.execute(this::preInitializePooledContext);
+        }
+    }
+
+    private void preInitializePooledContext() {
+        PolyglotContextImpl context = PolyglotContextImpl.preInitialize(this, true);
+        synchronized (this) {
+            if (!closed) {
+                preInitializedContextPool.add(context);
+                return;
+            }
+        }
+        closePooledContext(context);
+    }
+
+    private static void closePooledContext(PolyglotContextImpl context) {
+        context.closeImpl(false, false);
+        PolyglotContextImpl.disposeStaticContext(context);
+    }
+
+    private void awaitPreInitializedContexts() {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = preInitializationExecutor;
+            preInitializationExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private PolyglotContextImpl loadPreinitializedContext(PolyglotContextConfig config) {
         PolyglotContextImpl context = preInitializedContext;
         preInitializedContext = null;
+        boolean pooled = false;
+        if (context == null && !preInitializedContextPool.isEmpty()) {
+            context = preInitializedContextPool.poll();
+            pooled = true;
+            if (preInitializationExecutor != null) {
+                preInitializationExecutor.execute(this::preInitializePooledContext);
+            }
+        }
         if (context != null) {
             FileSystems.PreInitializeContextFileSystem preInitFs = (FileSystems.PreInitializeContextFileSystem) context.config.fileSystem;
             preInitFs.patchDelegate(config.fileSystem);
@@ -1045,6 +1140,9 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
             boolean patchResult = false;
             try {
                 patchResult = context.patch(config);
+                if (patchResult && pooled) {
+                    addContext(context);
+                }
             } finally {
                 if (!patchResult) {
                     context.closeImpl(false, false);
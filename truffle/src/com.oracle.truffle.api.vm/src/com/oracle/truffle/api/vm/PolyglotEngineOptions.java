@@ -43,4 +43,16 @@ final class PolyglotEngineOptions {
      */
     @Option(name = INSTRUMENT_EXCEPTIONS_ARE_THROWN_NAME, category = OptionCategory.DEBUG, help = "Propagates exceptions thrown by instruments.") static final OptionKey<Boolean> InstrumentExceptionsAreThrown = new OptionKey<>(
                     false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Number of contexts with the languages of PreinitializeContexts that are kept pre-initialized for contexts created with this engine.") static final OptionKey<Integer> PreinitializedContextPoolSize = new OptionKey<>(
+                    0);
+
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of parsed sources cached per language, least recently used sources are evicted first (0 for no limit).") static final OptionKey<Integer> SourceCacheSize = new OptionKey<>(
+                    0);
+
+    @Option(category = OptionCategory.EXPERT, help = "Maximum total number of characters of source text for which parse results are cached per language, not including the size of the parse results (0 for no limit).") static final OptionKey<Long> SourceCacheBudget = new OptionKey<>(
+                    0L);
+
+    @Option(category = OptionCategory.DEBUG, help = "Print the hits, misses and evictions of the source cache when the engine is closed.") static final OptionKey<Boolean> SourceCacheStatistics = new OptionKey<>(
+                    false);
 }
@@ -31,6 +31,7 @@ import static com.oracle.truffle.api.vm.VMAccessor.NODES;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -497,6 +498,11 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
             return getEngine(vmObject).idToInternalInstrumentInfo;
         }
 
+        @Override
+        public Map<String, Long> getSourceCacheStatistics(Object vmObject) {
+            return Collections.unmodifiableMap(getEngine(vmObject).sourceCacheStatistics.toMap());
+        }
+
         private static PolyglotEngineImpl getEngine(Object vmObject) throws AssertionError {
             if (!(vmObject instanceof VMObject)) {
                 throw new AssertionError();
@@ -49,7 +49,7 @@ final class PolyglotLanguageInstance {
         } catch (Exception e) {
             throw new IllegalStateException(String.format("Error initializing language '%s' using class '%s'.", language.cache.getId(), language.cache.getClassName()), e);
         }
-        this.sourceCache = new PolyglotSourceCache();
+        this.sourceCache = new PolyglotSourceCache(language.engine);
     }
 
     boolean areOptionsCompatible(OptionValuesImpl newOptionValues) {
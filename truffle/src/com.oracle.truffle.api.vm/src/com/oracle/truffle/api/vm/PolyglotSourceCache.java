@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -29,18 +29,45 @@ import static com.oracle.truffle.api.vm.VMAccessor.LANGUAGE;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.source.Source;
 
+/**
+ * Caches the call targets parsed for cached sources of one language instance. Language instances
+ * are shared or reused between the contexts of an engine, so a cache outlives the contexts that
+ * filled it. The number of cached sources and the total number of characters of their source text
+ * are bounded by the {@link PolyglotEngineOptions#SourceCacheSize} and
+ * {@link PolyglotEngineOptions#SourceCacheBudget} options of the engine. The budget is a budget of
+ * source text only. The memory taken by the ASTs and call targets of the cached parse results
+ * depends on the language and is not estimated. Lookups do not lock. If a limit is set, each hit stamps its entry with the
+ * access time and inserting a source evicts the entries with the oldest stamps, which approximates
+ * least recently used eviction under concurrent lookups. Hits, misses and evictions of all caches
+ * of an engine are accumulated in its {@link Statistics}.
+ */
 final class PolyglotSourceCache {
 
-    private final ConcurrentHashMap<Object, CallTarget> sourceCache;
+    private final PolyglotEngineImpl engine;
+    private final ConcurrentHashMap<WeakSourceKey, Entry> sourceCache;
     private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
+    private final int maxEntries;
+    private final long maxCharacters;
+    private final AtomicLong cachedCharacters = new AtomicLong();
 
-    PolyglotSourceCache() {
+    PolyglotSourceCache(PolyglotEngineImpl engine) {
+        this.engine = engine;
         this.sourceCache = new ConcurrentHashMap<>();
+        this.maxEntries = engine.engineOptionValues.get(PolyglotEngineOptions.SourceCacheSize);
+        this.maxCharacters = engine.engineOptionValues.get(PolyglotEngineOptions.SourceCacheBudget);
+    }
+
+    private boolean isBounded() {
+        return maxEntries > 0 || maxCharacters > 0;
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -50,16 +77,18 @@ final class PolyglotSourceCache {
         if (source.isCached()) {
             Object sourceId = VMAccessor.SOURCE.getSourceIdentifier(source);
             WeakSourceKey ref = new WeakSourceKey(sourceId, source, argumentNames, deadSources);
-            target = sourceCache.get(ref);
-            if (target == null) {
+            Statistics statistics = engine.sourceCacheStatistics;
+            Entry entry = sourceCache.get(ref);
+            if (entry == null) {
+                statistics.misses.increment();
                 target = parseImpl(context, argumentNames, VMAccessor.SOURCE.copySource(source));
-                CallTarget prev = sourceCache.putIfAbsent(ref, target);
-                if (prev != null) {
-                    /*
-                     * Parsed twice -> discard the one not in the cache.
-                     */
-                    target = prev;
+                target = put(ref, new Entry(target, source.getLength()));
+            } else {
+                statistics.hits.increment();
+                if (isBounded()) {
+                    entry.lastAccess = System.nanoTime();
                 }
+                target = entry.target;
             }
         } else {
             target = parseImpl(context, argumentNames, source);
@@ -67,6 +96,65 @@ final class PolyglotSourceCache {
         return target;
     }
 
+    private CallTarget put(WeakSourceKey ref, Entry entry) {
+        if (!isBounded()) {
+            Entry prev = sourceCache.putIfAbsent(ref, entry);
+            if (prev != null) {
+                /*
+                 * Parsed twice -> discard the one not in the cache.
+                 */
+                return prev.target;
+            }
+            return entry.target;
+        }
+        if (maxCharacters > 0 && entry.characters > maxCharacters) {
+            // would evict everything else and itself
+            return entry.target;
+        }
+        synchronized (this) {
+            Entry prev = sourceCache.putIfAbsent(ref, entry);
+            if (prev != null) {
+                return prev.target;
+            }
+            cachedCharacters.addAndGet(entry.characters);
+            while ((maxEntries > 0 && sourceCache.size() > maxEntries) || (maxCharacters > 0 && cachedCharacters.get() > maxCharacters)) {
+                if (!evictLeastRecentlyUsed()) {
+                    break;
+                }
+            }
+        }
+        return entry.target;
+    }
+
+    /**
+     * Removes the entry with the oldest access stamp. Only inserts of a bounded cache evict, and
+     * inserts are serialized, so this scan is not on the path of a cache hit.
+     */
+    private boolean evictLeastRecentlyUsed() {
+        assert Thread.holdsLock(this);
+        Map.Entry<WeakSourceKey, Entry> eldest = null;
+        for (Map.Entry<WeakSourceKey, Entry> e : sourceCache.entrySet()) {
+            if (eldest == null || e.getValue().lastAccess - eldest.getValue().lastAccess < 0) {
+                eldest = e;
+            }
+        }
+        if (eldest == null) {
+            return false;
+        }
+        if (remove(eldest.getKey(), eldest.getValue())) {
+            engine.sourceCacheStatistics.evictions.increment();
+        }
+        return true;
+    }
+
+    private boolean remove(WeakSourceKey key, Entry entry) {
+        if (sourceCache.remove(key, entry)) {
+            cachedCharacters.addAndGet(-entry.characters);
+            return true;
+        }
+        return false;
+    }
+
     private static CallTarget parseImpl(PolyglotLanguageContext context, String[] argumentNames, Source source) {
         CallTarget parsedTarget = LANGUAGE.parse(context.requireEnv(), source, null, argumentNames);
         if (parsedTarget == null) {
@@ -78,7 +166,53 @@ final class PolyglotSourceCache {
     private void cleanupStaleEntries() {
         WeakSourceKey sourceRef = null;
         while ((sourceRef = (WeakSourceKey) deadSources.poll()) != null) {
-            sourceCache.remove(sourceRef);
+            Entry entry = sourceCache.get(sourceRef);
+            if (entry != null) {
+                remove(sourceRef, entry);
+            }
+        }
+    }
+
+    /**
+     * Source cache counters accumulated over all language instances of an engine.
+     */
+    static final class Statistics {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        /**
+         * Gets a snapshot of the counters keyed by {@code "hits"}, {@code "misses"} and
+         * {@code "evictions"}.
+         */
+        Map<String, Long> toMap() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("hits", hits.sum());
+            result.put("misses", misses.sum());
+            result.put("evictions", evictions.sum());
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Source cache: %d hits, %d misses, %d evictions", hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    private static final class Entry {
+
+        final CallTarget target;
+        final long characters;
+        /**
+         * The {@link System#nanoTime()} of the last hit, only updated for a bounded cache.
+         */
+        volatile long lastAccess;
+
+        Entry(CallTarget target, long characters) {
+            this.target = target;
+            this.characters = characters;
+            this.lastAccess = System.nanoTime();
         }
     }
 
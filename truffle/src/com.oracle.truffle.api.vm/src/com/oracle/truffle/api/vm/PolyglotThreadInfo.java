@@ -33,6 +33,11 @@ final class PolyglotThreadInfo {
     final Thread thread;
 
     private int enteredCount;
+    /*
+     * Enters and leaves of multi-threaded contexts that do not hold the context lock. Only ever
+     * written by the owning thread, the volatile write publishes the enter to closing threads.
+     */
+    private volatile int lockFreeEnteredCount;
     final LinkedList<Object> explicitContextStack = new LinkedList<>();
     volatile boolean cancelled;
 
@@ -49,6 +54,22 @@ final class PolyglotThreadInfo {
         enteredCount++;
     }
 
+    void enterLockFree() {
+        assert Thread.currentThread() == thread;
+        lockFreeEnteredCount++;
+    }
+
+    void leaveLockFree() {
+        assert Thread.currentThread() == thread;
+        lockFreeEnteredCount--;
+    }
+
+    private int getEnteredCount() {
+        // read the volatile count first to see plain enters that happened before it was written
+        int lockFree = lockFreeEnteredCount;
+        return lockFree + enteredCount;
+    }
+
     boolean isPolyglotThread(PolyglotContextImpl c) {
         if (thread instanceof PolyglotThread) {
             return ((PolyglotThread) thread).isOwner(c);
@@ -63,11 +84,11 @@ final class PolyglotThreadInfo {
 
     boolean isLastActive() {
         assert Thread.currentThread() == thread;
-        return thread != null && enteredCount == 1 && !cancelled;
+        return thread != null && getEnteredCount() == 1 && !cancelled;
     }
 
     boolean isActive() {
-        return thread != null && enteredCount > 0 && !cancelled;
+        return thread != null && getEnteredCount() > 0 && !cancelled;
     }
 
     Thread getThread() {
@@ -76,7 +97,7 @@ final class PolyglotThreadInfo {
 
     @Override
     public String toString() {
-        return super.toString() + "[thread=" + thread + ", enteredCount=" + enteredCount + ", cancelled=" + cancelled + "]";
+        return super.toString() + "[thread=" + thread + ", enteredCount=" + getEnteredCount() + ", cancelled=" + cancelled + "]";
     }
 
 }
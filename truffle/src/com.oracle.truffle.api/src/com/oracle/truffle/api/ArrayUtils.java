@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api;
+
+/**
+ * This class provides additional operations for {@link String} as well as character and byte
+ * arrays, which may be intrinsified by a compiler.
+ *
+ * @since 1.0
+ */
+public final class ArrayUtils {
+
+    private ArrayUtils() {
+    }
+
+    /**
+     * Returns the index of the first occurrence of any character contained in {@code values} in
+     * {@code string}, bounded by {@code fromIndex} (inclusive) and {@code maxIndex} (exclusive).
+     * The compiler may replace this method with a vectorized implementation if {@code values} is a
+     * partial evaluation constant containing no more than four elements.
+     *
+     * @param string the {@link String} to search in.
+     * @param fromIndex the index to start searching from.
+     * @param maxIndex the maximum index to search.
+     * @param values the characters to search for.
+     * @return the index of the first occurrence of any character contained in {@code values}, or
+     *         {@code -1} if none of the characters occur.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative or {@code maxIndex} is
+     *             greater than the length of {@code string}.
+     * @since 1.0
+     */
+    public static int indexOf(String string, int fromIndex, int maxIndex, char... values) {
+        checkArgs(string.length(), fromIndex, maxIndex);
+        for (int i = fromIndex; i < maxIndex; i++) {
+            if (contains(values, string.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of any character contained in {@code values} in
+     * {@code array}, bounded by {@code fromIndex} (inclusive) and {@code maxIndex} (exclusive).
+     * The compiler may replace this method with a vectorized implementation if {@code values} is a
+     * partial evaluation constant containing no more than four elements.
+     *
+     * @param array the array to search in.
+     * @param fromIndex the index to start searching from.
+     * @param maxIndex the maximum index to search.
+     * @param values the characters to search for.
+     * @return the index of the first occurrence of any character contained in {@code values}, or
+     *         {@code -1} if none of the characters occur.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative or {@code maxIndex} is
+     *             greater than the length of {@code array}.
+     * @since 1.0
+     */
+    public static int indexOf(char[] array, int fromIndex, int maxIndex, char... values) {
+        checkArgs(array.length, fromIndex, maxIndex);
+        for (int i = fromIndex; i < maxIndex; i++) {
+            if (contains(values, array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of any byte contained in {@code values} in
+     * {@code array}, bounded by {@code fromIndex} (inclusive) and {@code maxIndex} (exclusive).
+     * The compiler may replace this method with a vectorized implementation if {@code values} is a
+     * partial evaluation constant containing no more than four elements.
+     *
+     * @param array the array to search in.
+     * @param fromIndex the index to start searching from.
+     * @param maxIndex the maximum index to search.
+     * @param values the bytes to search for.
+     * @return the index of the first occurrence of any byte contained in {@code values}, or
+     *         {@code -1} if none of the bytes occur.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative or {@code maxIndex} is
+     *             greater than the length of {@code array}.
+     * @since 1.0
+     */
+    public static int indexOf(byte[] array, int fromIndex, int maxIndex, byte... values) {
+        checkArgs(array.length, fromIndex, maxIndex);
+        for (int i = fromIndex; i < maxIndex; i++) {
+            for (byte v : values) {
+                if (array[i] == v) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static void checkArgs(int length, int fromIndex, int maxIndex) {
+        if (fromIndex < 0 || maxIndex > length) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static boolean contains(char[] values, char c) {
+        for (char v : values) {
+            if (c == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
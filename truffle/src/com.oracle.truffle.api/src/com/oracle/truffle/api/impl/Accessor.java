@@ -222,6 +222,8 @@ public abstract class Accessor {
 
         public abstract Map<String, InstrumentInfo> getInstruments(Object vmInstance);
 
+        public abstract Map<String, Long> getSourceCacheStatistics(Object vmInstance);
+
         public abstract org.graalvm.polyglot.SourceSection createSourceSection(Object vmObject, org.graalvm.polyglot.Source source, SourceSection sectionImpl);
 
         public abstract <T> T lookup(InstrumentInfo info, Class<T> serviceClass);
@@ -24,6 +24,10 @@
  */
 package com.oracle.truffle.object.basic.test;
 
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Assert;
 
 import com.oracle.truffle.api.object.DynamicObject;
@@ -79,4 +83,36 @@ public abstract class DOTestAsserts {
     private static String shapeId(Shape shape) {
         return "@" + Integer.toHexString(shape.hashCode());
     }
+
+    public static void assertGc(String message, Reference<?> ref) {
+        int blockSize = 100_000;
+        final List<byte[]> blocks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            if (ref.get() == null) {
+                return;
+            }
+            try {
+                System.gc();
+            } catch (OutOfMemoryError oom) {
+            }
+            try {
+                System.runFinalization();
+            } catch (OutOfMemoryError oom) {
+            }
+            try {
+                blocks.add(new byte[blockSize]);
+                blockSize = (int) (blockSize * 1.3);
+            } catch (OutOfMemoryError oom) {
+                blockSize >>>= 1;
+            }
+            if (i % 10 == 0) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+        Assert.fail(message);
+    }
 }
@@ -24,6 +24,9 @@
  */
 package com.oracle.truffle.object.basic.test;
 
+import java.lang.ref.WeakReference;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.oracle.truffle.api.object.Layout;
@@ -75,4 +78,19 @@ public class ShapeTest {
                         "\"a\":int@0" +
                         "\n}", shapeWithExtArray);
     }
+
+    @Test
+    public void testUnusedBranchCollectible() {
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+        Shape aInt = rootShape.defineProperty("a", 1, 0);
+
+        WeakReference<Shape> branch = new WeakReference<>(aInt.defineProperty("b", 2, 0).defineProperty("c", 3, 0));
+        DOTestAsserts.assertGc("Unused shape tree branch not collected.", branch);
+
+        // the used part of the tree is still shared
+        Assert.assertSame(aInt, rootShape.defineProperty("a", 1, 0));
+        Shape aIntBInt = aInt.defineProperty("b", 2, 0);
+        Assert.assertSame(aIntBInt, aInt.defineProperty("b", 2, 0));
+    }
 }
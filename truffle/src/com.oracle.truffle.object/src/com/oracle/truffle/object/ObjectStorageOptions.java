@@ -52,6 +52,8 @@ public final class ObjectStorageOptions {
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
+    /** Reference successor shapes weakly so that unused branches of the shape tree are collected. */
+    static final boolean WeakTransitions = booleanOption(OPTION_PREFIX + "WeakTransitions", true);
 
     // Debug options (should be final)
     /** @since 0.17 or earlier */
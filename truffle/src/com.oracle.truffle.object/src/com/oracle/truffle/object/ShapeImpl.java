@@ -24,11 +24,13 @@
  */
 package com.oracle.truffle.object;
 
+import java.lang.ref.WeakReference;
 import java.util.AbstractMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -128,6 +130,10 @@ public abstract class ShapeImpl extends Shape {
      * <li>{@link Map}: mutable multiple entry map
      * </ol>
      *
+     * With {@link ObjectStorageOptions#WeakTransitions} the successor shapes are only weakly
+     * referenced, so branches of the shape tree that are no longer used by any object can be
+     * collected. Cleared transitions are pruned when new transitions are added.
+     *
      * @see #getTransitionMapForRead()
      * @see #addTransitionInternal(Transition, ShapeImpl)
      */
@@ -304,41 +310,120 @@ public abstract class ShapeImpl extends Shape {
 
     @SuppressWarnings("unchecked")
     private void addTransitionInternal(Transition transition, ShapeImpl successor) {
+        Object successorRef = createSuccessorReference(successor);
         Object prev;
         Object next;
         do {
             prev = TRANSITION_MAP_UPDATER.get(this);
             if (prev == null) {
                 invalidateLeafAssumption();
-                next = new AbstractMap.SimpleImmutableEntry<>(transition, successor);
+                next = new AbstractMap.SimpleImmutableEntry<>(transition, successorRef);
             } else if (prev instanceof Map.Entry<?, ?>) {
-                Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) prev;
-                ConcurrentHashMap<Transition, ShapeImpl> map = new ConcurrentHashMap<>();
-                map.put(entry.getKey(), entry.getValue());
-                map.put(transition, successor);
-                next = map;
+                Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) prev;
+                if (getSuccessor(entry.getValue()) == null || entry.getKey().equals(transition)) {
+                    // the only successor has been collected or is replaced
+                    next = new AbstractMap.SimpleImmutableEntry<>(transition, successorRef);
+                } else {
+                    ConcurrentHashMap<Transition, Object> map = new ConcurrentHashMap<>();
+                    map.put(entry.getKey(), entry.getValue());
+                    map.put(transition, successorRef);
+                    next = map;
+                }
             } else {
                 assert prev instanceof Map<?, ?>;
-                Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) prev;
-                map.put(transition, successor);
+                Map<Transition, Object> map = (Map<Transition, Object>) prev;
+                if (Integer.bitCount(map.size()) == 1) {
+                    // prune only when the map doubled in size to keep additions amortized constant
+                    pruneClearedTransitions(map);
+                }
+                map.put(transition, successorRef);
                 break;
             }
         } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
     }
 
-    /** @since 0.17 or earlier */
+    private static Object createSuccessorReference(ShapeImpl successor) {
+        if (ObjectStorageOptions.WeakTransitions) {
+            return new WeakReference<>(successor);
+        } else {
+            return successor;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ShapeImpl getSuccessor(Object successorRef) {
+        if (successorRef instanceof WeakReference<?>) {
+            return ((WeakReference<ShapeImpl>) successorRef).get();
+        } else {
+            return (ShapeImpl) successorRef;
+        }
+    }
+
+    private static void pruneClearedTransitions(Map<Transition, Object> map) {
+        for (Map.Entry<Transition, Object> entry : map.entrySet()) {
+            if (getSuccessor(entry.getValue()) == null) {
+                map.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the transitions of this shape whose successor shapes are still alive.
+     *
+     * With {@link ObjectStorageOptions#WeakTransitions} (the default) this is a newly allocated
+     * snapshot that does not reflect transitions added later; otherwise it is the transition map
+     * itself.
+     *
+     * @since 0.17 or earlier
+     */
     @SuppressWarnings("unchecked")
     public final Map<Transition, ShapeImpl> getTransitionMapForRead() {
         Object trans = transitionMap;
         if (trans == null) {
             return Collections.<Transition, ShapeImpl> emptyMap();
         } else if (trans instanceof Map.Entry<?, ?>) {
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
-            return Collections.singletonMap(entry.getKey(), entry.getValue());
+            Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) trans;
+            ShapeImpl successor = getSuccessor(entry.getValue());
+            if (successor == null) {
+                return Collections.<Transition, ShapeImpl> emptyMap();
+            }
+            return Collections.singletonMap(entry.getKey(), successor);
         } else {
             assert trans instanceof Map<?, ?>;
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map;
+            if (!ObjectStorageOptions.WeakTransitions) {
+                return (Map<Transition, ShapeImpl>) trans;
+            }
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            Map<Transition, ShapeImpl> result = new HashMap<>(map.size());
+            for (Map.Entry<Transition, Object> entry : map.entrySet()) {
+                ShapeImpl successor = getSuccessor(entry.getValue());
+                if (successor != null) {
+                    result.put(entry.getKey(), successor);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the number of transitions of this shape whose successor shape has been collected but
+     * that have not been pruned yet.
+     */
+    @SuppressWarnings("unchecked")
+    final int getClearedTransitionCount() {
+        Object trans = transitionMap;
+        if (trans == null) {
+            return 0;
+        } else if (trans instanceof Map.Entry<?, ?>) {
+            return getSuccessor(((Map.Entry<Transition, Object>) trans).getValue()) == null ? 1 : 0;
+        } else {
+            int cleared = 0;
+            for (Object successorRef : ((Map<Transition, Object>) trans).values()) {
+                if (getSuccessor(successorRef) == null) {
+                    cleared++;
+                }
+            }
+            return cleared;
         }
     }
 
@@ -348,16 +433,16 @@ public abstract class ShapeImpl extends Shape {
         if (trans == null) {
             return null;
         } else if (trans instanceof Map.Entry<?, ?>) {
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
+            Map.Entry<Transition, Object> entry = (Map.Entry<Transition, Object>) trans;
             if (entry.getKey().equals(transition)) {
-                return entry.getValue();
+                return getSuccessor(entry.getValue());
             } else {
                 return null;
             }
         } else {
             assert trans instanceof Map<?, ?>;
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map.get(transition);
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            return getSuccessor(map.get(transition));
         }
     }
 
@@ -826,17 +911,29 @@ public abstract class ShapeImpl extends Shape {
     }
 
     /** @since 0.17 or earlier */
+    @SuppressWarnings("unchecked")
     @TruffleBoundary
     @Override
     public final boolean hasTransitionWithKey(Object key) {
-        for (Transition transition : getTransitionMapForRead().keySet()) {
-            if (transition instanceof PropertyTransition) {
-                if (((PropertyTransition) transition).getProperty().getKey().equals(key)) {
+        Object trans = transitionMap;
+        if (trans == null) {
+            return false;
+        } else if (trans instanceof Map.Entry<?, ?>) {
+            return isLiveTransitionWithKey((Map.Entry<Transition, Object>) trans, key);
+        } else {
+            assert trans instanceof Map<?, ?>;
+            for (Map.Entry<Transition, Object> entry : ((Map<Transition, Object>) trans).entrySet()) {
+                if (isLiveTransitionWithKey(entry, key)) {
                     return true;
                 }
             }
+            return false;
         }
-        return false;
+    }
+
+    private static boolean isLiveTransitionWithKey(Map.Entry<Transition, Object> entry, Object key) {
+        Transition transition = entry.getKey();
+        return transition instanceof PropertyTransition && ((PropertyTransition) transition).getProperty().getKey().equals(key) && getSuccessor(entry.getValue()) != null;
     }
 
     /**
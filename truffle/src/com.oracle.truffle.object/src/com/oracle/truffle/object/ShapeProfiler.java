@@ -26,11 +26,14 @@ package com.oracle.truffle.object;
 
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.oracle.truffle.api.object.DynamicObject;
@@ -58,6 +61,15 @@ class ShapeProfiler {
         }
 
         globalStats.dump(out);
+        dumpShapeTrees(out);
+    }
+
+    private void dumpShapeTrees(PrintWriter out) {
+        ShapeTreeStats treeStats = new ShapeTreeStats();
+        for (DynamicObject obj : queue) {
+            treeStats.profile(((ShapeImpl) obj.getShape()).getRoot());
+        }
+        treeStats.dump(out);
     }
 
     public void dump(PrintWriter out, int topResults) {
@@ -206,6 +218,57 @@ class ShapeProfiler {
         }
     }
 
+    /**
+     * Memory retained by the shape trees of the tracked objects, i.e. all shapes reachable from
+     * their root shapes over transitions.
+     */
+    private static class ShapeTreeStats {
+        private final IdentityHashMap<ShapeImpl, Boolean> visited = new IdentityHashMap<>();
+        private long trees;
+        private long transitions;
+        private long clearedTransitions;
+        private long propertyMapEntries;
+        private int maxDepth;
+
+        public void profile(ShapeImpl root) {
+            if (visited.containsKey(root)) {
+                return;
+            }
+            trees++;
+            Deque<ShapeImpl> worklist = new ArrayDeque<>();
+            visited.put(root, Boolean.TRUE);
+            worklist.push(root);
+            while (!worklist.isEmpty()) {
+                ShapeImpl shape = worklist.pop();
+                propertyMapEntries += shape.getPropertyCount();
+                maxDepth = Math.max(maxDepth, shape.getDepth());
+                clearedTransitions += shape.getClearedTransitionCount();
+                for (Map.Entry<Transition, ShapeImpl> entry : shape.getTransitionMapForRead().entrySet()) {
+                    transitions++;
+                    ShapeImpl successor = entry.getValue();
+                    if (!visited.containsKey(successor)) {
+                        visited.put(successor, Boolean.TRUE);
+                        worklist.push(successor);
+                    }
+                }
+            }
+        }
+
+        public void dump(PrintWriter out) {
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shape trees");
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shape trees:\t" + trees);
+            out.println(BULLET + "Shapes in trees:\t" + visited.size());
+            out.println(BULLET + "Live transitions:\t" + transitions);
+            out.println(BULLET + "Cleared transitions:\t" + clearedTransitions);
+            out.println(BULLET + "Total property map entries:\t" + propertyMapEntries);
+            out.println(BULLET + "Maximum shape depth:\t" + maxDepth);
+            out.println(LINE_SEPARATOR + "\n");
+            out.flush();
+        }
+    }
+
     public static ShapeProfiler getInstance() {
         return shapeProf;
     }